@@ -0,0 +1,78 @@
+#!/bin/bash
+
+# 无界面运行压测场景，报告写为JSON，退出码：0 通过，1 未满足阈值或回归，2 场景无法运行
+# 使用 --cds 时借助 AppCDS 缩短启动时间：首次运行在退出时生成类数据共享归档，之后的运行直接加载
+
+# 参数检查
+if [ $# -lt 1 ]; then
+    echo "用法: $0 <场景文件(.yml/.yaml/.json)> [--cds] [其他应用参数]"
+    exit 2
+fi
+
+SCENARIO=$1
+shift
+
+USE_CDS=false
+APP_ARGS=()
+for arg in "$@"; do
+    if [ "$arg" == "--cds" ]; then
+        USE_CDS=true
+    else
+        APP_ARGS+=("$arg")
+    fi
+done
+
+if [ ! -f "$SCENARIO" ]; then
+    echo "错误: 场景文件不存在: $SCENARIO"
+    exit 2
+fi
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd)
+JAR="${SCRIPT_DIR}/target/vic-metr-benchmark-0.0.1-SNAPSHOT.jar"
+CLI_DIR="${SCRIPT_DIR}/target/cli"
+ARCHIVE="${CLI_DIR}/app.jsa"
+MAIN_CLASS="com.brianxiadong.vicmetrbenchmark.VicMetrBenchmarkApplication"
+
+# 构建可执行包
+if [ ! -f "$JAR" ]; then
+    echo "未找到 ${JAR}，开始构建..."
+    (cd "$SCRIPT_DIR" && mvn -B -q package -DskipTests) || exit 2
+fi
+
+# 解压可执行包：AppCDS 不支持嵌套jar，需要以普通类路径启动；包更新后重新解压并作废旧归档
+# unzip 会还原包内条目的时间戳，用单独的标记文件记录解压时间
+if [ ! -f "${CLI_DIR}/.extracted" ] || [ "$JAR" -nt "${CLI_DIR}/.extracted" ]; then
+    rm -rf "$CLI_DIR"
+    mkdir -p "$CLI_DIR"
+    (cd "$CLI_DIR" && unzip -q "$JAR") || exit 2
+    touch "${CLI_DIR}/.extracted"
+fi
+
+# 应用类目录打成jar：AppCDS 不接受类路径中的非空目录
+if [ ! -f "${CLI_DIR}/app.jar" ]; then
+    (cd "${CLI_DIR}/BOOT-INF/classes" && jar cf "${CLI_DIR}/app.jar" .) || exit 2
+fi
+
+# 类路径顺序固定，归档只在类路径完全一致时可用
+CLASSPATH="${CLI_DIR}/app.jar"
+for lib in $(ls "${CLI_DIR}"/BOOT-INF/lib/*.jar | sort); do
+    CLASSPATH="${CLASSPATH}:${lib}"
+done
+
+JAVA_OPTS=${JAVA_OPTS:-}
+if [ "$USE_CDS" == "true" ]; then
+    # 动态归档（-XX:ArchiveClassesAtExit）需要 JDK 13 及以上
+    JAVA_VERSION=$(java -version 2>&1 | awk -F'"' '/version/ {print $2}')
+    JAVA_MAJOR=$(echo "$JAVA_VERSION" | awk -F. '{ if ($1 == "1") print $2; else print $1 }')
+    if [ "$JAVA_MAJOR" -lt 13 ]; then
+        echo "当前 Java 版本 ${JAVA_VERSION} 不支持动态 AppCDS 归档，按普通方式启动"
+    elif [ -f "$ARCHIVE" ]; then
+        JAVA_OPTS="${JAVA_OPTS} -XX:SharedArchiveFile=${ARCHIVE} -Xshare:auto"
+    else
+        echo "首次运行，将在退出时生成 AppCDS 归档: ${ARCHIVE}"
+        JAVA_OPTS="${JAVA_OPTS} -XX:ArchiveClassesAtExit=${ARCHIVE}"
+    fi
+fi
+
+java ${JAVA_OPTS} -cp "$CLASSPATH" "$MAIN_CLASS" --scenario="$SCENARIO" "${APP_ARGS[@]}"
+exit $?
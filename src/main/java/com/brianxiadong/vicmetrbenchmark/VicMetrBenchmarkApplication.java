@@ -1,18 +1,107 @@
 package com.brianxiadong.vicmetrbenchmark;
 
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkScenario;
+import com.brianxiadong.vicmetrbenchmark.model.ScenarioReport;
+import com.brianxiadong.vicmetrbenchmark.service.ScenarioService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * VicMetrBenchmark 应用程序的主入口类
- * 
+ * 带 --scenario=<文件> 参数时以无界面方式运行压测场景，结果写为JSON，退出码反映是否满足阈值
+ *
  * @author Brian Xia
  */
+@Slf4j
 @SpringBootApplication
 public class VicMetrBenchmarkApplication {
 
+    private static final String SCENARIO_ARG = "--scenario=";
+
     public static void main(String[] args) {
+        String scenarioFile = scenarioArgument(args);
+        if (scenarioFile != null) {
+            System.exit(runScenario(Paths.get(scenarioFile), args));
+        }
         SpringApplication.run(VicMetrBenchmarkApplication.class, args);
     }
 
+    /**
+     * 无界面运行压测场景：不启动Web层，Bean 按需延迟初始化，只创建压测实际用到的组件
+     *
+     * @return 进程退出码
+     */
+    static int runScenario(Path file, String[] args) {
+        BenchmarkScenario scenario;
+        try {
+            scenario = ScenarioService.load(file);
+        } catch (Exception e) {
+            log.error("读取压测场景失败: {}", file, e);
+            return ScenarioService.EXIT_FAILED;
+        }
+
+        // 场景中的配置优先于 application.properties，仅低于命令行参数
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.jmx.enabled", "false");
+        if (scenario.getHost() != null) {
+            properties.put("victoriametrics.host", scenario.getHost());
+        }
+        if (scenario.getPort() != null) {
+            properties.put("victoriametrics.port", String.valueOf(scenario.getPort()));
+        }
+        if (scenario.getProperties() != null) {
+            properties.putAll(scenario.getProperties());
+        }
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplication application = new SpringApplication(VicMetrBenchmarkApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setLazyInitialization(true);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.addInitializers(context -> {
+            MutablePropertySources sources = context.getEnvironment().getPropertySources();
+            MapPropertySource scenarioSource = new MapPropertySource("scenario", properties);
+            if (sources.contains(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME)) {
+                sources.addAfter(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME, scenarioSource);
+            } else {
+                sources.addFirst(scenarioSource);
+            }
+        });
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            ScenarioService scenarioService = context.getBean(ScenarioService.class);
+            ScenarioReport report = scenarioService.run(scenario);
+            Path output = scenarioService.writeReport(scenario, report);
+            log.info("压测场景 {} 结束，报告: {}，退出码: {}", scenario.getName(), output.toAbsolutePath(),
+                    report.getExitCode());
+            for (String violation : report.getViolations()) {
+                log.warn("未满足的阈值: {}", violation);
+            }
+            return report.getExitCode();
+        } catch (Exception e) {
+            log.error("运行压测场景失败: {}", file, e);
+            return ScenarioService.EXIT_FAILED;
+        }
+    }
+
+    private static String scenarioArgument(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(SCENARIO_ARG)) {
+                return arg.substring(SCENARIO_ARG.length());
+            }
+        }
+        return null;
+    }
+
 }
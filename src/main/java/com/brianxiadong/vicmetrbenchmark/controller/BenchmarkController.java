@@ -1,17 +1,47 @@
 package com.brianxiadong.vicmetrbenchmark.controller;
 
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkCheckpoint;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityRequest;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityStats;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadResult;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantResult;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayRequest;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayResult;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonRequest;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonResult;
 import com.brianxiadong.vicmetrbenchmark.model.ServerMetrics;
+import com.brianxiadong.vicmetrbenchmark.service.BenchmarkResultStore;
+import com.brianxiadong.vicmetrbenchmark.service.CardinalityService;
+import com.brianxiadong.vicmetrbenchmark.service.DeleteBenchmarkService;
+import com.brianxiadong.vicmetrbenchmark.service.ExportBenchmarkService;
+import com.brianxiadong.vicmetrbenchmark.service.MixedWorkloadService;
+import com.brianxiadong.vicmetrbenchmark.service.MultiTenantService;
+import com.brianxiadong.vicmetrbenchmark.service.QueryReplayService;
+import com.brianxiadong.vicmetrbenchmark.service.RunComparisonService;
 import com.brianxiadong.vicmetrbenchmark.service.VictoriaMetricsService;
+import com.brianxiadong.vicmetrbenchmark.utils.TimelineDownsampler;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -37,6 +67,30 @@ public class BenchmarkController {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BenchmarkResultStore resultStore;
+
+    @Autowired
+    private RunComparisonService runComparisonService;
+
+    @Autowired
+    private DeleteBenchmarkService deleteBenchmarkService;
+
+    @Autowired
+    private CardinalityService cardinalityService;
+
+    @Autowired
+    private ExportBenchmarkService exportBenchmarkService;
+
+    @Autowired
+    private QueryReplayService queryReplayService;
+
+    @Autowired
+    private MixedWorkloadService mixedWorkloadService;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
     /**
      * 运行压测
      * 
@@ -47,6 +101,162 @@ public class BenchmarkController {
     public BenchmarkResult runBenchmark(@RequestBody BenchmarkRequest request) {
         log.info("收到压测请求: {}", request);
 
+        BenchmarkResult errorResult = validateRunRequest(request);
+        if (errorResult != null) {
+            return errorResult;
+        }
+
+        return victoriaMetricsService.runBenchmark(request);
+    }
+
+    /**
+     * 异步启动压测（浸泡测试等长时间运行）
+     * 
+     * @param request 压测请求参数
+     * @return 运行ID
+     */
+    @PostMapping("/start")
+    public Map<String, Object> startBenchmark(@RequestBody BenchmarkRequest request) {
+        log.info("收到异步压测请求: {}", request);
+        Map<String, Object> response = new HashMap<>();
+
+        BenchmarkResult validation = validateRunRequest(request);
+        if (validation != null) {
+            response.put("success", false);
+            response.put("error", validation.getErrorMessage());
+            return response;
+        }
+
+        response.put("success", true);
+        response.put("runId", victoriaMetricsService.startBenchmark(request));
+        return response;
+    }
+
+    /**
+     * 从最近的检查点恢复压测
+     * 
+     * @param runId 运行ID
+     * @return 是否已提交恢复
+     */
+    @PostMapping("/resume/{runId}")
+    public Map<String, Object> resumeBenchmark(@PathVariable String runId) {
+        log.info("收到恢复压测请求: runId={}", runId);
+        Map<String, Object> response = new HashMap<>();
+
+        if (resultStore.loadCheckpoint(runId) == null) {
+            response.put("success", false);
+            response.put("error", "未找到可恢复的检查点: " + runId);
+            return response;
+        }
+
+        victoriaMetricsService.startResume(runId);
+        response.put("success", true);
+        response.put("runId", runId);
+        return response;
+    }
+
+    /**
+     * 列出已完成与可恢复的压测运行
+     * 
+     * @return 运行ID列表
+     */
+    @GetMapping("/runs")
+    public Map<String, Object> listRuns() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("completed", resultStore.listRuns());
+        response.put("resumable", resultStore.listCheckpoints());
+        return response;
+    }
+
+    /**
+     * 查询压测运行状态，已完成返回最终结果，运行中返回最近的检查点
+     * 
+     * @param runId 运行ID
+     * @return 运行状态
+     */
+    @GetMapping("/runs/{runId}")
+    public Map<String, Object> getRun(@PathVariable String runId) {
+        Map<String, Object> response = new HashMap<>();
+        BenchmarkResult result = resultStore.load(runId);
+        if (result != null) {
+            response.put("success", true);
+            response.put("status", result.getStatus());
+            response.put("result", result);
+            return response;
+        }
+
+        BenchmarkCheckpoint checkpoint = resultStore.loadCheckpoint(runId);
+        if (checkpoint != null) {
+            response.put("success", true);
+            response.put("status", "running");
+            response.put("checkpoint", checkpoint);
+            return response;
+        }
+
+        response.put("success", false);
+        response.put("error", "未找到压测运行: " + runId);
+        return response;
+    }
+
+    /**
+     * 对比两组已保存的压测运行，给出置信区间与显著性检验，标记统计显著的回归
+     *
+     * @param request 对比请求
+     * @return 对比结果
+     */
+    @PostMapping("/compare")
+    public RunComparisonResult compareRuns(@RequestBody RunComparisonRequest request) {
+        log.info("收到压测对比请求: {}", request);
+        return runComparisonService.compare(request);
+    }
+
+    /**
+     * 查询已完成运行的每秒时间线，按图表宽度做 LTTB 降采样，长时间运行也只返回约 width 个点
+     *
+     * @param runId 运行ID
+     * @param width 图表宽度（像素）
+     * @return 降采样后的时间线
+     */
+    @GetMapping("/runs/{runId}/timeline")
+    public Map<String, Object> getTimeline(@PathVariable String runId,
+            @RequestParam(defaultValue = "800") int width) {
+        Map<String, Object> response = new HashMap<>();
+        BenchmarkResult result = resultStore.load(runId);
+        if (result == null || result.getTimeline() == null) {
+            response.put("success", false);
+            response.put("error", "未找到压测运行的时间线: " + runId);
+            return response;
+        }
+        response.put("success", true);
+        response.put("chart", TimelineDownsampler.chart(runId, result.getTimeline(), width));
+        return response;
+    }
+
+    /**
+     * 下载压测期间录制的JFR文件，可用 JDK Mission Control 打开
+     *
+     * @param runId 运行ID
+     * @return JFR文件
+     */
+    @GetMapping("/runs/{runId}/recording")
+    public ResponseEntity<Resource> getRecording(@PathVariable String runId) {
+        File file = resultStore.recordingPath(runId).toFile();
+        if (!file.isFile()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * 校验压测请求并补充默认值
+     * 
+     * @param request 压测请求参数
+     * @return 校验失败时返回带错误信息的结果，通过返回null
+     */
+    private BenchmarkResult validateRunRequest(BenchmarkRequest request) {
         // 参数验证
         if (request.getHost() == null || request.getHost().trim().isEmpty()) {
             BenchmarkResult errorResult = new BenchmarkResult();
@@ -60,9 +270,10 @@ public class BenchmarkController {
             return errorResult;
         }
 
-        if (request.getDataCount() == null || request.getDataCount() <= 0) {
+        boolean durationMode = request.getDurationSeconds() != null && request.getDurationSeconds() > 0;
+        if (!durationMode && (request.getDataCount() == null || request.getDataCount() <= 0)) {
             BenchmarkResult errorResult = new BenchmarkResult();
-            errorResult.setErrorMessage("数据量必须大于0");
+            errorResult.setErrorMessage("数据量或运行时长必须大于0");
             return errorResult;
         }
 
@@ -83,7 +294,7 @@ public class BenchmarkController {
             request.setApiType("prometheus");
         }
 
-        return victoriaMetricsService.runBenchmark(request);
+        return null;
     }
 
     /**
@@ -152,6 +363,18 @@ public class BenchmarkController {
         return response;
     }
 
+    /**
+     * 基数统计：指标名、标签对的序列数排行与各前缀的序列数，基于 /api/v1/status/tsdb
+     *
+     * @param request 基数统计请求
+     * @return 基数统计结果
+     */
+    @PostMapping("/cardinality")
+    public CardinalityStats getCardinality(@RequestBody CardinalityRequest request) {
+        log.info("收到基数统计请求: {}", request);
+        return cardinalityService.inspect(request);
+    }
+
     /**
      * 删除测试数据
      * 
@@ -198,6 +421,69 @@ public class BenchmarkController {
         return response;
     }
 
+    /**
+     * 删除序列压测：按分片并行删除并轮询到序列不可见，可选并行写入观察删除对写入延迟的影响
+     *
+     * @param request 删除压测请求
+     * @return 删除压测结果
+     */
+    @PostMapping("/delete-benchmark")
+    public DeleteBenchmarkResult runDeleteBenchmark(@RequestBody DeleteBenchmarkRequest request) {
+        log.info("收到删除压测请求: {}", request);
+        return deleteBenchmarkService.run(request);
+    }
+
+    /**
+     * 导出压测：按序列与时间分片并行导出，流式统计字节与数据点，可保存导出数据并重新导入
+     *
+     * @param request 导出压测请求
+     * @return 导出压测结果
+     */
+    @PostMapping("/export-benchmark")
+    public ExportBenchmarkResult runExportBenchmark(@RequestBody ExportBenchmarkRequest request) {
+        log.info("收到导出压测请求: {}", request);
+        return exportBenchmarkService.run(request);
+    }
+
+    /**
+     * 查询日志回放：解析慢查询日志或JSONL访问日志，重定位时间范围后按原始节奏回放，按查询指纹统计延迟
+     *
+     * @param request 回放请求
+     * @return 回放结果
+     */
+    @PostMapping("/query-replay")
+    public QueryReplayResult replayQueries(@RequestBody QueryReplayRequest request) {
+        log.info("收到查询回放请求: path={}, format={}, speedUp={}", request.getLogPath(), request.getFormat(),
+                request.getSpeedUp());
+        return queryReplayService.replay(request);
+    }
+
+    /**
+     * 混合负载压测：写入、查询、删除、导出并行运行，并计算负载之间的互相关
+     *
+     * @param request 混合负载请求
+     * @return 混合负载结果
+     */
+    @PostMapping("/mixed-workload")
+    public MixedWorkloadResult runMixedWorkload(@RequestBody MixedWorkloadRequest request) {
+        log.info("收到混合负载压测请求: duration={}s, write={}, actors={}", request.getDurationSeconds(),
+                request.getWrite() != null, request.getActors() != null ? request.getActors().size() : 0);
+        return mixedWorkloadService.run(request);
+    }
+
+    /**
+     * 多租户写入压测：各租户按各自的序列模型与速率上限写入 /insert/{accountID}/
+     *
+     * @param request 多租户请求
+     * @return 各租户的吞吐与延迟
+     */
+    @PostMapping("/multi-tenant")
+    public MultiTenantResult runMultiTenant(@RequestBody MultiTenantRequest request) {
+        log.info("收到多租户写入压测请求: duration={}s, tenants={}", request.getDurationSeconds(),
+                request.getTenants() != null ? request.getTenants().size() : 0);
+        return multiTenantService.run(request);
+    }
+
     /**
      * 测试连接
      * 提供轻量级的连接测试，不获取复杂指标
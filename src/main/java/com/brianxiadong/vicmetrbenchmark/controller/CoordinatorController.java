@@ -0,0 +1,47 @@
+package com.brianxiadong.vicmetrbenchmark.controller;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.DistributedBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.service.CoordinatorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分布式压测协调控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/coordinator")
+public class CoordinatorController {
+
+    @Autowired
+    private CoordinatorService coordinatorService;
+
+    /**
+     * 执行分布式压测，所有工作节点完成后返回合并结果
+     */
+    @PostMapping("/run")
+    public BenchmarkResult run(@RequestBody DistributedBenchmarkRequest request) {
+        log.info("收到分布式压测请求: {}", request);
+        return coordinatorService.runDistributed(request);
+    }
+
+    /**
+     * 查询运行中的分布式压测的实时汇总
+     */
+    @GetMapping("/runs/{runId}")
+    public Map<String, Object> progress(@PathVariable String runId) {
+        Map<String, Object> progress = coordinatorService.getLiveProgress(runId);
+        if (progress != null) {
+            return progress;
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", "未找到运行中的分布式压测: " + runId);
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+package com.brianxiadong.vicmetrbenchmark.controller;
+
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.service.MockTargetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 内置模拟目标控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/mock-target")
+public class MockTargetController {
+
+    @Autowired
+    private MockTargetService mockTargetService;
+
+    /**
+     * 启动模拟目标，已在运行时按新配置重启
+     */
+    @PostMapping("/start")
+    public Map<String, Object> start(@RequestBody(required = false) MockTargetConfig config) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            MockVictoriaMetricsServer server = mockTargetService.start(config != null ? config : new MockTargetConfig());
+            response.put("success", true);
+            response.put("port", server.getPort());
+            response.put("config", server.getConfig());
+        } catch (Exception e) {
+            log.error("启动模拟目标失败", e);
+            response.put("success", false);
+            response.put("error", "启动模拟目标失败: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * 停止模拟目标
+     */
+    @PostMapping("/stop")
+    public Map<String, Object> stop() {
+        mockTargetService.stop();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        return response;
+    }
+
+    /**
+     * 获取模拟目标的运行统计
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> response = new HashMap<>();
+        Map<String, Object> stats = mockTargetService.getStats();
+        if (stats == null) {
+            response.put("success", false);
+            response.put("error", "模拟目标未启动");
+            return response;
+        }
+        response.put("success", true);
+        response.put("stats", stats);
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+package com.brianxiadong.vicmetrbenchmark.controller;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerAssignment;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerProgress;
+import com.brianxiadong.vicmetrbenchmark.service.WorkerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 分布式压测工作节点控制器
+ * 供协调节点分配任务、拉取进度与结果
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/worker")
+public class WorkerController {
+
+    @Autowired
+    private WorkerService workerService;
+
+    /**
+     * 就绪检查
+     */
+    @GetMapping("/ready")
+    public Map<String, Object> ready() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        return response;
+    }
+
+    /**
+     * 接收任务
+     */
+    @PostMapping("/runs")
+    public Map<String, Object> accept(@RequestBody WorkerAssignment assignment) {
+        Map<String, Object> response = new HashMap<>();
+        if (assignment.getRunId() == null || assignment.getRequest() == null) {
+            response.put("success", false);
+            response.put("error", "运行ID与压测参数不能为空");
+            return response;
+        }
+        workerService.accept(assignment);
+        response.put("success", true);
+        return response;
+    }
+
+    /**
+     * 拉取进度
+     */
+    @GetMapping("/runs/{runId}/progress")
+    public ResponseEntity<WorkerProgress> progress(@PathVariable String runId,
+            @RequestParam(defaultValue = "0") int fromSecond) {
+        WorkerProgress progress = workerService.progress(runId, fromSecond);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 获取最终结果，未完成时最多等待 waitSeconds 秒
+     */
+    @GetMapping("/runs/{runId}/result")
+    public ResponseEntity<BenchmarkResult> result(@PathVariable String runId,
+            @RequestParam(defaultValue = "10") long waitSeconds) {
+        BenchmarkResult result = workerService.result(runId, waitSeconds);
+        return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+    }
+}
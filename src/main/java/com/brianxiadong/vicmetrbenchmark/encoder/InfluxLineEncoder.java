@@ -0,0 +1,134 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Influx 行协议编码器
+ * 每行格式：prefix,thread_id=..,batch_id=..,index=..,test_id=benchmark_test field0=..,field1=.. 时间戳
+ * 单字段时字段名为 value；多字段时一行携带多个数据点，批次大小仍按数据点计，最后一行携带剩余的字段。
+ * 时间戳按 precision 换算（ns/us/ms/s/m/h），写入时需要把同样的 precision 作为查询参数传给服务端
+ */
+public class InfluxLineEncoder implements PayloadEncoder {
+
+    public static final String PRECISION_NS = "ns";
+    public static final String PRECISION_US = "us";
+    public static final String PRECISION_MS = "ms";
+    public static final String PRECISION_S = "s";
+    public static final String PRECISION_M = "m";
+    public static final String PRECISION_H = "h";
+
+    private static final byte[] THREAD_ID = ",thread_id=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BATCH_ID = ",batch_id=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INDEX = ",index=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEST_ID = ",test_id=benchmark_test".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] measurement;
+    private final int fields;
+    private final String precision;
+
+    /**
+     * 预先编码的字段名，首个字段带前导空格，其余带前导逗号，例如 " field0=" 与 ",field1="
+     */
+    private final byte[][] fieldNames;
+
+    public InfluxLineEncoder(String metricPrefix) {
+        this(metricPrefix, 1, PRECISION_NS);
+    }
+
+    /**
+     * @param metricPrefix measurement 名称
+     * @param fields       每行字段数
+     * @param precision    时间戳精度：ns、us、ms、s、m 或 h
+     */
+    public InfluxLineEncoder(String metricPrefix, int fields, String precision) {
+        this.measurement = metricPrefix.getBytes(StandardCharsets.UTF_8);
+        this.fields = Math.max(1, fields);
+        this.precision = normalizePrecision(precision);
+        this.fieldNames = new byte[this.fields][];
+        for (int k = 0; k < this.fields; k++) {
+            String name = this.fields == 1 ? "value" : "field" + k;
+            fieldNames[k] = ((k == 0 ? " " : ",") + name + "=").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Override
+    public void encode(PayloadBuffer buffer, int threadId, long batchId, int batchSize, long timestamp) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long lineTimestamp = scaleTimestamp(timestamp);
+        int lines = (batchSize + fields - 1) / fields;
+        for (int i = 0; i < lines; i++) {
+            buffer.put(measurement)
+                    .put(THREAD_ID).putLong(threadId)
+                    .put(BATCH_ID).putLong(batchId)
+                    .put(INDEX).putLong(i)
+                    .put(TEST_ID);
+            int lineFields = Math.min(fields, batchSize - i * fields);
+            for (int k = 0; k < lineFields; k++) {
+                buffer.put(fieldNames[k]).putDecimal(random.nextDouble() * 100, 6);
+            }
+            buffer.put((byte) ' ').putLong(lineTimestamp).put((byte) '\n');
+        }
+    }
+
+    /**
+     * 把毫秒时间戳换算为当前精度
+     */
+    long scaleTimestamp(long timestampMillis) {
+        switch (precision) {
+            case PRECISION_H:
+                return timestampMillis / 3600000;
+            case PRECISION_M:
+                return timestampMillis / 60000;
+            case PRECISION_S:
+                return timestampMillis / 1000;
+            case PRECISION_MS:
+                return timestampMillis;
+            case PRECISION_US:
+                return timestampMillis * 1000;
+            case PRECISION_NS:
+            default:
+                return timestampMillis * 1000000;
+        }
+    }
+
+    /**
+     * 归一化精度参数，兼容 Influx 的 n、u 写法，未设置时按纳秒处理
+     *
+     * @param precision 精度参数
+     * @return ns、us、ms、s、m 或 h
+     * @throws IllegalArgumentException 无法识别的精度
+     */
+    public static String normalizePrecision(String precision) {
+        if (precision == null || precision.trim().isEmpty()) {
+            return PRECISION_NS;
+        }
+        switch (precision.trim().toLowerCase()) {
+            case "h":
+                return PRECISION_H;
+            case "m":
+                return PRECISION_M;
+            case "s":
+                return PRECISION_S;
+            case "ms":
+                return PRECISION_MS;
+            case "u":
+            case "us":
+            case "µ":
+                return PRECISION_US;
+            case "n":
+            case "ns":
+                return PRECISION_NS;
+            default:
+                throw new IllegalArgumentException("不支持的 Influx 时间戳精度: " + precision);
+        }
+    }
+
+    public int getFields() {
+        return fields;
+    }
+
+    public String getPrecision() {
+        return precision;
+    }
+}
@@ -0,0 +1,264 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OTLP 指标 protobuf 编码器
+ * 每批数据编码为一个 ExportMetricsServiceRequest：一个 Resource（资源属性）、一个 Scope，
+ * 一个名为 prefix_线程ID 的 Metric，批次内每个数据点的属性为 thread_id、batch_id、index、test_id，
+ * 与 Prometheus 文本格式的序列集合一致，便于直接比较两种写入路径。
+ * <p>
+ * 不依赖 protobuf 运行时：先按字段计算各层消息的长度，再一次性写入 PayloadBuffer，
+ * 中间不产生对象和临时缓冲区。数据点类型支持 gauge、sum（累计、单调）与 histogram，
+ * histogram 的每个数据点在服务端会展开为多个桶序列，批次大小仍按数据点计
+ */
+public class OtlpMetricsEncoder implements PayloadEncoder {
+
+    public static final String TYPE_GAUGE = "gauge";
+    public static final String TYPE_SUM = "sum";
+    public static final String TYPE_HISTOGRAM = "histogram";
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LEN = 2;
+
+    /**
+     * ExportMetricsServiceRequest.resource_metrics、ResourceMetrics.scope_metrics、ScopeMetrics.metrics
+     */
+    private static final byte RESOURCE_METRICS = tag(1, WIRE_LEN);
+    private static final byte SCOPE_METRICS = tag(2, WIRE_LEN);
+    private static final byte METRICS = tag(2, WIRE_LEN);
+
+    private static final byte METRIC_NAME = tag(1, WIRE_LEN);
+    private static final byte GAUGE = tag(5, WIRE_LEN);
+    private static final byte SUM = tag(7, WIRE_LEN);
+    private static final byte HISTOGRAM = tag(9, WIRE_LEN);
+    private static final byte DATA_POINTS = tag(1, WIRE_LEN);
+    private static final byte AGGREGATION_TEMPORALITY = tag(2, WIRE_VARINT);
+    private static final byte IS_MONOTONIC = tag(3, WIRE_VARINT);
+    private static final int AGGREGATION_CUMULATIVE = 2;
+
+    private static final byte NUMBER_ATTRIBUTES = tag(7, WIRE_LEN);
+    private static final byte HISTOGRAM_ATTRIBUTES = tag(9, WIRE_LEN);
+    private static final byte START_TIME = tag(2, WIRE_FIXED64);
+    private static final byte TIME = tag(3, WIRE_FIXED64);
+    private static final byte AS_DOUBLE = tag(4, WIRE_FIXED64);
+    private static final byte HISTOGRAM_COUNT = tag(4, WIRE_FIXED64);
+    private static final byte HISTOGRAM_SUM = tag(5, WIRE_FIXED64);
+    private static final byte BUCKET_COUNTS = tag(6, WIRE_LEN);
+    private static final byte EXPLICIT_BOUNDS = tag(7, WIRE_LEN);
+
+    /**
+     * KeyValue.key、KeyValue.value、AnyValue.string_value、AnyValue.int_value
+     */
+    private static final byte KEY = tag(1, WIRE_LEN);
+    private static final byte VALUE = tag(2, WIRE_LEN);
+    private static final byte STRING_VALUE = tag(1, WIRE_LEN);
+    private static final byte INT_VALUE = tag(3, WIRE_VARINT);
+
+    private static final byte[] THREAD_ID = key("thread_id");
+    private static final byte[] BATCH_ID = key("batch_id");
+    private static final byte[] INDEX = key("index");
+
+    private final byte[] metricPrefix;
+    private final String metricType;
+    private final int buckets;
+    private final byte attributesTag;
+
+    /**
+     * 预先编码的常量部分：Resource 与 Scope 字段、test_id 属性、histogram 的桶边界
+     */
+    private final byte[] resourceField;
+    private final byte[] scopeField;
+    private final byte[] testIdAttribute;
+    private final double[] bounds;
+    private final long startTimeNanos = System.currentTimeMillis() * 1000000;
+
+    /**
+     * @param metricPrefix       指标名前缀
+     * @param metricType         数据点类型：gauge、sum 或 histogram
+     * @param buckets            histogram 的显式桶边界个数
+     * @param resourceAttributes 附加的资源属性，可为null
+     */
+    public OtlpMetricsEncoder(String metricPrefix, String metricType, int buckets,
+            Map<String, String> resourceAttributes) {
+        this.metricPrefix = (metricPrefix + "_").getBytes(StandardCharsets.UTF_8);
+        this.metricType = normalizeType(metricType);
+        this.buckets = Math.max(1, buckets);
+        this.attributesTag = TYPE_HISTOGRAM.equals(this.metricType) ? HISTOGRAM_ATTRIBUTES : NUMBER_ATTRIBUTES;
+
+        Map<String, String> resource = new LinkedHashMap<>();
+        resource.put("service.name", "vicmetr-benchmark");
+        if (resourceAttributes != null) {
+            resource.putAll(resourceAttributes);
+        }
+        PayloadBuffer content = new PayloadBuffer(256, false);
+        for (Map.Entry<String, String> attribute : resource.entrySet()) {
+            content.put(stringAttribute(tag(1, WIRE_LEN), attribute.getKey(), attribute.getValue()));
+        }
+        this.resourceField = field(tag(1, WIRE_LEN), content.toByteArray());
+
+        PayloadBuffer scope = new PayloadBuffer(64, false);
+        scope.put(field(tag(1, WIRE_LEN), "vicmetr-benchmark".getBytes(StandardCharsets.UTF_8)))
+                .put(field(tag(2, WIRE_LEN), "1.0".getBytes(StandardCharsets.UTF_8)));
+        this.scopeField = field(tag(1, WIRE_LEN), scope.toByteArray());
+
+        this.testIdAttribute = stringAttribute(attributesTag, "test_id", "benchmark_test");
+        this.bounds = new double[this.buckets];
+        for (int i = 0; i < this.buckets; i++) {
+            bounds[i] = Math.pow(2, i);
+        }
+    }
+
+    @Override
+    public void encode(PayloadBuffer buffer, int threadId, long batchId, int batchSize, long timestamp) {
+        // 第一遍只计算长度：数据点的大小只取决于各个整数属性的 varint 长度
+        long dataPoints = 0;
+        for (int i = 0; i < batchSize; i++) {
+            dataPoints += lengthDelimitedSize(dataPointSize(threadId, batchId, i));
+        }
+        int dataSize = (int) dataPoints + trailerSize();
+        int nameSize = metricPrefix.length + PayloadBuffer.decimalLength(threadId);
+        int metricSize = lengthDelimitedSize(nameSize) + lengthDelimitedSize(dataSize);
+        int scopeMetricsSize = scopeField.length + lengthDelimitedSize(metricSize);
+        int resourceMetricsSize = resourceField.length + lengthDelimitedSize(scopeMetricsSize);
+
+        // 第二遍按计算好的长度顺序写入
+        buffer.put(RESOURCE_METRICS).putVarint(resourceMetricsSize).put(resourceField)
+                .put(SCOPE_METRICS).putVarint(scopeMetricsSize).put(scopeField)
+                .put(METRICS).putVarint(metricSize)
+                .put(METRIC_NAME).putVarint(nameSize).put(metricPrefix).putLong(threadId)
+                .put(dataTag()).putVarint(dataSize);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < batchSize; i++) {
+            buffer.put(DATA_POINTS).putVarint(dataPointSize(threadId, batchId, i));
+            putIntAttribute(buffer, THREAD_ID, threadId);
+            putIntAttribute(buffer, BATCH_ID, batchId);
+            putIntAttribute(buffer, INDEX, i);
+            buffer.put(testIdAttribute);
+            long timeNanos = (timestamp + i) * 1000000;
+            if (TYPE_HISTOGRAM.equals(metricType)) {
+                putHistogramValues(buffer, timeNanos, random);
+            } else {
+                if (TYPE_SUM.equals(metricType)) {
+                    buffer.put(START_TIME).putFixed64(startTimeNanos);
+                }
+                buffer.put(TIME).putFixed64(timeNanos)
+                        .put(AS_DOUBLE).putDouble(random.nextDouble() * 100);
+            }
+        }
+
+        if (TYPE_SUM.equals(metricType)) {
+            buffer.put(AGGREGATION_TEMPORALITY).putVarint(AGGREGATION_CUMULATIVE)
+                    .put(IS_MONOTONIC).putVarint(1);
+        } else if (TYPE_HISTOGRAM.equals(metricType)) {
+            buffer.put(AGGREGATION_TEMPORALITY).putVarint(AGGREGATION_CUMULATIVE);
+        }
+    }
+
+    private void putHistogramValues(PayloadBuffer buffer, long timeNanos, ThreadLocalRandom random) {
+        buffer.put(START_TIME).putFixed64(startTimeNanos)
+                .put(TIME).putFixed64(timeNanos);
+        // 先写桶计数，总数与总和随后补上，protobuf 不要求字段按编号顺序出现
+        buffer.put(BUCKET_COUNTS).putVarint(8 * (buckets + 1));
+        long count = 0;
+        for (int b = 0; b <= buckets; b++) {
+            long bucketCount = random.nextInt(100);
+            count += bucketCount;
+            buffer.putFixed64(bucketCount);
+        }
+        buffer.put(EXPLICIT_BOUNDS).putVarint(8 * buckets);
+        for (double bound : bounds) {
+            buffer.putDouble(bound);
+        }
+        buffer.put(HISTOGRAM_COUNT).putFixed64(count)
+                .put(HISTOGRAM_SUM).putDouble(count * random.nextDouble() * bounds[buckets - 1]);
+    }
+
+    private int dataPointSize(int threadId, long batchId, int index) {
+        int size = intAttributeSize(THREAD_ID, threadId) + intAttributeSize(BATCH_ID, batchId)
+                + intAttributeSize(INDEX, index) + testIdAttribute.length;
+        if (TYPE_HISTOGRAM.equals(metricType)) {
+            // start_time、time、count、sum 各9字节，另有两个 packed 数组
+            return size + 4 * 9 + lengthDelimitedSize(8 * (buckets + 1)) + lengthDelimitedSize(8 * buckets);
+        }
+        return size + (TYPE_SUM.equals(metricType) ? 3 * 9 : 2 * 9);
+    }
+
+    private int trailerSize() {
+        if (TYPE_SUM.equals(metricType)) {
+            return 4;
+        }
+        return TYPE_HISTOGRAM.equals(metricType) ? 2 : 0;
+    }
+
+    private byte dataTag() {
+        if (TYPE_SUM.equals(metricType)) {
+            return SUM;
+        }
+        return TYPE_HISTOGRAM.equals(metricType) ? HISTOGRAM : GAUGE;
+    }
+
+    /**
+     * 整数属性：attributes { key: 预编码的键, value { int_value: value } }
+     */
+    private void putIntAttribute(PayloadBuffer buffer, byte[] key, long value) {
+        int anyValueSize = 1 + PayloadBuffer.varintSize(value);
+        buffer.put(attributesTag).putVarint(key.length + 2 + anyValueSize)
+                .put(key)
+                .put(VALUE).put((byte) anyValueSize)
+                .put(INT_VALUE).putVarint(value);
+    }
+
+    private static int intAttributeSize(byte[] key, long value) {
+        return lengthDelimitedSize(key.length + 2 + 1 + PayloadBuffer.varintSize(value));
+    }
+
+    private static int lengthDelimitedSize(int contentSize) {
+        return 1 + PayloadBuffer.varintSize(contentSize) + contentSize;
+    }
+
+    private static byte tag(int field, int wireType) {
+        return (byte) (field << 3 | wireType);
+    }
+
+    /**
+     * 预编码 KeyValue.key 字段
+     */
+    private static byte[] key(String name) {
+        return field(KEY, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] stringAttribute(byte tag, String key, String value) {
+        byte[] anyValue = field(STRING_VALUE, value.getBytes(StandardCharsets.UTF_8));
+        PayloadBuffer keyValue = new PayloadBuffer(64, false);
+        keyValue.put(key(key)).put(field(VALUE, anyValue));
+        return field(tag, keyValue.toByteArray());
+    }
+
+    private static byte[] field(byte tag, byte[] content) {
+        PayloadBuffer buffer = new PayloadBuffer(content.length + 6, false);
+        buffer.put(tag).putVarint(content.length).put(content);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @param metricType 数据点类型
+     * @return gauge、sum 或 histogram，无法识别时为 gauge
+     */
+    public static String normalizeType(String metricType) {
+        if (metricType == null) {
+            return TYPE_GAUGE;
+        }
+        String type = metricType.trim().toLowerCase();
+        return TYPE_SUM.equals(type) || TYPE_HISTOGRAM.equals(type) ? type : TYPE_GAUGE;
+    }
+
+    public String getMetricType() {
+        return metricType;
+    }
+}
@@ -0,0 +1,237 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 可复用的负载缓冲区
+ * 编码器直接把ASCII字节写入底层 ByteBuffer（堆内或堆外），HTTP请求体直接从中读取，
+ * 整个过程不产生 StringBuilder、String 和 byte[] 的中间副本
+ */
+public class PayloadBuffer {
+
+    private static final byte[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+    private static final byte[] MIN_LONG = "-9223372036854775808".getBytes();
+
+    private final boolean direct;
+    private ByteBuffer buffer;
+    private final byte[] scratch = new byte[20];
+
+    /**
+     * 扩容次数，说明初始容量估计偏小
+     */
+    private int growCount;
+
+    public PayloadBuffer(int capacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = allocate(Math.max(64, capacity));
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 清空内容，准备写入下一批数据
+     */
+    public PayloadBuffer clear() {
+        buffer.clear();
+        return this;
+    }
+
+    /**
+     * 确保还能写入指定字节数，不足时按2倍扩容
+     */
+    public void ensureRemaining(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        int required = buffer.position() + bytes;
+        int newCapacity = Math.max(required, buffer.capacity() * 2);
+        ByteBuffer grown = allocate(newCapacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+        growCount++;
+    }
+
+    public PayloadBuffer put(byte b) {
+        ensureRemaining(1);
+        buffer.put(b);
+        return this;
+    }
+
+    public PayloadBuffer put(byte[] bytes) {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+        return this;
+    }
+
+    public PayloadBuffer put(byte[] bytes, int offset, int length) {
+        ensureRemaining(length);
+        buffer.put(bytes, offset, length);
+        return this;
+    }
+
+    /**
+     * 写入字符串（标签值、指标名等），ASCII 字符逐字节写入，遇到非ASCII字符时其余部分按 UTF-8 编码
+     */
+    public PayloadBuffer putAscii(CharSequence text) {
+        int length = text.length();
+        ensureRemaining(length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return put(text.subSequence(i, length).toString().getBytes(StandardCharsets.UTF_8));
+            }
+            buffer.put((byte) c);
+        }
+        return this;
+    }
+
+    /**
+     * 以十进制写入整数，不经过 Long.toString
+     */
+    public PayloadBuffer putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(MIN_LONG);
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int pos = scratch.length;
+        do {
+            scratch[--pos] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        } while (value != 0);
+        return put(scratch, pos, scratch.length - pos);
+    }
+
+    /**
+     * 以定点小数写入浮点数，放大后超出 long 范围的数值改用 Double.toString 写入
+     *
+     * @param value    数值
+     * @param decimals 小数位数（0-9）
+     */
+    public PayloadBuffer putDecimal(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return putAscii(Double.toString(value));
+        }
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        // Math.round 超出范围时会停在 Long.MAX_VALUE，写出的是一个错误的数
+        if (Math.abs(value) >= (double) Long.MAX_VALUE / scale) {
+            return putAscii(Double.toString(value));
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        long scaled = Math.round(value * scale);
+        putLong(scaled / scale);
+        if (decimals > 0) {
+            put((byte) '.');
+            long fraction = scaled % scale;
+            for (long divisor = scale / 10; divisor > 0; divisor /= 10) {
+                put(DIGITS[(int) (fraction / divisor % 10)]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 以 protobuf varint 写入非负整数
+     */
+    public PayloadBuffer putVarint(long value) {
+        ensureRemaining(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * 以小端序写入8字节整数，对应 protobuf 的 fixed64
+     */
+    public PayloadBuffer putFixed64(long value) {
+        ensureRemaining(8);
+        for (int i = 0; i < 8; i++) {
+            buffer.put((byte) (value >>> (i * 8)));
+        }
+        return this;
+    }
+
+    /**
+     * 以小端序写入 IEEE 754 双精度浮点数，对应 protobuf 的 double
+     */
+    public PayloadBuffer putDouble(double value) {
+        return putFixed64(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * @return 非负整数按 protobuf varint 编码后的字节数
+     */
+    public static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return 非负整数的十进制位数
+     */
+    public static int decimalLength(long value) {
+        int length = 1;
+        while (value >= 10) {
+            value /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @return 已写入的字节数
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public int getGrowCount() {
+        return growCount;
+    }
+
+    /**
+     * 获取已写入内容的只读视图，每次调用返回独立的读位置，重试时可重复读取
+     */
+    public ByteBuffer readView() {
+        ByteBuffer view = buffer.duplicate();
+        view.flip();
+        return view.asReadOnlyBuffer();
+    }
+
+    /**
+     * 复制为字节数组，仅用于调试日志等非热点路径
+     */
+    public byte[] toByteArray() {
+        ByteBuffer view = readView();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界负载缓冲池
+ * 按观测到的批次负载大小分配缓冲区，用完归还复用；池满时多余的缓冲区直接丢弃交给GC，
+ * 因此池本身的内存上限为 容量 × 单个缓冲区大小
+ */
+public class PayloadBufferPool {
+
+    /**
+     * 新分配缓冲区相对观测负载大小的余量
+     */
+    private static final double HEADROOM = 1.25;
+
+    private final BlockingQueue<PayloadBuffer> pool;
+    private final boolean direct;
+
+    /**
+     * 观测到的批次负载大小（字节）的滑动估计
+     */
+    private volatile int observedSize;
+
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    /**
+     * @param maxPooled   池中最多保留的缓冲区数
+     * @param initialSize 初始缓冲区大小（字节）
+     * @param direct      是否使用堆外内存
+     */
+    public PayloadBufferPool(int maxPooled, int initialSize, boolean direct) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+        this.observedSize = Math.max(64, initialSize);
+        this.direct = direct;
+    }
+
+    /**
+     * 获取一个已清空的缓冲区
+     */
+    public PayloadBuffer acquire() {
+        PayloadBuffer buffer = pool.poll();
+        if (buffer != null) {
+            reuses.incrementAndGet();
+            return buffer.clear();
+        }
+        allocations.incrementAndGet();
+        return new PayloadBuffer((int) (observedSize * HEADROOM), direct);
+    }
+
+    /**
+     * 归还缓冲区，并用本次负载大小更新观测值
+     */
+    public void release(PayloadBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        int size = buffer.size();
+        if (size > 0) {
+            observedSize = (int) (observedSize * 0.8 + size * 0.2);
+        }
+        // 比当前观测值小很多的缓冲区下次大概率要扩容，直接丢弃
+        if (buffer.capacity() >= observedSize) {
+            pool.offer(buffer);
+        }
+    }
+
+    public int getObservedSize() {
+        return observedSize;
+    }
+
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    public long getReuses() {
+        return reuses.get();
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+}
@@ -0,0 +1,19 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+/**
+ * 负载编码器接口
+ * 将一批测试数据直接编码进 PayloadBuffer
+ */
+public interface PayloadEncoder {
+
+    /**
+     * 编码一批数据
+     *
+     * @param buffer    目标缓冲区
+     * @param threadId  线程ID
+     * @param batchId   批次ID
+     * @param batchSize 批次大小
+     * @param timestamp 批次起始时间戳（毫秒）
+     */
+    void encode(PayloadBuffer buffer, int threadId, long batchId, int batchSize, long timestamp);
+}
@@ -0,0 +1,74 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编码器工厂
+ * 根据 apiType 选择对应的负载编码器
+ */
+public final class PayloadEncoders {
+
+    private PayloadEncoders() {
+    }
+
+    /**
+     * @param request 压测请求参数
+     * @return 对应的编码器，未知类型默认使用Prometheus格式
+     */
+    public static PayloadEncoder forRequest(BenchmarkRequest request) {
+        if (isInflux(request.getApiType())) {
+            int fields = request.getInfluxFields() != null ? request.getInfluxFields() : 1;
+            return new InfluxLineEncoder(request.getMetricPrefix(), fields, request.getInfluxPrecision());
+        }
+        if ("graphite".equalsIgnoreCase(request.getApiType())) {
+            return new GraphiteLineEncoder(request.getMetricPrefix());
+        }
+        if ("opentsdb".equalsIgnoreCase(request.getApiType())) {
+            return new OpenTsdbLineEncoder(request.getMetricPrefix());
+        }
+        if ("otlp".equalsIgnoreCase(request.getApiType())) {
+            int buckets = request.getOtlpHistogramBuckets() != null ? request.getOtlpHistogramBuckets() : 10;
+            return new OtlpMetricsEncoder(request.getMetricPrefix(), request.getOtlpMetricType(), buckets,
+                    request.getOtlpResourceAttributes());
+        }
+        return new PrometheusTextEncoder(request.getMetricPrefix());
+    }
+
+    /**
+     * 写入接口的查询参数：Influx 需要带上与时间戳一致的 precision，以及可选的 db
+     *
+     * @param request 压测请求参数
+     * @return 查询参数，没有参数时为空
+     */
+    public static Map<String, String> writeParams(BenchmarkRequest request) {
+        if (!isInflux(request.getApiType())) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> params = new HashMap<>();
+        params.put("precision", InfluxLineEncoder.normalizePrecision(request.getInfluxPrecision()));
+        if (request.getInfluxDb() != null && !request.getInfluxDb().trim().isEmpty()) {
+            params.put("db", request.getInfluxDb().trim());
+        }
+        return params;
+    }
+
+    /**
+     * @param apiType API类型
+     * @return 是否为走原始TCP连接的明文协议（graphite 或 opentsdb）
+     */
+    public static boolean isTcp(String apiType) {
+        return "graphite".equalsIgnoreCase(apiType) || "opentsdb".equalsIgnoreCase(apiType);
+    }
+
+    /**
+     * @param apiType API类型
+     * @return 是否为 Influx 行协议（influx 或 influx-write）
+     */
+    public static boolean isInflux(String apiType) {
+        return apiType != null && apiType.toLowerCase().startsWith("influx");
+    }
+}
@@ -0,0 +1,37 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prometheus 文本格式编码器
+ * 每行格式：prefix_线程ID{thread_id="..",batch_id="..",index="..",test_id="benchmark_test"} 值 毫秒时间戳
+ */
+public class PrometheusTextEncoder implements PayloadEncoder {
+
+    private static final byte[] THREAD_ID = "{thread_id=\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BATCH_ID = "\",batch_id=\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INDEX = "\",index=\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEST_ID = "\",test_id=\"benchmark_test\"} ".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] metricPrefix;
+
+    public PrometheusTextEncoder(String metricPrefix) {
+        this.metricPrefix = (metricPrefix + "_").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void encode(PayloadBuffer buffer, int threadId, long batchId, int batchSize, long timestamp) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < batchSize; i++) {
+            buffer.put(metricPrefix).putLong(threadId)
+                    .put(THREAD_ID).putLong(threadId)
+                    .put(BATCH_ID).putLong(batchId)
+                    .put(INDEX).putLong(i)
+                    .put(TEST_ID)
+                    .putDecimal(random.nextDouble() * 100, 6)
+                    .put((byte) ' ').putLong(timestamp + i)
+                    .put((byte) '\n');
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.brianxiadong.vicmetrbenchmark.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次批次发送尝试，事件时长即请求延迟
+ * 与 jdk.GarbageCollection、jdk.SafepointBegin 等事件放在同一时间轴上，可以判断长尾是客户端停顿还是服务端变慢
+ */
+@Name("vicmetr.BatchSend")
+@Label("Batch Send")
+@Category({ "VicMetr Benchmark", "Write" })
+@Description("一次写入批次的发送尝试")
+@StackTrace(false)
+public class BatchSendEvent extends jdk.jfr.Event {
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Thread ID")
+    public int threadId;
+
+    @Label("Batch ID")
+    public long batchId;
+
+    @Label("Samples")
+    public int samples;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Attempt")
+    @Description("第几次尝试，从1开始")
+    public int attempt;
+
+    @Label("Status Code")
+    @Description("HTTP状态码，网络错误时为0")
+    public int statusCode;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Overload")
+    @Description("目标返回429/5xx或超时")
+    public boolean overload;
+}
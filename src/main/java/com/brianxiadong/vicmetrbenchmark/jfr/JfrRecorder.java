@@ -0,0 +1,73 @@
+package com.brianxiadong.vicmetrbenchmark.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 围绕单次压测的JFR录制
+ * 使用JDK自带的 default/profile 配置，并确保本工程的自定义事件全部开启。
+ * 对外不暴露 jdk.jfr 类型，调用方只持有本类的实例
+ */
+@Slf4j
+public final class JfrRecorder {
+
+    private final Recording recording;
+
+    private JfrRecorder(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * 开始录制
+     *
+     * @param runId    运行ID，作为录制名称
+     * @param settings JFR 配置名：default 或 profile
+     * @return 录制句柄，JVM不支持JFR或启动失败时返回null
+     */
+    public static JfrRecorder start(String runId, String settings) {
+        if (!JfrSupport.AVAILABLE) {
+            log.warn("当前JVM不支持JFR，跳过录制 - 运行ID: {}", runId);
+            return null;
+        }
+        try {
+            Configuration configuration = Configuration.getConfiguration(
+                    "profile".equals(settings) ? "profile" : "default");
+            Recording recording = new Recording(configuration);
+            recording.setName("vicmetr-" + runId);
+            recording.enable(BatchSendEvent.class);
+            recording.enable(QueryEvent.class);
+            recording.enable(ScrapeEvent.class);
+            recording.start();
+            log.info("已开始JFR录制 - 运行ID: {}, 配置: {}", runId, configuration.getName());
+            return new JfrRecorder(recording);
+        } catch (Exception | LinkageError e) {
+            log.error("启动JFR录制失败 - 运行ID: {}", runId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 停止录制并写入文件
+     *
+     * @param file 目标文件
+     * @return 写入的文件，失败时返回null
+     */
+    public Path stop(Path file) {
+        try {
+            recording.stop();
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            recording.dump(file);
+            log.info("JFR录制已保存: {}", file.toAbsolutePath());
+            return file;
+        } catch (Exception e) {
+            log.error("保存JFR录制失败: {}", file, e);
+            return null;
+        } finally {
+            recording.close();
+        }
+    }
+}
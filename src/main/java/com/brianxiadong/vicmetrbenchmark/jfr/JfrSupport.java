@@ -0,0 +1,27 @@
+package com.brianxiadong.vicmetrbenchmark.jfr;
+
+/**
+ * JFR 可用性检查
+ * 工程以 Java 8 为目标，jdk.jfr 只在 8u262 及以上的 Java 8 和 Java 11+ 中提供；
+ * 本类不引用任何 jdk.jfr 类型，调用方先检查 {@link #AVAILABLE} 再创建事件或录制，
+ * 旧版本 JVM 上这些类永远不会被加载，写入与查询路径照常工作
+ */
+public final class JfrSupport {
+
+    /**
+     * 当前 JVM 是否提供 jdk.jfr
+     */
+    public static final boolean AVAILABLE = detect();
+
+    private JfrSupport() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
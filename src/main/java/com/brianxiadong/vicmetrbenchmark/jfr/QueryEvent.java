@@ -0,0 +1,32 @@
+package com.brianxiadong.vicmetrbenchmark.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 PromQL 查询，事件时长即查询延迟
+ */
+@Name("vicmetr.Query")
+@Label("Query")
+@Category({ "VicMetr Benchmark", "Query" })
+@Description("一次 /api/v1/query 查询")
+@StackTrace(false)
+public class QueryEvent extends jdk.jfr.Event {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Response Bytes")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Status Code")
+    public int statusCode;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,32 @@
+package com.brianxiadong.vicmetrbenchmark.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次服务端 /metrics 抓取与解析，事件时长包含请求与解析
+ */
+@Name("vicmetr.Scrape")
+@Label("Server Metrics Scrape")
+@Category({ "VicMetr Benchmark", "Scrape" })
+@Description("收集服务端指标")
+@StackTrace(false)
+public class ScrapeEvent extends jdk.jfr.Event {
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Response Bytes")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Success")
+    public boolean success;
+}
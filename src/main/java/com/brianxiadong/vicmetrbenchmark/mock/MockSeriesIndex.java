@@ -0,0 +1,151 @@
+package com.brianxiadong.vicmetrbenchmark.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * 模拟目标的时间序列索引
+ * 按指标名分组记录序列键的64位哈希，只保存哈希不保存标签，内存占用与序列数成正比且较小
+ */
+public class MockSeriesIndex {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<String, Set<Long>> seriesByName = new ConcurrentHashMap<>();
+    private final AtomicLong tracked = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final long maxTracked;
+
+    /**
+     * @param maxTracked 最多记录的序列数
+     */
+    public MockSeriesIndex(long maxTracked) {
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * 记录一个序列
+     *
+     * @param name     指标名
+     * @param key      序列键所在的字节数组
+     * @param offset   序列键起始位置
+     * @param length   序列键长度
+     * @param extraKey 附加在序列键后参与哈希的字节（例如 Influx 字段名），可为null
+     */
+    public void add(String name, byte[] key, int offset, int length, String extraKey) {
+        long hash = hash(FNV_OFFSET, key, offset, length);
+        if (extraKey != null) {
+            for (int i = 0; i < extraKey.length(); i++) {
+                hash = (hash ^ extraKey.charAt(i)) * FNV_PRIME;
+            }
+        }
+        Set<Long> series = seriesByName.get(name);
+        if (series == null) {
+            series = seriesByName.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
+        }
+        if (series.contains(hash)) {
+            return;
+        }
+        if (tracked.get() >= maxTracked) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (series.add(hash)) {
+            tracked.incrementAndGet();
+        }
+    }
+
+    /**
+     * 统计指标名匹配的序列数
+     *
+     * @param namePattern 指标名正则（完全匹配），为null时统计全部
+     */
+    public long count(Pattern namePattern) {
+        long count = 0;
+        for (Map.Entry<String, Set<Long>> entry : seriesByName.entrySet()) {
+            if (namePattern == null || namePattern.matcher(entry.getKey()).matches()) {
+                count += entry.getValue().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按指标名分组统计匹配的序列数
+     *
+     * @param namePattern 指标名正则（完全匹配），为null时统计全部
+     * @return 指标名 -> 序列数
+     */
+    public Map<String, Long> countByName(Pattern namePattern) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> entry : seriesByName.entrySet()) {
+            if (namePattern == null || namePattern.matcher(entry.getKey()).matches()) {
+                counts.put(entry.getKey(), (long) entry.getValue().size());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 遍历指标名匹配的序列
+     *
+     * @param namePattern 指标名正则（完全匹配），为null时遍历全部
+     * @param consumer    接收指标名与序列哈希
+     */
+    public void forEach(Pattern namePattern, BiConsumer<String, Long> consumer) {
+        for (Map.Entry<String, Set<Long>> entry : seriesByName.entrySet()) {
+            if (namePattern == null || namePattern.matcher(entry.getKey()).matches()) {
+                for (Long hash : entry.getValue()) {
+                    consumer.accept(entry.getKey(), hash);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除指标名匹配的序列
+     *
+     * @return 删除的序列数
+     */
+    public long delete(Pattern namePattern) {
+        long deleted = 0;
+        for (Map.Entry<String, Set<Long>> entry : seriesByName.entrySet()) {
+            if (namePattern.matcher(entry.getKey()).matches()
+                    && seriesByName.remove(entry.getKey(), entry.getValue())) {
+                deleted += entry.getValue().size();
+            }
+        }
+        tracked.addAndGet(-deleted);
+        return deleted;
+    }
+
+    public long getTracked() {
+        return tracked.get();
+    }
+
+    /**
+     * @return 因超过上限而未记录的序列数
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void clear() {
+        seriesByName.clear();
+        tracked.set(0);
+        dropped.set(0);
+    }
+
+    private static long hash(long hash, byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ (bytes[i] & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
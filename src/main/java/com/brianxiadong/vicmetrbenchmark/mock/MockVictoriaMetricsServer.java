@@ -0,0 +1,825 @@
+package com.brianxiadong.vicmetrbenchmark.mock;
+
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.utils.TokenBucket;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 内置的 VictoriaMetrics 模拟目标
+ * 基于 JDK 自带的 HttpServer（NIO 选择器接收连接，处理交给线程池），实现压测工具用到的接口：
+ * /api/v1/import/*、/api/v1/write、/write、/opentelemetry/v1/metrics、/api/v1/query、/api/v1/series/count、
+ * /api/v1/status/tsdb、/api/v1/export、/api/v1/admin/tsdb/delete_series、/metrics 与 /health，
+ * 以及集群版 vminsert 的 /insert/{accountID}[:{projectID}]/ 写入接口（按租户分别统计数据点数）
+ * <p>
+ * 响应延迟按配置的分布采样，由定时线程在到期后发送响应，处理线程不会因为模拟延迟而阻塞；
+ * 可以按比例注入错误，并按每秒数据点数限制吞吐。Prometheus 文本与 Influx 行协议会逐行解析并记录序列，
+ * /api/v1/import 的JSON行与CSV按行计数，OTLP 按 protobuf 结构统计数据点数，remote write 与 native 格式只统计字节数
+ */
+@Slf4j
+public class MockVictoriaMetricsServer {
+
+    private static final Pattern COUNT_QUERY = Pattern.compile("^count\\s*\\((.*)\\)$", Pattern.DOTALL);
+    private static final Pattern NAME_MATCHER = Pattern.compile("__name__\\s*(=~|=)\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern METRIC_NAME = Pattern.compile("^([a-zA-Z_:][a-zA-Z0-9_:]*)");
+
+    private static final String TYPE_PROMETHEUS = "prometheus";
+    private static final String TYPE_INFLUX = "influx";
+    private static final String TYPE_VMIMPORT = "vmimport";
+    private static final String TYPE_CSV = "csvimport";
+    private static final String TYPE_NATIVE = "native";
+    private static final String TYPE_REMOTE_WRITE = "promremotewrite";
+    private static final String TYPE_OPENTELEMETRY = "opentelemetry";
+
+    private final MockTargetConfig config;
+    private final MockSeriesIndex index;
+    private final TokenBucket throughputCap;
+    private final boolean delayWhenThrottled;
+    private final long startMillis = System.currentTimeMillis();
+
+    private final Map<String, LongAdder> rowsByType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rowsByTenant = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requestsByPath = new ConcurrentHashMap<>();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final LongAdder delayedResponses = new LongAdder();
+
+    private final ThreadLocal<Body> bodies = ThreadLocal.withInitial(Body::new);
+
+    private HttpServer server;
+    private ExecutorService handlerExecutor;
+    private ScheduledExecutorService responder;
+
+    public MockVictoriaMetricsServer(MockTargetConfig config) {
+        this.config = config;
+        switch (config.getLatencyDistribution()) {
+            case "none":
+            case "fixed":
+            case "uniform":
+            case "exponential":
+            case "lognormal":
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的延迟分布: " + config.getLatencyDistribution());
+        }
+        this.index = new MockSeriesIndex(config.getMaxTrackedSeries());
+        this.throughputCap = config.getMaxSamplesPerSecond() != null && config.getMaxSamplesPerSecond() > 0
+                ? new TokenBucket(config.getMaxSamplesPerSecond(), 1.0)
+                : null;
+        this.delayWhenThrottled = "delay".equals(config.getThrottleMode());
+    }
+
+    /**
+     * 启动服务
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        handlerExecutor = Executors.newFixedThreadPool(Math.max(1, config.getThreads()), r -> {
+            Thread thread = new Thread(r, "mock-vm-handler-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        responder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mock-vm-responder");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), 1024);
+        server.setExecutor(handlerExecutor);
+        server.createContext("/health", guarded(exchange -> respond(exchange, 200, "OK", 0)));
+        server.createContext("/api/v1/import/prometheus", guarded(exchange -> ingest(exchange, TYPE_PROMETHEUS)));
+        server.createContext("/api/v1/import/influx", guarded(exchange -> ingest(exchange, TYPE_INFLUX)));
+        server.createContext("/write", guarded(exchange -> ingest(exchange, TYPE_INFLUX)));
+        server.createContext("/influx/write", guarded(exchange -> ingest(exchange, TYPE_INFLUX)));
+        server.createContext("/api/v1/import", guarded(exchange -> ingest(exchange, importType(exchange))));
+        server.createContext("/api/v1/write", guarded(exchange -> ingest(exchange, TYPE_REMOTE_WRITE)));
+        server.createContext("/opentelemetry/v1/metrics", guarded(exchange -> ingest(exchange, TYPE_OPENTELEMETRY)));
+        server.createContext("/insert/", guarded(this::handleInsert));
+        server.createContext("/api/v1/query", guarded(this::handleQuery));
+        server.createContext("/api/v1/series/count", guarded(exchange -> respond(exchange, 200,
+                "{\"status\":\"success\",\"data\":[" + index.count(null) + "]}", 0)));
+        server.createContext("/api/v1/status/tsdb", guarded(this::handleTsdbStatus));
+        server.createContext("/api/v1/export", guarded(this::handleExport));
+        server.createContext("/api/v1/admin/tsdb/delete_series", guarded(this::handleDelete));
+        server.createContext("/metrics", guarded(exchange -> respond(exchange, 200, renderMetrics(), 0)));
+        server.start();
+        log.info("模拟目标已启动 - 端口: {}, 延迟分布: {}, 错误比例: {}, 吞吐上限: {}/s",
+                getPort(), config.getLatencyDistribution(), config.getErrorRate(), config.getMaxSamplesPerSecond());
+    }
+
+    /**
+     * 停止服务
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        handlerExecutor.shutdownNow();
+        responder.shutdownNow();
+        server = null;
+        log.info("模拟目标已停止");
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    public MockTargetConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return 已接收的数据点总数
+     */
+    public long getRowsInserted() {
+        long rows = 0;
+        for (LongAdder adder : rowsByType.values()) {
+            rows += adder.sum();
+        }
+        return rows;
+    }
+
+    /**
+     * @return 运行统计
+     */
+    public Map<String, Object> getStats() {
+        long uptimeMillis = Math.max(1, System.currentTimeMillis() - startMillis);
+        long rows = getRowsInserted();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("port", getPort());
+        stats.put("uptimeMillis", uptimeMillis);
+        Map<String, Long> requests = new LinkedHashMap<>();
+        requestsByPath.forEach((path, adder) -> requests.put(path, adder.sum()));
+        stats.put("requests", requests);
+        Map<String, Long> rowsByFormat = new LinkedHashMap<>();
+        rowsByType.forEach((type, adder) -> rowsByFormat.put(type, adder.sum()));
+        stats.put("rowsByType", rowsByFormat);
+        Map<String, Long> tenantRows = new LinkedHashMap<>();
+        rowsByTenant.forEach((tenant, adder) -> tenantRows.put(tenant, adder.sum()));
+        stats.put("rowsByTenant", tenantRows);
+        stats.put("rowsInserted", rows);
+        stats.put("avgSamplesPerSecond", rows * 1000.0 / uptimeMillis);
+        stats.put("bytesReceived", bytesReceived.sum());
+        stats.put("injectedErrors", injectedErrors.sum());
+        stats.put("throttledRequests", throttledRequests.sum());
+        stats.put("delayedResponses", delayedResponses.sum());
+        stats.put("trackedSeries", index.getTracked());
+        stats.put("droppedSeries", index.getDropped());
+        return stats;
+    }
+
+    /**
+     * @return 按租户统计的已接收数据点数
+     */
+    public Map<String, Long> getRowsByTenant() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        rowsByTenant.forEach((tenant, adder) -> rows.put(tenant, adder.sum()));
+        return rows;
+    }
+
+    /**
+     * 集群版写入接口：/insert/{租户}/ 之后的路径与单机版接口对应
+     */
+    private void handleInsert(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/insert/".length());
+        int slash = path.indexOf('/');
+        if (slash <= 0) {
+            respond(exchange, 400, "missing accountID", 0);
+            return;
+        }
+        String tenant = path.substring(0, slash);
+        String endpoint = path.substring(slash);
+        String type;
+        if (endpoint.endsWith("/api/v1/import/prometheus")) {
+            type = TYPE_PROMETHEUS;
+        } else if (endpoint.endsWith("/api/v1/import/influx") || (endpoint.endsWith("/write")
+                && !endpoint.endsWith("/api/v1/write"))) {
+            type = TYPE_INFLUX;
+        } else if (endpoint.endsWith("/api/v1/write")) {
+            type = TYPE_REMOTE_WRITE;
+        } else if (endpoint.endsWith("/opentelemetry/v1/metrics")) {
+            type = TYPE_OPENTELEMETRY;
+        } else if (endpoint.contains("/api/v1/import")) {
+            type = importType(exchange);
+        } else {
+            respond(exchange, 404, "unsupported path", 0);
+            return;
+        }
+        ingest(exchange, type, tenant);
+    }
+
+    private void ingest(HttpExchange exchange, String type) throws IOException {
+        ingest(exchange, type, null);
+    }
+
+    private void ingest(HttpExchange exchange, String type, String tenant) throws IOException {
+        Body body = readBody(exchange);
+        bytesReceived.add(body.length);
+        if (injectError()) {
+            respond(exchange, config.getErrorStatus(), "injected error", sampleLatencyNanos());
+            return;
+        }
+
+        boolean track = Boolean.TRUE.equals(config.getTrackSeries());
+        long rows;
+        switch (type) {
+            case TYPE_PROMETHEUS:
+                rows = ingestPrometheus(body.data, body.length, track);
+                break;
+            case TYPE_INFLUX:
+                rows = ingestInflux(body.data, body.length, track);
+                break;
+            case TYPE_VMIMPORT:
+            case TYPE_CSV:
+                rows = countLines(body.data, body.length);
+                break;
+            case TYPE_OPENTELEMETRY:
+                rows = countOtlpDataPoints(body.data, 0, body.length, 0);
+                break;
+            default:
+                rows = 0;
+        }
+
+        long throttleNanos = 0;
+        if (throughputCap != null && rows > 0) {
+            if (delayWhenThrottled) {
+                throttleNanos = throughputCap.reserve(rows);
+            } else if (!throughputCap.tryAcquire(rows)) {
+                throttledRequests.increment();
+                respond(exchange, 429, "too many samples", 0);
+                return;
+            }
+        }
+        rowsByType.computeIfAbsent(type, k -> new LongAdder()).add(rows);
+        if (tenant != null) {
+            rowsByTenant.computeIfAbsent(tenant, k -> new LongAdder()).add(rows);
+        }
+        respond(exchange, 204, null, sampleLatencyNanos() + throttleNanos);
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = parseParams(exchange);
+        if (injectError()) {
+            respond(exchange, config.getErrorStatus(), "injected error", sampleLatencyNanos());
+            return;
+        }
+        String query = first(params, "query");
+        if (query == null) {
+            respond(exchange, 400, "{\"status\":\"error\",\"error\":\"missing query\"}", 0);
+            return;
+        }
+
+        StringBuilder result = new StringBuilder("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[");
+        Matcher count = COUNT_QUERY.matcher(query.trim());
+        if (count.matches()) {
+            long value = index.count(namePattern(count.group(1)));
+            // 与 Prometheus 一致：没有匹配的序列时 count 返回空结果
+            if (value > 0) {
+                result.append("{\"metric\":{},\"value\":[")
+                        .append(System.currentTimeMillis() / 1000.0)
+                        .append(",\"").append(value).append("\"]}");
+            }
+        }
+        result.append("]}}");
+        respond(exchange, 200, result.toString(), sampleLatencyNanos());
+    }
+
+    /**
+     * 基数统计：索引只保存序列哈希，因此只返回按指标名分组的序列数，标签维度的统计为空
+     */
+    private void handleTsdbStatus(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = parseParams(exchange);
+        String match = first(params, "match[]");
+        String topN = first(params, "topN");
+        int limit = topN != null ? Integer.parseInt(topN) : 10;
+        Map<String, Long> counts = index.countByName(match != null ? namePattern(match) : null);
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+
+        StringBuilder body = new StringBuilder("{\"status\":\"success\",\"data\":{\"totalSeries\":")
+                .append(total).append(",\"totalLabelValuePairs\":0,\"seriesCountByMetricName\":[");
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> body.append("{\"name\":\"").append(entry.getKey())
+                        .append("\",\"value\":").append(entry.getValue()).append("},"));
+        if (body.charAt(body.length() - 1) == ',') {
+            body.setLength(body.length() - 1);
+        }
+        body.append("],\"seriesCountByLabelName\":[],\"seriesCountByLabelValuePair\":[],")
+                .append("\"labelValueCountByLabelName\":[]}}");
+        respond(exchange, 200, body.toString(), sampleLatencyNanos());
+    }
+
+    /**
+     * 导出：索引只保存序列哈希，每个序列输出一行JSON，标签只有指标名与哈希，带一个当前时间的数据点。
+     * /api/v1/export/native 返回相同的字节，只作为可重新导入的不透明数据
+     */
+    private void handleExport(HttpExchange exchange) throws IOException {
+        String match = first(parseParams(exchange), "match[]");
+        if (match == null) {
+            respond(exchange, 400, "missing match[] arg", 0);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        StringBuilder body = new StringBuilder();
+        index.forEach(namePattern(match), (name, hash) -> body.append("{\"metric\":{\"__name__\":\"").append(name)
+                .append("\",\"series\":\"").append(Long.toHexString(hash))
+                .append("\"},\"values\":[1],\"timestamps\":[").append(now).append("]}\n"));
+        respond(exchange, 200, body.toString(), sampleLatencyNanos());
+    }
+
+    private void handleDelete(HttpExchange exchange) throws IOException {
+        List<String> matchers = parseParams(exchange).get("match[]");
+        if (matchers == null || matchers.isEmpty()) {
+            respond(exchange, 400, "missing match[] arg", 0);
+            return;
+        }
+        long deleted = 0;
+        for (String matcher : matchers) {
+            Pattern pattern = namePattern(matcher);
+            if (pattern != null) {
+                deleted += index.delete(pattern);
+            }
+        }
+        log.debug("模拟目标删除序列: {} 条, 匹配: {}", deleted, matchers);
+        respond(exchange, 204, null, 0);
+    }
+
+    /**
+     * 按 Prometheus 文本格式逐行解析，序列键为值之前的部分（指标名与标签）
+     */
+    private long ingestPrometheus(byte[] data, int length, boolean track) {
+        long rows = 0;
+        NameCache names = new NameCache();
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = indexOf(data, (byte) '\n', pos, length);
+            int start = skipSpaces(data, pos, lineEnd);
+            if (start < lineEnd && data[start] != '#') {
+                int keyEnd = seriesKeyEnd(data, start, lineEnd);
+                if (keyEnd > start && keyEnd < lineEnd) {
+                    rows++;
+                    if (track) {
+                        int nameEnd = start;
+                        while (nameEnd < keyEnd && data[nameEnd] != '{') {
+                            nameEnd++;
+                        }
+                        index.add(names.get(data, start, nameEnd), data, start, keyEnd - start, null);
+                    }
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    /**
+     * 按 Influx 行协议逐行解析，每个字段是一个数据点，指标名为 measurement_field
+     */
+    private long ingestInflux(byte[] data, int length, boolean track) {
+        long rows = 0;
+        NameCache names = new NameCache();
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = indexOf(data, (byte) '\n', pos, length);
+            int start = skipSpaces(data, pos, lineEnd);
+            if (start < lineEnd && data[start] != '#') {
+                int measurementEnd = start;
+                while (measurementEnd < lineEnd && data[measurementEnd] != ',' && data[measurementEnd] != ' ') {
+                    measurementEnd += data[measurementEnd] == '\\' ? 2 : 1;
+                }
+                int tagsEnd = measurementEnd;
+                while (tagsEnd < lineEnd && data[tagsEnd] != ' ') {
+                    tagsEnd += data[tagsEnd] == '\\' ? 2 : 1;
+                }
+                String measurement = track ? names.get(data, start, Math.min(measurementEnd, lineEnd)) : null;
+                int fieldsEnd = seriesKeyEnd(data, tagsEnd + 1, lineEnd);
+                int fieldStart = tagsEnd + 1;
+                while (fieldStart < fieldsEnd) {
+                    int keyEnd = indexOf(data, (byte) '=', fieldStart, fieldsEnd);
+                    int fieldEnd = fieldEnd(data, keyEnd + 1, fieldsEnd);
+                    if (keyEnd > fieldStart && keyEnd < fieldsEnd) {
+                        rows++;
+                        if (track) {
+                            String field = new String(data, fieldStart, keyEnd - fieldStart, StandardCharsets.US_ASCII);
+                            index.add(measurement + "_" + field, data, start, tagsEnd - start, field);
+                        }
+                    }
+                    fieldStart = fieldEnd + 1;
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    /**
+     * 找到引号外的第一个空格
+     */
+    private static int seriesKeyEnd(byte[] data, int from, int to) {
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ' ' && !quoted) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * 找到引号外的下一个逗号，即当前 Influx 字段的结束位置
+     */
+    private static int fieldEnd(byte[] data, int from, int to) {
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * 按 OTLP 的嵌套路径统计数据点：resource_metrics(1) → scope_metrics(2) → metrics(2)
+     * → gauge/sum/histogram/exponential_histogram/summary(5/7/9/10/11) → data_points(1)，其余字段跳过
+     *
+     * @return 数据点数，遇到无法识别的 wire type 时返回已统计的部分
+     */
+    static long countOtlpDataPoints(byte[] data, int from, int to, int depth) {
+        long points = 0;
+        int[] pos = { from };
+        while (pos[0] < to) {
+            long key = readVarint(data, pos);
+            int field = (int) (key >>> 3);
+            switch ((int) (key & 7)) {
+                case 0:
+                    readVarint(data, pos);
+                    break;
+                case 1:
+                    pos[0] += 8;
+                    break;
+                case 5:
+                    pos[0] += 4;
+                    break;
+                case 2:
+                    int length = (int) readVarint(data, pos);
+                    int end = Math.min(to, pos[0] + length);
+                    if (isOtlpPath(depth, field)) {
+                        points += depth == 4 ? 1 : countOtlpDataPoints(data, pos[0], end, depth + 1);
+                    }
+                    pos[0] = end;
+                    break;
+                default:
+                    return points;
+            }
+        }
+        return points;
+    }
+
+    private static boolean isOtlpPath(int depth, int field) {
+        switch (depth) {
+            case 0:
+            case 4:
+                return field == 1;
+            case 1:
+            case 2:
+                return field == 2;
+            case 3:
+                return field == 5 || field == 7 || field == 9 || field == 10 || field == 11;
+            default:
+                return false;
+        }
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && pos[0] < data.length; shift += 7) {
+            byte b = data[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] data, byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == target) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int skipSpaces(byte[] data, int from, int to) {
+        while (from < to && (data[from] == ' ' || data[from] == '\t' || data[from] == '\r')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static long countLines(byte[] data, int length) {
+        long lines = 0;
+        boolean content = false;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                if (content) {
+                    lines++;
+                }
+                content = false;
+            } else if (data[i] != ' ' && data[i] != '\r') {
+                content = true;
+            }
+        }
+        return content ? lines + 1 : lines;
+    }
+
+    /**
+     * 从选择器中提取指标名匹配条件，只看 __name__ 或开头的指标名，其余标签条件忽略
+     *
+     * @return 指标名正则，没有指标名条件时返回null（匹配全部）
+     */
+    static Pattern namePattern(String selector) {
+        String trimmed = selector.trim();
+        Matcher matcher = NAME_MATCHER.matcher(trimmed);
+        if (matcher.find()) {
+            String value = matcher.group(2).replace("\\\\", "\\").replace("\\\"", "\"");
+            return "=~".equals(matcher.group(1)) ? Pattern.compile(value) : Pattern.compile(Pattern.quote(value));
+        }
+        Matcher name = METRIC_NAME.matcher(trimmed);
+        return name.find() ? Pattern.compile(Pattern.quote(name.group(1))) : null;
+    }
+
+    private String importType(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/csv")) {
+            return TYPE_CSV;
+        }
+        if (path.endsWith("/native")) {
+            return TYPE_NATIVE;
+        }
+        return TYPE_VMIMPORT;
+    }
+
+    private boolean injectError() {
+        Double rate = config.getErrorRate();
+        if (rate != null && rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            injectedErrors.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按配置的分布采样一次响应延迟
+     */
+    private long sampleLatencyNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double mean = config.getLatencyMillis() == null ? 0 : config.getLatencyMillis();
+        double millis;
+        switch (config.getLatencyDistribution()) {
+            case "fixed":
+                millis = mean;
+                break;
+            case "uniform":
+                double upper = Math.max(mean, config.getLatencyMaxMillis());
+                millis = mean + random.nextDouble() * (upper - mean);
+                break;
+            case "exponential":
+                millis = -mean * Math.log(1 - random.nextDouble());
+                break;
+            case "lognormal":
+                double sigma = config.getLatencySigma();
+                double mu = Math.log(Math.max(mean, 1e-3)) - sigma * sigma / 2;
+                millis = Math.exp(mu + sigma * random.nextGaussian());
+                break;
+            default:
+                millis = 0;
+        }
+        return (long) (millis * 1_000_000);
+    }
+
+    /**
+     * 发送响应，有延迟时交给定时线程到期发送，处理线程立即返回
+     */
+    private void respond(HttpExchange exchange, int status, String body, long delayNanos) {
+        byte[] bytes = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+        if (delayNanos <= 0) {
+            send(exchange, status, bytes);
+            return;
+        }
+        delayedResponses.increment();
+        responder.schedule(() -> send(exchange, status, bytes), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) {
+        try {
+            if (body == null || status == 204) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("模拟目标发送响应失败: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private HttpHandler guarded(HttpHandler handler) {
+        return exchange -> {
+            requestsByPath.computeIfAbsent(exchange.getRequestURI().getPath(), k -> new LongAdder()).increment();
+            try {
+                handler.handle(exchange);
+            } catch (Exception e) {
+                log.error("模拟目标处理请求失败: {}", exchange.getRequestURI(), e);
+                send(exchange, 500, String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    /**
+     * 读取请求体到线程复用的数组中，支持gzip压缩的请求体
+     */
+    private Body readBody(HttpExchange exchange) throws IOException {
+        Body body = bodies.get();
+        body.length = 0;
+        InputStream raw = exchange.getRequestBody();
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        try (InputStream in = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(raw) : raw) {
+            int read;
+            while ((read = in.read(body.data, body.length, body.data.length - body.length)) != -1) {
+                body.length += read;
+                if (body.length == body.data.length) {
+                    byte[] grown = new byte[body.data.length * 2];
+                    System.arraycopy(body.data, 0, grown, 0, body.length);
+                    body.data = grown;
+                }
+            }
+        }
+        return body;
+    }
+
+    /**
+     * 合并URL参数与表单请求体中的参数，同名参数可以出现多次（例如 match[]）
+     */
+    private Map<String, List<String>> parseParams(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        addParams(params, exchange.getRequestURI().getRawQuery());
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            Body body = readBody(exchange);
+            addParams(params, new String(body.data, 0, body.length, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void addParams(Map<String, List<String>> params, String encoded) throws UnsupportedEncodingException {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            String key = URLDecoder.decode(pair.substring(0, eq), "UTF-8");
+            String value = URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            params.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static String first(Map<String, List<String>> params, String key) {
+        List<String> values = params.get(key);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * 以 VictoriaMetrics 的指标名输出运行统计，collectServerMetrics 可以直接解析；
+     * 进程指标反映的是模拟目标所在的JVM
+     */
+    private String renderMetrics() {
+        StringBuilder out = new StringBuilder(2048);
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            long cpuNanos = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+            appendMetric(out, "process_cpu_seconds_total", cpuNanos / 1e9);
+        }
+        appendMetric(out, "process_start_time_seconds", ManagementFactory.getRuntimeMXBean().getStartTime() / 1000.0);
+        Runtime runtime = Runtime.getRuntime();
+        appendMetric(out, "process_resident_memory_bytes", runtime.totalMemory() - runtime.freeMemory());
+        appendMetric(out, "go_memstats_sys_bytes", runtime.maxMemory());
+        appendMetric(out, "vm_data_size_bytes{type=\"storage/small\"}", bytesReceived.sum());
+        // 模拟目标不压缩，按原样存储接收到的负载，压缩比为1
+        appendMetric(out, "vm_rows{type=\"storage/small\"}", getRowsInserted());
+        appendMetric(out, "vm_active_merges{type=\"storage/small\"}", 0);
+        appendMetric(out, "vm_pending_rows{type=\"storage\"}", 0);
+        for (Map.Entry<String, LongAdder> entry : rowsByType.entrySet()) {
+            appendMetric(out, "vm_rows_inserted_total{type=\"" + entry.getKey() + "\"}", entry.getValue().sum());
+        }
+        for (Map.Entry<String, LongAdder> entry : requestsByPath.entrySet()) {
+            appendMetric(out, "vm_http_requests_total{path=\"" + entry.getKey() + "\"}", entry.getValue().sum());
+        }
+        appendMetric(out, "vm_new_timeseries_created_total", index.getTracked());
+        appendMetric(out, "mock_injected_errors_total", injectedErrors.sum());
+        appendMetric(out, "mock_throttled_requests_total", throttledRequests.sum());
+        appendMetric(out, "mock_delayed_responses_total", delayedResponses.sum());
+        return out.toString();
+    }
+
+    private static void appendMetric(StringBuilder out, String name, double value) {
+        out.append(name).append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * 线程复用的请求体缓冲区
+     */
+    private static class Body {
+        byte[] data = new byte[64 * 1024];
+        int length;
+    }
+
+    /**
+     * 同一批次中相邻行的指标名通常相同，复用上一次创建的字符串
+     */
+    private static class NameCache {
+        private byte[] lastBytes = new byte[0];
+        private String lastName = "";
+
+        String get(byte[] data, int from, int to) {
+            int length = to - from;
+            if (length == lastBytes.length) {
+                boolean same = true;
+                for (int i = 0; i < length; i++) {
+                    if (data[from + i] != lastBytes[i]) {
+                        same = false;
+                        break;
+                    }
+                }
+                if (same) {
+                    return lastName;
+                }
+            }
+            lastBytes = new byte[length];
+            System.arraycopy(data, from, lastBytes, 0, length);
+            lastName = new String(lastBytes, StandardCharsets.US_ASCII);
+            return lastName;
+        }
+    }
+}
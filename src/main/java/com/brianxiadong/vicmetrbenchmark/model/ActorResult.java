@@ -0,0 +1,42 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 混合负载中单个负载的结果
+ * 写入负载的操作数按数据点计，其余负载按请求计；每秒序列从压测开始对齐，便于比较不同负载
+ */
+@Data
+public class ActorResult {
+
+    private String name;
+    private String type;
+
+    /**
+     * 成功与失败的操作数
+     */
+    private long operations;
+    private long errors;
+    private double operationsPerSecond;
+
+    /**
+     * 请求延迟分布（毫秒），写入负载为每个批次的延迟
+     */
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    /**
+     * 每秒成功与失败的操作数
+     */
+    private long[] operationsPerSecondSeries;
+    private long[] errorsPerSecondSeries;
+
+    /**
+     * 每秒请求延迟的均值与P99（毫秒），该秒没有完成的请求时为-1
+     */
+    private double[] meanMillisSeries;
+    private double[] p99MillisSeries;
+}
@@ -0,0 +1,66 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 压测检查点模型类
+ * 长时间运行（浸泡测试）期间定期保存计数器与延迟直方图，进程崩溃后可从最近的检查点恢复
+ */
+@Data
+public class BenchmarkCheckpoint {
+
+    /**
+     * 压测运行ID
+     */
+    private String runId;
+
+    /**
+     * 原始压测请求参数
+     */
+    private BenchmarkRequest request;
+
+    /**
+     * 压测开始时间戳
+     */
+    private long startTimestamp;
+
+    /**
+     * 检查点保存时间戳
+     */
+    private long checkpointTimestamp;
+
+    /**
+     * 截至检查点的累计运行时长（毫秒），不含进程崩溃后的停机时间
+     */
+    private long elapsedMillis;
+
+    /**
+     * 成功写入的数据量
+     */
+    private long successSamples;
+
+    /**
+     * 写入失败的数据量
+     */
+    private long failedSamples;
+
+    /**
+     * 客户端异常次数（编码失败等非服务端原因）
+     */
+    private long clientErrors;
+
+    /**
+     * 编码后发送的负载总字节数
+     */
+    private long payloadBytes;
+
+    /**
+     * 批次延迟直方图的桶计数
+     */
+    private long[] latencyHistogram;
+
+    /**
+     * 从检查点恢复的次数
+     */
+    private int resumeCount;
+}
@@ -2,6 +2,8 @@ package com.brianxiadong.vicmetrbenchmark.model;
 
 import lombok.Data;
 
+import java.util.Map;
+
 /**
  * 压测请求参数模型类
  * 用于接收前端传递的压测参数
@@ -20,9 +22,24 @@ public class BenchmarkRequest {
     private Integer port;
 
     /**
-     * 写入数据的总数量
+     * 写入数据的总数量，运行时长模式下为可选的数据量上限
+     */
+    private Long dataCount;
+
+    /**
+     * 运行时长（秒），大于0时按时长运行，用于浸泡测试
+     */
+    private Long durationSeconds;
+
+    /**
+     * 检查点保存间隔（秒）
      */
-    private Integer dataCount;
+    private Integer checkpointIntervalSeconds = 60;
+
+    /**
+     * 压测运行ID，为空时自动生成
+     */
+    private String runId;
 
     /**
      * 每批次写入的数据量
@@ -40,10 +57,166 @@ public class BenchmarkRequest {
     private String metricPrefix = "benchmark_metric";
 
     /**
-     * 写入接口类型：prometheus, influx, 等
+     * 写入接口类型：prometheus、influx（/api/v1/import/influx）、influx-write（/influx/write）、
+     * otlp（/opentelemetry/v1/metrics），以及走原始TCP的 graphite、opentsdb 等
      */
     private String apiType = "prometheus";
 
+    /**
+     * 是否启用自适应并发控制（根据延迟与429/5xx反馈动态调整在途请求数）
+     */
+    private Boolean adaptiveConcurrency = false;
+
+    /**
+     * 自适应模式下的最大并发，未设置时为 concurrency 的4倍
+     */
+    private Integer maxConcurrency;
+
+    /**
+     * 自适应模式下的最小并发
+     */
+    private Integer minConcurrency = 1;
+
+    /**
+     * 延迟容忍倍数，平滑延迟超过基线延迟的该倍数时减少并发
+     */
+    private Double latencyTolerance = 2.0;
+
+    /**
+     * 负载缓冲区是否使用堆外内存
+     */
+    private Boolean directBuffers = false;
+
+    /**
+     * 是否在压测期间录制JFR，录制文件与结果保存在同一目录
+     */
+    private Boolean jfrRecording = false;
+
+    /**
+     * JFR 配置：default（开销约1%）或 profile（采样更密，开销约2%）
+     */
+    private String jfrSettings = "default";
+
+    /**
+     * 预热时长（秒），预热期间的数据量、耗时与延迟不计入结果
+     */
+    private Integer warmupSeconds = 0;
+
+    /**
+     * 预热数据量，与预热时长同时设置时两个条件都满足才结束预热
+     */
+    private Long warmupSamples = 0L;
+
+    /**
+     * 稳态检测的滑动窗口（秒）
+     */
+    private Integer steadyStateWindowSeconds = 10;
+
+    /**
+     * 稳态检测的变异系数阈值，窗口内每秒吞吐的标准差/均值不超过该值视为稳定
+     */
+    private Double steadyStateTolerance = 0.1;
+
+    /**
+     * 是否跟踪压测期间的存储占用，并在后台合并完成后计算每个数据点的存储字节数
+     */
+    private Boolean storageTracking = false;
+
+    /**
+     * 存储指标的采样间隔（秒）
+     */
+    private Integer storageSampleIntervalSeconds = 10;
+
+    /**
+     * 压测结束后等待后台合并完成的最长时间（秒）
+     */
+    private Integer mergeSettleTimeoutSeconds = 60;
+
+    /**
+     * 是否在写入压测期间测量写入到可查询的延迟
+     */
+    private Boolean freshnessProbe = false;
+
+    /**
+     * 标记数据的写入间隔（毫秒）
+     */
+    private Integer freshnessIntervalMillis = 1000;
+
+    /**
+     * 可见性查询的轮询间隔（毫秒）
+     */
+    private Integer freshnessPollMillis = 100;
+
+    /**
+     * 标记超过该时长仍不可见则计为超时（秒）
+     */
+    private Integer freshnessTimeoutSeconds = 60;
+
+    /**
+     * Influx 行协议每行的字段数，批次大小仍按数据点计
+     */
+    private Integer influxFields = 1;
+
+    /**
+     * Influx 时间戳精度：ns、us、ms、s、m 或 h，其他值会使压测直接返回错误
+     */
+    private String influxPrecision = "ns";
+
+    /**
+     * Influx 写入的 db 参数，可选
+     */
+    private String influxDb;
+
+    /**
+     * OTLP 数据点类型：gauge、sum 或 histogram
+     */
+    private String otlpMetricType = "gauge";
+
+    /**
+     * OTLP histogram 的显式桶边界个数
+     */
+    private Integer otlpHistogramBuckets = 10;
+
+    /**
+     * OTLP 附加的资源属性，可选
+     */
+    private Map<String, String> otlpResourceAttributes;
+
+    /**
+     * 写入请求体是否使用 gzip 压缩
+     */
+    private Boolean gzip = false;
+
+    /**
+     * 集群版租户 accountID[:projectID]，设置后写入 /insert/{租户}/ 下的接口
+     */
+    private String tenant;
+
+    /**
+     * 写入速率上限（每秒数据点数），为空时不限速；速率平均分给各工作线程，每个线程使用独立的令牌桶
+     */
+    private Double samplesPerSecond;
+
+    /**
+     * graphite、opentsdb 明文协议的TCP端口，为空时分别为 2003 与 4242
+     */
+    private Integer tcpPort;
+
+    /**
+     * TCP长连接数，为空时等于并发线程数
+     */
+    private Integer tcpConnections;
+
+    /**
+     * 管理TCP连接的选择器线程数
+     */
+    private Integer selectorThreads = 2;
+
+    /**
+     * 每次聚集写携带的批次数
+     */
+    private Integer batchesPerWrite = 4;
+
     public String getHost() {
         return host;
     }
@@ -60,11 +233,11 @@ public class BenchmarkRequest {
         this.port = port;
     }
 
-    public Integer getDataCount() {
+    public Long getDataCount() {
         return dataCount;
     }
 
-    public void setDataCount(Integer dataCount) {
+    public void setDataCount(Long dataCount) {
         this.dataCount = dataCount;
     }
 
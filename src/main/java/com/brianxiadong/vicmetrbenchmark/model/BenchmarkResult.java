@@ -2,6 +2,8 @@ package com.brianxiadong.vicmetrbenchmark.model;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * 压测结果模型类
  * 用于存储压测的结果数据
@@ -9,6 +11,31 @@ import lombok.Data;
 @Data
 public class BenchmarkResult {
 
+    /**
+     * 压测运行ID
+     */
+    private String runId;
+
+    /**
+     * 运行状态：running, completed, interrupted
+     */
+    private String status;
+
+    /**
+     * 从检查点恢复的次数
+     */
+    private int resumeCount;
+
+    /**
+     * 客户端异常次数（编码失败等非服务端原因），压测遇到这类异常会继续运行
+     */
+    private long clientErrors;
+
+    /**
+     * 批次延迟直方图的桶计数，用于跨运行合并与比较
+     */
+    private long[] latencyHistogram;
+
     /**
      * 总请求数
      */
@@ -79,8 +106,140 @@ public class BenchmarkResult {
      */
     private String errorMessage;
 
+    /**
+     * 批次延迟百分位（毫秒）
+     */
+    private double p50ResponseTimeMillis;
+    private double p90ResponseTimeMillis;
+    private double p99ResponseTimeMillis;
+
+    /**
+     * 是否启用了自适应并发控制
+     */
+    private boolean adaptiveConcurrency;
+
+    /**
+     * 自适应并发收敛到的限制值，即目标服务可持续的写入并发
+     */
+    private double convergedConcurrencyLimit;
+
+    /**
+     * 运行结束时的并发限制
+     */
+    private int finalConcurrencyLimit;
+
+    /**
+     * 运行期间达到的最大并发限制
+     */
+    private int peakConcurrencyLimit;
+
+    /**
+     * 并发限制被削减的次数
+     */
+    private long concurrencyLimitDecreases;
+
+    /**
+     * 各压测线程的吞吐统计
+     */
+    private List<WorkerStats> workerStats;
+
+    /**
+     * 尾部阶段时长（毫秒），即第一个线程结束到最后一个线程结束的时间
+     */
+    private long tailPhaseMillis;
+
+    /**
+     * 编码后发送的负载总字节数（不含重试）
+     */
+    private long payloadBytes;
+
+    /**
+     * 负载缓冲区新分配次数与复用次数
+     */
+    private long bufferAllocations;
+    private long bufferReuses;
+
+    /**
+     * 压测期间客户端自身的GC次数与累计耗时（毫秒），耗时包含并发收集时间，不等同于暂停时间
+     */
+    private long harnessGcCount;
+    private long harnessGcTimeMillis;
+
+    /**
+     * 本次运行 HTTP 写入请求的分阶段耗时与连接复用率
+     */
+    private RequestPhaseStats requestPhases;
+
+    /**
+     * 每秒吞吐时间线
+     */
+    private TimelineSeries timeline;
+
+    /**
+     * 分布式压测的工作节点数，单进程运行时为0
+     */
+    private int distributedWorkers;
+
+    /**
+     * 本次压测的JFR录制文件路径，未开启录制时为null
+     */
+    private String jfrRecordingFile;
+
+    /**
+     * 压测期间服务端消耗的CPU时间（秒），由开始前与结束后的 process_cpu_seconds_total 相减得到，未知时为-1
+     */
+    private double serverCpuSeconds = -1;
+
+    /**
+     * 压测结束时服务端的常驻内存（字节），未知时为-1
+     */
+    private double serverResidentMemoryBytes = -1;
+
+    /**
+     * 压测期间服务端常驻内存的变化（字节），由开始前与结束后的 process_resident_memory_bytes 相减得到，
+     * 可能为负，未知时为null
+     */
+    private Double serverMemoryGrowthBytes;
+
+    /**
+     * 写入到可查询的延迟，未开启新鲜度探测时为null
+     */
+    private FreshnessResult freshness;
+
+    /**
+     * 存储效率，未开启存储跟踪时为null
+     */
+    private StorageEfficiency storage;
+
+    /**
+     * 实际预热时长（毫秒）与预热期间成功写入的数据量；设置预热后请求数、耗时与延迟只统计预热之后
+     */
+    private long warmupMillis;
+    private long warmupSamples;
+
+    /**
+     * 每秒吞吐时间线上检测到的稳态窗口
+     */
+    private SteadyStateWindow steadyState;
+
+    /**
+     * graphite、opentsdb 明文协议压测的TCP连接数：成功建立、建立失败、写入中断开，HTTP压测时均为0
+     */
+    private int tcpConnectionsOpened;
+    private int tcpConnectionsFailed;
+    private int tcpConnectionsBroken;
+
+    /**
+     * TCP聚集写的调用次数
+     */
+    private long tcpWriteCalls;
+
     private long totalTime;
     private long totalDataPoints;
+
+    /**
+     * 写入吞吐（数据点/秒）：检测到稳态时为稳态窗口的吞吐，否则为预热之后的平均吞吐
+     */
     private double writeRate;
     private double queryRate;
     private ServerMetrics serverMetrics;
@@ -0,0 +1,62 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 无界面运行的压测场景，从 YAML 或 JSON 文件读取
+ * 目标地址与其他应用配置在启动前生效；workload 即写入压测参数（数据量或时长、并发、预热、负载类型等），
+ * 按 trials 重复运行后依据阈值判定是否回归
+ */
+@Data
+public class BenchmarkScenario {
+
+    /**
+     * 场景名称，用于日志与报告文件名，读取场景文件时未设置则取文件名（不含扩展名）
+     */
+    private String name;
+
+    /**
+     * 压测目标地址，覆盖 victoriametrics.host / victoriametrics.port 配置
+     */
+    private String host;
+    private Integer port;
+
+    /**
+     * 额外的应用配置，例如 benchmark.mock-target.enabled
+     */
+    private Map<String, String> properties = new LinkedHashMap<>();
+
+    /**
+     * 写入压测参数，每次试验使用一份副本
+     */
+    private BenchmarkRequest workload = new BenchmarkRequest();
+
+    /**
+     * 重复试验次数
+     */
+    private Integer trials = 1;
+
+    /**
+     * 报告输出路径，为空时输出到结果目录下的 scenario-<名称>.json
+     */
+    private String output;
+
+    /**
+     * 绝对阈值：最低写入吞吐（数据点/秒）、最高错误率（0~1）、最高P99延迟（毫秒），为空表示不检查
+     */
+    private Double minWriteRate;
+    private Double maxErrorRate;
+    private Double maxP99Millis;
+
+    /**
+     * 相对阈值：与这些基线运行对比，显著变差超过 regressionThresholdPercent 时判定为回归
+     */
+    private List<String> baselineRunIds = new ArrayList<>();
+    private Double regressionThresholdPercent = 5.0;
+    private Double confidenceLevel = 0.95;
+}
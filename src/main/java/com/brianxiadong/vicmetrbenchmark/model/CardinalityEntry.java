@@ -0,0 +1,13 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 基数排行中的一项：名称（指标名、标签名或标签对）与对应的数量
+ */
+@Data
+public class CardinalityEntry {
+
+    private String name;
+    private long value;
+}
@@ -0,0 +1,37 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 基数统计请求
+ */
+@Data
+public class CardinalityRequest {
+
+    /**
+     * 序列选择器，只统计匹配的序列，为空时统计全部
+     */
+    private String match;
+
+    /**
+     * 统计日期（YYYY-MM-DD），为空时为当天；1970-01-01 表示所有日期
+     */
+    private String date;
+
+    /**
+     * 每类排行返回的条数
+     */
+    private Integer topN = 10;
+
+    /**
+     * 需要单独统计值分布的标签名
+     */
+    private String focusLabel;
+
+    /**
+     * 需要分别统计序列数的指标前缀
+     */
+    private List<String> prefixes;
+}
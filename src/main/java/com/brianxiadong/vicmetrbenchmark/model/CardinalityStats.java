@@ -0,0 +1,58 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基数统计结果，来自 /api/v1/status/tsdb
+ */
+@Data
+public class CardinalityStats {
+
+    private String match;
+    private String date;
+
+    /**
+     * 匹配的序列总数
+     */
+    private long totalSeries;
+
+    /**
+     * 标签对（name=value）总数
+     */
+    private long totalLabelValuePairs;
+
+    /**
+     * 按指标名的序列数排行
+     */
+    private List<CardinalityEntry> topMetricNames;
+
+    /**
+     * 按标签名的序列数排行
+     */
+    private List<CardinalityEntry> topLabelNames;
+
+    /**
+     * 按标签对的序列数排行
+     */
+    private List<CardinalityEntry> topLabelValuePairs;
+
+    /**
+     * 按标签名的不同取值数排行
+     */
+    private List<CardinalityEntry> labelValueCounts;
+
+    /**
+     * 聚焦标签的取值排行
+     */
+    private List<CardinalityEntry> focusLabelValues;
+
+    /**
+     * 各前缀的序列数，无法统计的前缀为-1
+     */
+    private Map<String, Long> seriesByPrefix;
+
+    private String errorMessage;
+}
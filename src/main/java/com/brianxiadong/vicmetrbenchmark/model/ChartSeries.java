@@ -0,0 +1,22 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 降采样后的一条曲线，seconds 与 values 一一对应
+ */
+@Data
+public class ChartSeries {
+
+    /**
+     * 曲线名：samples、requests、errors、meanMillis、p50Millis、p90Millis、p99Millis
+     */
+    private String name;
+
+    /**
+     * 保留下来的点相对起始时间的秒数偏移
+     */
+    private int[] seconds;
+
+    private double[] values;
+}
@@ -0,0 +1,36 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 两个负载每秒序列的互相关
+ * 以 source 的每秒吞吐为自变量，target 的每秒吞吐或P99延迟为因变量，滞后 k 秒表示 target 落后 source k 秒。
+ * 吞吐与延迟正相关、与吞吐负相关，说明 source 负载升高时 target 变差
+ */
+@Data
+public class CorrelationResult {
+
+    private String source;
+    private String target;
+
+    /**
+     * target 一侧的指标：throughput 或 p99
+     */
+    private String targetMetric;
+
+    /**
+     * 零滞后的皮尔逊相关系数，样本不足或方差为0时为null
+     */
+    private Double coefficient;
+
+    /**
+     * 绝对值最大的相关系数及其滞后秒数
+     */
+    private Double peakCoefficient;
+    private int peakLagSeconds;
+
+    /**
+     * 各滞后（0 到最大滞后秒）的相关系数
+     */
+    private Double[] coefficientsByLag;
+}
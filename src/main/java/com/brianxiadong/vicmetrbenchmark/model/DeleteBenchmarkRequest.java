@@ -0,0 +1,69 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 删除序列压测请求
+ * 按标签把待删除的序列切成若干分片并行删除，删除后轮询序列数直到查询不到
+ */
+@Data
+public class DeleteBenchmarkRequest {
+
+    /**
+     * 待删除数据的指标名称前缀
+     */
+    private String metricPrefix = "benchmark_metric";
+
+    /**
+     * 分片依据的标签，按标签值的最后一位数字分片
+     */
+    private String shardLabel = "batch_id";
+
+    /**
+     * 分片数，取值1到10
+     */
+    private Integer shards = 4;
+
+    /**
+     * 显式指定每个分片的序列选择器，不为空时忽略前缀与分片设置
+     */
+    private List<String> matchers;
+
+    /**
+     * 统计序列数的时间范围（秒），需要覆盖待删除数据集的时间跨度，
+     * 只有在这个范围内有数据点的序列才会被计数
+     */
+    private Long countRangeSeconds = 86400L;
+
+    /**
+     * 轮询序列数的初始间隔（毫秒），每次翻倍直到上限
+     */
+    private Long pollInitialMillis = 50L;
+
+    /**
+     * 轮询间隔上限（毫秒）
+     */
+    private Long pollMaxMillis = 2000L;
+
+    /**
+     * 等待序列不可见的最长时间（秒）
+     */
+    private Integer timeoutSeconds = 300;
+
+    /**
+     * 删除期间并行的写入负载，为空时不写入；指标前缀不能落在删除范围内
+     */
+    private BenchmarkRequest ingestion;
+
+    /**
+     * 删除前先写入的时间（秒），作为写入延迟的基线
+     */
+    private Integer ingestionWarmupSeconds = 5;
+
+    /**
+     * 序列不可见后继续写入的时间（秒），观察写入延迟是否恢复
+     */
+    private Integer ingestionCooldownSeconds = 5;
+}
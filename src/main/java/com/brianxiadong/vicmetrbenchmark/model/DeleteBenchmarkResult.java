@@ -0,0 +1,63 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 删除序列压测结果
+ */
+@Data
+public class DeleteBenchmarkResult {
+
+    private List<DeleteShardResult> shards;
+
+    /**
+     * 删除前匹配的序列总数，有分片查询失败时为null
+     */
+    private Long seriesBefore;
+
+    /**
+     * 结束时仍可查询到的序列数，有分片最后一次查询失败时为null
+     */
+    private Long seriesRemaining;
+
+    /**
+     * 所有分片都在超时前变为不可见
+     */
+    private boolean completed;
+
+    /**
+     * 所有删除请求返回所用的时间（毫秒）
+     */
+    private long deleteCallMillis;
+
+    /**
+     * 从删除开始到全部序列不可见的时间（毫秒），未完成为-1
+     */
+    private long timeToInvisibilityMillis = -1;
+
+    /**
+     * 删除吞吐：删除前序列数除以不可见时间（序列/秒）
+     */
+    private double seriesPerSecond;
+
+    /**
+     * 并行写入的批次延迟：删除前、删除期间、删除完成后
+     */
+    private LatencyWindow ingestionBefore;
+    private LatencyWindow ingestionDuring;
+    private LatencyWindow ingestionAfter;
+
+    /**
+     * 删除期间写入P99延迟相对删除前的变化百分比
+     */
+    private Double ingestionP99ChangePercent;
+
+    /**
+     * 并行写入的压测结果
+     */
+    private BenchmarkResult ingestionResult;
+
+    private String errorMessage;
+}
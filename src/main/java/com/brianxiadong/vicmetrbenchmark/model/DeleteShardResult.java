@@ -0,0 +1,39 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 单个删除分片的结果
+ */
+@Data
+public class DeleteShardResult {
+
+    private String matcher;
+
+    /**
+     * 删除前匹配的序列数，查询失败时为null
+     */
+    private Long seriesBefore;
+
+    /**
+     * 删除请求本身的耗时（毫秒）
+     */
+    private long deleteCallMillis;
+
+    /**
+     * 从删除开始到该分片查询不到序列的时间（毫秒），超时为-1
+     */
+    private long invisibleAfterMillis = -1;
+
+    /**
+     * 轮询次数
+     */
+    private int polls;
+
+    /**
+     * 最后一次轮询时剩余的序列数，查询失败时为null
+     */
+    private Long seriesRemaining;
+
+    private String errorMessage;
+}
@@ -0,0 +1,38 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分布式压测请求模型类
+ * 协调节点把一次压测拆分到多个工作进程执行，工作节点可以是已有的地址，也可以由协调节点在本机启动
+ */
+@Data
+public class DistributedBenchmarkRequest {
+
+    /**
+     * 整体压测参数，数据量与并发按工作节点数拆分
+     */
+    private BenchmarkRequest request;
+
+    /**
+     * 已运行的工作节点地址，例如 http://10.0.0.2:8899
+     */
+    private List<String> workers;
+
+    /**
+     * 在本机额外启动的工作进程数
+     */
+    private Integer localWorkers = 0;
+
+    /**
+     * 本机工作进程的起始端口，依次递增
+     */
+    private Integer localWorkerBasePort = 18900;
+
+    /**
+     * 分配任务后到统一开始的等待时间（毫秒），用于让所有节点同时起跑
+     */
+    private Long startDelayMillis = 3000L;
+}
@@ -0,0 +1,78 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 导出压测请求
+ * 把导出范围按序列（标签分片）和时间（等分窗口）切成若干分片并行导出
+ */
+@Data
+public class ExportBenchmarkRequest {
+
+    /**
+     * 运行ID，用于保存导出文件，为空时自动生成
+     */
+    private String runId;
+
+    /**
+     * 导出数据的指标名称前缀
+     */
+    private String metricPrefix = "benchmark_metric";
+
+    /**
+     * 显式指定的序列选择器，不为空时忽略前缀与序列分片设置
+     */
+    private List<String> matchers;
+
+    /**
+     * 序列分片依据的标签，按标签值的最后一位数字分片
+     */
+    private String shardLabel = "batch_id";
+
+    /**
+     * 序列分片数，取值1到10
+     */
+    private Integer seriesShards = 1;
+
+    /**
+     * 时间分片数，导出时间范围等分为若干窗口
+     */
+    private Integer timeShards = 4;
+
+    /**
+     * 导出起始时间（Unix秒），为空时为结束时间减去 rangeSeconds
+     */
+    private Long startSeconds;
+
+    /**
+     * 导出结束时间（Unix秒），为空时为当前时间
+     */
+    private Long endSeconds;
+
+    /**
+     * 未指定起始时间时的导出时长（秒）
+     */
+    private Long rangeSeconds = 3600L;
+
+    /**
+     * 导出格式：json（/api/v1/export）或 native（/api/v1/export/native）
+     */
+    private String format = "json";
+
+    /**
+     * 并行导出的线程数
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * 是否把导出数据保存为文件
+     */
+    private Boolean capture = false;
+
+    /**
+     * 导出完成后是否把保存的文件重新导入，需要同时开启 capture
+     */
+    private Boolean reimport = false;
+}
@@ -0,0 +1,37 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 导出压测结果
+ */
+@Data
+public class ExportBenchmarkResult {
+
+    private String runId;
+    private String format;
+    private List<ExportShardResult> shards;
+
+    /**
+     * 全部分片合计，速率按整体耗时计算
+     */
+    private long totalBytes;
+    private long totalSeries;
+    private long totalSamples;
+    private long totalTimeMillis;
+    private double megabytesPerSecond;
+    private double samplesPerSecond;
+    private long failedShards;
+
+    /**
+     * 重新导入保存的导出文件
+     */
+    private long reimportBytes;
+    private long reimportTimeMillis;
+    private double reimportMegabytesPerSecond;
+    private String reimportErrorMessage;
+
+    private String errorMessage;
+}
@@ -0,0 +1,40 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 单个导出分片的结果
+ */
+@Data
+public class ExportShardResult {
+
+    private String matcher;
+
+    /**
+     * 时间窗口（毫秒），两端都是闭区间；压测写入毫秒时间戳，按毫秒切分才不会漏掉窗口边界上的数据
+     */
+    private long startMillis;
+    private long endMillis;
+
+    /**
+     * 响应体字节数
+     */
+    private long bytes;
+
+    /**
+     * 序列数与数据点数，原生格式不解析内容，均为-1
+     */
+    private long series;
+    private long samples;
+
+    private long durationMillis;
+    private double megabytesPerSecond;
+    private double samplesPerSecond;
+
+    /**
+     * 保存的导出文件路径
+     */
+    private String captureFile;
+
+    private String errorMessage;
+}
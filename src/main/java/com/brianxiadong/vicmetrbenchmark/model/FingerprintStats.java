@@ -0,0 +1,42 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 同一查询指纹（归一化后的查询语句）的回放统计
+ */
+@Data
+public class FingerprintStats {
+
+    private String fingerprint;
+
+    /**
+     * 该指纹的一条原始查询
+     */
+    private String exampleQuery;
+
+    private long count;
+    private long errors;
+
+    /**
+     * 延迟（毫秒）
+     */
+    private double totalMillis;
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    /**
+     * 平均每次返回的序列数、数据点数与字节数
+     */
+    private double meanSeries;
+    private double meanSamples;
+    private double meanBytes;
+
+    /**
+     * 最近一次成功响应的校验和，未开启时为null
+     */
+    private Long lastChecksum;
+}
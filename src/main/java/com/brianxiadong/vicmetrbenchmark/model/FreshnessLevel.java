@@ -0,0 +1,35 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 某一写入负载区间内的可见延迟分布
+ */
+@Data
+public class FreshnessLevel {
+
+    /**
+     * 负载区间下限（数据点/秒，含）
+     */
+    private long minSamplesPerSecond;
+
+    /**
+     * 负载区间上限（数据点/秒，不含）
+     */
+    private long maxSamplesPerSecond;
+
+    /**
+     * 该区间内已可见的标记数
+     */
+    private long markers;
+
+    /**
+     * 该区间内超时仍不可见的标记数
+     */
+    private long timedOut;
+
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+}
@@ -0,0 +1,31 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 写入到可查询的延迟（数据新鲜度）测量结果
+ * 延迟从标记数据写入成功开始计算，到查询第一次能看到该标记为止
+ */
+@Data
+public class FreshnessResult {
+
+    private long markersWritten;
+    private long markersVisible;
+    private long markersTimedOut;
+    private long markerWriteFailures;
+
+    /**
+     * 所有负载下的整体分布（毫秒）
+     */
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    /**
+     * 按写入负载分组的分布，负载取标记写入前一秒的压测吞吐
+     */
+    private List<FreshnessLevel> levels;
+}
@@ -0,0 +1,16 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 一段时间窗口内的写入批次延迟（毫秒）
+ */
+@Data
+public class LatencyWindow {
+
+    private long batches;
+    private double meanMillis;
+    private double p50Millis;
+    private double p99Millis;
+    private double maxMillis;
+}
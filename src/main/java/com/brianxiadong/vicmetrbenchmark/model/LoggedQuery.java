@@ -0,0 +1,33 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 从查询日志中解析出的一条查询，时间均为原始日志中的时间
+ */
+@Data
+public class LoggedQuery {
+
+    /**
+     * 查询到达时间（毫秒），日志中没有时间时沿用上一条
+     */
+    private long arrivalMillis;
+
+    private String query;
+
+    /**
+     * 范围查询的起止时间（秒）与步长（秒），即时查询时起止为null
+     */
+    private Long startSeconds;
+    private Long endSeconds;
+    private Long stepSeconds;
+
+    /**
+     * 即时查询的求值时间（秒），为null时取到达时间
+     */
+    private Long timeSeconds;
+
+    public boolean isRange() {
+        return startSeconds != null && endSeconds != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 单个指标在基线组与候选组之间的对比
+ */
+@Data
+public class MetricComparison {
+
+    /**
+     * 指标名，例如 samplesPerSecond、p99LatencyMillis
+     */
+    private String metric;
+
+    /**
+     * 数值越大越好（吞吐）还是越小越好（延迟、资源消耗）
+     */
+    private boolean higherIsBetter;
+
+    private int baselineTrials;
+    private double baselineMean;
+
+    /**
+     * 基线组均值的置信区间半宽，试验次数不足两次时为null
+     */
+    private Double baselineCiHalfWidth;
+
+    private int candidateTrials;
+    private double candidateMean;
+    private Double candidateCiHalfWidth;
+
+    /**
+     * 候选组相对基线组的变化百分比
+     */
+    private double changePercent;
+
+    /**
+     * Welch t 检验的双侧p值，任一组试验次数不足两次时为null
+     */
+    private Double pValue;
+
+    /**
+     * 差异是否统计显著
+     */
+    private boolean significant;
+
+    /**
+     * 是否判定为回归：向变差方向变化超过阈值且统计显著
+     */
+    private boolean regression;
+}
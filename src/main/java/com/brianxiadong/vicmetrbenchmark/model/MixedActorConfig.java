@@ -0,0 +1,58 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 混合负载中的单个非写入负载
+ * 每个工作线程循环执行操作；设置速率时所有线程共享一个令牌桶，否则为闭环压测，吞吐由并发与延迟决定
+ */
+@Data
+public class MixedActorConfig {
+
+    /**
+     * 负载名称，为空时使用 类型-序号
+     */
+    private String name;
+
+    /**
+     * 负载类型：query、delete 或 export
+     */
+    private String type = "query";
+
+    /**
+     * 并发线程数
+     */
+    private Integer concurrency = 1;
+
+    /**
+     * 每秒操作数上限，为空或不大于0时不限速
+     */
+    private Double ratePerSecond;
+
+    /**
+     * query：轮流执行的 PromQL 查询
+     */
+    private List<String> queries;
+
+    /**
+     * query：范围查询覆盖最近多少秒，为空时执行即时查询
+     */
+    private Long rangeSeconds;
+
+    /**
+     * query：范围查询步长
+     */
+    private String step = "15s";
+
+    /**
+     * delete、export：轮流使用的序列选择器
+     */
+    private List<String> matchers;
+
+    /**
+     * export：导出最近多少秒的数据
+     */
+    private Long exportRangeSeconds = 300L;
+}
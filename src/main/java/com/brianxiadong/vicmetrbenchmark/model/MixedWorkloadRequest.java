@@ -0,0 +1,34 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 混合负载压测请求
+ * 写入、查询、删除、导出同时运行相同时长，各自的并发与速率独立设置，用于观察负载之间的相互影响
+ */
+@Data
+public class MixedWorkloadRequest {
+
+    /**
+     * 运行时长（秒），所有负载同时开始、同时结束
+     */
+    private Integer durationSeconds = 60;
+
+    /**
+     * 写入负载，为空时不写入；时长由混合压测统一控制
+     */
+    private BenchmarkRequest write;
+
+    /**
+     * 查询、删除、导出负载
+     */
+    private List<MixedActorConfig> actors = new ArrayList<>();
+
+    /**
+     * 互相关分析的最大滞后（秒），用于发现一种负载的变化在几秒后影响另一种负载
+     */
+    private Integer correlationMaxLagSeconds = 5;
+}
@@ -0,0 +1,33 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 混合负载压测结果
+ */
+@Data
+public class MixedWorkloadResult {
+
+    private long startTimestamp;
+    private long totalTimeMillis;
+
+    /**
+     * 各负载的结果，写入负载（如有）在最前
+     */
+    private List<ActorResult> actors = new ArrayList<>();
+
+    /**
+     * 写入负载的完整压测结果
+     */
+    private BenchmarkResult writeResult;
+
+    /**
+     * 每对负载之间的互相关
+     */
+    private List<CorrelationResult> correlations = new ArrayList<>();
+
+    private String errorMessage;
+}
@@ -0,0 +1,71 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 内置模拟目标配置
+ * 模拟 VictoriaMetrics 的写入、查询与指标接口，用于在没有真实服务时测量压测工具本身的最大输出能力
+ */
+@Data
+public class MockTargetConfig {
+
+    /**
+     * 监听端口，0 表示随机端口
+     */
+    private Integer port = 0;
+
+    /**
+     * 处理请求的线程数
+     */
+    private Integer threads = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 响应延迟分布：none、fixed、uniform、exponential、lognormal
+     */
+    private String latencyDistribution = "none";
+
+    /**
+     * 延迟参数（毫秒）：fixed 为固定值，uniform 为下限，exponential 与 lognormal 为均值
+     */
+    private Double latencyMillis = 0.0;
+
+    /**
+     * uniform 分布的延迟上限（毫秒）
+     */
+    private Double latencyMaxMillis = 0.0;
+
+    /**
+     * lognormal 分布的 sigma，越大长尾越明显
+     */
+    private Double latencySigma = 0.5;
+
+    /**
+     * 写入与查询请求的错误注入比例（0-1）
+     */
+    private Double errorRate = 0.0;
+
+    /**
+     * 注入错误时返回的状态码
+     */
+    private Integer errorStatus = 503;
+
+    /**
+     * 每秒最多接收的数据点数，0 表示不限制
+     */
+    private Long maxSamplesPerSecond = 0L;
+
+    /**
+     * 超过吞吐上限时的处理方式：reject 返回429，delay 延迟响应
+     */
+    private String throttleMode = "reject";
+
+    /**
+     * 是否按指标名记录时间序列，用于响应计数查询与删除
+     */
+    private Boolean trackSeries = true;
+
+    /**
+     * 记录的时间序列数上限，超过后只计数不记录
+     */
+    private Long maxTrackedSeries = 5_000_000L;
+}
@@ -0,0 +1,25 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多租户写入压测请求
+ * 每个租户是一份独立的写入压测配置：tenant 决定 /insert/{accountID}/ 路径，
+ * metricPrefix、batchSize、concurrency 等决定序列模型，samplesPerSecond 为该租户的写入速率上限
+ */
+@Data
+public class MultiTenantRequest {
+
+    /**
+     * 运行时长（秒），所有租户同时开始、同时结束
+     */
+    private Long durationSeconds = 60L;
+
+    /**
+     * 各租户的写入配置
+     */
+    private List<BenchmarkRequest> tenants = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多租户写入压测结果
+ */
+@Data
+public class MultiTenantResult {
+
+    private long startTimestamp;
+    private long totalTimeMillis;
+    private List<TenantResult> tenants = new ArrayList<>();
+
+    /**
+     * 各租户吞吐的 Jain 公平性指数，1 表示完全公平，1/n 表示只有一个租户拿到吞吐；
+     * 所有租户都设置了速率上限时按 实际速率/上限 计算，否则统一按实际写入速率计算
+     */
+    private Double fairnessIndex;
+
+    private String errorMessage;
+}
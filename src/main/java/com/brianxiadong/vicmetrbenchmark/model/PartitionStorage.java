@@ -0,0 +1,32 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 单个分区类型在压测期间的存储增量
+ * 后台合并会把 small 分区的数据移入 big 分区，因此单个数据分区的增量可能为负，small 与 big 之和才反映实际占用
+ */
+@Data
+public class PartitionStorage {
+
+    /**
+     * 分区类型：small、big 或 indexdb
+     */
+    private String partition;
+
+    /**
+     * 新增字节数与新增行数
+     */
+    private long bytesDelta;
+    private long rowsDelta;
+
+    /**
+     * 新增字节数 / 新增行数，行数未增加时为0
+     */
+    private double bytesPerRow;
+
+    /**
+     * 新增字节数 / 新增数据点数，用于比较各分区对每个数据点的存储开销
+     */
+    private double bytesPerSample;
+}
@@ -0,0 +1,22 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * HTTP 请求单个阶段的耗时分布
+ */
+@Data
+public class PhaseLatency {
+
+    /**
+     * 阶段：acquire、dns、connect、tls、upload、ttfb、download、total
+     */
+    private String phase;
+
+    private long count;
+    private double meanMillis;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+}
@@ -0,0 +1,69 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 查询日志回放请求
+ */
+@Data
+public class QueryReplayRequest {
+
+    /**
+     * 查询日志文件路径，相对于压测工具所在机器上配置的 benchmark.query-log.dir 目录，与 logContent 二选一；
+     * 未配置该目录时不能按路径读取
+     */
+    private String logPath;
+
+    /**
+     * 查询日志内容
+     */
+    private String logContent;
+
+    /**
+     * 日志格式：auto、vmslowlog（-search.logSlowQueryDuration 输出）、jsonl（每行一个JSON对象的访问日志）
+     */
+    private String format = "auto";
+
+    /**
+     * 回放加速倍数，1为按原始到达间隔回放，小于等于0时不等待、尽快发送
+     */
+    private Double speedUp = 1.0;
+
+    /**
+     * 同时执行的最大查询数
+     */
+    private Integer concurrency = 16;
+
+    /**
+     * 时间重定位锚点（Unix秒）：日志中最晚的查询结束时间对齐到该时间，所有查询整体平移；
+     * 为空时按发送时刻重定位，保持每条查询相对其到达时间的偏移（等价于 Grafana 的 now-1h 之类的相对范围）
+     */
+    private Long anchorEndSeconds;
+
+    /**
+     * 查询语句改写规则：正则 -> 替换文本，用于把生产指标名映射到压测数据集
+     */
+    private Map<String, String> rewrites;
+
+    /**
+     * 最多回放的查询数，为空时回放全部
+     */
+    private Integer maxQueries;
+
+    /**
+     * 是否跳过查询缓存
+     */
+    private Boolean nocache = false;
+
+    /**
+     * 是否计算结果校验和
+     */
+    private Boolean checksum = false;
+
+    /**
+     * 返回的查询指纹数，按总耗时排序
+     */
+    private Integer topFingerprints = 50;
+}
@@ -0,0 +1,52 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 查询日志回放结果
+ */
+@Data
+public class QueryReplayResult {
+
+    private String format;
+
+    /**
+     * 解析出的查询数与无法解析而跳过的行数
+     */
+    private long queriesParsed;
+    private long linesSkipped;
+
+    private long queriesSent;
+    private long errors;
+
+    /**
+     * 日志中第一条到最后一条查询的时间跨度与回放实际耗时（毫秒）
+     */
+    private long originalSpanMillis;
+    private long totalTimeMillis;
+    private double speedUp;
+
+    /**
+     * 全部查询的延迟（毫秒）
+     */
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxMillis;
+
+    /**
+     * 实际发送时间相对计划时间的滞后（毫秒），并发不足时会变大，说明回放没有跟上原始节奏
+     */
+    private double meanScheduleLagMillis;
+    private double maxScheduleLagMillis;
+
+    /**
+     * 不同指纹数与按总耗时排序的指纹统计
+     */
+    private long distinctFingerprints;
+    private List<FingerprintStats> fingerprints;
+
+    private String errorMessage;
+}
@@ -0,0 +1,51 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 查询响应的流式统计结果，不保留响应内容
+ */
+@Data
+public class QueryResponseStats {
+
+    /**
+     * 响应状态：success 或 error
+     */
+    private String status;
+    private String errorType;
+    private String error;
+
+    /**
+     * 结果类型：vector、matrix、scalar、string；series/count 等返回数组的接口为空
+     */
+    private String resultType;
+
+    /**
+     * 序列数（返回数组的接口为数组长度）
+     */
+    private long series;
+
+    /**
+     * 数据点数，vector 每个序列一个，matrix 为所有序列 values 的总长度
+     */
+    private long samples;
+
+    /**
+     * 响应体字节数
+     */
+    private long bytes;
+
+    /**
+     * 第一个数据点的值，count 等标量查询直接取这个值；没有数据点时为null
+     */
+    private Double firstValue;
+
+    /**
+     * 结果校验和，与序列顺序无关，用于比较不同实现或版本返回的数据是否一致；未开启时为null
+     */
+    private Long checksum;
+
+    public boolean isSuccess() {
+        return "success".equals(status);
+    }
+}
@@ -0,0 +1,29 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP 请求的分阶段耗时与连接复用统计
+ * 获取连接耗时高而建连耗时低，说明等待的是连接池；首字节耗时高，说明慢在服务端处理
+ */
+@Data
+public class RequestPhaseStats {
+
+    private long calls;
+    private long failedCalls;
+
+    /**
+     * 获取到连接的次数，以及其中复用连接池已有连接的次数
+     */
+    private long connectionsAcquired;
+    private long connectionsReused;
+    private double connectionReuseRate;
+
+    /**
+     * 有记录的各阶段耗时，按请求经过的顺序排列
+     */
+    private List<PhaseLatency> phases = new ArrayList<>();
+}
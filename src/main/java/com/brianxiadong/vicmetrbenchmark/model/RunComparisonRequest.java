@@ -0,0 +1,33 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 压测运行对比请求
+ * 基线组与候选组各包含一次或多次重复试验，例如升级前后各跑三次
+ */
+@Data
+public class RunComparisonRequest {
+
+    /**
+     * 基线组运行ID
+     */
+    private List<String> baselineRunIds;
+
+    /**
+     * 候选组运行ID
+     */
+    private List<String> candidateRunIds;
+
+    /**
+     * 置信水平
+     */
+    private Double confidenceLevel = 0.95;
+
+    /**
+     * 变差超过该百分比且统计显著时判定为回归
+     */
+    private Double regressionThresholdPercent = 5.0;
+}
@@ -0,0 +1,39 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测运行对比结果
+ */
+@Data
+public class RunComparisonResult {
+
+    private List<RunSummary> baselineRuns;
+    private List<RunSummary> candidateRuns;
+
+    /**
+     * 各指标的对比
+     */
+    private List<MetricComparison> metrics;
+
+    /**
+     * 合并各组直方图后得到的延迟分位数（毫秒），键为 p50/p90/p99/p999
+     */
+    private Map<String, Double> baselinePooledLatency;
+    private Map<String, Double> candidatePooledLatency;
+
+    /**
+     * 是否存在统计显著的回归
+     */
+    private boolean regression;
+
+    /**
+     * 提示信息，例如试验次数不足以做显著性检验
+     */
+    private List<String> notes;
+
+    private String errorMessage;
+}
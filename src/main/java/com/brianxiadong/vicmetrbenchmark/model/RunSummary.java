@@ -0,0 +1,61 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * 压测运行摘要
+ * 从结果文件中流式读取的标量字段与延迟直方图，不包含时间线与各线程统计，用于多次运行的对比
+ */
+@Data
+public class RunSummary {
+
+    private String runId;
+    private String status;
+    private long startTimestamp;
+    private long totalTimeMillis;
+    private long successRequests;
+    private long failedRequests;
+
+    /**
+     * 服务端CPU时间（秒），未知时为-1
+     */
+    private double serverCpuSeconds = -1;
+
+    /**
+     * 服务端常驻内存（字节），未知时为-1
+     */
+    private double serverResidentMemoryBytes = -1;
+
+    /**
+     * 压测期间服务端常驻内存的变化（字节），未知时为null
+     */
+    private Double serverMemoryGrowthBytes;
+
+    /**
+     * 原始延迟直方图，只用于计算与合并，不返回给前端
+     */
+    @JsonIgnore
+    private long[] latencyHistogram;
+
+    /**
+     * 以下为派生指标
+     */
+    private double samplesPerSecond;
+    private double errorRate;
+    private double meanLatencyMillis;
+    private double p50LatencyMillis;
+    private double p90LatencyMillis;
+    private double p99LatencyMillis;
+    private double p999LatencyMillis;
+
+    /**
+     * 每个成功数据点消耗的服务端CPU时间（微秒），未知时为-1
+     */
+    private double serverCpuMicrosPerSample = -1;
+
+    /**
+     * 压测期间服务端常驻内存的增量除以成功数据点数（字节），内存变化未知时为null
+     */
+    private Double serverMemoryBytesPerSample;
+}
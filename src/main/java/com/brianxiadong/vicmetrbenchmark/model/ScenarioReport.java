@@ -0,0 +1,41 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测场景的运行报告，无界面运行结束后写为JSON
+ */
+@Data
+public class ScenarioReport {
+
+    /**
+     * 场景名称
+     */
+    private String scenario;
+
+    /**
+     * 各次试验的压测结果
+     */
+    private List<BenchmarkResult> results = new ArrayList<>();
+
+    /**
+     * 与基线运行的对比，未配置基线时为null
+     */
+    private RunComparisonResult comparison;
+
+    /**
+     * 未满足的阈值说明
+     */
+    private List<String> violations = new ArrayList<>();
+
+    /**
+     * 进程退出码：0 通过，1 未满足阈值或判定为回归，2 场景无法运行
+     */
+    private int exitCode;
+
+    private long startTimestamp;
+    private long endTimestamp;
+}
@@ -49,6 +49,16 @@ public class ServerMetrics {
      */
     private long totalDataPointsCount;
 
+    /**
+     * 进程累计CPU时间（秒），即 process_cpu_seconds_total 原始值，两次采集相减得到区间CPU消耗
+     */
+    private double cpuSecondsTotal;
+
+    /**
+     * 进程常驻内存（字节），采集失败时为-1
+     */
+    private double residentMemoryBytes = -1;
+
     /**
      * 错误信息
      */
@@ -0,0 +1,49 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 稳态窗口
+ * 在每秒吞吐时间线上检测到的吞吐稳定区间，秒数为相对压测开始的偏移，区间为 [startSecond, endSecond)
+ */
+@Data
+public class SteadyStateWindow {
+
+    /**
+     * 是否检测到稳态
+     */
+    private boolean detected;
+
+    /**
+     * 检测使用的滑动窗口（秒）与变异系数阈值
+     */
+    private int windowSeconds;
+    private double tolerance;
+
+    /**
+     * 稳态起止秒数
+     */
+    private int startSecond = -1;
+    private int endSecond = -1;
+
+    /**
+     * 稳态开始的时间戳（毫秒）
+     */
+    private long startTimestamp;
+
+    /**
+     * 稳态区间内成功写入的数据量与失败的请求数
+     */
+    private long samples;
+    private long errors;
+
+    /**
+     * 稳态区间内的平均吞吐（数据点/秒）
+     */
+    private double samplesPerSecond;
+
+    /**
+     * 稳态区间内每秒吞吐的变异系数（标准差/均值）
+     */
+    private double coefficientOfVariation;
+}
@@ -0,0 +1,60 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 存储效率统计
+ * 压测期间按间隔采样存储指标，压测结束后等待后台合并完成再做最终采样，
+ * 用最终采样与压测前采样的差值计算每个数据点的存储字节数及相对写入格式的压缩比
+ */
+@Data
+public class StorageEfficiency {
+
+    /**
+     * 压测前、压测期间与合并完成后的采样，按时间顺序排列
+     */
+    private List<StorageSnapshot> snapshots = new ArrayList<>();
+
+    /**
+     * 各分区类型的存储增量
+     */
+    private List<PartitionStorage> partitions = new ArrayList<>();
+
+    /**
+     * 压测期间新增的数据行数（small+big）
+     */
+    private long samplesStored;
+
+    /**
+     * 数据分区每个数据点的字节数，不含索引
+     */
+    private double bytesPerSample;
+
+    /**
+     * 含 indexdb 在内每个数据点的字节数
+     */
+    private double totalBytesPerSample;
+
+    /**
+     * 写入格式（请求体编码后、压缩前）每个数据点的字节数
+     */
+    private double wireBytesPerSample;
+
+    /**
+     * 压缩比：写入格式字节数 / 数据分区字节数
+     */
+    private double compressionRatio;
+
+    /**
+     * 最终采样前后台合并是否已完成；超时未完成时最终采样仍可能偏大
+     */
+    private boolean mergesSettled;
+
+    /**
+     * 压测结束到合并完成（或超时）的等待时长（毫秒）
+     */
+    private long settleMillis;
+}
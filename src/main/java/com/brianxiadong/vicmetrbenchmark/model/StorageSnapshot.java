@@ -0,0 +1,56 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 一次存储指标采样
+ * 字节数取自 vm_data_size_bytes，行数取自 vm_rows，按分区类型汇总：
+ * small 包含 storage/inmemory 与 storage/small，big 为 storage/big，indexdb 包含 indexdb/inmemory 与 indexdb/file
+ */
+@Data
+public class StorageSnapshot {
+
+    /**
+     * 相对压测开始的偏移（毫秒）
+     */
+    private long offsetMillis;
+
+    /**
+     * 各分区占用的字节数
+     */
+    private long smallBytes;
+    private long bigBytes;
+    private long indexdbBytes;
+
+    /**
+     * 各分区的行数
+     */
+    private long smallRows;
+    private long bigRows;
+    private long indexdbRows;
+
+    /**
+     * 正在进行的后台合并数（vm_active_merges）与尚未落盘的行数（vm_pending_rows）
+     */
+    private long activeMerges;
+    private long pendingRows;
+
+    /**
+     * 自压测开始以来数据分区（small+big）新增字节数除以新增行数，尚无新增行时为0
+     */
+    private double bytesPerSample;
+
+    /**
+     * @return 数据分区（small+big）的字节数
+     */
+    public long dataBytes() {
+        return smallBytes + bigBytes;
+    }
+
+    /**
+     * @return 数据分区（small+big）的行数，即已落盘的数据点数
+     */
+    public long dataRows() {
+        return smallRows + bigRows;
+    }
+}
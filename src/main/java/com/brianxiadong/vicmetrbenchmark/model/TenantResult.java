@@ -0,0 +1,35 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 单个租户的写入结果
+ */
+@Data
+public class TenantResult {
+
+    private String tenant;
+    private String runId;
+    private String status;
+
+    /**
+     * 配置的写入速率上限，未限速时为null
+     */
+    private Double samplesPerSecondLimit;
+
+    private long successSamples;
+    private long failedSamples;
+    private double writeRate;
+
+    /**
+     * 实际写入速率 / 速率上限，未限速时为null
+     */
+    private Double limitUtilization;
+
+    private double avgResponseTimeMillis;
+    private double p50ResponseTimeMillis;
+    private double p90ResponseTimeMillis;
+    private double p99ResponseTimeMillis;
+    private long maxResponseTimeMillis;
+    private String errorMessage;
+}
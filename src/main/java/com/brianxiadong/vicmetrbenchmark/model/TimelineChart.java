@@ -0,0 +1,28 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按图表宽度降采样后的每秒时间线
+ */
+@Data
+public class TimelineChart {
+
+    private String runId;
+    private long startTimestamp;
+
+    /**
+     * 原始时间线的秒数
+     */
+    private int totalSeconds;
+
+    /**
+     * 请求的宽度，即每条曲线最多保留的点数
+     */
+    private int width;
+
+    private List<ChartSeries> series = new ArrayList<>();
+}
@@ -0,0 +1,45 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 每秒时间线模型类
+ * 以并列的原始类型数组保存每秒的计数，下标为相对起始时间的秒数偏移
+ */
+@Data
+public class TimelineSeries {
+
+    /**
+     * 时间线起始时间戳（毫秒）
+     */
+    private long startTimestamp;
+
+    /**
+     * 第一个元素对应的秒数偏移
+     */
+    private int fromSecond;
+
+    /**
+     * 每秒成功写入的数据量
+     */
+    private long[] samples;
+
+    /**
+     * 每秒完成的请求（批次）数
+     */
+    private long[] requests;
+
+    /**
+     * 每秒失败的请求（批次）数
+     */
+    private long[] errors;
+
+    /**
+     * 每秒成功请求的平均延迟与延迟分位数（毫秒），该秒没有成功请求时为 -1；
+     * 跨节点合并的时间线只有计数，这几项为 -1
+     */
+    private double[] meanMillis;
+    private double[] p50Millis;
+    private double[] p90Millis;
+    private double[] p99Millis;
+}
@@ -0,0 +1,36 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 分布式压测任务分配模型类
+ * 协调节点发给每个工作节点的任务描述
+ */
+@Data
+public class WorkerAssignment {
+
+    /**
+     * 分布式压测运行ID
+     */
+    private String runId;
+
+    /**
+     * 工作节点序号（从0开始）
+     */
+    private int workerIndex;
+
+    /**
+     * 工作节点总数
+     */
+    private int workerCount;
+
+    /**
+     * 统一开始时间戳（毫秒），所有工作节点等到该时刻同时开始
+     */
+    private long startAtMillis;
+
+    /**
+     * 该工作节点负责的压测参数（数据量已按节点拆分）
+     */
+    private BenchmarkRequest request;
+}
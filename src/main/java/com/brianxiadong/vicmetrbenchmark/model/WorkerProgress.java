@@ -0,0 +1,46 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 工作节点进度模型类
+ * 协调节点每秒拉取一次，包含自上次拉取以来的每秒计数与延迟直方图
+ */
+@Data
+public class WorkerProgress {
+
+    /**
+     * 分布式压测运行ID
+     */
+    private String runId;
+
+    /**
+     * 工作节点序号
+     */
+    private int workerIndex;
+
+    /**
+     * 状态：waiting, running, finished
+     */
+    private String status;
+
+    /**
+     * 累计成功写入的数据量
+     */
+    private long successSamples;
+
+    /**
+     * 累计写入失败的数据量
+     */
+    private long failedSamples;
+
+    /**
+     * 自请求的起始秒以来已完整结束的每秒计数
+     */
+    private TimelineSeries timeline;
+
+    /**
+     * 自上次拉取以来的延迟直方图桶计数
+     */
+    private long[] intervalLatencyHistogram;
+}
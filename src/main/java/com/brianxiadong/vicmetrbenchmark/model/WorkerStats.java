@@ -0,0 +1,46 @@
+package com.brianxiadong.vicmetrbenchmark.model;
+
+import lombok.Data;
+
+/**
+ * 压测线程统计模型类
+ * 记录单个压测线程的吞吐情况，用于发现目标端的倾斜（慢连接、热点vminsert等）
+ */
+@Data
+public class WorkerStats {
+
+    /**
+     * 线程ID
+     */
+    private int workerId;
+
+    /**
+     * 完成的批次数
+     */
+    private long batches;
+
+    /**
+     * 成功写入的数据量
+     */
+    private long successSamples;
+
+    /**
+     * 写入失败的数据量
+     */
+    private long failedSamples;
+
+    /**
+     * 线程运行时长（毫秒）
+     */
+    private long activeMillis;
+
+    /**
+     * 线程结束时间相对压测开始的偏移（毫秒）
+     */
+    private long finishedAtMillis;
+
+    /**
+     * 线程吞吐（数据点/秒）
+     */
+    private double samplesPerSecond;
+}
@@ -0,0 +1,280 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkCheckpoint;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.RunSummary;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 压测结果存储
+ * 以JSON文件的形式保存压测结果与检查点，目录由 benchmark.result-store.dir 指定
+ * 文件命名：<runId>.json 为最终结果，<runId>.checkpoint.json 为最近一次检查点，<runId>.jfr 为JFR录制，
+ * exports/<runId>-<分片>.bin|.jsonl 为导出压测保存的导出数据
+ */
+@Slf4j
+@Component
+public class BenchmarkResultStore {
+
+    private static final String RESULT_SUFFIX = ".json";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint.json";
+    private static final String RECORDING_SUFFIX = ".jfr";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public BenchmarkResultStore(@Value("${benchmark.result-store.dir:benchmark-results}") String directory) {
+        this.directory = Paths.get(directory);
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 保存最终结果，并删除对应的检查点
+     *
+     * @param result 压测结果
+     */
+    public void save(BenchmarkResult result) {
+        if (result.getRunId() == null) {
+            return;
+        }
+        try {
+            writeAtomically(resultPath(result.getRunId()), result);
+            Files.deleteIfExists(checkpointPath(result.getRunId()));
+        } catch (IOException e) {
+            log.error("保存压测结果失败: {}", result.getRunId(), e);
+        }
+    }
+
+    /**
+     * 保存检查点，先写临时文件再原子替换，进程在写入中途崩溃也不会损坏上一个检查点
+     *
+     * @param checkpoint 检查点
+     */
+    public void saveCheckpoint(BenchmarkCheckpoint checkpoint) {
+        try {
+            writeAtomically(checkpointPath(checkpoint.getRunId()), checkpoint);
+            log.info("已保存检查点 - 运行ID: {}, 成功: {}, 失败: {}, 累计时长: {}ms",
+                    checkpoint.getRunId(), checkpoint.getSuccessSamples(), checkpoint.getFailedSamples(),
+                    checkpoint.getElapsedMillis());
+        } catch (IOException e) {
+            log.error("保存检查点失败: {}", checkpoint.getRunId(), e);
+        }
+    }
+
+    /**
+     * 读取压测结果
+     *
+     * @param runId 运行ID
+     * @return 压测结果，不存在时返回null
+     */
+    public BenchmarkResult load(String runId) {
+        return read(resultPath(runId), BenchmarkResult.class);
+    }
+
+    /**
+     * 流式读取结果摘要
+     * 只取标量字段与延迟直方图，时间线、各线程统计等大字段直接跳过，不反序列化为对象
+     *
+     * @param runId 运行ID
+     * @return 摘要，不存在或读取失败时返回null
+     */
+    public RunSummary loadSummary(String runId) {
+        File file = resultPath(runId).toFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        RunSummary summary = new RunSummary();
+        try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "runId":
+                        summary.setRunId(parser.getText());
+                        break;
+                    case "status":
+                        summary.setStatus(parser.getText());
+                        break;
+                    case "startTimestamp":
+                        summary.setStartTimestamp(parser.getLongValue());
+                        break;
+                    case "totalTimeMillis":
+                        summary.setTotalTimeMillis(parser.getLongValue());
+                        break;
+                    case "successRequests":
+                        summary.setSuccessRequests(parser.getLongValue());
+                        break;
+                    case "failedRequests":
+                        summary.setFailedRequests(parser.getLongValue());
+                        break;
+                    case "serverCpuSeconds":
+                        summary.setServerCpuSeconds(parser.getDoubleValue());
+                        break;
+                    case "serverResidentMemoryBytes":
+                        summary.setServerResidentMemoryBytes(parser.getDoubleValue());
+                        break;
+                    case "serverMemoryGrowthBytes":
+                        summary.setServerMemoryGrowthBytes(parser.currentToken() == JsonToken.VALUE_NULL
+                                ? null : parser.getDoubleValue());
+                        break;
+                    case "latencyHistogram":
+                        summary.setLatencyHistogram(readLongArray(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (summary.getRunId() == null) {
+                summary.setRunId(runId);
+            }
+            return summary;
+        } catch (IOException e) {
+            log.error("读取结果摘要失败: {}", runId, e);
+            return null;
+        }
+    }
+
+    private long[] readLongArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        long[] values = new long[64];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = parser.getLongValue();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * 读取检查点
+     *
+     * @param runId 运行ID
+     * @return 检查点，不存在时返回null
+     */
+    public BenchmarkCheckpoint loadCheckpoint(String runId) {
+        return read(checkpointPath(runId), BenchmarkCheckpoint.class);
+    }
+
+    /**
+     * @return 所有已完成运行的ID
+     */
+    public List<String> listRuns() {
+        return listIds(RESULT_SUFFIX, CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * @return 所有未完成（可恢复）运行的ID
+     */
+    public List<String> listCheckpoints() {
+        return listIds(CHECKPOINT_SUFFIX, null);
+    }
+
+    /**
+     * @param runId 运行ID
+     * @return 该运行的JFR录制文件路径
+     */
+    public Path recordingPath(String runId) {
+        return directory.resolve(sanitize(runId) + RECORDING_SUFFIX);
+    }
+
+    /**
+     * 导出压测保存的导出文件路径，位于 exports 子目录，会按需创建目录
+     *
+     * @param runId        运行ID
+     * @param shard        分片序号
+     * @param nativeFormat 是否为原生格式
+     * @return 导出文件路径
+     */
+    public Path exportPath(String runId, int shard, boolean nativeFormat) throws IOException {
+        Path exports = Files.createDirectories(directory.resolve("exports"));
+        return exports.resolve(sanitize(runId) + "-" + shard + (nativeFormat ? ".bin" : ".jsonl"));
+    }
+
+    /**
+     * @return 存储目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private List<String> listIds(String suffix, String excludeSuffix) {
+        List<String> ids = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return ids;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .filter(name -> excludeSuffix == null || !name.endsWith(excludeSuffix))
+                    .map(name -> name.substring(0, name.length() - suffix.length()))
+                    .sorted()
+                    .forEach(ids::add);
+        } catch (IOException e) {
+            log.error("列出压测结果失败", e);
+        }
+        return ids;
+    }
+
+    private <T> T read(Path path, Class<T> type) {
+        File file = path.toFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file, type);
+        } catch (IOException e) {
+            log.error("读取文件失败: {}", path, e);
+            return null;
+        }
+    }
+
+    private void writeAtomically(Path target, Object value) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), value);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path resultPath(String runId) {
+        return directory.resolve(sanitize(runId) + RESULT_SUFFIX);
+    }
+
+    private Path checkpointPath(String runId) {
+        return directory.resolve(sanitize(runId) + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * 运行ID来自请求参数，只保留安全字符，防止路径穿越
+     */
+    private String sanitize(String runId) {
+        return runId.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+}
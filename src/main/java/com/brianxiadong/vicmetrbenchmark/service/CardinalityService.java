@@ -0,0 +1,147 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityEntry;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityRequest;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityStats;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基数统计服务
+ * 基于 /api/v1/status/tsdb 读取按天倒排索引上的统计信息，代价与匹配的序列数基本无关，
+ * 用来替代 count({__name__=~"prefix.+"}) 这类需要扫描全部匹配序列的正则计数查询
+ */
+@Slf4j
+@Service
+public class CardinalityService {
+
+    /**
+     * 统计前缀序列数时的排行条数，响应缺少 totalSeries 字段（旧版本）时按指标名排行求和，
+     * 排行条数达到该值说明可能被截断，求和会少算
+     */
+    private static final int PREFIX_TOP_N = 1000;
+
+    private final VictoriaMetricsClient victoriaMetricsClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public CardinalityService(VictoriaMetricsClient victoriaMetricsClient) {
+        this.victoriaMetricsClient = victoriaMetricsClient;
+    }
+
+    /**
+     * 查询基数统计与各前缀的序列数
+     *
+     * @param request 基数统计请求
+     * @return 基数统计结果
+     */
+    public CardinalityStats inspect(CardinalityRequest request) {
+        CardinalityStats stats = new CardinalityStats();
+        stats.setMatch(request.getMatch());
+        stats.setDate(request.getDate());
+        Map<String, String> params = new HashMap<>();
+        params.put("topN", String.valueOf(request.getTopN() != null && request.getTopN() > 0 ? request.getTopN() : 10));
+        putIfPresent(params, "match[]", request.getMatch());
+        putIfPresent(params, "date", request.getDate());
+        putIfPresent(params, "focusLabel", request.getFocusLabel());
+
+        JsonNode data = fetch(params);
+        if (data == null) {
+            stats.setErrorMessage("基数统计接口不可用");
+            return stats;
+        }
+        stats.setTopMetricNames(entries(data.path("seriesCountByMetricName")));
+        stats.setTopLabelNames(entries(data.path("seriesCountByLabelName")));
+        stats.setTopLabelValuePairs(entries(data.path("seriesCountByLabelValuePair")));
+        stats.setLabelValueCounts(entries(data.path("labelValueCountByLabelName")));
+        stats.setFocusLabelValues(entries(data.path("seriesCountByFocusLabelValue")));
+        stats.setTotalSeries(totalSeries(data));
+        stats.setTotalLabelValuePairs(data.path("totalLabelValuePairs").asLong());
+
+        if (request.getPrefixes() != null) {
+            Map<String, Long> byPrefix = new LinkedHashMap<>();
+            for (String prefix : request.getPrefixes()) {
+                byPrefix.put(prefix, countPrefix(prefix, request.getDate()));
+            }
+            stats.setSeriesByPrefix(byPrefix);
+        }
+        return stats;
+    }
+
+    /**
+     * 统计指标名以指定前缀开头的序列数
+     *
+     * @param prefix 指标前缀
+     * @param date   统计日期，为null时为当天
+     * @return 序列数，接口不可用或排行被截断无法得到准确值时返回-1，调用方应退回正则计数查询
+     */
+    public long countPrefix(String prefix, String date) {
+        Map<String, String> params = new HashMap<>();
+        params.put("topN", String.valueOf(PREFIX_TOP_N));
+        params.put("match[]", "{__name__=~\"" + prefix + ".+\"}");
+        putIfPresent(params, "date", date);
+        JsonNode data = fetch(params);
+        if (data == null) {
+            return -1;
+        }
+        if (!data.has("totalSeries") && data.path("seriesCountByMetricName").size() >= PREFIX_TOP_N) {
+            log.info("基数统计排行已截断，前缀 {} 的序列数需要正则计数", prefix);
+            return -1;
+        }
+        return totalSeries(data);
+    }
+
+    private JsonNode fetch(Map<String, String> params) {
+        try {
+            String response = victoriaMetricsClient.tsdbStatus(params);
+            if (response == null) {
+                return null;
+            }
+            JsonNode root = objectMapper.readTree(response);
+            if (!"success".equals(root.path("status").asText()) || !root.path("data").isObject()) {
+                log.warn("基数统计响应格式不正确: {}", response);
+                return null;
+            }
+            return root.get("data");
+        } catch (Exception e) {
+            log.warn("查询基数统计失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long totalSeries(JsonNode data) {
+        if (data.has("totalSeries")) {
+            return data.get("totalSeries").asLong();
+        }
+        long total = 0;
+        for (JsonNode entry : data.path("seriesCountByMetricName")) {
+            total += entry.path("value").asLong();
+        }
+        return total;
+    }
+
+    private static List<CardinalityEntry> entries(JsonNode array) {
+        List<CardinalityEntry> entries = new ArrayList<>();
+        for (JsonNode node : array) {
+            CardinalityEntry entry = new CardinalityEntry();
+            entry.setName(node.path("name").asText());
+            entry.setValue(node.path("value").asLong());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static void putIfPresent(Map<String, String> params, String name, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            params.put(name, value);
+        }
+    }
+}
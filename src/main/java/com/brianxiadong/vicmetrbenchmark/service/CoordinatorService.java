@@ -0,0 +1,328 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.DistributedBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.ServerMetrics;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerAssignment;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerProgress;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerStats;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.RunTimeline;
+import com.brianxiadong.vicmetrbenchmark.utils.WorkerClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分布式压测协调服务
+ * 把一次写入压测按数据量与并发拆分给多个工作进程，统一起跑，
+ * 每秒拉取各节点的计数与延迟直方图，结束后合并为一个 BenchmarkResult
+ */
+@Slf4j
+@Service
+public class CoordinatorService {
+
+    /**
+     * 工作节点就绪的最长等待时间
+     */
+    private static final long READY_TIMEOUT_MILLIS = 120_000;
+
+    /**
+     * 连续拉取进度失败多少次后放弃该节点
+     */
+    private static final int MAX_POLL_FAILURES = 30;
+
+    @Autowired
+    private VictoriaMetricsService victoriaMetricsService;
+
+    @Autowired
+    private LocalWorkerLauncher localWorkerLauncher;
+
+    @Autowired
+    private BenchmarkResultStore resultStore;
+
+    private final WorkerClient workerClient = new WorkerClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 运行中的分布式压测的实时汇总
+     */
+    private final Map<String, Map<String, Object>> liveProgress = new ConcurrentHashMap<>();
+
+    /**
+     * 执行分布式压测
+     *
+     * @param distributedRequest 分布式压测请求
+     * @return 合并后的压测结果
+     */
+    public BenchmarkResult runDistributed(DistributedBenchmarkRequest distributedRequest) {
+        BenchmarkRequest request = distributedRequest.getRequest();
+        BenchmarkResult result = new BenchmarkResult();
+        if (request == null || request.getDataCount() == null && request.getDurationSeconds() == null) {
+            result.setErrorMessage("压测参数不能为空，且需设置数据量或运行时长");
+            return result;
+        }
+
+        List<String> workers = new ArrayList<>();
+        if (distributedRequest.getWorkers() != null) {
+            workers.addAll(distributedRequest.getWorkers());
+        }
+        List<LocalWorkerLauncher.LocalWorker> localWorkers = Collections.emptyList();
+        try {
+            int localCount = distributedRequest.getLocalWorkers() != null ? distributedRequest.getLocalWorkers() : 0;
+            if (localCount > 0) {
+                localWorkers = localWorkerLauncher.launch(localCount, distributedRequest.getLocalWorkerBasePort(),
+                        request.getHost(), request.getPort());
+                localWorkers.forEach(worker -> workers.add(worker.getBaseUrl()));
+            }
+            if (workers.isEmpty()) {
+                result.setErrorMessage("至少需要一个工作节点");
+                return result;
+            }
+            if (!awaitReady(workers)) {
+                result.setErrorMessage("工作节点未能在规定时间内就绪");
+                return result;
+            }
+            return coordinate(request, workers, distributedRequest.getStartDelayMillis());
+        } catch (Exception e) {
+            log.error("分布式压测失败", e);
+            result.setErrorMessage("分布式压测失败: " + e.getMessage());
+            return result;
+        } finally {
+            localWorkerLauncher.stop(localWorkers);
+        }
+    }
+
+    /**
+     * 获取运行中的分布式压测的实时汇总
+     *
+     * @param runId 运行ID
+     * @return 实时汇总，不存在时返回null
+     */
+    public Map<String, Object> getLiveProgress(String runId) {
+        return liveProgress.get(runId);
+    }
+
+    private boolean awaitReady(List<String> workers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        for (String worker : workers) {
+            while (!workerClient.isReady(worker)) {
+                if (System.currentTimeMillis() > deadline) {
+                    log.error("工作节点未就绪: {}", worker);
+                    return false;
+                }
+                Thread.sleep(500);
+            }
+        }
+        return true;
+    }
+
+    private BenchmarkResult coordinate(BenchmarkRequest request, List<String> workers, Long startDelayMillis)
+            throws IOException, InterruptedException {
+        String runId = request.getRunId() != null && !request.getRunId().trim().isEmpty()
+                ? request.getRunId() : victoriaMetricsService.newRunId();
+        request.setRunId(runId);
+        int workerCount = workers.size();
+        long startAt = System.currentTimeMillis() + (startDelayMillis != null ? startDelayMillis : 3000);
+        ServerMetrics serverBaseline = victoriaMetricsService.readServerBaseline();
+
+        // 实时汇总只在运行期间有效，节点失败或等待超时抛出异常时也要清理
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                WorkerAssignment assignment = new WorkerAssignment();
+                assignment.setRunId(runId);
+                assignment.setWorkerIndex(i);
+                assignment.setWorkerCount(workerCount);
+                assignment.setStartAtMillis(startAt);
+                assignment.setRequest(splitRequest(request, i, workerCount));
+                workerClient.assign(workers.get(i), assignment);
+            }
+            log.info("分布式压测已分配 - 运行ID: {}, 工作节点: {}, 统一开始时间: {}", runId, workerCount, startAt);
+
+            // 每秒拉取一次各节点进度，合并成整体的每秒时间线与延迟直方图
+            RunTimeline liveTimeline = new RunTimeline(startAt);
+            LatencyHistogram liveLatency = new LatencyHistogram();
+            int[] nextSecond = new int[workerCount];
+            int[] failures = new int[workerCount];
+            boolean[] done = new boolean[workerCount];
+            int remaining = workerCount;
+            while (remaining > 0) {
+                Thread.sleep(1000);
+                for (int i = 0; i < workerCount; i++) {
+                    if (done[i]) {
+                        continue;
+                    }
+                    try {
+                        WorkerProgress progress = workerClient.progress(workers.get(i), runId, nextSecond[i]);
+                        failures[i] = 0;
+                        TimelineSeries series = progress.getTimeline();
+                        if (series != null && series.getSamples() != null) {
+                            liveTimeline.merge(series);
+                            nextSecond[i] = series.getFromSecond() + series.getSamples().length;
+                        }
+                        liveLatency.merge(LatencyHistogram.fromCounts(progress.getIntervalLatencyHistogram()));
+                        if ("finished".equals(progress.getStatus())) {
+                            done[i] = true;
+                            remaining--;
+                        }
+                    } catch (IOException e) {
+                        if (++failures[i] >= MAX_POLL_FAILURES) {
+                            log.error("工作节点连续{}次无响应，放弃: {}", MAX_POLL_FAILURES, workers.get(i));
+                            done[i] = true;
+                            remaining--;
+                        }
+                    }
+                }
+                updateLiveProgress(runId, workerCount - remaining, workerCount, liveTimeline, liveLatency);
+            }
+
+            List<BenchmarkResult> workerResults = new ArrayList<>();
+            for (String worker : workers) {
+                try {
+                    workerResults.add(workerClient.result(worker, runId));
+                } catch (IOException e) {
+                    log.error("获取工作节点结果失败: {}", worker, e);
+                    BenchmarkResult failed = new BenchmarkResult();
+                    failed.setErrorMessage(worker + ": " + e.getMessage());
+                    workerResults.add(failed);
+                }
+            }
+
+            BenchmarkResult merged = merge(runId, startAt, workerResults);
+            try {
+                victoriaMetricsService.fillServerMetrics(merged,
+                        victoriaMetricsService.collectServerMetrics(request, merged), serverBaseline);
+            } catch (Exception e) {
+                log.error("收集服务器指标失败", e);
+            }
+            resultStore.save(merged);
+            return merged;
+        } finally {
+            liveProgress.remove(runId);
+        }
+    }
+
+    /**
+     * 按工作节点拆分压测参数：数据量与并发平均分配，余数分给前面的节点；写入速率上限平均分配；
+     * 每个节点使用独立的指标前缀与运行ID，避免序列和结果文件冲突
+     */
+    BenchmarkRequest splitRequest(BenchmarkRequest request, int index, int workerCount) {
+        BenchmarkRequest part = objectMapper.convertValue(request, BenchmarkRequest.class);
+        if (request.getDataCount() != null && request.getDataCount() > 0) {
+            long base = request.getDataCount() / workerCount;
+            long extra = index < request.getDataCount() % workerCount ? 1 : 0;
+            part.setDataCount(base + extra);
+        }
+        int concurrency = request.getConcurrency() != null ? request.getConcurrency() : 1;
+        part.setConcurrency(Math.max(1, concurrency / workerCount + (index < concurrency % workerCount ? 1 : 0)));
+        if (request.getMaxConcurrency() != null) {
+            part.setMaxConcurrency(Math.max(part.getConcurrency(), request.getMaxConcurrency() / workerCount));
+        }
+        if (request.getSamplesPerSecond() != null && request.getSamplesPerSecond() > 0) {
+            part.setSamplesPerSecond(request.getSamplesPerSecond() / workerCount);
+        }
+        part.setMetricPrefix(request.getMetricPrefix() + "_w" + index);
+        part.setRunId(request.getRunId() + "-w" + index);
+        return part;
+    }
+
+    /**
+     * 合并各工作节点的结果
+     */
+    BenchmarkResult merge(String runId, long startAt, List<BenchmarkResult> workerResults) {
+        BenchmarkResult merged = new BenchmarkResult();
+        merged.setRunId(runId);
+        merged.setStatus("completed");
+        merged.setDistributedWorkers(workerResults.size());
+        merged.setStartTimestamp(startAt);
+
+        LatencyHistogram latency = new LatencyHistogram();
+        RunTimeline timeline = new RunTimeline(startAt);
+        List<WorkerStats> workerStats = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        long endTimestamp = startAt;
+        for (BenchmarkResult part : workerResults) {
+            if (part.getErrorMessage() != null) {
+                errors.add(part.getErrorMessage());
+            }
+            endTimestamp = Math.max(endTimestamp, part.getEndTimestamp());
+            merged.setTotalRequests(merged.getTotalRequests() + part.getTotalRequests());
+            merged.setSuccessRequests(merged.getSuccessRequests() + part.getSuccessRequests());
+            merged.setFailedRequests(merged.getFailedRequests() + part.getFailedRequests());
+            merged.setDataPointsCount(merged.getDataPointsCount() + part.getDataPointsCount());
+            merged.setClientErrors(merged.getClientErrors() + part.getClientErrors());
+            merged.setPayloadBytes(merged.getPayloadBytes() + part.getPayloadBytes());
+            merged.setBufferAllocations(merged.getBufferAllocations() + part.getBufferAllocations());
+            merged.setBufferReuses(merged.getBufferReuses() + part.getBufferReuses());
+            merged.setHarnessGcCount(merged.getHarnessGcCount() + part.getHarnessGcCount());
+            merged.setHarnessGcTimeMillis(merged.getHarnessGcTimeMillis() + part.getHarnessGcTimeMillis());
+            latency.merge(LatencyHistogram.fromCounts(part.getLatencyHistogram()));
+
+            // 各节点可能并发数不同，自适应并发的可持续值按节点求和
+            if (part.isAdaptiveConcurrency()) {
+                merged.setAdaptiveConcurrency(true);
+                merged.setConvergedConcurrencyLimit(merged.getConvergedConcurrencyLimit()
+                        + part.getConvergedConcurrencyLimit());
+                merged.setFinalConcurrencyLimit(merged.getFinalConcurrencyLimit() + part.getFinalConcurrencyLimit());
+                merged.setPeakConcurrencyLimit(merged.getPeakConcurrencyLimit() + part.getPeakConcurrencyLimit());
+                merged.setConcurrencyLimitDecreases(merged.getConcurrencyLimitDecreases()
+                        + part.getConcurrencyLimitDecreases());
+            }
+
+            // 各节点时间线的起点与统一开始时间可能相差几毫秒，按整秒对齐
+            TimelineSeries series = part.getTimeline();
+            if (series != null && series.getSamples() != null) {
+                int shift = (int) Math.round((series.getStartTimestamp() - startAt) / 1000.0);
+                series.setFromSecond(series.getFromSecond() + shift);
+                timeline.merge(series);
+            }
+            if (part.getWorkerStats() != null) {
+                for (WorkerStats stats : part.getWorkerStats()) {
+                    stats.setWorkerId(workerStats.size());
+                    workerStats.add(stats);
+                }
+            }
+        }
+
+        merged.setEndTimestamp(endTimestamp);
+        merged.setTotalTimeMillis(endTimestamp - startAt);
+        victoriaMetricsService.fillLatency(merged, latency);
+        victoriaMetricsService.fillWorkerStats(merged, workerStats.toArray(new WorkerStats[0]));
+        merged.setTimeline(timeline.toSeries());
+        if (!errors.isEmpty()) {
+            merged.setErrorMessage(String.join("; ", errors));
+        }
+        log.info("分布式压测完成 - 运行ID: {}, 节点: {}, 成功: {}, 失败: {}, 耗时: {}ms, P99: {}ms",
+                runId, workerResults.size(), merged.getSuccessRequests(), merged.getFailedRequests(),
+                merged.getTotalTimeMillis(), merged.getP99ResponseTimeMillis());
+        return merged;
+    }
+
+    private void updateLiveProgress(String runId, int finishedWorkers, int workerCount, RunTimeline timeline,
+            LatencyHistogram latency) {
+        Map<String, Object> progress = new HashMap<>();
+        int seconds = timeline.length();
+        long samples = 0;
+        for (int i = 0; i < seconds; i++) {
+            samples += timeline.samplesAt(i);
+        }
+        progress.put("runId", runId);
+        progress.put("workers", workerCount);
+        progress.put("finishedWorkers", finishedWorkers);
+        progress.put("successSamples", samples);
+        progress.put("lastSecondSamples", seconds > 0 ? timeline.samplesAt(seconds - 1) : 0);
+        progress.put("p99ResponseTimeMillis", latency.getPercentile(99) / 1000.0);
+        liveProgress.put(runId, progress);
+    }
+}
@@ -0,0 +1,240 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteShardResult;
+import com.brianxiadong.vicmetrbenchmark.model.LatencyWindow;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.SeriesShards;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 删除序列压测服务
+ * 按标签匹配把序列切成若干分片并行调用 delete_series，再按指数退避轮询各分片的序列数直到为0，
+ * 得到删除吞吐与删除到不可见的时间；可选地在删除前后并行写入，比较删除对写入延迟的影响
+ */
+@Slf4j
+@Service
+public class DeleteBenchmarkService {
+
+    private final VictoriaMetricsClient victoriaMetricsClient;
+    private final VictoriaMetricsService victoriaMetricsService;
+
+    public DeleteBenchmarkService(VictoriaMetricsClient victoriaMetricsClient,
+            VictoriaMetricsService victoriaMetricsService) {
+        this.victoriaMetricsClient = victoriaMetricsClient;
+        this.victoriaMetricsService = victoriaMetricsService;
+    }
+
+    /**
+     * 执行删除压测
+     *
+     * @param request 删除压测请求
+     * @return 删除压测结果
+     */
+    public DeleteBenchmarkResult run(DeleteBenchmarkRequest request) {
+        DeleteBenchmarkResult result = new DeleteBenchmarkResult();
+        List<String> matchers = shardMatchers(request);
+        if (matchers.isEmpty()) {
+            result.setErrorMessage("指标前缀与分片选择器不能同时为空");
+            return result;
+        }
+        BenchmarkRequest ingestion = request.getIngestion();
+        if (ingestion != null && request.getMetricPrefix() != null && ingestion.getMetricPrefix() != null
+                && ingestion.getMetricPrefix().startsWith(request.getMetricPrefix())) {
+            result.setErrorMessage("并行写入的指标前缀不能落在删除范围内");
+            return result;
+        }
+
+        List<DeleteShardResult> shards = new ArrayList<>();
+        for (String matcher : matchers) {
+            DeleteShardResult shard = new DeleteShardResult();
+            shard.setMatcher(matcher);
+            shard.setSeriesBefore(countSeries(request, shard));
+            shards.add(shard);
+        }
+        result.setShards(shards);
+        result.setSeriesBefore(sum(shards, DeleteShardResult::getSeriesBefore));
+        log.info("删除压测开始 - 分片: {}, 序列数: {}", shards.size(), result.getSeriesBefore());
+
+        WriteRunState ingestionState = null;
+        CompletableFuture<BenchmarkResult> ingestionRun = null;
+        if (ingestion != null) {
+            ingestionState = new WriteRunState();
+            if (ingestion.getDurationSeconds() == null || ingestion.getDurationSeconds() <= 0) {
+                // 写入由删除流程结束时主动停止，时长只作为兜底
+                ingestion.setDurationSeconds((long) (request.getIngestionWarmupSeconds()
+                        + request.getTimeoutSeconds() + request.getIngestionCooldownSeconds() + 60));
+            }
+            WriteRunState state = ingestionState;
+            ingestionRun = CompletableFuture.supplyAsync(() -> victoriaMetricsService.runBenchmark(ingestion, state));
+            sleep(TimeUnit.SECONDS.toMillis(request.getIngestionWarmupSeconds()));
+            result.setIngestionBefore(toWindow(ingestionState.drainIntervalLatency()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(shards.size());
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> deletes = new ArrayList<>();
+            for (DeleteShardResult shard : shards) {
+                deletes.add(executor.submit(() -> deleteShard(shard)));
+            }
+            for (Future<?> delete : deletes) {
+                delete.get();
+            }
+            result.setDeleteCallMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            awaitInvisible(request, shards, start);
+            Long remaining = sum(shards, DeleteShardResult::getSeriesRemaining);
+            result.setSeriesRemaining(remaining);
+            result.setCompleted(shards.stream().allMatch(shard -> shard.getInvisibleAfterMillis() >= 0));
+            if (result.isCompleted()) {
+                long invisible = shards.stream().mapToLong(DeleteShardResult::getInvisibleAfterMillis).max().orElse(0);
+                result.setTimeToInvisibilityMillis(invisible);
+                if (result.getSeriesBefore() != null) {
+                    result.setSeriesPerSecond(result.getSeriesBefore() * 1000.0 / Math.max(1, invisible));
+                }
+            } else {
+                result.setErrorMessage("等待序列不可见超时，剩余序列: "
+                        + (remaining != null ? remaining : "未知（统计序列数失败）"));
+            }
+        } catch (Exception e) {
+            log.error("删除压测失败: {}", e.getMessage());
+            result.setErrorMessage(e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (ingestionState != null) {
+            result.setIngestionDuring(toWindow(ingestionState.drainIntervalLatency()));
+            sleep(TimeUnit.SECONDS.toMillis(request.getIngestionCooldownSeconds()));
+            result.setIngestionAfter(toWindow(ingestionState.drainIntervalLatency()));
+            ingestionState.requestStop();
+            result.setIngestionResult(ingestionRun.join());
+            double before = result.getIngestionBefore().getP99Millis();
+            if (before > 0) {
+                result.setIngestionP99ChangePercent(
+                        (result.getIngestionDuring().getP99Millis() - before) / before * 100);
+            }
+        }
+
+        log.info("删除压测结束 - 序列数: {}, 不可见耗时: {}ms, 吞吐: {} 序列/秒",
+                result.getSeriesBefore(), result.getTimeToInvisibilityMillis(),
+                String.format("%.1f", result.getSeriesPerSecond()));
+        return result;
+    }
+
+    /**
+     * 生成分片选择器：显式指定的选择器优先，否则按分片标签切分前缀下的序列
+     */
+    static List<String> shardMatchers(DeleteBenchmarkRequest request) {
+        List<String> matchers = new ArrayList<>();
+        if (request.getMatchers() != null && !request.getMatchers().isEmpty()) {
+            matchers.addAll(request.getMatchers());
+            return matchers;
+        }
+        if (request.getMetricPrefix() == null || request.getMetricPrefix().trim().isEmpty()) {
+            return matchers;
+        }
+        return SeriesShards.matchers(request.getMetricPrefix(), request.getShardLabel(), request.getShards());
+    }
+
+    private void deleteShard(DeleteShardResult shard) {
+        long start = System.nanoTime();
+        try {
+            victoriaMetricsClient.deleteSeries(shard.getMatcher());
+        } catch (Exception e) {
+            log.error("删除分片失败: {} - {}", shard.getMatcher(), e.getMessage());
+            shard.setErrorMessage(e.getMessage());
+        }
+        shard.setDeleteCallMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 按指数退避轮询尚未清空的分片，直到全部为0或超时
+     */
+    private void awaitInvisible(DeleteBenchmarkRequest request, List<DeleteShardResult> shards, long start)
+            throws InterruptedException {
+        long deadline = start + TimeUnit.SECONDS.toNanos(request.getTimeoutSeconds());
+        long delay = Math.max(1, request.getPollInitialMillis());
+        List<DeleteShardResult> pending = new ArrayList<>(shards);
+        while (true) {
+            pending.removeIf(shard -> {
+                shard.setPolls(shard.getPolls() + 1);
+                Long remaining = countSeries(request, shard);
+                shard.setSeriesRemaining(remaining);
+                // 查询失败时不知道是否删完，继续轮询
+                if (remaining != null && remaining == 0) {
+                    shard.setInvisibleAfterMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    return true;
+                }
+                return false;
+            });
+            if (pending.isEmpty() || System.nanoTime() > deadline) {
+                return;
+            }
+            Thread.sleep(delay);
+            delay = Math.min(delay * 2, request.getPollMaxMillis());
+        }
+    }
+
+    /**
+     * @return 分片在统计范围内匹配的序列数，查询失败时为null
+     */
+    private Long countSeries(DeleteBenchmarkRequest request, DeleteShardResult shard) {
+        try {
+            long range = request.getCountRangeSeconds() != null && request.getCountRangeSeconds() > 0
+                    ? request.getCountRangeSeconds() : 86400;
+            return victoriaMetricsService.querySeriesCount(shard.getMatcher(), range);
+        } catch (Exception e) {
+            log.warn("查询分片序列数失败: {} - {}", shard.getMatcher(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 汇总各分片的序列数，任一分片未知时总数也未知
+     */
+    private static Long sum(List<DeleteShardResult> shards, Function<DeleteShardResult, Long> count) {
+        long total = 0;
+        for (DeleteShardResult shard : shards) {
+            Long value = count.apply(shard);
+            if (value == null) {
+                return null;
+            }
+            total += value;
+        }
+        return total;
+    }
+
+    private static LatencyWindow toWindow(LatencyHistogram histogram) {
+        LatencyWindow window = new LatencyWindow();
+        window.setBatches(histogram.getCount());
+        window.setMeanMillis(histogram.getMean() / 1000.0);
+        window.setP50Millis(histogram.getPercentile(50) / 1000.0);
+        window.setP99Millis(histogram.getPercentile(99) / 1000.0);
+        window.setMaxMillis(histogram.getMax() / 1000.0);
+        return window;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
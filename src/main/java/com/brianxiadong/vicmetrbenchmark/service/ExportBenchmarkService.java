@@ -0,0 +1,283 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.ExportShardResult;
+import com.brianxiadong.vicmetrbenchmark.utils.CountingSource;
+import com.brianxiadong.vicmetrbenchmark.utils.SeriesShards;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出压测服务
+ * 按序列分片与时间窗口并行调用 /api/v1/export 或 /api/v1/export/native，从 OkHttp 的 Source 逐段读取响应体，
+ * 边读边统计字节数；JSON行格式用流式解析器统计序列与数据点数，不缓存整个响应。
+ * 可以把导出数据落盘，再通过对应的导入接口重新导入，测量迁移的导入一侧
+ */
+@Slf4j
+@Service
+public class ExportBenchmarkService {
+
+    private static final int DRAIN_CHUNK = 64 * 1024;
+
+    private final VictoriaMetricsClient victoriaMetricsClient;
+    private final VictoriaMetricsService victoriaMetricsService;
+    private final BenchmarkResultStore resultStore;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ExportBenchmarkService(VictoriaMetricsClient victoriaMetricsClient,
+            VictoriaMetricsService victoriaMetricsService, BenchmarkResultStore resultStore) {
+        this.victoriaMetricsClient = victoriaMetricsClient;
+        this.victoriaMetricsService = victoriaMetricsService;
+        this.resultStore = resultStore;
+    }
+
+    /**
+     * 执行导出压测
+     *
+     * @param request 导出压测请求
+     * @return 导出压测结果
+     */
+    public ExportBenchmarkResult run(ExportBenchmarkRequest request) {
+        ExportBenchmarkResult result = new ExportBenchmarkResult();
+        if (request.getRunId() == null || request.getRunId().trim().isEmpty()) {
+            request.setRunId(victoriaMetricsService.newRunId());
+        }
+        boolean nativeFormat = "native".equalsIgnoreCase(request.getFormat());
+        result.setRunId(request.getRunId());
+        result.setFormat(nativeFormat ? "native" : "json");
+
+        List<ExportShardResult> shards = buildShards(request);
+        if (shards.isEmpty()) {
+            result.setErrorMessage("指标前缀与序列选择器不能同时为空");
+            return result;
+        }
+        result.setShards(shards);
+        log.info("导出压测开始 - 运行ID: {}, 格式: {}, 分片: {}", request.getRunId(), result.getFormat(), shards.size());
+
+        int concurrency = request.getConcurrency() != null && request.getConcurrency() > 0
+                ? request.getConcurrency() : 1;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, shards.size()));
+        boolean capture = Boolean.TRUE.equals(request.getCapture());
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> exports = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                ExportShardResult shard = shards.get(i);
+                Path captureFile = capture ? resultStore.exportPath(request.getRunId(), i, nativeFormat) : null;
+                exports.add(executor.submit(() -> exportShard(shard, nativeFormat, captureFile)));
+            }
+            for (Future<?> export : exports) {
+                export.get();
+            }
+        } catch (Exception e) {
+            log.error("导出压测失败: {}", e.getMessage());
+            result.setErrorMessage(e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        result.setTotalTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        for (ExportShardResult shard : shards) {
+            if (shard.getErrorMessage() != null) {
+                result.setFailedShards(result.getFailedShards() + 1);
+            }
+            result.setTotalBytes(result.getTotalBytes() + shard.getBytes());
+            result.setTotalSeries(result.getTotalSeries() + Math.max(0, shard.getSeries()));
+            result.setTotalSamples(result.getTotalSamples() + Math.max(0, shard.getSamples()));
+        }
+        if (nativeFormat) {
+            result.setTotalSeries(-1);
+            result.setTotalSamples(-1);
+        }
+        result.setMegabytesPerSecond(megabytesPerSecond(result.getTotalBytes(), result.getTotalTimeMillis()));
+        result.setSamplesPerSecond(nativeFormat ? -1 : perSecond(result.getTotalSamples(), result.getTotalTimeMillis()));
+
+        if (capture && Boolean.TRUE.equals(request.getReimport())) {
+            reimport(result, nativeFormat);
+        }
+
+        log.info("导出压测结束 - 运行ID: {}, 字节: {}, 数据点: {}, 耗时: {}ms, {} MB/s",
+                request.getRunId(), result.getTotalBytes(), result.getTotalSamples(), result.getTotalTimeMillis(),
+                String.format("%.2f", result.getMegabytesPerSecond()));
+        return result;
+    }
+
+    /**
+     * 序列分片与时间窗口的笛卡尔积，时间窗口按毫秒首尾相接，既不重叠也没有空隙
+     */
+    static List<ExportShardResult> buildShards(ExportBenchmarkRequest request) {
+        List<String> matchers;
+        if (request.getMatchers() != null && !request.getMatchers().isEmpty()) {
+            matchers = request.getMatchers();
+        } else if (request.getMetricPrefix() != null && !request.getMetricPrefix().trim().isEmpty()) {
+            matchers = SeriesShards.matchers(request.getMetricPrefix(), request.getShardLabel(),
+                    request.getSeriesShards());
+        } else {
+            return new ArrayList<>();
+        }
+
+        long end = request.getEndSeconds() != null ? request.getEndSeconds() : System.currentTimeMillis() / 1000;
+        long start = request.getStartSeconds() != null ? request.getStartSeconds()
+                : end - (request.getRangeSeconds() != null ? request.getRangeSeconds() : 3600);
+        long startMillis = start * 1000;
+        long endMillis = end * 1000;
+        int windows = (int) Math.max(1, Math.min(request.getTimeShards() != null ? request.getTimeShards() : 1,
+                Math.max(1, endMillis - startMillis)));
+
+        List<ExportShardResult> shards = new ArrayList<>();
+        for (String matcher : matchers) {
+            for (int window = 0; window < windows; window++) {
+                ExportShardResult shard = new ExportShardResult();
+                shard.setMatcher(matcher);
+                shard.setStartMillis(startMillis + (endMillis - startMillis) * window / windows);
+                // 时间窗口两端都是闭区间，除最后一个窗口外结束时间减一毫秒，避免边界上的数据重复导出
+                long windowEnd = startMillis + (endMillis - startMillis) * (window + 1) / windows;
+                shard.setEndMillis(window == windows - 1 ? windowEnd : windowEnd - 1);
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    private void exportShard(ExportShardResult shard, boolean nativeFormat, Path captureFile) {
+        Map<String, String> params = new HashMap<>();
+        params.put("match[]", shard.getMatcher());
+        params.put("start", toSeconds(shard.getStartMillis()));
+        params.put("end", toSeconds(shard.getEndMillis()));
+        long start = System.nanoTime();
+        try {
+            victoriaMetricsClient.export(nativeFormat, params, source -> {
+                BufferedSink tee = captureFile != null ? Okio.buffer(Okio.sink(captureFile)) : null;
+                try {
+                    CountingSource counting = new CountingSource(source, tee);
+                    if (nativeFormat) {
+                        drain(counting);
+                    } else {
+                        countJsonLines(Okio.buffer(counting), shard);
+                    }
+                    shard.setBytes(counting.getBytes());
+                } finally {
+                    if (tee != null) {
+                        tee.close();
+                    }
+                }
+                return null;
+            });
+            if (captureFile != null) {
+                shard.setCaptureFile(captureFile.toString());
+            }
+        } catch (Exception e) {
+            log.error("导出分片失败: {} [{}, {}] - {}", shard.getMatcher(), shard.getStartMillis(),
+                    shard.getEndMillis(), e.getMessage());
+            shard.setErrorMessage(e.getMessage());
+        }
+        shard.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        shard.setMegabytesPerSecond(megabytesPerSecond(shard.getBytes(), shard.getDurationMillis()));
+        if (nativeFormat) {
+            shard.setSeries(-1);
+            shard.setSamples(-1);
+            shard.setSamplesPerSecond(-1);
+        } else {
+            shard.setSamplesPerSecond(perSecond(shard.getSamples(), shard.getDurationMillis()));
+        }
+    }
+
+    /**
+     * 原生格式不解析内容，只按块读完响应体
+     */
+    /**
+     * 毫秒时间戳写成带三位小数的秒，导出接口的 start/end 支持小数秒
+     */
+    static String toSeconds(long millis) {
+        return String.format("%d.%03d", millis / 1000, millis % 1000);
+    }
+
+    private static void drain(CountingSource source) throws IOException {
+        Buffer chunk = new Buffer();
+        while (source.read(chunk, DRAIN_CHUNK) != -1) {
+            chunk.clear();
+        }
+    }
+
+    /**
+     * 流式解析JSON行：每行一个序列对象，数据点数为 values 数组的长度，其余字段直接跳过
+     */
+    private void countJsonLines(BufferedSource source, ExportShardResult shard) throws IOException {
+        long series = 0;
+        long samples = 0;
+        try (JsonParser parser = jsonFactory.createParser(source.inputStream())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    continue;
+                }
+                series++;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("values".equals(field) && value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            samples++;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        shard.setSeries(series);
+        shard.setSamples(samples);
+    }
+
+    /**
+     * 依次重新导入各分片保存的文件，单连接顺序导入，速率按总字节与总耗时计算
+     */
+    private void reimport(ExportBenchmarkResult result, boolean nativeFormat) {
+        long start = System.nanoTime();
+        try {
+            for (ExportShardResult shard : result.getShards()) {
+                if (shard.getCaptureFile() == null) {
+                    continue;
+                }
+                File file = new File(shard.getCaptureFile());
+                victoriaMetricsClient.importFile(file, nativeFormat);
+                result.setReimportBytes(result.getReimportBytes() + file.length());
+            }
+        } catch (Exception e) {
+            log.error("重新导入导出数据失败: {}", e.getMessage());
+            result.setReimportErrorMessage(e.getMessage());
+        }
+        result.setReimportTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        result.setReimportMegabytesPerSecond(
+                megabytesPerSecond(result.getReimportBytes(), result.getReimportTimeMillis()));
+    }
+
+    private static double megabytesPerSecond(long bytes, long millis) {
+        return bytes / 1024.0 / 1024.0 * 1000.0 / Math.max(1, millis);
+    }
+
+    private static double perSecond(long count, long millis) {
+        return count * 1000.0 / Math.max(1, millis);
+    }
+}
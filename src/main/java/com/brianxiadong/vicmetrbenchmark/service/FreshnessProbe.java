@@ -0,0 +1,274 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.FreshnessLevel;
+import com.brianxiadong.vicmetrbenchmark.model.FreshnessResult;
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryResponseReader;
+import com.brianxiadong.vicmetrbenchmark.utils.RunTimeline;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入到可查询的延迟探测
+ * 写入线程按固定间隔向一条专用序列写入标记数据，值为递增序号；轮询线程与压测并行地查询该序列的最大值，
+ * 查询能看到序号N时，所有不大于N的标记都视为已可见，延迟为写入成功到首次可见的时间。
+ * 每个标记记录写入前一秒的压测吞吐，按负载区间分别统计延迟分布
+ */
+@Slf4j
+public class FreshnessProbe {
+
+    /**
+     * 负载区间边界按 1-2-5 递增（数据点/秒）
+     */
+    private static final long[] LEVEL_STEPS = { 1, 2, 5 };
+
+    private final VictoriaMetricsClient client;
+    private final WriteRunState state;
+    private final String seriesSelector;
+    private final String probeId;
+    private final long intervalMillis;
+    private final long pollMillis;
+    private final long timeoutNanos;
+    private final QueryResponseReader reader = new QueryResponseReader(false);
+
+    /**
+     * 已写入、尚未可见的标记：序号 -> 标记
+     */
+    private final ConcurrentSkipListMap<Long, Marker> pending = new ConcurrentSkipListMap<>();
+
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final Map<Integer, LatencyHistogram> byLevel = new TreeMap<>();
+    private final Map<Integer, Long> timedOutByLevel = new HashMap<>();
+
+    private volatile boolean writing = true;
+    private volatile boolean polling = true;
+    private long written;
+    private long writeFailures;
+    private long timedOut;
+    private Thread writer;
+    private Thread poller;
+
+    public FreshnessProbe(VictoriaMetricsClient client, BenchmarkRequest request, WriteRunState state) {
+        this.client = client;
+        this.state = state;
+        this.probeId = request.getRunId();
+        String metric = request.getMetricPrefix() + "_freshness_marker";
+        this.seriesSelector = metric + "{probe=\"" + probeId + "\"}";
+        this.intervalMillis = Math.max(10, request.getFreshnessIntervalMillis());
+        this.pollMillis = Math.max(1, request.getFreshnessPollMillis());
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(Math.max(1, request.getFreshnessTimeoutSeconds()));
+    }
+
+    /**
+     * 启动写入与轮询线程
+     */
+    public void start() {
+        writer = new Thread(this::writeLoop, "freshness-writer-" + probeId);
+        poller = new Thread(this::pollLoop, "freshness-poller-" + probeId);
+        writer.setDaemon(true);
+        poller.setDaemon(true);
+        writer.start();
+        poller.start();
+    }
+
+    /**
+     * 停止写入标记，再等待已写入的标记变为可见（最多到超时时间），返回统计结果
+     */
+    public FreshnessResult stop() {
+        writing = false;
+        try {
+            writer.join();
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!pending.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(pollMillis);
+            }
+            polling = false;
+            poller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            polling = false;
+        }
+        synchronized (this) {
+            for (Marker marker : pending.values()) {
+                timeOut(marker);
+            }
+            pending.clear();
+            return buildResult();
+        }
+    }
+
+    private void writeLoop() {
+        long seq = 0;
+        while (writing) {
+            seq++;
+            int level = levelOf(currentLoad());
+            String line = seriesSelector + " " + seq + " " + System.currentTimeMillis() + "\n";
+            try {
+                String response = client.writeData(line, "prometheus");
+                if (response != null && response.trim().isEmpty()) {
+                    pending.put(seq, new Marker(System.nanoTime(), level));
+                    synchronized (this) {
+                        written++;
+                    }
+                } else {
+                    synchronized (this) {
+                        writeFailures++;
+                    }
+                }
+            } catch (Exception e) {
+                synchronized (this) {
+                    writeFailures++;
+                }
+                log.debug("写入新鲜度标记失败: {}", e.getMessage());
+            }
+            sleep(intervalMillis);
+        }
+    }
+
+    private void pollLoop() {
+        Map<String, String> params = new HashMap<>();
+        // 跳过查询缓存与最新数据的可见偏移，测的是数据本身何时可查
+        params.put("nocache", "1");
+        params.put("latency_offset", "0s");
+        String query = "max(max_over_time(" + seriesSelector + "[1h]))";
+        while (polling) {
+            if (!pending.isEmpty()) {
+                long visibleSeq = queryVisibleSeq(query, params);
+                long now = System.nanoTime();
+                synchronized (this) {
+                    Iterator<Map.Entry<Long, Marker>> iterator = pending.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<Long, Marker> entry = iterator.next();
+                        Marker marker = entry.getValue();
+                        if (entry.getKey() <= visibleSeq) {
+                            long micros = TimeUnit.NANOSECONDS.toMicros(now - marker.writtenNanos);
+                            overall.record(micros);
+                            byLevel.computeIfAbsent(marker.level, k -> new LatencyHistogram()).record(micros);
+                            iterator.remove();
+                        } else if (now - marker.writtenNanos > timeoutNanos) {
+                            timeOut(marker);
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+            sleep(pollMillis);
+        }
+    }
+
+    private long queryVisibleSeq(String query, Map<String, String> params) {
+        try {
+            QueryResponseStats stats = client.query(query, params, reader);
+            if (stats != null && stats.getFirstValue() != null) {
+                return stats.getFirstValue().longValue();
+            }
+        } catch (Exception e) {
+            log.debug("新鲜度查询失败: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    private void timeOut(Marker marker) {
+        timedOut++;
+        timedOutByLevel.merge(marker.level, 1L, Long::sum);
+    }
+
+    /**
+     * @return 最近一个完整秒的压测吞吐（数据点/秒）
+     */
+    private long currentLoad() {
+        RunTimeline timeline = state.getTimeline();
+        if (timeline == null) {
+            return 0;
+        }
+        int second = timeline.secondOf(System.currentTimeMillis()) - 1;
+        return second >= 0 ? timeline.samplesAt(second) : 0;
+    }
+
+    /**
+     * 负载区间编号：0 对应 [0,1)，之后依次为 [1,2)、[2,5)、[5,10)、[10,20)...
+     */
+    static int levelOf(long samplesPerSecond) {
+        int level = 0;
+        while (samplesPerSecond >= levelLowerBound(level + 1)) {
+            level++;
+        }
+        return level;
+    }
+
+    static long levelLowerBound(int level) {
+        if (level == 0) {
+            return 0;
+        }
+        long decade = 1;
+        for (int i = 0; i < (level - 1) / LEVEL_STEPS.length; i++) {
+            decade *= 10;
+        }
+        return LEVEL_STEPS[(level - 1) % LEVEL_STEPS.length] * decade;
+    }
+
+    private FreshnessResult buildResult() {
+        FreshnessResult result = new FreshnessResult();
+        result.setMarkersWritten(written);
+        result.setMarkerWriteFailures(writeFailures);
+        result.setMarkersVisible(overall.getCount());
+        result.setMarkersTimedOut(timedOut);
+        result.setP50Millis(overall.getPercentile(50) / 1000.0);
+        result.setP90Millis(overall.getPercentile(90) / 1000.0);
+        result.setP99Millis(overall.getPercentile(99) / 1000.0);
+        result.setMaxMillis(overall.getMax() / 1000.0);
+
+        TreeMap<Integer, FreshnessLevel> levels = new TreeMap<>();
+        for (Map.Entry<Integer, LatencyHistogram> entry : byLevel.entrySet()) {
+            FreshnessLevel level = newLevel(entry.getKey());
+            LatencyHistogram histogram = entry.getValue();
+            level.setMarkers(histogram.getCount());
+            level.setP50Millis(histogram.getPercentile(50) / 1000.0);
+            level.setP90Millis(histogram.getPercentile(90) / 1000.0);
+            level.setP99Millis(histogram.getPercentile(99) / 1000.0);
+            level.setMaxMillis(histogram.getMax() / 1000.0);
+            levels.put(entry.getKey(), level);
+        }
+        for (Map.Entry<Integer, Long> entry : timedOutByLevel.entrySet()) {
+            levels.computeIfAbsent(entry.getKey(), FreshnessProbe::newLevel).setTimedOut(entry.getValue());
+        }
+        result.setLevels(new ArrayList<>(levels.values()));
+        return result;
+    }
+
+    private static FreshnessLevel newLevel(int index) {
+        FreshnessLevel level = new FreshnessLevel();
+        level.setMinSamplesPerSecond(levelLowerBound(index));
+        level.setMaxSamplesPerSecond(levelLowerBound(index + 1));
+        return level;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Marker {
+        final long writtenNanos;
+        final int level;
+
+        Marker(long writtenNanos, int level) {
+            this.writtenNanos = writtenNanos;
+            this.level = level;
+        }
+    }
+}
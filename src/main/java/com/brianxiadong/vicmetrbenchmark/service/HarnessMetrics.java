@@ -0,0 +1,147 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 压测工具自身的运行指标
+ * 热点路径上只对 LongAdder 做累加，不经过 Micrometer；抓取时再由计数器和仪表读取当前值，
+ * 因此统计本身不会在高并发写入时成为竞争点。JVM 的GC停顿由 actuator 自带的 jvm_gc_pause_seconds 提供
+ * <p>
+ * 主要指标（Prometheus 名称）：
+ * harness_requests_inflight、harness_batches_queued、harness_payload_bytes_total、
+ * harness_samples_total{result}、harness_retries_total、harness_overload_responses_total、
+ * harness_http_connections{state}、harness_http_calls{state}
+ */
+@Component
+public class HarnessMetrics {
+
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder activeRuns = new LongAdder();
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder encodedBatches = new LongAdder();
+    private final LongAdder successSamples = new LongAdder();
+    private final LongAdder failedSamples = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder overloads = new LongAdder();
+
+    public HarnessMetrics(MeterRegistry registry, VictoriaMetricsClient client) {
+        Gauge.builder("harness.requests.inflight", inFlight, LongAdder::sum)
+                .description("正在等待响应的写入请求数")
+                .register(registry);
+        Gauge.builder("harness.batches.queued", queued, LongAdder::sum)
+                .description("已编码、等待并发许可的批次数")
+                .register(registry);
+        Gauge.builder("harness.runs.active", activeRuns, LongAdder::sum)
+                .description("正在执行的写入压测数")
+                .register(registry);
+        FunctionCounter.builder("harness.payload.bytes", payloadBytes, LongAdder::sum)
+                .description("已编码的负载字节数")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("harness.payload.batches", encodedBatches, LongAdder::sum)
+                .description("已编码的批次数")
+                .register(registry);
+        FunctionCounter.builder("harness.samples", successSamples, LongAdder::sum)
+                .tag("result", "success")
+                .description("已发送的数据点数")
+                .register(registry);
+        FunctionCounter.builder("harness.samples", failedSamples, LongAdder::sum)
+                .tag("result", "failed")
+                .description("已发送的数据点数")
+                .register(registry);
+        FunctionCounter.builder("harness.retries", retries, LongAdder::sum)
+                .description("写入重试次数")
+                .register(registry);
+        FunctionCounter.builder("harness.overload.responses", overloads, LongAdder::sum)
+                .description("目标返回429/5xx或超时的次数")
+                .register(registry);
+
+        // 客户端在测试中可能被替换为模拟对象，此时连接池为null，按0处理
+        registerPoolGauge(registry, client, "idle", pool -> pool.idleConnectionCount());
+        registerPoolGauge(registry, client, "total", pool -> pool.connectionCount());
+        registerDispatcherGauge(registry, client, "running", dispatcher -> dispatcher.runningCallsCount());
+        registerDispatcherGauge(registry, client, "queued", dispatcher -> dispatcher.queuedCallsCount());
+    }
+
+    private void registerPoolGauge(MeterRegistry registry, VictoriaMetricsClient client, String state,
+            ToDoubleFunction<ConnectionPool> value) {
+        Gauge.builder("harness.http.connections", client, c -> {
+            ConnectionPool pool = c.getConnectionPool();
+            return pool == null ? 0 : value.applyAsDouble(pool);
+        }).tag("state", state).description("OkHttp 连接池中的连接数").register(registry);
+    }
+
+    private void registerDispatcherGauge(MeterRegistry registry, VictoriaMetricsClient client, String state,
+            ToDoubleFunction<Dispatcher> value) {
+        Gauge.builder("harness.http.calls", client, c -> {
+            Dispatcher dispatcher = c.getDispatcher();
+            return dispatcher == null ? 0 : value.applyAsDouble(dispatcher);
+        }).tag("state", state).description("OkHttp 分发器中的异步请求数").register(registry);
+    }
+
+    public void runStarted() {
+        activeRuns.increment();
+    }
+
+    public void runFinished() {
+        activeRuns.decrement();
+    }
+
+    /**
+     * 记录一个编码完成的批次
+     *
+     * @param bytes 负载字节数
+     */
+    public void payloadEncoded(int bytes) {
+        payloadBytes.add(bytes);
+        encodedBatches.increment();
+    }
+
+    public void batchQueued() {
+        queued.increment();
+    }
+
+    public void batchDequeued() {
+        queued.decrement();
+    }
+
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    public void requestFinished() {
+        inFlight.decrement();
+    }
+
+    public void retry() {
+        retries.increment();
+    }
+
+    public void overload() {
+        overloads.increment();
+    }
+
+    /**
+     * 记录一个批次的最终结果
+     *
+     * @param samples 数据点数
+     * @param success 是否成功
+     */
+    public void samplesSent(int samples, boolean success) {
+        if (success) {
+            successSamples.add(samples);
+        } else {
+            failedSamples.add(samples);
+        }
+    }
+}
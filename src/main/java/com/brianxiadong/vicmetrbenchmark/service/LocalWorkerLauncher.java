@@ -0,0 +1,111 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.VicMetrBenchmarkApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本机工作进程启动器
+ * 以当前应用的类路径启动独立的JVM作为分布式压测工作节点
+ */
+@Slf4j
+@Component
+public class LocalWorkerLauncher {
+
+    @Value("${victoriametrics.host:172.36.100.38}")
+    private String targetHost;
+
+    @Value("${victoriametrics.port:8428}")
+    private int targetPort;
+
+    @Value("${benchmark.result-store.dir:benchmark-results}")
+    private String resultStoreDir;
+
+    /**
+     * 启动工作进程
+     *
+     * @param count    进程数
+     * @param basePort 起始端口
+     * @param host     压测目标地址，为空时沿用本进程的配置
+     * @param port     压测目标端口，为空时沿用本进程的配置
+     * @return 已启动的进程，调用方负责在压测结束后关闭
+     */
+    public List<LocalWorker> launch(int count, int basePort, String host, Integer port) throws IOException {
+        List<LocalWorker> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                int workerPort = basePort + i;
+                File logFile = new File(System.getProperty("java.io.tmpdir"), "vicmetr-worker-" + workerPort + ".log");
+                ProcessBuilder builder = new ProcessBuilder(command(workerPort,
+                        host != null && !host.trim().isEmpty() ? host : targetHost,
+                        port != null && port > 0 ? port : targetPort));
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+                Process process = builder.start();
+                log.info("已启动本机工作进程 - 端口: {}, 日志: {}", workerPort, logFile.getAbsolutePath());
+                workers.add(new LocalWorker("http://127.0.0.1:" + workerPort, process));
+            }
+        } catch (IOException e) {
+            stop(workers);
+            throw e;
+        }
+        return workers;
+    }
+
+    /**
+     * 关闭工作进程
+     */
+    public void stop(List<LocalWorker> workers) {
+        for (LocalWorker worker : workers) {
+            worker.getProcess().destroy();
+        }
+    }
+
+    private List<String> command(int workerPort, String host, int port) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String classPath = System.getProperty("java.class.path");
+        if (classPath.endsWith(".jar") && !classPath.contains(File.pathSeparator)) {
+            // 以 spring-boot 可执行jar运行
+            command.add("-jar");
+            command.add(classPath);
+        } else {
+            command.add("-cp");
+            command.add(classPath);
+            command.add(VicMetrBenchmarkApplication.class.getName());
+        }
+        command.add("--server.port=" + workerPort);
+        command.add("--victoriametrics.host=" + host);
+        command.add("--victoriametrics.port=" + port);
+        command.add("--benchmark.result-store.dir=" + resultStoreDir);
+        command.add("--spring.devtools.restart.enabled=false");
+        return command;
+    }
+
+    /**
+     * 本机工作进程
+     */
+    public static class LocalWorker {
+        private final String baseUrl;
+        private final Process process;
+
+        public LocalWorker(String baseUrl, Process process) {
+            this.baseUrl = baseUrl;
+            this.process = process;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public Process getProcess() {
+            return process;
+        }
+    }
+}
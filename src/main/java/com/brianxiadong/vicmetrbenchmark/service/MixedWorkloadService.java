@@ -0,0 +1,473 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.ActorResult;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.CorrelationResult;
+import com.brianxiadong.vicmetrbenchmark.model.MixedActorConfig;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadResult;
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryResponseReader;
+import com.brianxiadong.vicmetrbenchmark.utils.StatisticsUtils;
+import com.brianxiadong.vicmetrbenchmark.utils.TokenBucket;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import lombok.extern.slf4j.Slf4j;
+import okio.Buffer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 混合负载压测服务
+ * 写入、查询、删除、导出负载在同一时间窗口内并行运行，每种负载有独立的并发、速率与延迟直方图。
+ * 主线程每秒对各负载采样一次，得到对齐的每秒吞吐与延迟序列，再两两计算带滞后的互相关，
+ * 用于判断例如重查询是否拖慢写入、写入高峰是否抬高查询延迟
+ */
+@Slf4j
+@Service
+public class MixedWorkloadService {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 1000;
+    private static final int EXPORT_CHUNK = 64 * 1024;
+
+    private final VictoriaMetricsClient victoriaMetricsClient;
+    private final VictoriaMetricsService victoriaMetricsService;
+    private final QueryResponseReader queryReader = new QueryResponseReader(false);
+
+    public MixedWorkloadService(VictoriaMetricsClient victoriaMetricsClient,
+            VictoriaMetricsService victoriaMetricsService) {
+        this.victoriaMetricsClient = victoriaMetricsClient;
+        this.victoriaMetricsService = victoriaMetricsService;
+    }
+
+    /**
+     * 执行混合负载压测
+     *
+     * @param request 混合负载请求
+     * @return 混合负载结果
+     */
+    public MixedWorkloadResult run(MixedWorkloadRequest request) {
+        MixedWorkloadResult result = new MixedWorkloadResult();
+        List<MixedActorConfig> configs = request.getActors() != null ? request.getActors()
+                : Collections.<MixedActorConfig>emptyList();
+        if (request.getWrite() == null && configs.isEmpty()) {
+            result.setErrorMessage("至少需要一种负载");
+            return result;
+        }
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            String error = validate(configs.get(i));
+            if (error != null) {
+                result.setErrorMessage("第 " + (i + 1) + " 个负载配置无效: " + error);
+                return result;
+            }
+        }
+
+        int durationSeconds = request.getDurationSeconds() != null ? Math.max(1, request.getDurationSeconds()) : 60;
+        long start = System.currentTimeMillis();
+        long deadline = start + durationSeconds * SAMPLE_INTERVAL_MILLIS;
+        result.setStartTimestamp(start);
+
+        WriteRunState writeState = null;
+        CompletableFuture<BenchmarkResult> writeRun = null;
+        BenchmarkRequest write = request.getWrite();
+        if (write != null) {
+            write.setDurationSeconds((long) durationSeconds);
+            writeState = new WriteRunState();
+            tracks.add(new WriteTrack(writeState));
+            WriteRunState state = writeState;
+            writeRun = CompletableFuture.supplyAsync(() -> victoriaMetricsService.runBenchmark(write, state));
+        }
+        List<ActorTrack> actors = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            ActorTrack actor = new ActorTrack(configs.get(i), i, deadline);
+            actors.add(actor);
+            tracks.add(actor);
+            actor.start();
+        }
+        log.info("混合负载压测开始 - 时长: {}秒, 写入: {}, 其他负载: {}", durationSeconds, write != null, actors.size());
+
+        try {
+            for (int second = 1; second <= durationSeconds; second++) {
+                long wait = start + second * SAMPLE_INTERVAL_MILLIS - System.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+                for (Track track : tracks) {
+                    track.sample();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setErrorMessage("混合负载压测被中断");
+        }
+
+        if (writeState != null) {
+            writeState.requestStop();
+        }
+        for (ActorTrack actor : actors) {
+            actor.stop();
+        }
+        if (writeRun != null) {
+            result.setWriteResult(writeRun.join());
+        }
+        result.setTotalTimeMillis(System.currentTimeMillis() - start);
+
+        for (Track track : tracks) {
+            result.getActors().add(track.toResult(durationSeconds));
+        }
+        int maxLag = request.getCorrelationMaxLagSeconds() != null
+                ? Math.max(0, request.getCorrelationMaxLagSeconds()) : 5;
+        result.setCorrelations(correlate(result.getActors(), maxLag));
+
+        for (ActorResult actor : result.getActors()) {
+            log.info("混合负载 {} - 操作: {}, 错误: {}, {} 次/秒, P99: {}ms", actor.getName(), actor.getOperations(),
+                    actor.getErrors(), String.format("%.1f", actor.getOperationsPerSecond()),
+                    String.format("%.1f", actor.getP99Millis()));
+        }
+        return result;
+    }
+
+    private static String validate(MixedActorConfig config) {
+        String type = config.getType() != null ? config.getType().toLowerCase() : "";
+        switch (type) {
+            case "query":
+                return config.getQueries() == null || config.getQueries().isEmpty() ? "查询负载需要 queries" : null;
+            case "delete":
+            case "export":
+                return config.getMatchers() == null || config.getMatchers().isEmpty()
+                        ? type + " 负载需要 matchers" : null;
+            default:
+                return "未知的负载类型: " + config.getType();
+        }
+    }
+
+    /**
+     * 两两计算负载之间的互相关：source 的每秒吞吐分别对 target 的每秒吞吐与每秒P99
+     */
+    static List<CorrelationResult> correlate(List<ActorResult> actors, int maxLag) {
+        List<CorrelationResult> correlations = new ArrayList<>();
+        for (ActorResult source : actors) {
+            double[] load = toDoubles(source.getOperationsPerSecondSeries());
+            for (ActorResult target : actors) {
+                if (source == target) {
+                    continue;
+                }
+                correlations.add(correlation(source, target, "throughput", load,
+                        toDoubles(target.getOperationsPerSecondSeries()), maxLag));
+                correlations.add(correlation(source, target, "p99", load,
+                        withoutGaps(target.getP99MillisSeries()), maxLag));
+            }
+        }
+        return correlations;
+    }
+
+    private static CorrelationResult correlation(ActorResult source, ActorResult target, String metric,
+            double[] x, double[] y, int maxLag) {
+        CorrelationResult correlation = new CorrelationResult();
+        correlation.setSource(source.getName());
+        correlation.setTarget(target.getName());
+        correlation.setTargetMetric(metric);
+        Double[] byLag = new Double[maxLag + 1];
+        for (int lag = 0; lag <= maxLag; lag++) {
+            double r = StatisticsUtils.laggedCorrelation(x, y, lag);
+            byLag[lag] = Double.isNaN(r) ? null : r;
+            if (byLag[lag] != null && (correlation.getPeakCoefficient() == null
+                    || Math.abs(r) > Math.abs(correlation.getPeakCoefficient()))) {
+                correlation.setPeakCoefficient(r);
+                correlation.setPeakLagSeconds(lag);
+            }
+        }
+        correlation.setCoefficient(byLag[0]);
+        correlation.setCoefficientsByLag(byLag);
+        return correlation;
+    }
+
+    private static double[] toDoubles(long[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+
+    /**
+     * 没有请求的秒（-1）换成 NaN，不参与相关计算
+     */
+    private static double[] withoutGaps(double[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i] < 0 ? Double.NaN : values[i];
+        }
+        return doubles;
+    }
+
+    /**
+     * 一种负载的每秒采样
+     */
+    private abstract static class Track {
+
+        protected final String name;
+        protected final String type;
+        protected final LatencyHistogram overall = new LatencyHistogram();
+        private final List<long[]> counts = new ArrayList<>();
+        private final List<double[]> latencies = new ArrayList<>();
+
+        Track(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        /**
+         * 采样一秒：取走这一秒的延迟直方图与计数
+         */
+        void sample() {
+            LatencyHistogram interval = drainLatency();
+            overall.merge(interval);
+            long[] operations = drainCounts();
+            counts.add(operations);
+            latencies.add(interval.getCount() > 0
+                    ? new double[] { interval.getMean() / 1000.0, interval.getPercentile(99) / 1000.0 }
+                    : new double[] { -1, -1 });
+        }
+
+        abstract LatencyHistogram drainLatency();
+
+        /**
+         * @return 自上次采样以来的 {成功操作数, 失败操作数}
+         */
+        abstract long[] drainCounts();
+
+        abstract long totalOperations();
+
+        abstract long totalErrors();
+
+        ActorResult toResult(int durationSeconds) {
+            ActorResult result = new ActorResult();
+            result.setName(name);
+            result.setType(type);
+            result.setOperations(totalOperations());
+            result.setErrors(totalErrors());
+            result.setOperationsPerSecond((double) result.getOperations() / durationSeconds);
+            result.setMeanMillis(overall.getMean() / 1000.0);
+            result.setP50Millis(overall.getPercentile(50) / 1000.0);
+            result.setP90Millis(overall.getPercentile(90) / 1000.0);
+            result.setP99Millis(overall.getPercentile(99) / 1000.0);
+            result.setMaxMillis(overall.getMax() / 1000.0);
+            int seconds = counts.size();
+            long[] operations = new long[seconds];
+            long[] errors = new long[seconds];
+            double[] mean = new double[seconds];
+            double[] p99 = new double[seconds];
+            for (int i = 0; i < seconds; i++) {
+                operations[i] = counts.get(i)[0];
+                errors[i] = counts.get(i)[1];
+                mean[i] = latencies.get(i)[0];
+                p99[i] = latencies.get(i)[1];
+            }
+            result.setOperationsPerSecondSeries(operations);
+            result.setErrorsPerSecondSeries(errors);
+            result.setMeanMillisSeries(mean);
+            result.setP99MillisSeries(p99);
+            return result;
+        }
+    }
+
+    /**
+     * 写入负载，操作数按数据点计，延迟为批次延迟
+     */
+    private static class WriteTrack extends Track {
+
+        private final WriteRunState state;
+        private long lastSuccess;
+        private long lastFailed;
+
+        WriteTrack(WriteRunState state) {
+            super("write", "write");
+            this.state = state;
+        }
+
+        @Override
+        LatencyHistogram drainLatency() {
+            return state.drainIntervalLatency();
+        }
+
+        @Override
+        long[] drainCounts() {
+            long success = state.getSuccessSamples().get();
+            long failed = state.getFailedSamples().get();
+            long[] delta = { success - lastSuccess, failed - lastFailed };
+            lastSuccess = success;
+            lastFailed = failed;
+            return delta;
+        }
+
+        @Override
+        long totalOperations() {
+            return state.getSuccessSamples().get();
+        }
+
+        @Override
+        long totalErrors() {
+            return state.getFailedSamples().get();
+        }
+    }
+
+    /**
+     * 查询、删除或导出负载，由若干工作线程循环执行
+     */
+    private class ActorTrack extends Track {
+
+        private final MixedActorConfig config;
+        private final long deadline;
+        private final TokenBucket bucket;
+        private final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+        private final LongAdder intervalOperations = new LongAdder();
+        private final LongAdder intervalErrors = new LongAdder();
+        private final AtomicLong operations = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong sequence = new AtomicLong();
+        private final List<Thread> threads = new ArrayList<>();
+
+        ActorTrack(MixedActorConfig config, int index, long deadline) {
+            super(config.getName() != null && !config.getName().trim().isEmpty() ? config.getName()
+                    : config.getType().toLowerCase() + "-" + (index + 1), config.getType().toLowerCase());
+            this.config = config;
+            this.deadline = deadline;
+            this.bucket = config.getRatePerSecond() != null && config.getRatePerSecond() > 0
+                    ? new TokenBucket(config.getRatePerSecond(), 0)
+                    : null;
+        }
+
+        void start() {
+            int concurrency = config.getConcurrency() != null ? Math.max(1, config.getConcurrency()) : 1;
+            for (int i = 0; i < concurrency; i++) {
+                Thread thread = new Thread(this::loop, "mixed-" + name + "-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        void stop() {
+            for (Thread thread : threads) {
+                try {
+                    thread.join(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (thread.isAlive()) {
+                    log.warn("混合负载 {} 的线程未在截止后30秒内结束: {}", name, thread.getName());
+                }
+            }
+        }
+
+        private void loop() {
+            while (System.currentTimeMillis() < deadline) {
+                if (bucket != null) {
+                    long wait = bucket.reserve(1);
+                    if (wait > 0) {
+                        if (System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(wait) >= deadline) {
+                            return;
+                        }
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+                long sent = System.nanoTime();
+                boolean success;
+                try {
+                    success = execute(sequence.getAndIncrement());
+                } catch (Exception e) {
+                    success = false;
+                    log.debug("混合负载 {} 操作失败: {}", name, e.getMessage());
+                }
+                interval.get().record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                if (success) {
+                    operations.incrementAndGet();
+                    intervalOperations.increment();
+                } else {
+                    errors.incrementAndGet();
+                    intervalErrors.increment();
+                }
+            }
+        }
+
+        private boolean execute(long seq) throws Exception {
+            long nowSeconds = System.currentTimeMillis() / 1000;
+            switch (type) {
+                case "query": {
+                    String query = config.getQueries().get((int) (seq % config.getQueries().size()));
+                    QueryResponseStats stats;
+                    if (config.getRangeSeconds() != null && config.getRangeSeconds() > 0) {
+                        stats = victoriaMetricsClient.queryRange(query, nowSeconds - config.getRangeSeconds(),
+                                nowSeconds, config.getStep(), Collections.<String, String>emptyMap(), queryReader);
+                    } else {
+                        Map<String, String> params = new HashMap<>();
+                        params.put("time", String.valueOf(nowSeconds));
+                        stats = victoriaMetricsClient.query(query, params, queryReader);
+                    }
+                    return stats != null && stats.isSuccess();
+                }
+                case "delete":
+                    victoriaMetricsClient.deleteSeries(matcher(seq));
+                    return true;
+                case "export": {
+                    Map<String, String> params = new HashMap<>();
+                    params.put("match[]", matcher(seq));
+                    params.put("start", String.valueOf(nowSeconds - config.getExportRangeSeconds()));
+                    params.put("end", String.valueOf(nowSeconds));
+                    victoriaMetricsClient.export(false, params, source -> {
+                        Buffer sink = new Buffer();
+                        while (source.read(sink, EXPORT_CHUNK) != -1) {
+                            sink.clear();
+                        }
+                        return null;
+                    });
+                    return true;
+                }
+                default:
+                    return false;
+            }
+        }
+
+        private String matcher(long seq) {
+            return config.getMatchers().get((int) (seq % config.getMatchers().size()));
+        }
+
+        @Override
+        LatencyHistogram drainLatency() {
+            return interval.getAndSet(new LatencyHistogram());
+        }
+
+        @Override
+        long[] drainCounts() {
+            return new long[] { intervalOperations.sumThenReset(), intervalErrors.sumThenReset() };
+        }
+
+        @Override
+        long totalOperations() {
+            return operations.get();
+        }
+
+        @Override
+        long totalErrors() {
+            return errors.get();
+        }
+    }
+}
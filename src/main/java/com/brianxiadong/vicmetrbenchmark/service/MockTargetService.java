@@ -0,0 +1,86 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 内置模拟目标管理服务
+ * 可通过接口按需启停，也可以配置 benchmark.mock-target.enabled=true 随应用启动，
+ * 再把 victoriametrics.host/port 指向它，在CI中离线运行完整压测。
+ * 随应用启动的行为依赖初始化，无界面运行开启延迟初始化时仍需立即创建
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class MockTargetService {
+
+    @Value("${benchmark.mock-target.enabled:false}")
+    private boolean enabledOnStartup;
+
+    @Value("${benchmark.mock-target.port:0}")
+    private int startupPort;
+
+    private MockVictoriaMetricsServer server;
+
+    @PostConstruct
+    public void startOnStartup() {
+        if (!enabledOnStartup) {
+            return;
+        }
+        MockTargetConfig config = new MockTargetConfig();
+        config.setPort(startupPort);
+        try {
+            start(config);
+        } catch (IOException e) {
+            log.error("启动模拟目标失败，端口: {}", startupPort, e);
+        }
+    }
+
+    /**
+     * 按新配置启动模拟目标，已在运行的实例会先停止
+     *
+     * @param config 模拟目标配置
+     * @return 启动后的实例
+     */
+    public synchronized MockVictoriaMetricsServer start(MockTargetConfig config) throws IOException {
+        stop();
+        MockVictoriaMetricsServer started = new MockVictoriaMetricsServer(config);
+        started.start();
+        server = started;
+        return started;
+    }
+
+    /**
+     * 停止模拟目标
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    /**
+     * @return 运行中的模拟目标，未启动时返回null
+     */
+    public synchronized MockVictoriaMetricsServer getServer() {
+        return server;
+    }
+
+    /**
+     * @return 运行统计，未启动时返回null
+     */
+    public synchronized Map<String, Object> getStats() {
+        return server == null ? null : server.getStats();
+    }
+}
@@ -0,0 +1,150 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadEncoders;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantResult;
+import com.brianxiadong.vicmetrbenchmark.model.TenantResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 多租户写入压测服务
+ * 每个租户各自运行一份写入压测，同时开始、同时结束，写入集群版 vminsert 的 /insert/{accountID}/ 接口；
+ * 租户的速率上限由各工作线程独立的令牌桶执行，汇总每个租户的吞吐与延迟分位数，用于检验租户间的公平性
+ * 与 vminsert 上配置的租户限流
+ */
+@Slf4j
+@Service
+public class MultiTenantService {
+
+    private final VictoriaMetricsService victoriaMetricsService;
+
+    public MultiTenantService(VictoriaMetricsService victoriaMetricsService) {
+        this.victoriaMetricsService = victoriaMetricsService;
+    }
+
+    /**
+     * 执行多租户写入压测
+     *
+     * @param request 多租户请求
+     * @return 多租户结果
+     */
+    public MultiTenantResult run(MultiTenantRequest request) {
+        MultiTenantResult result = new MultiTenantResult();
+        List<BenchmarkRequest> tenants = request.getTenants();
+        String error = validate(tenants);
+        if (error != null) {
+            result.setErrorMessage(error);
+            return result;
+        }
+        long durationSeconds = request.getDurationSeconds() != null && request.getDurationSeconds() > 0
+                ? request.getDurationSeconds() : 60;
+        long start = System.currentTimeMillis();
+        result.setStartTimestamp(start);
+        log.info("多租户写入压测开始 - 租户数: {}, 时长: {}秒", tenants.size(), durationSeconds);
+
+        // 每个租户的压测都会阻塞到结束，使用独立线程池，避免占满公共线程池
+        ExecutorService executor = Executors.newFixedThreadPool(tenants.size());
+        List<CompletableFuture<BenchmarkResult>> runs = new ArrayList<>();
+        try {
+            for (BenchmarkRequest tenant : tenants) {
+                tenant.setDurationSeconds(durationSeconds);
+                tenant.setDataCount(null);
+                runs.add(CompletableFuture.supplyAsync(() -> victoriaMetricsService.runBenchmark(tenant), executor));
+            }
+            for (int i = 0; i < tenants.size(); i++) {
+                result.getTenants().add(toTenantResult(tenants.get(i), runs.get(i).join()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        result.setTotalTimeMillis(System.currentTimeMillis() - start);
+        result.setFairnessIndex(fairnessIndex(result.getTenants()));
+
+        for (TenantResult tenant : result.getTenants()) {
+            log.info("租户 {} - 写入速率: {}/s, 上限: {}, P99: {}ms, 失败数据点: {}", tenant.getTenant(),
+                    String.format("%.1f", tenant.getWriteRate()), tenant.getSamplesPerSecondLimit(),
+                    String.format("%.1f", tenant.getP99ResponseTimeMillis()), tenant.getFailedSamples());
+        }
+        log.info("多租户写入压测结束 - 公平性指数: {}", result.getFairnessIndex());
+        return result;
+    }
+
+    private static String validate(List<BenchmarkRequest> tenants) {
+        if (tenants == null || tenants.isEmpty()) {
+            return "至少需要一个租户";
+        }
+        Set<String> seen = new HashSet<>();
+        for (BenchmarkRequest tenant : tenants) {
+            if (tenant.getTenant() == null || tenant.getTenant().trim().isEmpty()) {
+                return "租户 accountID 不能为空";
+            }
+            if (!tenant.getTenant().trim().matches("\\d+(:\\d+)?")) {
+                return "租户格式应为 accountID[:projectID]: " + tenant.getTenant();
+            }
+            if (!seen.add(tenant.getTenant().trim())) {
+                return "租户重复: " + tenant.getTenant();
+            }
+            if (PayloadEncoders.isTcp(tenant.getApiType())) {
+                return "TCP写入接口不区分租户: " + tenant.getApiType();
+            }
+        }
+        return null;
+    }
+
+    private static TenantResult toTenantResult(BenchmarkRequest request, BenchmarkResult run) {
+        TenantResult tenant = new TenantResult();
+        tenant.setTenant(request.getTenant());
+        tenant.setRunId(run.getRunId());
+        tenant.setStatus(run.getStatus());
+        tenant.setErrorMessage(run.getErrorMessage());
+        tenant.setSamplesPerSecondLimit(request.getSamplesPerSecond());
+        tenant.setSuccessSamples(run.getSuccessRequests());
+        tenant.setFailedSamples(run.getFailedRequests());
+        tenant.setWriteRate(run.getWriteRate());
+        if (request.getSamplesPerSecond() != null && request.getSamplesPerSecond() > 0) {
+            tenant.setLimitUtilization(run.getWriteRate() / request.getSamplesPerSecond());
+        }
+        tenant.setAvgResponseTimeMillis(run.getAvgResponseTimeMillis());
+        tenant.setP50ResponseTimeMillis(run.getP50ResponseTimeMillis());
+        tenant.setP90ResponseTimeMillis(run.getP90ResponseTimeMillis());
+        tenant.setP99ResponseTimeMillis(run.getP99ResponseTimeMillis());
+        tenant.setMaxResponseTimeMillis(run.getMaxResponseTimeMillis());
+        return tenant;
+    }
+
+    /**
+     * Jain 公平性指数 (Σx)² / (n·Σx²)
+     * 所有租户都设置了速率上限时 x 为 实际速率/上限（衡量各租户是否都拿到了各自的配额）；
+     * 只要有一个租户未限速，全部租户统一按实际写入速率计算，避免比例与速率混在一起
+     *
+     * @return 公平性指数，没有吞吐时为null
+     */
+    static Double fairnessIndex(List<TenantResult> tenants) {
+        boolean allLimited = true;
+        for (TenantResult tenant : tenants) {
+            allLimited &= tenant.getLimitUtilization() != null;
+        }
+        double sum = 0;
+        double sumSquares = 0;
+        for (TenantResult tenant : tenants) {
+            double x = allLimited ? tenant.getLimitUtilization() : tenant.getWriteRate();
+            sum += x;
+            sumSquares += x * x;
+        }
+        if (tenants.isEmpty() || sumSquares == 0) {
+            return null;
+        }
+        return sum * sum / (tenants.size() * sumSquares);
+    }
+}
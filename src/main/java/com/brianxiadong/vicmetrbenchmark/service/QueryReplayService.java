@@ -0,0 +1,317 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.FingerprintStats;
+import com.brianxiadong.vicmetrbenchmark.model.LoggedQuery;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayRequest;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayResult;
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryLogParser;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryResponseReader;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 查询日志回放服务
+ * 解析 vmselect 慢查询日志或JSONL访问日志，把查询的时间范围重定位到压测数据集上，
+ * 按原始到达间隔（可加速）并发回放，按归一化的查询指纹统计延迟，用来定位负载下变慢的看板面板
+ */
+@Slf4j
+@Service
+public class QueryReplayService {
+
+    /**
+     * 范围查询缺少步长时使用的默认步长，与 VictoriaMetrics 的默认值一致
+     */
+    private static final String DEFAULT_STEP = "5m";
+
+    private final VictoriaMetricsClient victoriaMetricsClient;
+
+    /**
+     * 允许按 logPath 读取的日志目录，未配置时只接受 logContent
+     */
+    private final Path logDirectory;
+
+    public QueryReplayService(VictoriaMetricsClient victoriaMetricsClient) {
+        this(victoriaMetricsClient, null);
+    }
+
+    @Autowired
+    public QueryReplayService(VictoriaMetricsClient victoriaMetricsClient,
+            @Value("${benchmark.query-log.dir:}") String logDirectory) {
+        this.victoriaMetricsClient = victoriaMetricsClient;
+        this.logDirectory = logDirectory == null || logDirectory.trim().isEmpty()
+                ? null : Paths.get(logDirectory.trim());
+    }
+
+    /**
+     * 回放查询日志
+     *
+     * @param request 回放请求
+     * @return 回放结果
+     */
+    public QueryReplayResult replay(QueryReplayRequest request) {
+        QueryReplayResult result = new QueryReplayResult();
+        QueryLogParser parser = new QueryLogParser(request.getFormat());
+        List<LoggedQuery> queries;
+        try (BufferedReader reader = openLog(request)) {
+            if (reader == null) {
+                result.setErrorMessage("查询日志路径与内容不能同时为空");
+                return result;
+            }
+            queries = parser.parse(reader, request.getMaxQueries() != null ? request.getMaxQueries() : 0);
+        } catch (IOException e) {
+            log.error("读取查询日志失败: {}", e.getMessage());
+            result.setErrorMessage("读取查询日志失败: " + e.getMessage());
+            return result;
+        }
+        result.setFormat(parser.getDetectedFormat());
+        result.setQueriesParsed(queries.size());
+        result.setLinesSkipped(parser.getSkippedLines());
+        if (queries.isEmpty()) {
+            result.setErrorMessage("查询日志中没有可回放的查询");
+            return result;
+        }
+        applyRewrites(queries, request.getRewrites());
+
+        long firstArrival = queries.get(0).getArrivalMillis();
+        result.setOriginalSpanMillis(queries.get(queries.size() - 1).getArrivalMillis() - firstArrival);
+        double speedUp = request.getSpeedUp() != null ? request.getSpeedUp() : 1.0;
+        result.setSpeedUp(speedUp);
+        Long shiftSeconds = anchorShift(queries, request.getAnchorEndSeconds());
+        Map<String, String> params = new HashMap<>();
+        if (Boolean.TRUE.equals(request.getNocache())) {
+            params.put("nocache", "1");
+        }
+        QueryResponseReader reader = new QueryResponseReader(Boolean.TRUE.equals(request.getChecksum()));
+
+        log.info("查询回放开始 - 查询数: {}, 原始跨度: {}ms, 加速: {}", queries.size(),
+                result.getOriginalSpanMillis(), speedUp);
+        Map<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+        LatencyHistogram overall = new LatencyHistogram();
+        LatencyHistogram lag = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        int concurrency = request.getConcurrency() != null && request.getConcurrency() > 0
+                ? request.getConcurrency() : 16;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            for (LoggedQuery query : queries) {
+                long dueNanos = start + (speedUp > 0
+                        ? TimeUnit.MILLISECONDS.toNanos((long) ((query.getArrivalMillis() - firstArrival) / speedUp))
+                        : 0);
+                long wait = dueNanos - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                executor.execute(() -> {
+                    lag.record(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos)));
+                    Fingerprint fingerprint = fingerprints.computeIfAbsent(
+                            QueryLogParser.fingerprint(query.getQuery()), k -> new Fingerprint(query.getQuery()));
+                    long sent = System.nanoTime();
+                    try {
+                        QueryResponseStats stats = execute(query, shiftSeconds, params, reader);
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+                        overall.record(micros);
+                        if (stats != null && stats.isSuccess()) {
+                            fingerprint.success(micros, stats);
+                        } else {
+                            errors.incrementAndGet();
+                            fingerprint.error(micros);
+                        }
+                    } catch (Exception e) {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+                        overall.record(micros);
+                        errors.incrementAndGet();
+                        fingerprint.error(micros);
+                        log.debug("回放查询失败: {} - {}", query.getQuery(), e.getMessage());
+                    }
+                });
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.HOURS)) {
+                executor.shutdownNow();
+                result.setErrorMessage("查询回放超时，结果只包含已完成的查询");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setErrorMessage("查询回放被中断");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        result.setTotalTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        result.setQueriesSent(overall.getCount());
+        result.setErrors(errors.get());
+        result.setP50Millis(overall.getPercentile(50) / 1000.0);
+        result.setP90Millis(overall.getPercentile(90) / 1000.0);
+        result.setP99Millis(overall.getPercentile(99) / 1000.0);
+        result.setMaxMillis(overall.getMax() / 1000.0);
+        result.setMeanScheduleLagMillis(lag.getMean() / 1000.0);
+        result.setMaxScheduleLagMillis(lag.getMax() / 1000.0);
+        result.setDistinctFingerprints(fingerprints.size());
+        int top = request.getTopFingerprints() != null && request.getTopFingerprints() > 0
+                ? request.getTopFingerprints() : 50;
+        result.setFingerprints(fingerprints.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted((a, b) -> Double.compare(b.getTotalMillis(), a.getTotalMillis()))
+                .limit(top)
+                .collect(Collectors.toList()));
+
+        log.info("查询回放结束 - 发送: {}, 错误: {}, 耗时: {}ms, P99: {}ms, 指纹数: {}", result.getQueriesSent(),
+                result.getErrors(), result.getTotalTimeMillis(), result.getP99Millis(), fingerprints.size());
+        return result;
+    }
+
+    private BufferedReader openLog(QueryReplayRequest request) throws IOException {
+        if (request.getLogContent() != null && !request.getLogContent().trim().isEmpty()) {
+            return new BufferedReader(new StringReader(request.getLogContent()));
+        }
+        if (request.getLogPath() != null && !request.getLogPath().trim().isEmpty()) {
+            return Files.newBufferedReader(resolveLogPath(request.getLogPath().trim()), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * 在配置的日志目录内解析 logPath，拒绝目录之外的文件（包括 ../ 与指向目录外的符号链接）
+     */
+    Path resolveLogPath(String logPath) throws IOException {
+        if (logDirectory == null) {
+            throw new IOException("未配置 benchmark.query-log.dir，只能通过 logContent 提交查询日志");
+        }
+        Path base = logDirectory.toRealPath();
+        Path file = base.resolve(logPath).normalize();
+        if (!file.startsWith(base) || !file.toRealPath().startsWith(base)) {
+            throw new IOException("查询日志必须位于 " + base + " 目录内: " + logPath);
+        }
+        return file;
+    }
+
+    private void applyRewrites(List<LoggedQuery> queries, Map<String, String> rewrites) {
+        if (rewrites == null || rewrites.isEmpty()) {
+            return;
+        }
+        Map<Pattern, String> patterns = new LinkedHashMap<>();
+        rewrites.forEach((regex, replacement) -> patterns.put(Pattern.compile(regex), replacement));
+        for (LoggedQuery query : queries) {
+            String text = query.getQuery();
+            for (Map.Entry<Pattern, String> entry : patterns.entrySet()) {
+                text = entry.getKey().matcher(text).replaceAll(entry.getValue());
+            }
+            query.setQuery(text);
+        }
+    }
+
+    /**
+     * 锚点模式下的整体平移量：日志中最晚的结束时间（即时查询取求值时间或到达时间）对齐到锚点
+     *
+     * @return 平移秒数，未指定锚点时为null
+     */
+    private Long anchorShift(List<LoggedQuery> queries, Long anchorEndSeconds) {
+        if (anchorEndSeconds == null) {
+            return null;
+        }
+        long latest = Long.MIN_VALUE;
+        for (LoggedQuery query : queries) {
+            latest = Math.max(latest, query.isRange() ? query.getEndSeconds() : evalTimeSeconds(query));
+        }
+        return anchorEndSeconds - latest;
+    }
+
+    private QueryResponseStats execute(LoggedQuery query, Long shiftSeconds, Map<String, String> params,
+            QueryResponseReader reader) throws IOException {
+        // 相对模式下保持每条查询相对其到达时间的偏移，平移到发送时刻
+        long shift = shiftSeconds != null ? shiftSeconds
+                : System.currentTimeMillis() / 1000 - query.getArrivalMillis() / 1000;
+        if (query.isRange()) {
+            String step = query.getStepSeconds() != null ? String.valueOf(query.getStepSeconds()) : DEFAULT_STEP;
+            return victoriaMetricsClient.queryRange(query.getQuery(), query.getStartSeconds() + shift,
+                    query.getEndSeconds() + shift, step, params, reader);
+        }
+        Map<String, String> instantParams = new HashMap<>(params);
+        instantParams.put("time", String.valueOf(evalTimeSeconds(query) + shift));
+        return victoriaMetricsClient.query(query.getQuery(), instantParams, reader);
+    }
+
+    private static long evalTimeSeconds(LoggedQuery query) {
+        return query.getTimeSeconds() != null ? query.getTimeSeconds() : query.getArrivalMillis() / 1000;
+    }
+
+    /**
+     * 单个查询指纹的累计统计
+     */
+    private static class Fingerprint {
+        private final String exampleQuery;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long errors;
+        private long successes;
+        private long series;
+        private long samples;
+        private long bytes;
+        private Long lastChecksum;
+
+        Fingerprint(String exampleQuery) {
+            this.exampleQuery = exampleQuery;
+        }
+
+        synchronized void success(long micros, QueryResponseStats stats) {
+            latency.record(micros);
+            successes++;
+            series += stats.getSeries();
+            samples += stats.getSamples();
+            bytes += stats.getBytes();
+            if (stats.getChecksum() != null) {
+                lastChecksum = stats.getChecksum();
+            }
+        }
+
+        synchronized void error(long micros) {
+            latency.record(micros);
+            errors++;
+        }
+
+        synchronized FingerprintStats toStats(String fingerprint) {
+            FingerprintStats stats = new FingerprintStats();
+            stats.setFingerprint(fingerprint);
+            stats.setExampleQuery(exampleQuery);
+            stats.setCount(latency.getCount());
+            stats.setErrors(errors);
+            stats.setTotalMillis(latency.getMean() * latency.getCount() / 1000.0);
+            stats.setMeanMillis(latency.getMean() / 1000.0);
+            stats.setP50Millis(latency.getPercentile(50) / 1000.0);
+            stats.setP90Millis(latency.getPercentile(90) / 1000.0);
+            stats.setP99Millis(latency.getPercentile(99) / 1000.0);
+            stats.setMaxMillis(latency.getMax() / 1000.0);
+            if (successes > 0) {
+                stats.setMeanSeries((double) series / successes);
+                stats.setMeanSamples((double) samples / successes);
+                stats.setMeanBytes((double) bytes / successes);
+            }
+            stats.setLastChecksum(lastChecksum);
+            return stats;
+        }
+    }
+}
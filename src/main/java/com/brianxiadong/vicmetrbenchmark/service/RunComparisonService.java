@@ -0,0 +1,199 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.MetricComparison;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonRequest;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonResult;
+import com.brianxiadong.vicmetrbenchmark.model.RunSummary;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.StatisticsUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 压测运行对比服务
+ * 以重复试验为样本比较基线组与候选组：每个指标给出均值、置信区间与 Welch t 检验结果，
+ * 向变差方向变化超过阈值且统计显著时判定为回归
+ */
+@Slf4j
+@Service
+public class RunComparisonService {
+
+    private final BenchmarkResultStore resultStore;
+
+    public RunComparisonService(BenchmarkResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    /**
+     * 对比两组压测运行
+     *
+     * @param request 对比请求
+     * @return 对比结果
+     */
+    public RunComparisonResult compare(RunComparisonRequest request) {
+        RunComparisonResult result = new RunComparisonResult();
+        List<String> notes = new ArrayList<>();
+        result.setNotes(notes);
+        if (request.getBaselineRunIds() == null || request.getBaselineRunIds().isEmpty()
+                || request.getCandidateRunIds() == null || request.getCandidateRunIds().isEmpty()) {
+            result.setErrorMessage("基线组与候选组都至少需要一次运行");
+            return result;
+        }
+
+        List<RunSummary> baseline = loadSummaries(request.getBaselineRunIds(), result);
+        List<RunSummary> candidate = loadSummaries(request.getCandidateRunIds(), result);
+        if (result.getErrorMessage() != null) {
+            return result;
+        }
+        result.setBaselineRuns(baseline);
+        result.setCandidateRuns(candidate);
+        result.setBaselinePooledLatency(pooledLatency(baseline));
+        result.setCandidatePooledLatency(pooledLatency(candidate));
+
+        double confidence = request.getConfidenceLevel() != null ? request.getConfidenceLevel() : 0.95;
+        double threshold = request.getRegressionThresholdPercent() != null
+                ? request.getRegressionThresholdPercent() : 5.0;
+        if (baseline.size() < 2 || candidate.size() < 2) {
+            notes.add("每组至少需要两次重复试验才能计算置信区间与显著性，当前仅给出变化百分比");
+        }
+
+        List<MetricComparison> metrics = new ArrayList<>();
+        metrics.add(compareMetric("samplesPerSecond", true, baseline, candidate,
+                RunSummary::getSamplesPerSecond, confidence, threshold));
+        metrics.add(compareMetric("errorRate", false, baseline, candidate,
+                RunSummary::getErrorRate, confidence, threshold));
+        metrics.add(compareMetric("meanLatencyMillis", false, baseline, candidate,
+                RunSummary::getMeanLatencyMillis, confidence, threshold));
+        metrics.add(compareMetric("p50LatencyMillis", false, baseline, candidate,
+                RunSummary::getP50LatencyMillis, confidence, threshold));
+        metrics.add(compareMetric("p90LatencyMillis", false, baseline, candidate,
+                RunSummary::getP90LatencyMillis, confidence, threshold));
+        metrics.add(compareMetric("p99LatencyMillis", false, baseline, candidate,
+                RunSummary::getP99LatencyMillis, confidence, threshold));
+        if (allKnown(baseline) && allKnown(candidate)) {
+            metrics.add(compareMetric("serverCpuMicrosPerSample", false, baseline, candidate,
+                    RunSummary::getServerCpuMicrosPerSample, confidence, threshold));
+        } else {
+            notes.add("部分运行缺少服务端CPU时间，未比较每数据点CPU消耗");
+        }
+        if (allMemoryKnown(baseline) && allMemoryKnown(candidate)) {
+            metrics.add(compareMetric("serverMemoryBytesPerSample", false, baseline, candidate,
+                    RunSummary::getServerMemoryBytesPerSample, confidence, threshold));
+        } else {
+            notes.add("部分运行缺少服务端内存变化，未比较每数据点内存增量");
+        }
+        result.setMetrics(metrics);
+        result.setRegression(metrics.stream().anyMatch(MetricComparison::isRegression));
+
+        log.info("压测对比完成 - 基线: {}, 候选: {}, 回归: {}",
+                request.getBaselineRunIds(), request.getCandidateRunIds(), result.isRegression());
+        return result;
+    }
+
+    private List<RunSummary> loadSummaries(List<String> runIds, RunComparisonResult result) {
+        List<RunSummary> summaries = new ArrayList<>();
+        for (String runId : runIds) {
+            RunSummary summary = resultStore.loadSummary(runId);
+            if (summary == null) {
+                result.setErrorMessage("未找到压测结果: " + runId);
+                return summaries;
+            }
+            derive(summary);
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * 由原始字段计算派生指标
+     */
+    void derive(RunSummary summary) {
+        long success = summary.getSuccessRequests();
+        long total = success + summary.getFailedRequests();
+        if (summary.getTotalTimeMillis() > 0) {
+            summary.setSamplesPerSecond(success * 1000.0 / summary.getTotalTimeMillis());
+        }
+        summary.setErrorRate(total > 0 ? (double) summary.getFailedRequests() / total : 0);
+        if (success > 0) {
+            if (summary.getServerCpuSeconds() >= 0) {
+                summary.setServerCpuMicrosPerSample(summary.getServerCpuSeconds() * 1_000_000 / success);
+            }
+            if (summary.getServerMemoryGrowthBytes() != null) {
+                summary.setServerMemoryBytesPerSample(summary.getServerMemoryGrowthBytes() / success);
+            }
+        }
+        if (summary.getLatencyHistogram() != null) {
+            LatencyHistogram histogram = LatencyHistogram.fromCounts(summary.getLatencyHistogram());
+            summary.setMeanLatencyMillis(histogram.getMean() / 1000.0);
+            summary.setP50LatencyMillis(histogram.getPercentile(50) / 1000.0);
+            summary.setP90LatencyMillis(histogram.getPercentile(90) / 1000.0);
+            summary.setP99LatencyMillis(histogram.getPercentile(99) / 1000.0);
+            summary.setP999LatencyMillis(histogram.getPercentile(99.9) / 1000.0);
+        }
+    }
+
+    private boolean allKnown(List<RunSummary> runs) {
+        return runs.stream().allMatch(run -> run.getServerCpuMicrosPerSample() >= 0);
+    }
+
+    private boolean allMemoryKnown(List<RunSummary> runs) {
+        return runs.stream().allMatch(run -> run.getServerMemoryBytesPerSample() != null);
+    }
+
+    /**
+     * 合并一组运行的直方图后计算分位数，比对各次分位数取平均更能反映整体尾部延迟
+     */
+    private Map<String, Double> pooledLatency(List<RunSummary> runs) {
+        LatencyHistogram pooled = new LatencyHistogram();
+        for (RunSummary run : runs) {
+            if (run.getLatencyHistogram() != null) {
+                pooled.merge(LatencyHistogram.fromCounts(run.getLatencyHistogram()));
+            }
+        }
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("p50", pooled.getPercentile(50) / 1000.0);
+        latency.put("p90", pooled.getPercentile(90) / 1000.0);
+        latency.put("p99", pooled.getPercentile(99) / 1000.0);
+        latency.put("p999", pooled.getPercentile(99.9) / 1000.0);
+        return latency;
+    }
+
+    private MetricComparison compareMetric(String name, boolean higherIsBetter, List<RunSummary> baseline,
+            List<RunSummary> candidate, ToDoubleFunction<RunSummary> extractor, double confidence, double threshold) {
+        double[] a = baseline.stream().mapToDouble(extractor).toArray();
+        double[] b = candidate.stream().mapToDouble(extractor).toArray();
+
+        MetricComparison comparison = new MetricComparison();
+        comparison.setMetric(name);
+        comparison.setHigherIsBetter(higherIsBetter);
+        comparison.setBaselineTrials(a.length);
+        comparison.setCandidateTrials(b.length);
+        comparison.setBaselineMean(StatisticsUtils.mean(a));
+        comparison.setCandidateMean(StatisticsUtils.mean(b));
+        comparison.setBaselineCiHalfWidth(finiteOrNull(StatisticsUtils.confidenceHalfWidth(a, confidence)));
+        comparison.setCandidateCiHalfWidth(finiteOrNull(StatisticsUtils.confidenceHalfWidth(b, confidence)));
+
+        double baselineMean = comparison.getBaselineMean();
+        double change = baselineMean != 0
+                ? (comparison.getCandidateMean() - baselineMean) / Math.abs(baselineMean) * 100
+                : 0;
+        comparison.setChangePercent(change);
+
+        Double pValue = finiteOrNull(StatisticsUtils.welchTTestPValue(a, b));
+        comparison.setPValue(pValue);
+        comparison.setSignificant(pValue != null && pValue < 1 - confidence);
+        double worsening = higherIsBetter ? -change : change;
+        comparison.setRegression(comparison.isSignificant() && worsening > threshold);
+        return comparison;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+}
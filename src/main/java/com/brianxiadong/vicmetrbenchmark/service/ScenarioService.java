@@ -0,0 +1,177 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkScenario;
+import com.brianxiadong.vicmetrbenchmark.model.MetricComparison;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonRequest;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonResult;
+import com.brianxiadong.vicmetrbenchmark.model.ScenarioReport;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测场景服务
+ * 无界面运行时按场景文件重复执行写入压测，与基线运行对比并检查阈值，生成带退出码的报告
+ */
+@Slf4j
+@Service
+public class ScenarioService {
+
+    public static final int EXIT_PASSED = 0;
+    public static final int EXIT_REGRESSION = 1;
+    public static final int EXIT_FAILED = 2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final VictoriaMetricsService victoriaMetricsService;
+    private final RunComparisonService runComparisonService;
+    private final BenchmarkResultStore resultStore;
+
+    public ScenarioService(VictoriaMetricsService victoriaMetricsService, RunComparisonService runComparisonService,
+            BenchmarkResultStore resultStore) {
+        this.victoriaMetricsService = victoriaMetricsService;
+        this.runComparisonService = runComparisonService;
+        this.resultStore = resultStore;
+    }
+
+    /**
+     * 读取场景文件，.yml/.yaml 按 YAML 解析，其余按 JSON 解析；未设置名称时使用文件名（不含扩展名）
+     *
+     * @param file 场景文件
+     * @return 压测场景
+     */
+    public static BenchmarkScenario load(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        String name = fileName.toLowerCase();
+        BenchmarkScenario scenario;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+                Object tree = new Yaml().load(reader);
+                scenario = MAPPER.convertValue(tree, BenchmarkScenario.class);
+            } else {
+                scenario = MAPPER.readValue(reader, BenchmarkScenario.class);
+            }
+        }
+        if (scenario.getName() == null || scenario.getName().trim().isEmpty()) {
+            int dot = fileName.lastIndexOf('.');
+            scenario.setName(dot > 0 ? fileName.substring(0, dot) : fileName);
+        }
+        return scenario;
+    }
+
+    /**
+     * 按场景运行全部试验并生成报告
+     *
+     * @param scenario 压测场景
+     * @return 运行报告
+     */
+    public ScenarioReport run(BenchmarkScenario scenario) {
+        ScenarioReport report = new ScenarioReport();
+        report.setScenario(scenario.getName());
+        report.setStartTimestamp(System.currentTimeMillis());
+        int trials = scenario.getTrials() != null ? Math.max(1, scenario.getTrials()) : 1;
+        List<String> runIds = new ArrayList<>();
+        for (int trial = 1; trial <= trials; trial++) {
+            log.info("场景 {} 第 {}/{} 次试验开始", scenario.getName(), trial, trials);
+            // 压测会回填 runId 等参数，每次试验使用独立副本
+            BenchmarkRequest request = MAPPER.convertValue(scenario.getWorkload(), BenchmarkRequest.class);
+            request.setRunId(null);
+            BenchmarkResult result = victoriaMetricsService.runBenchmark(request);
+            report.getResults().add(result);
+            runIds.add(result.getRunId());
+            if (!"completed".equals(result.getStatus())) {
+                report.getViolations().add("第 " + trial + " 次试验未完成: " + result.getErrorMessage());
+                report.setExitCode(EXIT_FAILED);
+                report.setEndTimestamp(System.currentTimeMillis());
+                return report;
+            }
+        }
+
+        if (scenario.getBaselineRunIds() != null && !scenario.getBaselineRunIds().isEmpty()) {
+            RunComparisonRequest comparisonRequest = new RunComparisonRequest();
+            comparisonRequest.setBaselineRunIds(scenario.getBaselineRunIds());
+            comparisonRequest.setCandidateRunIds(runIds);
+            comparisonRequest.setConfidenceLevel(scenario.getConfidenceLevel());
+            comparisonRequest.setRegressionThresholdPercent(scenario.getRegressionThresholdPercent());
+            report.setComparison(runComparisonService.compare(comparisonRequest));
+        }
+        evaluate(scenario, report);
+        report.setEndTimestamp(System.currentTimeMillis());
+        log.info("场景 {} 结束 - 试验: {}, 未满足的阈值: {}, 退出码: {}", scenario.getName(), trials,
+                report.getViolations().size(), report.getExitCode());
+        return report;
+    }
+
+    /**
+     * 检查绝对阈值与基线对比结果，设置违规说明与退出码
+     */
+    static void evaluate(BenchmarkScenario scenario, ScenarioReport report) {
+        for (BenchmarkResult result : report.getResults()) {
+            String run = result.getRunId();
+            if (scenario.getMinWriteRate() != null && result.getWriteRate() < scenario.getMinWriteRate()) {
+                report.getViolations().add(String.format("%s 写入吞吐 %.1f 低于阈值 %.1f",
+                        run, result.getWriteRate(), scenario.getMinWriteRate()));
+            }
+            double errorRate = result.getTotalRequests() > 0
+                    ? (double) result.getFailedRequests() / result.getTotalRequests() : 0;
+            if (scenario.getMaxErrorRate() != null && errorRate > scenario.getMaxErrorRate()) {
+                report.getViolations().add(String.format("%s 错误率 %.4f 高于阈值 %.4f",
+                        run, errorRate, scenario.getMaxErrorRate()));
+            }
+            if (scenario.getMaxP99Millis() != null && result.getP99ResponseTimeMillis() > scenario.getMaxP99Millis()) {
+                report.getViolations().add(String.format("%s P99延迟 %.1fms 高于阈值 %.1fms",
+                        run, result.getP99ResponseTimeMillis(), scenario.getMaxP99Millis()));
+            }
+        }
+
+        RunComparisonResult comparison = report.getComparison();
+        if (comparison != null) {
+            if (comparison.getErrorMessage() != null) {
+                report.getViolations().add("基线对比失败: " + comparison.getErrorMessage());
+                report.setExitCode(EXIT_FAILED);
+                return;
+            }
+            for (MetricComparison metric : comparison.getMetrics()) {
+                if (metric.isRegression()) {
+                    report.getViolations().add(String.format("%s 相对基线变化 %.1f%%，判定为回归",
+                            metric.getMetric(), metric.getChangePercent()));
+                }
+            }
+        }
+        report.setExitCode(report.getViolations().isEmpty() ? EXIT_PASSED : EXIT_REGRESSION);
+    }
+
+    /**
+     * 把报告写为JSON
+     *
+     * @param scenario 压测场景
+     * @param report   运行报告
+     * @return 报告文件路径
+     */
+    public Path writeReport(BenchmarkScenario scenario, ScenarioReport report) throws IOException {
+        Path output = scenario.getOutput() != null && !scenario.getOutput().trim().isEmpty()
+                ? Paths.get(scenario.getOutput().trim())
+                : resultStore.getDirectory().resolve("scenario-" + scenario.getName() + ".json");
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        MAPPER.writeValue(output.toFile(), report);
+        return output;
+    }
+}
@@ -0,0 +1,291 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.PartitionStorage;
+import com.brianxiadong.vicmetrbenchmark.model.StorageEfficiency;
+import com.brianxiadong.vicmetrbenchmark.model.StorageSnapshot;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储效率跟踪
+ * 压测开始前采样一次存储指标作为基线，压测期间由后台线程按间隔采样；压测结束后轮询到
+ * vm_active_merges 与 vm_pending_rows 都为0（或超时）再做最终采样，避免把尚未合并压缩的数据计入结果
+ */
+@Slf4j
+public class StorageTracker {
+
+    private static final long SETTLE_POLL_MILLIS = 1000;
+
+    private final VictoriaMetricsClient client;
+    private final long intervalMillis;
+    private final long settleTimeoutMillis;
+    private final String runId;
+    private final List<StorageSnapshot> snapshots = new ArrayList<>();
+
+    private volatile boolean sampling = true;
+    private long startMillis;
+    private StorageSnapshot baseline;
+    private Thread sampler;
+
+    public StorageTracker(VictoriaMetricsClient client, BenchmarkRequest request) {
+        this.client = client;
+        int interval = request.getStorageSampleIntervalSeconds() != null
+                ? request.getStorageSampleIntervalSeconds() : 10;
+        int settleTimeout = request.getMergeSettleTimeoutSeconds() != null
+                ? request.getMergeSettleTimeoutSeconds() : 60;
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, interval));
+        this.settleTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, settleTimeout));
+        this.runId = request.getRunId();
+    }
+
+    /**
+     * 采样基线并启动后台采样线程
+     */
+    public void start() {
+        startMillis = System.currentTimeMillis();
+        baseline = sample();
+        sampler = new Thread(this::sampleLoop, "storage-sampler-" + runId);
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * 停止后台采样，等待合并完成后做最终采样并计算存储效率
+     *
+     * @param wireBytes   本次压测写入的负载字节数（压缩前）
+     * @param wireSamples 这些负载包含的数据点数
+     * @return 存储效率，基线采样失败时为null
+     */
+    public StorageEfficiency stop(long wireBytes, long wireSamples) {
+        sampling = false;
+        long stoppedAt = System.currentTimeMillis();
+        StorageSnapshot last = null;
+        try {
+            sampler.interrupt();
+            sampler.join();
+            long deadline = stoppedAt + settleTimeoutMillis;
+            while (true) {
+                last = sample();
+                if (last != null && last.getActiveMerges() == 0 && last.getPendingRows() == 0) {
+                    break;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+                Thread.sleep(SETTLE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (baseline == null || last == null) {
+            log.warn("存储指标采样失败，无法计算存储效率");
+            return null;
+        }
+
+        StorageEfficiency efficiency;
+        synchronized (snapshots) {
+            efficiency = compute(baseline, last, snapshots, wireBytes, wireSamples);
+        }
+        efficiency.setMergesSettled(last.getActiveMerges() == 0 && last.getPendingRows() == 0);
+        efficiency.setSettleMillis(System.currentTimeMillis() - stoppedAt);
+        log.info("存储效率 - 新增数据点: {}, 每数据点字节: {}（含索引 {}）, 写入格式每数据点字节: {}, 压缩比: {}, 合并完成: {}",
+                efficiency.getSamplesStored(), String.format("%.3f", efficiency.getBytesPerSample()),
+                String.format("%.3f", efficiency.getTotalBytesPerSample()),
+                String.format("%.1f", efficiency.getWireBytesPerSample()),
+                String.format("%.1f", efficiency.getCompressionRatio()), efficiency.isMergesSettled());
+        return efficiency;
+    }
+
+    private void sampleLoop() {
+        while (sampling) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (sampling) {
+                sample();
+            }
+        }
+    }
+
+    /**
+     * 采样一次并记录，失败时返回null
+     */
+    private StorageSnapshot sample() {
+        try {
+            StorageSnapshot snapshot = parse(client.getMetrics());
+            snapshot.setOffsetMillis(System.currentTimeMillis() - startMillis);
+            synchronized (snapshots) {
+                if (baseline != null && snapshot.dataRows() > baseline.dataRows()) {
+                    snapshot.setBytesPerSample((double) (snapshot.dataBytes() - baseline.dataBytes())
+                            / (snapshot.dataRows() - baseline.dataRows()));
+                }
+                snapshots.add(snapshot);
+            }
+            return snapshot;
+        } catch (Exception e) {
+            log.warn("采样存储指标失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 用基线与最终采样的差值计算存储效率
+     */
+    static StorageEfficiency compute(StorageSnapshot before, StorageSnapshot after, List<StorageSnapshot> snapshots,
+            long wireBytes, long wireSamples) {
+        StorageEfficiency efficiency = new StorageEfficiency();
+        efficiency.setSnapshots(new ArrayList<>(snapshots));
+        long samples = Math.max(0, after.dataRows() - before.dataRows());
+        efficiency.setSamplesStored(samples);
+        efficiency.getPartitions().add(partition("small", after.getSmallBytes() - before.getSmallBytes(),
+                after.getSmallRows() - before.getSmallRows(), samples));
+        efficiency.getPartitions().add(partition("big", after.getBigBytes() - before.getBigBytes(),
+                after.getBigRows() - before.getBigRows(), samples));
+        efficiency.getPartitions().add(partition("indexdb", after.getIndexdbBytes() - before.getIndexdbBytes(),
+                after.getIndexdbRows() - before.getIndexdbRows(), samples));
+        if (samples > 0) {
+            long dataBytes = after.dataBytes() - before.dataBytes();
+            efficiency.setBytesPerSample((double) dataBytes / samples);
+            efficiency.setTotalBytesPerSample(
+                    (double) (dataBytes + after.getIndexdbBytes() - before.getIndexdbBytes()) / samples);
+        }
+        if (wireSamples > 0) {
+            efficiency.setWireBytesPerSample((double) wireBytes / wireSamples);
+        }
+        if (efficiency.getBytesPerSample() > 0) {
+            efficiency.setCompressionRatio(efficiency.getWireBytesPerSample() / efficiency.getBytesPerSample());
+        }
+        return efficiency;
+    }
+
+    private static PartitionStorage partition(String name, long bytesDelta, long rowsDelta, long samples) {
+        PartitionStorage partition = new PartitionStorage();
+        partition.setPartition(name);
+        partition.setBytesDelta(bytesDelta);
+        partition.setRowsDelta(rowsDelta);
+        if (rowsDelta > 0) {
+            partition.setBytesPerRow((double) bytesDelta / rowsDelta);
+        }
+        if (samples > 0) {
+            partition.setBytesPerSample((double) bytesDelta / samples);
+        }
+        return partition;
+    }
+
+    /**
+     * 从 /metrics 文本中解析存储相关指标
+     *
+     * @param metrics /metrics 响应
+     * @return 存储采样，offsetMillis 与 bytesPerSample 未设置
+     */
+    static StorageSnapshot parse(String metrics) {
+        StorageSnapshot snapshot = new StorageSnapshot();
+        if (metrics == null) {
+            return snapshot;
+        }
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith("#") || line.isEmpty()) {
+                continue;
+            }
+            int space = line.lastIndexOf(' ');
+            if (space <= 0) {
+                continue;
+            }
+            String series = line.substring(0, space);
+            int brace = series.indexOf('{');
+            String name = brace >= 0 ? series.substring(0, brace) : series;
+            long value;
+            try {
+                value = (long) Double.parseDouble(line.substring(space + 1).trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String type = typeLabel(series);
+            switch (name) {
+                case "vm_data_size_bytes":
+                    addBytes(snapshot, type, value);
+                    break;
+                case "vm_rows":
+                    addRows(snapshot, type, value);
+                    break;
+                case "vm_active_merges":
+                    snapshot.setActiveMerges(snapshot.getActiveMerges() + value);
+                    break;
+                case "vm_pending_rows":
+                    snapshot.setPendingRows(snapshot.getPendingRows() + value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return snapshot;
+    }
+
+    private static void addBytes(StorageSnapshot snapshot, String type, long value) {
+        switch (partitionOf(type)) {
+            case "small":
+                snapshot.setSmallBytes(snapshot.getSmallBytes() + value);
+                break;
+            case "big":
+                snapshot.setBigBytes(snapshot.getBigBytes() + value);
+                break;
+            case "indexdb":
+                snapshot.setIndexdbBytes(snapshot.getIndexdbBytes() + value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void addRows(StorageSnapshot snapshot, String type, long value) {
+        switch (partitionOf(type)) {
+            case "small":
+                snapshot.setSmallRows(snapshot.getSmallRows() + value);
+                break;
+            case "big":
+                snapshot.setBigRows(snapshot.getBigRows() + value);
+                break;
+            case "indexdb":
+                snapshot.setIndexdbRows(snapshot.getIndexdbRows() + value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 把 type 标签映射为分区类型，无法识别时返回空字符串
+     */
+    private static String partitionOf(String type) {
+        if (type == null) {
+            return "";
+        }
+        if (type.startsWith("indexdb")) {
+            return "indexdb";
+        }
+        if ("storage/big".equals(type)) {
+            return "big";
+        }
+        if ("storage/small".equals(type) || "storage/inmemory".equals(type)) {
+            return "small";
+        }
+        return "";
+    }
+
+    private static String typeLabel(String series) {
+        int start = series.indexOf("type=\"");
+        if (start < 0) {
+            return null;
+        }
+        start += "type=\"".length();
+        int end = series.indexOf('"', start);
+        return end > start ? series.substring(start, end) : null;
+    }
+}
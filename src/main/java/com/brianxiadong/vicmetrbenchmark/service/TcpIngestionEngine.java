@@ -0,0 +1,295 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBufferPool;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadEncoder;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerStats;
+import com.brianxiadong.vicmetrbenchmark.utils.BatchCursor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 原始TCP写入引擎，用于 Graphite 与 OpenTSDB 明文协议
+ * 少量选择器线程各自管理一部分非阻塞 SocketChannel 长连接，连接可写时领取若干批次编码进池化缓冲区，
+ * 用一次聚集写（gathering write）把这些缓冲区写入连接，写不完的部分等下次可写时继续。
+ * <p>
+ * 明文协议没有应答，批次全部写入套接字即计为成功；连接断开时尚未写完的批次计为失败。
+ * 每个连接的吞吐记录在一个 WorkerStats 中
+ */
+@Slf4j
+public class TcpIngestionEngine {
+
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int selectorThreads;
+    private final int batchesPerWrite;
+    private final PayloadEncoder encoder;
+    private final PayloadBufferPool bufferPool;
+    private final BatchCursor cursor;
+    private final long deadline;
+    private final WriteRunState state;
+
+    private final WorkerStats[] connectionStats;
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+    private final AtomicInteger connectionsFailed = new AtomicInteger();
+    private final AtomicInteger connectionsBroken = new AtomicInteger();
+    private final AtomicLong writeCalls = new AtomicLong();
+    private volatile long startMillis;
+
+    /**
+     * @param address         目标地址
+     * @param connections     连接数
+     * @param selectorThreads 选择器线程数
+     * @param batchesPerWrite 每次聚集写携带的批次数
+     * @param encoder         明文协议编码器
+     * @param bufferPool      负载缓冲池
+     * @param cursor          共享批次游标
+     * @param deadline        截止时间（毫秒时间戳）
+     * @param state           本次运行的共享计数器
+     */
+    public TcpIngestionEngine(InetSocketAddress address, int connections, int selectorThreads, int batchesPerWrite,
+            PayloadEncoder encoder, PayloadBufferPool bufferPool, BatchCursor cursor, long deadline,
+            WriteRunState state) {
+        this.address = address;
+        this.connections = Math.max(1, connections);
+        this.selectorThreads = Math.max(1, Math.min(selectorThreads, this.connections));
+        this.batchesPerWrite = Math.max(1, batchesPerWrite);
+        this.encoder = encoder;
+        this.bufferPool = bufferPool;
+        this.cursor = cursor;
+        this.deadline = deadline;
+        this.state = state;
+        this.connectionStats = new WorkerStats[this.connections];
+        for (int i = 0; i < this.connections; i++) {
+            connectionStats[i] = new WorkerStats();
+            connectionStats[i].setWorkerId(i);
+        }
+    }
+
+    /**
+     * 建立连接并写入，直到数据领完、到达截止时间或被要求停止，所有连接关闭后返回
+     */
+    public void run() throws InterruptedException {
+        startMillis = System.currentTimeMillis();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < selectorThreads; i++) {
+            final int selectorId = i;
+            Thread thread = new Thread(() -> selectLoop(selectorId), "tcp-selector-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            state.requestStop();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            throw e;
+        }
+    }
+
+    private void selectLoop(int selectorId) {
+        try (Selector selector = Selector.open()) {
+            int active = 0;
+            for (int id = selectorId; id < connections; id += selectorThreads) {
+                Connection connection = new Connection(connectionStats[id]);
+                try {
+                    connection.channel = SocketChannel.open();
+                    connection.channel.configureBlocking(false);
+                    boolean connected = connection.channel.connect(address);
+                    connection.channel.register(selector, connected ? SelectionKey.OP_WRITE : SelectionKey.OP_CONNECT,
+                            connection);
+                    if (connected) {
+                        connectionsOpened.incrementAndGet();
+                        connection.connected = true;
+                    }
+                    active++;
+                } catch (IOException e) {
+                    connectionsFailed.incrementAndGet();
+                    closeQuietly(connection);
+                    log.debug("建立TCP连接失败 - 连接: {}, 原因: {}", id, e.getMessage());
+                }
+            }
+
+            while (active > 0) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (!handle(key, connection)) {
+                        key.cancel();
+                        closeQuietly(connection);
+                        active--;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("TCP选择器异常 - 选择器: {}", selectorId, e);
+        }
+    }
+
+    /**
+     * 处理一次就绪事件
+     *
+     * @return 连接是否继续保留
+     */
+    private boolean handle(SelectionKey key, Connection connection) {
+        try {
+            if (key.isConnectable()) {
+                if (!connection.channel.finishConnect()) {
+                    return true;
+                }
+                connectionsOpened.incrementAndGet();
+                connection.connected = true;
+                key.interestOps(SelectionKey.OP_WRITE);
+                return true;
+            }
+            if (connection.views == null && !fill(connection)) {
+                finish(connection);
+                return false;
+            }
+            connection.channel.write(connection.views);
+            writeCalls.incrementAndGet();
+            if (!connection.views[connection.views.length - 1].hasRemaining()) {
+                complete(connection, true);
+            }
+            return true;
+        } catch (IOException e) {
+            if (connection.connected) {
+                connectionsBroken.incrementAndGet();
+                log.debug("TCP连接断开 - 连接: {}, 原因: {}", connection.stats.getWorkerId(), e.getMessage());
+            } else {
+                connectionsFailed.incrementAndGet();
+                log.debug("建立TCP连接失败 - 连接: {}, 原因: {}", connection.stats.getWorkerId(), e.getMessage());
+            }
+            complete(connection, false);
+            finish(connection);
+            return false;
+        }
+    }
+
+    /**
+     * 领取批次并编码，返回是否领到了数据
+     */
+    private boolean fill(Connection connection) {
+        if (System.currentTimeMillis() >= deadline || state.isStopRequested()) {
+            return false;
+        }
+        List<ByteBuffer> views = new ArrayList<>(batchesPerWrite);
+        for (int i = 0; i < batchesPerWrite; i++) {
+            BatchCursor.Batch batch = cursor.claim();
+            if (batch == null) {
+                break;
+            }
+            PayloadBuffer payload = bufferPool.acquire();
+            encoder.encode(payload, connection.stats.getWorkerId(), batch.getBatchId(), batch.getSize(),
+                    System.currentTimeMillis());
+            state.getPayloadBytes().addAndGet(payload.size());
+            connection.buffers.add(payload);
+            connection.batchSizes.add(batch.getSize());
+            views.add(payload.readView());
+        }
+        if (views.isEmpty()) {
+            return false;
+        }
+        connection.views = views.toArray(new ByteBuffer[0]);
+        return true;
+    }
+
+    /**
+     * 结束当前这次聚集写：记录各批次结果并归还缓冲区
+     */
+    private void complete(Connection connection, boolean success) {
+        for (int i = 0; i < connection.buffers.size(); i++) {
+            int samples = connection.batchSizes.get(i);
+            state.recordBatch(samples, success);
+            WorkerStats stats = connection.stats;
+            stats.setBatches(stats.getBatches() + 1);
+            if (success) {
+                stats.setSuccessSamples(stats.getSuccessSamples() + samples);
+            } else {
+                stats.setFailedSamples(stats.getFailedSamples() + samples);
+            }
+            bufferPool.release(connection.buffers.get(i));
+        }
+        connection.buffers.clear();
+        connection.batchSizes.clear();
+        connection.views = null;
+    }
+
+    private void finish(Connection connection) {
+        long now = System.currentTimeMillis();
+        connection.stats.setActiveMillis(now - connection.openedAtMillis);
+        connection.stats.setFinishedAtMillis(now - startMillis);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection.channel == null) {
+            return;
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.debug("关闭TCP连接失败: {}", e.getMessage());
+        }
+    }
+
+    public WorkerStats[] getConnectionStats() {
+        return connectionStats;
+    }
+
+    public int getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public int getConnectionsFailed() {
+        return connectionsFailed.get();
+    }
+
+    public int getConnectionsBroken() {
+        return connectionsBroken.get();
+    }
+
+    public long getWriteCalls() {
+        return writeCalls.get();
+    }
+
+    /**
+     * 单个连接的状态，只由所属的选择器线程访问
+     */
+    private static class Connection {
+        private final WorkerStats stats;
+        private final long openedAtMillis = System.currentTimeMillis();
+        private final List<PayloadBuffer> buffers = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private SocketChannel channel;
+        private ByteBuffer[] views;
+        private boolean connected;
+
+        private Connection(WorkerStats stats) {
+            this.stats = stats;
+        }
+    }
+}
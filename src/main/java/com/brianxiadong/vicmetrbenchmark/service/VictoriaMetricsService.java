@@ -1,19 +1,45 @@
 package com.brianxiadong.vicmetrbenchmark.service;
 
+import com.brianxiadong.vicmetrbenchmark.encoder.InfluxLineEncoder;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBufferPool;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadEncoder;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadEncoders;
+import com.brianxiadong.vicmetrbenchmark.jfr.BatchSendEvent;
+import com.brianxiadong.vicmetrbenchmark.jfr.JfrRecorder;
+import com.brianxiadong.vicmetrbenchmark.jfr.JfrSupport;
+import com.brianxiadong.vicmetrbenchmark.jfr.ScrapeEvent;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkCheckpoint;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.PhaseLatency;
+import com.brianxiadong.vicmetrbenchmark.model.RequestPhaseStats;
 import com.brianxiadong.vicmetrbenchmark.model.ServerMetrics;
+import com.brianxiadong.vicmetrbenchmark.model.SteadyStateWindow;
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
 import com.brianxiadong.vicmetrbenchmark.model.QueryTestResult;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerStats;
+import com.brianxiadong.vicmetrbenchmark.utils.AdaptiveConcurrencyLimiter;
+import com.brianxiadong.vicmetrbenchmark.utils.BatchCursor;
+import com.brianxiadong.vicmetrbenchmark.utils.GcTimeTracker;
+import com.brianxiadong.vicmetrbenchmark.utils.HttpStatusException;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryResponseReader;
+import com.brianxiadong.vicmetrbenchmark.utils.SteadyStateDetector;
+import com.brianxiadong.vicmetrbenchmark.utils.TokenBucket;
 import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
@@ -31,10 +57,34 @@ public class VictoriaMetricsService {
     @Autowired
     private VictoriaMetricsClient victoriaMetricsClient;
 
-    private final ObjectMapper objectMapper;
+    @Autowired
+    private BenchmarkResultStore resultStore;
+
+    @Autowired
+    private HarnessMetrics harnessMetrics;
+
+    @Autowired
+    private CardinalityService cardinalityService;
+
+    /**
+     * 异步压测任务的执行线程池
+     */
+    private final ExecutorService runExecutor = Executors.newCachedThreadPool();
 
-    public VictoriaMetricsService() {
-        this.objectMapper = new ObjectMapper();
+    /**
+     * 删除测试数据后等待序列不可见的最长时间
+     */
+    private static final long DELETE_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * 关闭时中断仍在运行的异步压测，被中断的运行会保存检查点，之后可以按运行ID恢复
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<Runnable> pending = runExecutor.shutdownNow();
+        if (!pending.isEmpty()) {
+            log.info("关闭压测线程池，丢弃未开始的任务: {}", pending.size());
+        }
     }
 
     /**
@@ -56,21 +106,98 @@ public class VictoriaMetricsService {
 
     /**
      * 执行写入压测
+     * 支持两种运行长度：按数据量（dataCount）运行，或按时长（durationSeconds）运行，
+     * 时长模式下 dataCount 作为可选的数据量上限
      * 
      * @param request 压测请求参数
      * @return 压测结果
      */
     public BenchmarkResult runBenchmark(BenchmarkRequest request) {
+        return runBenchmark(request, (BenchmarkCheckpoint) null);
+    }
+
+    /**
+     * 异步启动写入压测，适用于浸泡测试等长时间运行
+     *
+     * @param request 压测请求参数
+     * @return 运行ID，可通过结果存储查询进度与结果
+     */
+    public String startBenchmark(BenchmarkRequest request) {
+        if (request.getRunId() == null || request.getRunId().trim().isEmpty()) {
+            request.setRunId(newRunId());
+        }
+        runExecutor.submit(() -> runBenchmark(request));
+        return request.getRunId();
+    }
+
+    /**
+     * 从最近的检查点恢复崩溃或中断的压测
+     *
+     * @param runId 运行ID
+     * @return 压测结果
+     */
+    public BenchmarkResult resumeBenchmark(String runId) {
+        BenchmarkCheckpoint checkpoint = resultStore.loadCheckpoint(runId);
+        if (checkpoint == null || checkpoint.getRequest() == null) {
+            BenchmarkResult result = new BenchmarkResult();
+            result.setRunId(runId);
+            result.setErrorMessage("未找到可恢复的检查点: " + runId);
+            return result;
+        }
+        log.info("从检查点恢复压测 - 运行ID: {}, 已完成: {}, 累计时长: {}ms",
+                runId, checkpoint.getSuccessSamples() + checkpoint.getFailedSamples(),
+                checkpoint.getElapsedMillis());
+        return runBenchmark(checkpoint.getRequest(), checkpoint);
+    }
+
+    /**
+     * 异步恢复压测
+     *
+     * @param runId 运行ID
+     */
+    public void startResume(String runId) {
+        runExecutor.submit(() -> resumeBenchmark(runId));
+    }
+
+    /**
+     * 使用调用方提供的共享计数器执行写入压测，分布式工作节点借此在运行期间上报进度
+     *
+     * @param request 压测请求参数
+     * @param state   共享计数器
+     * @return 压测结果
+     */
+    public BenchmarkResult runBenchmark(BenchmarkRequest request, WriteRunState state) {
+        return runBenchmark(request, null, state);
+    }
+
+    private BenchmarkResult runBenchmark(BenchmarkRequest request, BenchmarkCheckpoint checkpoint) {
+        return runBenchmark(request, checkpoint, new WriteRunState(checkpoint));
+    }
+
+    private BenchmarkResult runBenchmark(BenchmarkRequest request, BenchmarkCheckpoint checkpoint,
+            WriteRunState state) {
         BenchmarkResult result = new BenchmarkResult();
         long startTime = System.currentTimeMillis();
-        result.setStartTimestamp(startTime);
+        long previousElapsed = checkpoint != null ? checkpoint.getElapsedMillis() : 0;
+        long runStartTimestamp = checkpoint != null ? checkpoint.getStartTimestamp() : startTime;
+        result.setStartTimestamp(runStartTimestamp);
 
         // 验证参数
-        if (request.getDataCount() == null || request.getDataCount() <= 0) {
-            result.setErrorMessage("数据量必须大于0");
+        boolean durationMode = request.getDurationSeconds() != null && request.getDurationSeconds() > 0;
+        if (!durationMode && (request.getDataCount() == null || request.getDataCount() <= 0)) {
+            result.setErrorMessage("数据量或运行时长必须大于0");
             return result;
         }
 
+        if (PayloadEncoders.isInflux(request.getApiType())) {
+            try {
+                InfluxLineEncoder.normalizePrecision(request.getInfluxPrecision());
+            } catch (IllegalArgumentException e) {
+                result.setErrorMessage(e.getMessage());
+                return result;
+            }
+        }
+
         if (request.getBatchSize() == null || request.getBatchSize() <= 0) {
             request.setBatchSize(1000); // 默认值
         }
@@ -79,110 +206,602 @@ public class VictoriaMetricsService {
             request.setConcurrency(1); // 默认值
         }
 
-        int totalCount = request.getDataCount();
+        if (request.getCheckpointIntervalSeconds() == null || request.getCheckpointIntervalSeconds() <= 0) {
+            request.setCheckpointIntervalSeconds(60);
+        }
+
+        if (request.getRunId() == null || request.getRunId().trim().isEmpty()) {
+            request.setRunId(newRunId());
+        }
+        result.setRunId(request.getRunId());
+
+        long totalCount = request.getDataCount() != null && request.getDataCount() > 0
+                ? request.getDataCount() : Long.MAX_VALUE;
+        long deadline = durationMode
+                ? startTime + request.getDurationSeconds() * 1000 - previousElapsed
+                : Long.MAX_VALUE;
         int batchSize = request.getBatchSize();
         int concurrency = request.getConcurrency();
 
-        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
-        CountDownLatch latch = new CountDownLatch(concurrency);
+        if (PayloadEncoders.isTcp(request.getApiType())) {
+            return runTcpBenchmark(request, result, state, totalCount, deadline, startTime);
+        }
+
+        // 自适应模式下按最大并发启动工作线程，实际在途请求数由限制器控制
+        AdaptiveConcurrencyLimiter limiter = createLimiter(request);
+        int workerCount = limiter != null ? request.getMaxConcurrency() : concurrency;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        CountDownLatch latch = new CountDownLatch(workerCount);
+        harnessMetrics.runStarted();
+        ServerMetrics serverBaseline = readServerBaseline();
+        // 按运行ID统计本次运行写入请求的分阶段耗时，并行的其他运行与探测请求不计入
+        victoriaMetricsClient.startRequestPhases(request.getRunId());
+        JfrRecorder recording = Boolean.TRUE.equals(request.getJfrRecording())
+                ? JfrRecorder.start(request.getRunId(), request.getJfrSettings())
+                : null;
+
+        result.setResumeCount(state.getResumeCount());
+        state.startTimeline(startTime);
+        startWarmup(request, state, startTime);
+        FreshnessProbe freshnessProbe = Boolean.TRUE.equals(request.getFreshnessProbe())
+                ? new FreshnessProbe(victoriaMetricsClient, request, state)
+                : null;
+        if (freshnessProbe != null) {
+            freshnessProbe.start();
+        }
+        StorageTracker storageTracker = startStorageTracker(request);
 
-        AtomicLong successCount = new AtomicLong(0);
-        AtomicLong failCount = new AtomicLong(0);
+        // 负载编码器与缓冲池，缓冲区数量以工作线程数为上限
+        PayloadEncoder encoder = PayloadEncoders.forRequest(request);
+        Map<String, String> writeParams = PayloadEncoders.writeParams(request);
+        PayloadBufferPool bufferPool = new PayloadBufferPool(workerCount, batchSize * 128,
+                Boolean.TRUE.equals(request.getDirectBuffers()));
+        GcTimeTracker gcTracker = GcTimeTracker.start();
 
-        // 计算每个线程需要处理的批次数
-        int batchesPerThread = (int) Math.ceil((double) totalCount / (batchSize * concurrency));
+        // 所有线程共享一个批次游标，完成一批再领取下一批；恢复时从已完成的数据量继续
+        BatchCursor cursor = new BatchCursor(state.completedSamples(), totalCount, batchSize);
+        WorkerStats[] workerStats = new WorkerStats[workerCount];
 
         // 创建并提交任务
-        for (int i = 0; i < concurrency; i++) {
+        for (int i = 0; i < workerCount; i++) {
             final int threadId = i;
+            final WorkerStats stats = new WorkerStats();
+            stats.setWorkerId(threadId);
+            workerStats[i] = stats;
+            final TokenBucket rateLimit = createRateLimit(request, workerCount);
             executor.submit(() -> {
+                long workerStart = System.currentTimeMillis();
                 try {
-                    for (int j = 0; j < batchesPerThread; j++) {
-                        int remaining = totalCount - (threadId * batchesPerThread + j) * batchSize;
-                        if (remaining <= 0)
+                    BatchCursor.Batch batch;
+                    while (System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()
+                            && !state.isStopRequested() && (batch = cursor.claim()) != null) {
+                        int currentBatchSize = batch.getSize();
+                        if (rateLimit != null && !awaitRate(rateLimit, currentBatchSize, deadline)) {
                             break;
-
-                        int currentBatchSize = Math.min(batchSize, remaining);
-                        boolean success = sendBatch(request, currentBatchSize, threadId, j);
+                        }
+                        boolean success = false;
+                        PayloadBuffer payload = bufferPool.acquire();
+                        try {
+                            encoder.encode(payload, threadId, batch.getBatchId(), currentBatchSize,
+                                    System.currentTimeMillis());
+                            state.getPayloadBytes().addAndGet(payload.size());
+                            harnessMetrics.payloadEncoded(payload.size());
+                            success = sendBatch(request, writeParams, payload, currentBatchSize, threadId,
+                                    batch.getBatchId(), limiter, state);
+                        } catch (RuntimeException e) {
+                            // 客户端自身的异常只计数，不终止长时间运行的压测
+                            state.getClientErrors().incrementAndGet();
+                            log.error("批次处理异常 - 线程ID: {}, 批次ID: {}", threadId, batch.getBatchId(), e);
+                        } finally {
+                            bufferPool.release(payload);
+                        }
 
                         // 更新统计信息
+                        state.recordBatch(currentBatchSize, success);
+                        harnessMetrics.samplesSent(currentBatchSize, success);
+                        stats.setBatches(stats.getBatches() + 1);
                         if (success) {
-                            successCount.addAndGet(currentBatchSize);
+                            stats.setSuccessSamples(stats.getSuccessSamples() + currentBatchSize);
                         } else {
-                            failCount.addAndGet(currentBatchSize);
+                            stats.setFailedSamples(stats.getFailedSamples() + currentBatchSize);
                         }
                     }
                 } finally {
+                    long workerEnd = System.currentTimeMillis();
+                    stats.setActiveMillis(workerEnd - workerStart);
+                    stats.setFinishedAtMillis(workerEnd - startTime);
                     latch.countDown();
                 }
             });
         }
 
+        // 等待完成，期间按间隔保存检查点；不再设置总时长上限
+        long checkpointInterval = request.getCheckpointIntervalSeconds() * 1000L;
         try {
-            if (!latch.await(30, TimeUnit.MINUTES)) {
-                result.setErrorMessage("压测执行超时");
-                executor.shutdownNow();
-                return result;
+            while (!latch.await(checkpointInterval, TimeUnit.MILLISECONDS)) {
+                resultStore.saveCheckpoint(state.toCheckpoint(request, runStartTimestamp,
+                        previousElapsed + System.currentTimeMillis() - startTime));
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            result.setErrorMessage("压测被中断");
             executor.shutdownNow();
+            state.setFinished(true);
+            harnessMetrics.runFinished();
+            resultStore.saveCheckpoint(state.toCheckpoint(request, runStartTimestamp,
+                    previousElapsed + System.currentTimeMillis() - startTime));
+            if (freshnessProbe != null) {
+                result.setFreshness(freshnessProbe.stop());
+            }
+            stopStorageTracker(result, storageTracker, state);
+            result.setRequestPhases(victoriaMetricsClient.finishRequestPhases(request.getRunId()));
+            attachRecording(result, recording);
+            result.setStatus("interrupted");
+            result.setErrorMessage("压测被中断，可通过运行ID从检查点恢复: " + request.getRunId());
             return result;
         }
 
         executor.shutdown();
+        state.setFinished(true);
+        harnessMetrics.runFinished();
 
         // 计算总耗时
         long endTime = System.currentTimeMillis();
-        long totalTimeMillis = endTime - startTime;
+        long totalTimeMillis = previousElapsed + endTime - startTime;
 
         // 填充结果
+        long successCount = state.getSuccessSamples().get();
+        long failCount = state.getFailedSamples().get();
         result.setEndTimestamp(endTime);
-        result.setTotalRequests(successCount.get() + failCount.get());
-        result.setSuccessRequests(successCount.get());
-        result.setFailedRequests(failCount.get());
+        result.setStatus("completed");
+        result.setTotalRequests(successCount + failCount);
+        result.setSuccessRequests(successCount);
+        result.setFailedRequests(failCount);
+        result.setClientErrors(state.getClientErrors().get());
         result.setTotalTimeMillis(totalTimeMillis);
-        result.setDataPointsCount(successCount.get());
+        result.setDataPointsCount(successCount);
+        fillLatency(result, state.getLatency());
+        fillConcurrencyLimit(result, limiter);
+        fillWorkerStats(result, workerStats);
+        fillRequestPhases(result, victoriaMetricsClient.finishRequestPhases(request.getRunId()));
+        result.setTimeline(state.getTimeline().toSeries());
+        fillMeasurementWindow(result, request, state, endTime);
+        result.setPayloadBytes(state.getPayloadBytes().get());
+        result.setBufferAllocations(bufferPool.getAllocations());
+        result.setBufferReuses(bufferPool.getReuses());
+        result.setHarnessGcCount(gcTracker.collectionCount());
+        result.setHarnessGcTimeMillis(gcTracker.collectionMillis());
+        log.info("压测客户端GC - 次数: {}, 累计耗时: {}ms, 缓冲区分配: {}, 复用: {}",
+                result.getHarnessGcCount(), result.getHarnessGcTimeMillis(),
+                result.getBufferAllocations(), result.getBufferReuses());
+
+        // 停止写入标记后等待剩余标记可见，不计入压测耗时
+        if (freshnessProbe != null) {
+            result.setFreshness(freshnessProbe.stop());
+            log.info("写入到可查询延迟 - 标记: {}, 可见: {}, 超时: {}, P50: {}ms, P99: {}ms",
+                    result.getFreshness().getMarkersWritten(), result.getFreshness().getMarkersVisible(),
+                    result.getFreshness().getMarkersTimedOut(), result.getFreshness().getP50Millis(),
+                    result.getFreshness().getP99Millis());
+        }
+        stopStorageTracker(result, storageTracker, state);
 
         // 获取服务器指标
         try {
-            collectServerMetrics(request, result);
+            fillServerMetrics(result, collectServerMetrics(request, result), serverBaseline);
         } catch (Exception e) {
             log.error("收集服务器指标失败", e);
             result.setErrorMessage("收集服务器指标失败: " + e.getMessage());
         }
 
+        attachRecording(result, recording);
+        resultStore.save(result);
         return result;
     }
 
+    /**
+     * 按请求创建单个工作线程的令牌桶，速率平均分给各线程；线程各用各的桶，取令牌时不会互相竞争
+     *
+     * @return 令牌桶，未限速时为null
+     */
+    private TokenBucket createRateLimit(BenchmarkRequest request, int workerCount) {
+        if (request.getSamplesPerSecond() == null || request.getSamplesPerSecond() <= 0) {
+            return null;
+        }
+        return new TokenBucket(request.getSamplesPerSecond() / workerCount, 1.0);
+    }
+
+    /**
+     * 等待到限速允许发送该批次
+     *
+     * @return 是否可以发送，等待会越过截止时间或被中断时返回false
+     */
+    private static boolean awaitRate(TokenBucket rateLimit, int samples, long deadline) {
+        long waitNanos = rateLimit.reserve(samples);
+        if (waitNanos <= 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(waitNanos) >= deadline) {
+            return false;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 按请求开启预热，只对新的运行生效；从检查点恢复的运行沿用已有的统计
+     */
+    private void startWarmup(BenchmarkRequest request, WriteRunState state, long startTime) {
+        long warmupSeconds = request.getWarmupSeconds() != null ? Math.max(0, request.getWarmupSeconds()) : 0;
+        long warmupSamples = request.getWarmupSamples() != null ? Math.max(0, request.getWarmupSamples()) : 0;
+        if (state.getResumeCount() == 0 && (warmupSeconds > 0 || warmupSamples > 0)) {
+            state.startWarmup(startTime + warmupSeconds * 1000, warmupSamples);
+            log.info("预热开始 - 时长: {}秒, 数据量: {}", warmupSeconds, warmupSamples);
+        }
+    }
+
+    /**
+     * 按请求开启存储跟踪，未开启时返回null
+     */
+    private StorageTracker startStorageTracker(BenchmarkRequest request) {
+        if (!Boolean.TRUE.equals(request.getStorageTracking())) {
+            return null;
+        }
+        StorageTracker tracker = new StorageTracker(victoriaMetricsClient, request);
+        tracker.start();
+        return tracker;
+    }
+
+    /**
+     * 停止存储跟踪，等待后台合并完成后把存储效率填入结果
+     * 写入格式的字节数按本次运行完成的全部数据点（含失败）折算
+     */
+    private void stopStorageTracker(BenchmarkResult result, StorageTracker tracker, WriteRunState state) {
+        if (tracker != null) {
+            result.setStorage(tracker.stop(state.getPayloadBytes().get(), state.completedSamples()));
+        }
+    }
+
+    /**
+     * 从结果中扣除预热阶段，并在预热之后的每秒吞吐上检测稳态窗口
+     * 请求数与耗时改为只统计预热之后，数据点总数（dataPointsCount）仍为实际写入的全部数据
+     */
+    void fillMeasurementWindow(BenchmarkResult result, BenchmarkRequest request, WriteRunState state, long endTime) {
+        long timelineStart = state.getTimeline().getStartMillis();
+        int fromSecond = 0;
+        if (state.getWarmupEndMillis() > 0) {
+            long success = result.getSuccessRequests() - state.getWarmupSuccessSamples();
+            long failed = result.getFailedRequests() - state.getWarmupFailedSamples();
+            result.setWarmupMillis(state.getWarmupEndMillis() - timelineStart);
+            result.setWarmupSamples(state.getWarmupSuccessSamples());
+            result.setSuccessRequests(success);
+            result.setFailedRequests(failed);
+            result.setTotalRequests(success + failed);
+            result.setTotalTimeMillis(endTime - state.getWarmupEndMillis());
+            fromSecond = (int) ((result.getWarmupMillis() + 999) / 1000);
+        } else if (state.isWarmingUp()) {
+            result.setWarmupMillis(endTime - timelineStart);
+            result.setWarmupSamples(result.getSuccessRequests());
+            result.setErrorMessage("压测在预热阶段内结束，预热之后没有可统计的数据");
+        }
+
+        int windowSeconds = request.getSteadyStateWindowSeconds() != null ? request.getSteadyStateWindowSeconds() : 10;
+        double tolerance = request.getSteadyStateTolerance() != null ? request.getSteadyStateTolerance() : 0.1;
+        SteadyStateWindow steadyState = SteadyStateDetector.detect(result.getTimeline(), fromSecond, windowSeconds,
+                tolerance);
+        result.setSteadyState(steadyState);
+        result.setWriteRate(steadyState.isDetected() ? steadyState.getSamplesPerSecond()
+                : result.getSuccessRequests() * 1000.0 / Math.max(1, result.getTotalTimeMillis()));
+        if (steadyState.isDetected()) {
+            log.info("稳态窗口 - 第{}秒至第{}秒, 吞吐: {} 数据点/秒, 变异系数: {}", steadyState.getStartSecond(),
+                    steadyState.getEndSecond(), String.format("%.1f", steadyState.getSamplesPerSecond()),
+                    String.format("%.3f", steadyState.getCoefficientOfVariation()));
+        } else {
+            log.info("未检测到稳态窗口 - 窗口: {}秒, 阈值: {}", windowSeconds, tolerance);
+        }
+    }
+
+    /**
+     * 通过原始TCP长连接执行 graphite、opentsdb 明文协议写入压测
+     * 结果沿用HTTP压测的字段（数据点数、耗时、时间线、每个连接一条 WorkerStats），另外记录连接数；
+     * 明文协议没有应答，因此没有请求延迟，也不支持从检查点恢复
+     */
+    private BenchmarkResult runTcpBenchmark(BenchmarkRequest request, BenchmarkResult result, WriteRunState state,
+            long totalCount, long deadline, long startTime) {
+        boolean graphite = "graphite".equalsIgnoreCase(request.getApiType());
+        String host = request.getHost() != null && !request.getHost().trim().isEmpty()
+                ? request.getHost().trim() : victoriaMetricsClient.getHost();
+        int port = request.getTcpPort() != null ? request.getTcpPort() : (graphite ? 2003 : 4242);
+        int connections = request.getTcpConnections() != null && request.getTcpConnections() > 0
+                ? request.getTcpConnections() : request.getConcurrency();
+        int selectorThreads = request.getSelectorThreads() != null ? request.getSelectorThreads() : 2;
+        int batchesPerWrite = request.getBatchesPerWrite() != null ? request.getBatchesPerWrite() : 4;
+
+        harnessMetrics.runStarted();
+        ServerMetrics serverBaseline = readServerBaseline();
+        state.startTimeline(startTime);
+        startWarmup(request, state, startTime);
+        StorageTracker storageTracker = startStorageTracker(request);
+        PayloadBufferPool bufferPool = new PayloadBufferPool(connections * batchesPerWrite,
+                request.getBatchSize() * 128, Boolean.TRUE.equals(request.getDirectBuffers()));
+        GcTimeTracker gcTracker = GcTimeTracker.start();
+        TcpIngestionEngine engine = new TcpIngestionEngine(new InetSocketAddress(host, port), connections,
+                selectorThreads, batchesPerWrite, PayloadEncoders.forRequest(request), bufferPool,
+                new BatchCursor(state.completedSamples(), totalCount, request.getBatchSize()), deadline, state);
+        log.info("TCP写入压测开始 - 协议: {}, 地址: {}:{}, 连接数: {}, 选择器线程: {}",
+                request.getApiType(), host, port, connections, selectorThreads);
+        result.setStatus("completed");
+        try {
+            engine.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setStatus("interrupted");
+        }
+        state.setFinished(true);
+        harnessMetrics.runFinished();
+
+        long endTime = System.currentTimeMillis();
+        long successCount = state.getSuccessSamples().get();
+        long failCount = state.getFailedSamples().get();
+        result.setEndTimestamp(endTime);
+        result.setTotalRequests(successCount + failCount);
+        result.setSuccessRequests(successCount);
+        result.setFailedRequests(failCount);
+        result.setTotalTimeMillis(endTime - startTime);
+        result.setDataPointsCount(successCount);
+        fillWorkerStats(result, engine.getConnectionStats());
+        result.setTimeline(state.getTimeline().toSeries());
+        fillMeasurementWindow(result, request, state, endTime);
+        result.setPayloadBytes(state.getPayloadBytes().get());
+        result.setBufferAllocations(bufferPool.getAllocations());
+        result.setBufferReuses(bufferPool.getReuses());
+        result.setHarnessGcCount(gcTracker.collectionCount());
+        result.setHarnessGcTimeMillis(gcTracker.collectionMillis());
+        result.setTcpConnectionsOpened(engine.getConnectionsOpened());
+        result.setTcpConnectionsFailed(engine.getConnectionsFailed());
+        result.setTcpConnectionsBroken(engine.getConnectionsBroken());
+        result.setTcpWriteCalls(engine.getWriteCalls());
+        if (engine.getConnectionsOpened() == 0) {
+            result.setErrorMessage("未能建立TCP连接: " + host + ":" + port);
+        }
+        log.info("TCP写入压测结束 - 数据点: {}, 耗时: {}ms, {} 数据点/秒, 连接 成功/失败/断开: {}/{}/{}",
+                successCount, result.getTotalTimeMillis(),
+                String.format("%.1f", successCount * 1000.0 / Math.max(1, result.getTotalTimeMillis())),
+                engine.getConnectionsOpened(), engine.getConnectionsFailed(), engine.getConnectionsBroken());
+        stopStorageTracker(result, storageTracker, state);
+
+        try {
+            fillServerMetrics(result, collectServerMetrics(request, result), serverBaseline);
+        } catch (Exception e) {
+            log.error("收集服务器指标失败", e);
+        }
+        resultStore.save(result);
+        return result;
+    }
+
+    /**
+     * 读取服务端当前的累计CPU时间与常驻内存，只解析 process_cpu_seconds_total 与 process_resident_memory_bytes
+     *
+     * @return 只填充 cpuSecondsTotal 与 residentMemoryBytes 的服务器指标，无法获取的值为-1
+     */
+    public ServerMetrics readServerBaseline() {
+        ServerMetrics baseline = new ServerMetrics();
+        baseline.setCpuSecondsTotal(-1);
+        try {
+            String metrics = victoriaMetricsClient.getMetrics();
+            if (metrics == null) {
+                return baseline;
+            }
+            for (String line : metrics.split("\n")) {
+                if (line.startsWith("process_cpu_seconds_total ")) {
+                    baseline.setCpuSecondsTotal(
+                            Double.parseDouble(line.substring("process_cpu_seconds_total ".length()).trim()));
+                } else if (line.startsWith("process_resident_memory_bytes ")) {
+                    baseline.setResidentMemoryBytes(
+                            Double.parseDouble(line.substring("process_resident_memory_bytes ".length()).trim()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取服务端CPU时间与内存失败: {}", e.getMessage());
+        }
+        return baseline;
+    }
+
+    /**
+     * 将服务器指标填充到结果，并计算压测期间服务端消耗的CPU时间与常驻内存变化
+     *
+     * @param result   压测结果
+     * @param metrics  压测结束后采集的服务器指标
+     * @param baseline 压测开始前读取的CPU时间与常驻内存，未知的值为-1
+     */
+    public void fillServerMetrics(BenchmarkResult result, ServerMetrics metrics, ServerMetrics baseline) {
+        result.setServerMetrics(metrics);
+        result.setCpuUsagePercent(metrics.getCpuUsagePercent());
+        result.setMemoryUsagePercent(metrics.getMemoryUsagePercent());
+        result.setStorageUsageMB(metrics.getStorageUsageMB());
+        // 采集失败时不填充，避免 0 被当作真实值参与对比
+        if (metrics.getErrorMessage() != null) {
+            return;
+        }
+        result.setServerResidentMemoryBytes(metrics.getResidentMemoryBytes());
+        if (baseline.getCpuSecondsTotal() >= 0 && metrics.getCpuSecondsTotal() >= baseline.getCpuSecondsTotal()) {
+            result.setServerCpuSeconds(metrics.getCpuSecondsTotal() - baseline.getCpuSecondsTotal());
+        }
+        if (baseline.getResidentMemoryBytes() >= 0 && metrics.getResidentMemoryBytes() >= 0) {
+            result.setServerMemoryGrowthBytes(metrics.getResidentMemoryBytes() - baseline.getResidentMemoryBytes());
+        }
+    }
+
+    /**
+     * 停止JFR录制，把录制文件与结果保存在一起
+     */
+    private void attachRecording(BenchmarkResult result, JfrRecorder recording) {
+        if (recording == null) {
+            return;
+        }
+        Path file = recording.stop(resultStore.recordingPath(result.getRunId()));
+        if (file != null) {
+            result.setJfrRecordingFile(file.toAbsolutePath().toString());
+        }
+    }
+
+    String newRunId() {
+        return new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 将各线程吞吐与尾部阶段时长填充到结果
+     * 尾部阶段指第一个线程结束到最后一个线程结束之间的时间，此时并发已不足
+     */
+    void fillWorkerStats(BenchmarkResult result, WorkerStats[] workerStats) {
+        long firstFinish = Long.MAX_VALUE;
+        long lastFinish = 0;
+        for (WorkerStats stats : workerStats) {
+            if (stats.getActiveMillis() > 0) {
+                stats.setSamplesPerSecond(stats.getSuccessSamples() * 1000.0 / stats.getActiveMillis());
+            }
+            firstFinish = Math.min(firstFinish, stats.getFinishedAtMillis());
+            lastFinish = Math.max(lastFinish, stats.getFinishedAtMillis());
+        }
+        result.setWorkerStats(Arrays.asList(workerStats));
+        result.setTailPhaseMillis(workerStats.length > 0 ? lastFinish - firstFinish : 0);
+    }
+
+    /**
+     * 根据请求参数创建自适应并发限制器
+     *
+     * @param request 压测请求参数
+     * @return 限制器，未启用自适应模式时返回null
+     */
+    private AdaptiveConcurrencyLimiter createLimiter(BenchmarkRequest request) {
+        if (!Boolean.TRUE.equals(request.getAdaptiveConcurrency())) {
+            return null;
+        }
+        int initial = request.getConcurrency();
+        if (request.getMaxConcurrency() == null || request.getMaxConcurrency() < initial) {
+            request.setMaxConcurrency(initial * 4);
+        }
+        int min = request.getMinConcurrency() != null ? request.getMinConcurrency() : 1;
+        double tolerance = request.getLatencyTolerance() != null ? request.getLatencyTolerance() : 2.0;
+        return new AdaptiveConcurrencyLimiter(initial, min, request.getMaxConcurrency(), tolerance);
+    }
+
+    /**
+     * 将批次延迟统计填充到结果
+     */
+    void fillLatency(BenchmarkResult result, LatencyHistogram latency) {
+        result.setAvgResponseTimeMillis(latency.getMean() / 1000.0);
+        result.setMinResponseTimeMillis(latency.getMin() / 1000);
+        result.setMaxResponseTimeMillis(latency.getMax() / 1000);
+        result.setP50ResponseTimeMillis(latency.getPercentile(50) / 1000.0);
+        result.setP90ResponseTimeMillis(latency.getPercentile(90) / 1000.0);
+        result.setP99ResponseTimeMillis(latency.getPercentile(99) / 1000.0);
+        result.setLatencyHistogram(latency.toCounts());
+    }
+
+    /**
+     * 将请求分阶段耗时填充到结果
+     */
+    private void fillRequestPhases(BenchmarkResult result, RequestPhaseStats phases) {
+        result.setRequestPhases(phases);
+        if (phases == null) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder();
+        for (PhaseLatency phase : phases.getPhases()) {
+            summary.append(String.format(" %s=%.2f/%.2fms", phase.getPhase(), phase.getP50Millis(),
+                    phase.getP99Millis()));
+        }
+        log.info("请求分阶段耗时 P50/P99 -{}, 连接复用率: {}%", summary,
+                String.format("%.1f", phases.getConnectionReuseRate() * 100));
+    }
+
+    /**
+     * 将自适应并发的收敛情况填充到结果
+     */
+    private void fillConcurrencyLimit(BenchmarkResult result, AdaptiveConcurrencyLimiter limiter) {
+        if (limiter == null) {
+            return;
+        }
+        result.setAdaptiveConcurrency(true);
+        result.setConvergedConcurrencyLimit(limiter.getConvergedLimit());
+        result.setFinalConcurrencyLimit(limiter.getLimit());
+        result.setPeakConcurrencyLimit(limiter.getPeakLimit());
+        result.setConcurrencyLimitDecreases(limiter.getDecreaseCount());
+        log.info("自适应并发收敛 - 收敛限制: {}, 最终限制: {}, 峰值限制: {}, 削减次数: {}",
+                String.format("%.2f", limiter.getConvergedLimit()), limiter.getLimit(),
+                limiter.getPeakLimit(), limiter.getDecreaseCount());
+    }
+
     /**
      * 发送一批数据
+     * 自适应模式下过载不再让线程休眠，而是通知限制器削减在途请求数后立即重试；
+     * 固定并发模式下对429/5xx及网络错误进行指数退避
      * 
-     * @param request   压测请求参数
-     * @param batchSize 批次大小
-     * @param threadId  线程ID
-     * @param batchId   批次ID
+     * @param request     压测请求参数
+     * @param writeParams 写入接口的查询参数
+     * @param payload     已编码的批次负载，重试时复用
+     * @param batchSize   批次大小
+     * @param threadId    线程ID
+     * @param batchId     批次ID
+     * @param limiter     自适应并发限制器，可为null
+     * @param state       本次运行的共享计数器
      * @return 是否成功
      */
-    private boolean sendBatch(BenchmarkRequest request, int batchSize, int threadId, int batchId) {
+    private boolean sendBatch(BenchmarkRequest request, Map<String, String> writeParams, PayloadBuffer payload,
+            int batchSize, int threadId, long batchId, AdaptiveConcurrencyLimiter limiter, WriteRunState state) {
         int maxRetries = 3;
         int baseRetryDelay = 1000; // 基础重试延迟1秒
         double backoffMultiplier = 2.0; // 指数退避乘数
 
+        log.debug("批次负载大小: {} 字节", payload.size());
+
         for (int i = 0; i < maxRetries; i++) {
+            boolean overload = false;
+            boolean sent = false;
+            int statusCode = 0;
+            if (i > 0) {
+                harnessMetrics.retry();
+            }
+            harnessMetrics.batchQueued();
             try {
-                // 生成数据
-                String data = generateData(request, batchSize, threadId, batchId);
-                log.debug("生成的数据: {}", data);
+                if (limiter != null) {
+                    limiter.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                harnessMetrics.batchDequeued();
+            }
 
-                // 使用新的 writeData 方法，传入 apiType
-                String response = victoriaMetricsClient.writeData(data, request.getApiType());
+            harnessMetrics.requestStarted();
+            // 不支持JFR的JVM上不创建事件，BatchSendEvent 不会被加载
+            BatchSendEvent event = JfrSupport.AVAILABLE ? new BatchSendEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            long begin = System.nanoTime();
+            try {
+                // 按 apiType 选择写入接口，并附带 precision、db 等查询参数
+                String response = victoriaMetricsClient.writeData(payload, request.getApiType(), writeParams,
+                        Boolean.TRUE.equals(request.getGzip()), request.getTenant(), request.getRunId());
+                long elapsed = System.nanoTime() - begin;
                 log.debug("写入响应: {}", response);
 
                 // 检查响应是否成功
                 // VictoriaMetrics 写入成功时返回空字符串
                 if (response != null && response.trim().isEmpty()) {
+                    sent = true;
+                    state.recordLatency(TimeUnit.NANOSECONDS.toMicros(elapsed));
+                    if (limiter != null) {
+                        limiter.onSuccess(elapsed);
+                    }
                     log.info("批次发送成功 - 线程ID: {}, 批次ID: {}, 数据量: {}",
                             threadId, batchId, batchSize);
                     return true;
@@ -190,87 +809,64 @@ public class VictoriaMetricsService {
 
                 log.warn("批次发送失败 - 线程ID: {}, 批次ID: {}, 重试次数: {}, 响应: {}",
                         threadId, batchId, i + 1, response);
-
-                // 如果是502错误，增加重试延迟
-                if (response != null && response.contains("502")) {
-                    int retryDelay = (int) (baseRetryDelay * Math.pow(backoffMultiplier, i));
-                    log.info("遇到502错误，等待{}毫秒后重试", retryDelay);
-                    Thread.sleep(retryDelay);
-                    continue;
+                if (limiter != null) {
+                    limiter.onIgnore();
                 }
+                continue;
+            } catch (HttpStatusException e) {
+                overload = e.isOverload();
+                statusCode = e.getStatusCode();
+                log.warn("第{}次发送批次失败 - 线程ID: {}, 批次ID: {}, 状态码: {}",
+                        i + 1, threadId, batchId, e.getStatusCode());
+            } catch (SocketTimeoutException e) {
+                overload = true;
+                log.warn("第{}次发送批次超时 - 线程ID: {}, 批次ID: {}", i + 1, threadId, batchId);
             } catch (Exception e) {
+                overload = false;
                 log.warn("第{}次发送批次失败 - 线程ID: {}, 批次ID: {}, 错误: {}",
                         i + 1, threadId, batchId, e.getMessage());
-                if (i < maxRetries - 1) {
-                    try {
-                        int retryDelay = (int) (baseRetryDelay * Math.pow(backoffMultiplier, i));
-                        Thread.sleep(retryDelay);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
+            } finally {
+                harnessMetrics.requestFinished();
+                if (event != null && event.shouldCommit()) {
+                    event.runId = request.getRunId();
+                    event.threadId = threadId;
+                    event.batchId = batchId;
+                    event.samples = batchSize;
+                    event.bytes = payload.size();
+                    event.attempt = i + 1;
+                    event.statusCode = statusCode;
+                    event.success = sent;
+                    event.overload = overload;
+                    event.commit();
                 }
             }
-        }
-        return false;
-    }
 
-    /**
-     * 生成测试数据
-     * 
-     * @param request   压测请求参数
-     * @param batchSize 批次大小
-     * @param threadId  线程ID
-     * @param batchId   批次ID
-     * @return 生成的数据
-     */
-    private String generateData(BenchmarkRequest request, int batchSize, int threadId, int batchId) {
-        StringBuilder data = new StringBuilder();
-        long timestamp = System.currentTimeMillis(); // 使用毫秒级时间戳
-
-        switch (request.getApiType().toLowerCase()) {
-            case "prometheus":
-                for (int i = 0; i < batchSize; i++) {
-                    String metricName = request.getMetricPrefix() + "_" + threadId;
-                    data.append(metricName)
-                            .append("{thread_id=\"").append(threadId).append("\",")
-                            .append("batch_id=\"").append(batchId).append("\",")
-                            .append("index=\"").append(i).append("\",")
-                            .append("test_id=\"benchmark_test\"} ")
-                            .append(Math.random() * 100)
-                            .append(" ").append(timestamp + i)
-                            .append("\n");
-                }
-                break;
-
-            case "influx":
-                for (int i = 0; i < batchSize; i++) {
-                    data.append(request.getMetricPrefix())
-                            .append(",thread_id=").append(threadId)
-                            .append(",batch_id=").append(batchId)
-                            .append(",index=").append(i)
-                            .append(",test_id=benchmark_test ")
-                            .append("value=").append(Math.random() * 100)
-                            .append(" ").append(timestamp * 1000000) // 转换为纳秒时间戳
-                            .append("\n");
+            if (overload) {
+                harnessMetrics.overload();
+            }
+
+            if (limiter != null) {
+                // 由限制器削减并发来降低负载，工作线程不休眠
+                if (overload) {
+                    limiter.onOverload();
+                } else {
+                    limiter.onIgnore();
                 }
-                break;
-
-            default:
-                // 默认使用Prometheus格式
-                for (int i = 0; i < batchSize; i++) {
-                    String metricName = request.getMetricPrefix() + "_" + threadId;
-                    data.append(metricName)
-                            .append("{thread_id=\"").append(threadId).append("\",")
-                            .append("batch_id=\"").append(batchId).append("\",")
-                            .append("index=\"").append(i).append("\",")
-                            .append("test_id=\"benchmark_test\"} ")
-                            .append(Math.random() * 100)
-                            .append(" ").append(timestamp + i)
-                            .append("\n");
+                continue;
+            }
+
+            if (i < maxRetries - 1) {
+                try {
+                    int retryDelay = (int) (baseRetryDelay * Math.pow(backoffMultiplier, i));
+                    log.info("{}，等待{}毫秒后重试", overload ? "目标服务过载" : "请求异常", retryDelay);
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
+            }
         }
-
-        return data.toString();
+        return false;
     }
 
     /**
@@ -281,17 +877,13 @@ public class VictoriaMetricsService {
      */
     public long queryTotalDataCount() {
         try {
-            // 使用新的 queryTotalCount 方法
-            String response = victoriaMetricsClient.queryTotalCount();
-            log.info("查询总数据量响应: {}", response);
-
-            // 解析 JSON 响应
-            JsonNode root = objectMapper.readTree(response);
-            if (root.has("status") && "success".equals(root.get("status").asText())
-                    && root.has("data") && root.get("data").isArray() && root.get("data").size() > 0) {
-                return root.get("data").get(0).asLong();
+            // 流式解析响应，只取状态与第一个值
+            QueryResponseStats stats = victoriaMetricsClient.queryTotalCount(new QueryResponseReader(false));
+            if (stats != null && stats.isSuccess() && stats.getFirstValue() != null) {
+                log.info("查询总数据量: {}", stats.getFirstValue().longValue());
+                return stats.getFirstValue().longValue();
             } else {
-                log.error("总数据量响应格式不正确: {}", response);
+                log.error("总数据量响应格式不正确: {}", stats);
                 return 0;
             }
         } catch (Exception e) {
@@ -302,7 +894,7 @@ public class VictoriaMetricsService {
 
     /**
      * 使用VictoriaMetricsClient统计数据量
-     * 支持按前缀查询数据量
+     * 支持按前缀查询数据量，优先使用 /api/v1/status/tsdb 的基数统计，接口不可用时退回正则计数查询
      * 
      * @param request 请求参数
      * @return 数据量
@@ -315,38 +907,63 @@ public class VictoriaMetricsService {
                 return 0;
             }
 
-            // 构建查询语句，使用正确的 PromQL 格式
-            String query = String.format("count({__name__=~\"%s.+\"})", request.getMetricPrefix());
-            log.debug("构建的查询语句: {}", query);
-
-            // 使用 query 方法发送请求
-            String response = victoriaMetricsClient.query(query);
-            log.debug("查询响应: {}", response);
-
-            // 解析 JSON 响应
-            JsonNode root = objectMapper.readTree(response);
-            if (root.has("status") && "success".equals(root.get("status").asText())
-                    && root.has("data") && root.get("data").has("result")) {
-                JsonNode result = root.get("data").get("result");
-                if (result.isArray() && result.size() > 0) {
-                    JsonNode firstResult = result.get(0);
-                    if (firstResult.has("value") && firstResult.get("value").isArray()) {
-                        JsonNode value = firstResult.get("value");
-                        if (value.size() > 1) {
-                            return value.get(1).asLong();
-                        }
-                    }
-                }
+            long count = cardinalityService.countPrefix(request.getMetricPrefix(), null);
+            if (count >= 0) {
+                return count;
             }
-
-            log.warn("未找到匹配的数据点");
-            return 0;
+            return querySeriesCount(String.format("{__name__=~\"%s.+\"}", request.getMetricPrefix()));
         } catch (Exception e) {
             log.error("查询前缀数据量失败: {}", e.getMessage());
             return 0;
         }
     }
 
+    /**
+     * 统计选择器匹配的序列数
+     *
+     * @param selector 序列选择器，例如 {__name__=~"benchmark_metric.+"}
+     * @return 序列数，没有匹配时为0
+     * @throws IOException 查询失败、响应不是 success 或结果中缺少数值
+     */
+    public long querySeriesCount(String selector) throws IOException {
+        // 构建查询语句，使用正确的 PromQL 格式
+        return countQuery("count(" + selector + ")");
+    }
+
+    /**
+     * 统计时间范围内有数据点的序列数
+     * 即时的 count(selector) 只能看到回溯窗口（约5分钟）内有数据点的序列，统计历史数据集时需要指定范围
+     *
+     * @param selector     序列选择器
+     * @param rangeSeconds 向前统计的时间范围（秒）
+     * @return 序列数，没有匹配时为0
+     * @throws IOException 查询失败、响应不是 success 或结果中缺少数值
+     */
+    public long querySeriesCount(String selector, long rangeSeconds) throws IOException {
+        return countQuery("count(last_over_time(" + selector + "[" + rangeSeconds + "s]))");
+    }
+
+    private long countQuery(String query) throws IOException {
+        log.debug("构建的查询语句: {}", query);
+
+        // 流式解析响应，count 的结果为第一个数据点的值
+        QueryResponseStats stats = victoriaMetricsClient.query(query, Collections.emptyMap(),
+                new QueryResponseReader(false));
+        log.debug("查询响应: {}", stats);
+        if (stats == null || !stats.isSuccess()) {
+            throw new IOException("统计序列数失败: " + (stats != null ? stats.getError() : "响应为空"));
+        }
+        // count 在没有匹配序列时返回空结果
+        if (stats.getSeries() == 0) {
+            log.debug("未找到匹配的数据点");
+            return 0;
+        }
+        if (stats.getFirstValue() == null) {
+            throw new IOException("统计序列数的响应缺少数值: " + query);
+        }
+        return stats.getFirstValue().longValue();
+    }
+
     /**
      * 收集服务器指标
      * 
@@ -355,6 +972,10 @@ public class VictoriaMetricsService {
      */
     public ServerMetrics collectServerMetrics(BenchmarkRequest request, BenchmarkResult result) {
         ServerMetrics metrics = new ServerMetrics();
+        ScrapeEvent scrapeEvent = JfrSupport.AVAILABLE ? new ScrapeEvent() : null;
+        if (scrapeEvent != null) {
+            scrapeEvent.begin();
+        }
         try {
             String metricsResponse = victoriaMetricsClient.getMetrics();
             if (metricsResponse == null || metricsResponse.trim().isEmpty()) {
@@ -365,6 +986,10 @@ public class VictoriaMetricsService {
             if (lines.length == 0) {
                 throw new RuntimeException("服务器指标数据为空");
             }
+            if (scrapeEvent != null) {
+                scrapeEvent.responseBytes = metricsResponse.length();
+                scrapeEvent.lines = lines.length;
+            }
 
             double cpuSeconds = 0;
             double processStartTime = 0;
@@ -417,6 +1042,9 @@ public class VictoriaMetricsService {
                 }
             }
 
+            metrics.setCpuSecondsTotal(cpuSeconds);
+            metrics.setResidentMemoryBytes(memoryUsed);
+
             // Calculate CPU usage percentage
             if (processStartTime > 0) {
                 double uptime = System.currentTimeMillis() / 1000.0 - processStartTime;
@@ -436,6 +1064,10 @@ public class VictoriaMetricsService {
 
             // Convert storage to MB
             metrics.setStorageUsageMB(storageUsed / (1024 * 1024));
+            if (scrapeEvent != null) {
+                scrapeEvent.success = true;
+                scrapeEvent.end();
+            }
 
             // 获取总数据量和前缀数据量
             long totalDataCount = queryTotalDataCount();
@@ -458,6 +1090,11 @@ public class VictoriaMetricsService {
             metrics.setStorageUsageMB(0);
             metrics.setTotalDataPointsCount(0);
             metrics.setDataPointsCount(0);
+        } finally {
+            if (scrapeEvent != null && scrapeEvent.shouldCommit()) {
+                scrapeEvent.runId = result != null ? result.getRunId() : null;
+                scrapeEvent.commit();
+            }
         }
 
         return metrics;
@@ -505,9 +1142,10 @@ public class VictoriaMetricsService {
 
     /**
      * 使用VictoriaMetricsClient删除数据
+     * 删除后按指数退避轮询匹配的序列数，直到查询不到为止
      * 
      * @param request 请求参数
-     * @return 是否成功
+     * @return 是否在超时前删除完成
      */
     public boolean deleteTestData(BenchmarkRequest request) {
         try {
@@ -519,13 +1157,19 @@ public class VictoriaMetricsService {
             String response = victoriaMetricsClient.deleteSeries(matchPattern);
             log.info("删除测试数据响应: {}", response);
 
-            // 等待1秒确保数据删除
-            Thread.sleep(1000);
-
-            // 验证数据是否已删除
-            String queryResponse = victoriaMetricsClient.query(request.getMetricPrefix());
-            log.info("删除后查询响应: {}", queryResponse);
-
+            // 轮询直到查询不到匹配的序列
+            long deadline = System.currentTimeMillis() + DELETE_TIMEOUT_MILLIS;
+            long delay = 100;
+            long remaining;
+            while ((remaining = querySeriesCount(matchPattern)) > 0) {
+                if (System.currentTimeMillis() > deadline) {
+                    log.error("删除测试数据超时，剩余序列: {}", remaining);
+                    return false;
+                }
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, 5000);
+            }
+            log.info("测试数据已不可见");
             return true;
         } catch (Exception e) {
             log.error("删除测试数据失败", e);
@@ -0,0 +1,138 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerAssignment;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerProgress;
+import com.brianxiadong.vicmetrbenchmark.utils.RunTimeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 分布式压测工作节点服务
+ * 接收协调节点分配的任务，等到统一开始时刻后执行写入压测，并按秒提供进度
+ */
+@Slf4j
+@Service
+public class WorkerService {
+
+    @Autowired
+    private VictoriaMetricsService victoriaMetricsService;
+
+    private final Map<String, WorkerRun> runs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * 关闭时中断等待开始或正在运行的任务，被中断的运行会保存检查点
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 接收任务，在 startAtMillis 时刻开始执行
+     *
+     * @param assignment 任务描述
+     */
+    public void accept(WorkerAssignment assignment) {
+        WorkerRun run = new WorkerRun(assignment);
+        runs.put(assignment.getRunId(), run);
+        log.info("工作节点接收任务 - 运行ID: {}, 节点: {}/{}, 数据量: {}, 开始时间: {}",
+                assignment.getRunId(), assignment.getWorkerIndex(), assignment.getWorkerCount(),
+                assignment.getRequest().getDataCount(), assignment.getStartAtMillis());
+        run.future = executor.submit(() -> {
+            long wait = assignment.getStartAtMillis() - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            return victoriaMetricsService.runBenchmark(assignment.getRequest(), run.state);
+        });
+    }
+
+    /**
+     * 获取进度，只返回已经完整结束的秒
+     *
+     * @param runId      运行ID
+     * @param fromSecond 起始秒
+     * @return 进度，运行不存在时返回null
+     */
+    public WorkerProgress progress(String runId, int fromSecond) {
+        WorkerRun run = runs.get(runId);
+        if (run == null) {
+            return null;
+        }
+        WorkerProgress progress = new WorkerProgress();
+        progress.setRunId(runId);
+        progress.setWorkerIndex(run.assignment.getWorkerIndex());
+        progress.setSuccessSamples(run.state.getSuccessSamples().get());
+        progress.setFailedSamples(run.state.getFailedSamples().get());
+        progress.setIntervalLatencyHistogram(run.state.drainIntervalLatency().toCounts());
+
+        RunTimeline timeline = run.state.getTimeline();
+        boolean finished = run.future != null && run.future.isDone();
+        if (timeline == null) {
+            progress.setStatus(finished ? "finished" : "waiting");
+            return progress;
+        }
+        int completeSeconds = finished
+                ? timeline.length()
+                : Math.min(timeline.length(), timeline.secondOf(System.currentTimeMillis()));
+        TimelineSeries series = timeline.toSeries(fromSecond, completeSeconds);
+        progress.setTimeline(series);
+        progress.setStatus(finished ? "finished" : "running");
+        return progress;
+    }
+
+    /**
+     * 等待并获取最终结果
+     *
+     * @param runId       运行ID
+     * @param waitSeconds 最长等待秒数
+     * @return 压测结果，运行不存在或未完成时返回null
+     */
+    public BenchmarkResult result(String runId, long waitSeconds) {
+        WorkerRun run = runs.get(runId);
+        if (run == null || run.future == null) {
+            return null;
+        }
+        try {
+            BenchmarkResult result = run.future.get(waitSeconds, TimeUnit.SECONDS);
+            runs.remove(runId);
+            return result;
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.error("工作节点压测失败 - 运行ID: {}", runId, e.getCause());
+            runs.remove(runId);
+            BenchmarkResult result = new BenchmarkResult();
+            result.setRunId(runId);
+            result.setErrorMessage("工作节点压测失败: " + e.getCause().getMessage());
+            return result;
+        }
+    }
+
+    private static class WorkerRun {
+        final WorkerAssignment assignment;
+        final WriteRunState state = new WriteRunState();
+        volatile Future<BenchmarkResult> future;
+
+        WorkerRun(WorkerAssignment assignment) {
+            this.assignment = assignment;
+        }
+    }
+}
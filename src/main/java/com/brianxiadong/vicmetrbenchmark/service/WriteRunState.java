@@ -0,0 +1,242 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkCheckpoint;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.RunTimeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 一次写入压测运行中由所有线程共享的计数器
+ * 从检查点恢复时以检查点中的累计值为起点
+ */
+public class WriteRunState {
+
+    private final AtomicLong successSamples = new AtomicLong();
+    private final AtomicLong failedSamples = new AtomicLong();
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong payloadBytes = new AtomicLong();
+    private final LatencyHistogram latency;
+    private final int resumeCount;
+
+    /**
+     * 自上次取走以来的延迟直方图，供分布式模式按秒上报
+     */
+    private final AtomicReference<LatencyHistogram> intervalLatency = new AtomicReference<>(new LatencyHistogram());
+
+    private volatile RunTimeline timeline;
+    private volatile boolean finished;
+    private volatile boolean stopRequested;
+
+    /**
+     * 预热阶段的延迟单独记录，不进入 latency，因此不影响结果中的分位数
+     */
+    private final LatencyHistogram warmupLatency = new LatencyHistogram();
+    private volatile boolean warmingUp;
+    private long warmupUntilMillis;
+    private long warmupMinSamples;
+    private volatile long warmupEndMillis;
+    private volatile long warmupSuccessSamples;
+    private volatile long warmupFailedSamples;
+
+    public WriteRunState() {
+        this(null);
+    }
+
+    /**
+     * @param checkpoint 恢复所用的检查点，可为null
+     */
+    public WriteRunState(BenchmarkCheckpoint checkpoint) {
+        if (checkpoint == null) {
+            this.latency = new LatencyHistogram();
+            this.resumeCount = 0;
+            return;
+        }
+        this.latency = LatencyHistogram.fromCounts(checkpoint.getLatencyHistogram());
+        this.resumeCount = checkpoint.getResumeCount() + 1;
+        successSamples.set(checkpoint.getSuccessSamples());
+        failedSamples.set(checkpoint.getFailedSamples());
+        clientErrors.set(checkpoint.getClientErrors());
+        payloadBytes.set(checkpoint.getPayloadBytes());
+    }
+
+    /**
+     * 开始记录每秒时间线
+     *
+     * @param startMillis 时间线起点
+     */
+    public void startTimeline(long startMillis) {
+        this.timeline = new RunTimeline(startMillis);
+    }
+
+    /**
+     * 开始预热：到达指定时间且完成指定数据量之前，延迟记入预热直方图，计数在结束时留下快照
+     *
+     * @param untilMillis 预热至少持续到的时间戳
+     * @param minSamples  预热至少完成的数据量
+     */
+    public synchronized void startWarmup(long untilMillis, long minSamples) {
+        this.warmupUntilMillis = untilMillis;
+        this.warmupMinSamples = minSamples;
+        this.warmingUp = true;
+    }
+
+    private synchronized void checkWarmup() {
+        long now = System.currentTimeMillis();
+        if (!warmingUp || now < warmupUntilMillis || completedSamples() < warmupMinSamples) {
+            return;
+        }
+        warmupSuccessSamples = successSamples.get();
+        warmupFailedSamples = failedSamples.get();
+        warmupEndMillis = now;
+        warmingUp = false;
+    }
+
+    /**
+     * 记录一个完成的批次
+     *
+     * @param samples 批次数据量
+     * @param success 是否成功
+     */
+    public void recordBatch(int samples, boolean success) {
+        if (success) {
+            successSamples.addAndGet(samples);
+        } else {
+            failedSamples.addAndGet(samples);
+        }
+        RunTimeline current = timeline;
+        if (current != null) {
+            current.recordBatch(System.currentTimeMillis(), samples, success);
+        }
+        if (warmingUp) {
+            checkWarmup();
+        }
+    }
+
+    /**
+     * 记录一次成功请求的延迟
+     *
+     * @param micros 延迟（微秒）
+     */
+    public void recordLatency(long micros) {
+        (warmingUp ? warmupLatency : latency).record(micros);
+        intervalLatency.get().record(micros);
+        RunTimeline current = timeline;
+        if (current != null) {
+            current.recordLatency(System.currentTimeMillis(), micros);
+        }
+    }
+
+    /**
+     * @return 是否仍处于预热阶段
+     */
+    public boolean isWarmingUp() {
+        return warmingUp;
+    }
+
+    /**
+     * @return 预热结束的时间戳，没有预热或预热未结束时为0
+     */
+    public long getWarmupEndMillis() {
+        return warmupEndMillis;
+    }
+
+    public long getWarmupSuccessSamples() {
+        return warmupSuccessSamples;
+    }
+
+    public long getWarmupFailedSamples() {
+        return warmupFailedSamples;
+    }
+
+    public LatencyHistogram getWarmupLatency() {
+        return warmupLatency;
+    }
+
+    /**
+     * 取走自上次调用以来的延迟直方图
+     */
+    public LatencyHistogram drainIntervalLatency() {
+        return intervalLatency.getAndSet(new LatencyHistogram());
+    }
+
+    public RunTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * 请求提前结束压测，工作线程完成手头的批次后退出
+     */
+    public void requestStop() {
+        this.stopRequested = true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public AtomicLong getSuccessSamples() {
+        return successSamples;
+    }
+
+    public AtomicLong getFailedSamples() {
+        return failedSamples;
+    }
+
+    public AtomicLong getClientErrors() {
+        return clientErrors;
+    }
+
+    public AtomicLong getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public int getResumeCount() {
+        return resumeCount;
+    }
+
+    /**
+     * @return 已完成（成功或失败）的数据量，恢复时从这里继续
+     */
+    public long completedSamples() {
+        return successSamples.get() + failedSamples.get();
+    }
+
+    /**
+     * 生成当前状态的检查点
+     *
+     * @param request        压测请求参数
+     * @param startTimestamp 压测开始时间戳
+     * @param elapsedMillis  累计运行时长（毫秒）
+     * @return 检查点
+     */
+    public BenchmarkCheckpoint toCheckpoint(BenchmarkRequest request, long startTimestamp, long elapsedMillis) {
+        BenchmarkCheckpoint checkpoint = new BenchmarkCheckpoint();
+        checkpoint.setRunId(request.getRunId());
+        checkpoint.setRequest(request);
+        checkpoint.setStartTimestamp(startTimestamp);
+        checkpoint.setCheckpointTimestamp(System.currentTimeMillis());
+        checkpoint.setElapsedMillis(elapsedMillis);
+        checkpoint.setSuccessSamples(successSamples.get());
+        checkpoint.setFailedSamples(failedSamples.get());
+        checkpoint.setClientErrors(clientErrors.get());
+        checkpoint.setPayloadBytes(payloadBytes.get());
+        checkpoint.setLatencyHistogram(latency.toCounts());
+        checkpoint.setResumeCount(resumeCount);
+        return checkpoint;
+    }
+}
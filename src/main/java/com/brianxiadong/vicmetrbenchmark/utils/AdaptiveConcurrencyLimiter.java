@@ -0,0 +1,173 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+/**
+ * 自适应并发限制器
+ * 结合AIMD与延迟梯度算法动态调整允许的在途请求数：
+ * 延迟稳定时每轮（约等于当前限制数个请求）加性增加1；
+ * 遇到429/5xx或超时时乘性减少；
+ * 平滑延迟超过基线延迟的容忍倍数时按梯度 (基线*容忍倍数/平滑延迟) 减少。
+ * 长时间运行后限制值会收敛到目标服务可持续承受的写入并发。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * 过载时的乘性减少系数
+     */
+    private static final double BACKOFF_RATIO = 0.7;
+
+    /**
+     * 梯度减少的下限，避免单次延迟抖动把限制值砍得过低
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    /**
+     * 平滑延迟的EWMA系数
+     */
+    private static final double RTT_SMOOTHING = 0.1;
+
+    /**
+     * 收敛限制值的EWMA系数
+     */
+    private static final double LIMIT_SMOOTHING = 0.01;
+
+    /**
+     * 基线延迟的重新探测周期（完成的请求数）
+     */
+    private static final int BASELINE_WINDOW = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private double limit;
+    private int inFlight;
+
+    private double smoothedRttNanos;
+    private long baselineRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    /**
+     * 距上次减少后完成的请求数，未满一轮前不再重复减少
+     */
+    private long completionsSinceDecrease;
+
+    private double convergedLimit;
+    private int peakLimit;
+    private long decreaseCount;
+
+    /**
+     * @param initialLimit     初始并发限制
+     * @param minLimit         最小并发限制
+     * @param maxLimit         最大并发限制
+     * @param latencyTolerance 延迟容忍倍数，平滑延迟超过基线的该倍数视为延迟膨胀
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTolerance = latencyTolerance > 1.0 ? latencyTolerance : 2.0;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.convergedLimit = this.limit;
+        this.peakLimit = (int) this.limit;
+    }
+
+    /**
+     * 获取一个在途请求许可，超出当前限制时阻塞等待
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * 请求成功完成，根据延迟反馈调整限制
+     *
+     * @param rttNanos 请求耗时（纳秒）
+     */
+    public synchronized void onSuccess(long rttNanos) {
+        inFlight--;
+        completionsSinceDecrease++;
+        updateRtt(rttNanos);
+
+        double inflated = baselineRttNanos * latencyTolerance;
+        if (smoothedRttNanos > inflated && completionsSinceDecrease >= (long) limit) {
+            double gradient = Math.max(MIN_GRADIENT, inflated / smoothedRttNanos);
+            decrease(limit * gradient);
+        } else if (inFlight + 1 >= (int) limit / 2) {
+            // 只有并发确实被用到一半以上时才增加，避免空闲时限制值无限上涨
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        afterUpdate();
+    }
+
+    /**
+     * 请求因过载失败（429、5xx或超时），乘性减少限制
+     */
+    public synchronized void onOverload() {
+        inFlight--;
+        completionsSinceDecrease++;
+        if (completionsSinceDecrease >= (long) limit / 2) {
+            decrease(limit * BACKOFF_RATIO);
+        }
+        afterUpdate();
+    }
+
+    /**
+     * 请求因与负载无关的原因结束（如客户端异常），不调整限制
+     */
+    public synchronized void onIgnore() {
+        inFlight--;
+        afterUpdate();
+    }
+
+    private void updateRtt(long rttNanos) {
+        smoothedRttNanos = smoothedRttNanos == 0
+                ? rttNanos
+                : smoothedRttNanos * (1 - RTT_SMOOTHING) + rttNanos * RTT_SMOOTHING;
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        baselineRttNanos = Math.min(baselineRttNanos, rttNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            // 定期用最近窗口的最小值重置基线，适应目标服务的真实延迟变化
+            baselineRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+
+    private void decrease(double newLimit) {
+        limit = Math.max(minLimit, newLimit);
+        completionsSinceDecrease = 0;
+        decreaseCount++;
+    }
+
+    private void afterUpdate() {
+        convergedLimit = convergedLimit * (1 - LIMIT_SMOOTHING) + limit * LIMIT_SMOOTHING;
+        peakLimit = Math.max(peakLimit, (int) limit);
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return 限制值的长期平滑值，即收敛到的可持续写入并发
+     */
+    public synchronized double getConvergedLimit() {
+        return convergedLimit;
+    }
+
+    public synchronized int getPeakLimit() {
+        return peakLimit;
+    }
+
+    public synchronized long getDecreaseCount() {
+        return decreaseCount;
+    }
+}
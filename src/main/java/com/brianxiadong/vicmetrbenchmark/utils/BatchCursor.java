@@ -0,0 +1,88 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 共享批次游标
+ * 所有压测线程通过一次 CAS 自增领取下一批数据，完成一批再领下一批，
+ * 慢线程不会拖出单线程的尾部阶段，且领取的数据总量恰好等于目标数据量
+ */
+public class BatchCursor {
+
+    private final AtomicLong next;
+    private final long total;
+    private final int batchSize;
+    private final AtomicLong batchSequence = new AtomicLong();
+
+    /**
+     * @param total     数据总量
+     * @param batchSize 批次大小
+     */
+    public BatchCursor(long total, int batchSize) {
+        this(0, total, batchSize);
+    }
+
+    /**
+     * @param start     起始偏移（用于从检查点恢复）
+     * @param total     数据总量
+     * @param batchSize 批次大小
+     */
+    public BatchCursor(long start, long total, int batchSize) {
+        this.next = new AtomicLong(start);
+        this.total = total;
+        this.batchSize = batchSize;
+        this.batchSequence.set(start / Math.max(1, batchSize));
+    }
+
+    /**
+     * 领取下一批
+     *
+     * @return 批次，数据已领完时返回null
+     */
+    public Batch claim() {
+        long start = next.getAndAdd(batchSize);
+        if (start >= total) {
+            return null;
+        }
+        int size = (int) Math.min(batchSize, total - start);
+        return new Batch(batchSequence.getAndIncrement(), start, size);
+    }
+
+    /**
+     * @return 已领取的数据量
+     */
+    public long claimed() {
+        return Math.min(total, next.get());
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * 一个已领取的批次
+     */
+    public static class Batch {
+        private final long batchId;
+        private final long offset;
+        private final int size;
+
+        public Batch(long batchId, long offset, int size) {
+            this.batchId = batchId;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        public long getBatchId() {
+            return batchId;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSource;
+import okio.Source;
+
+import java.io.IOException;
+
+/**
+ * 统计读取字节数的 Source，可选地把读到的字节同时写入另一个 Sink（例如落盘保存导出数据）
+ */
+public class CountingSource extends ForwardingSource {
+
+    private final BufferedSink tee;
+    private long bytes;
+
+    /**
+     * @param delegate 被包装的 Source
+     * @param tee      同步写入的 Sink，可为null
+     */
+    public CountingSource(Source delegate, BufferedSink tee) {
+        super(delegate);
+        this.tee = tee;
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+        long read = super.read(sink, byteCount);
+        if (read > 0) {
+            bytes += read;
+            if (tee != null) {
+                sink.copyTo(tee.getBuffer(), sink.size() - read, read);
+                tee.emitCompleteSegments();
+            }
+        }
+        return read;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,59 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 压测客户端GC统计
+ * 在压测开始时记录各垃圾收集器的累计次数与耗时，结束时取差值，
+ * 用于证明压测客户端自身的GC没有污染测量结果。
+ * 耗时取自 GarbageCollectorMXBean 的累计收集时间，G1/ZGC 等收集器的并发阶段也计算在内，
+ * 因此它是GC总耗时，大于应用线程实际被暂停的时间
+ */
+public class GcTimeTracker {
+
+    private final long startCount;
+    private final long startMillis;
+
+    private GcTimeTracker(long startCount, long startMillis) {
+        this.startCount = startCount;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * 记录当前GC累计值作为起点
+     */
+    public static GcTimeTracker start() {
+        return new GcTimeTracker(totalCount(), totalMillis());
+    }
+
+    /**
+     * @return 起点以来的GC次数
+     */
+    public long collectionCount() {
+        return totalCount() - startCount;
+    }
+
+    /**
+     * @return 起点以来的GC累计耗时（毫秒），包含并发收集时间
+     */
+    public long collectionMillis() {
+        return totalMillis() - startMillis;
+    }
+
+    private static long totalCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,28 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import java.io.IOException;
+
+/**
+ * HTTP 非2xx响应异常
+ * 携带状态码，便于调用方区分过载（429/5xx）与其他错误
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode) {
+        super("请求失败: " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return 是否为目标服务过载导致的失败
+     */
+    public boolean isOverload() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,201 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图
+ * 采用对数线性分桶（每个2的幂区间再细分32个子桶，相对误差约3%），单位为微秒
+ * 记录路径只有一次 AtomicLongArray 自增，可在多个压测线程间共享，并支持合并
+ */
+public class LatencyHistogram {
+
+    /**
+     * 子桶位数，每个2的幂区间细分为 2^SUB_BUCKET_BITS 个桶
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 可记录的最大值为 2^MAX_EXPONENT 微秒（约12天），超出部分记入最后一个桶
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    /**
+     * 记录一个延迟值
+     *
+     * @param micros 延迟（微秒）
+     */
+    public void record(long micros) {
+        recordCount(micros, 1);
+    }
+
+    /**
+     * 记录同一延迟值出现多次
+     *
+     * @param micros 延迟（微秒）
+     * @param count  次数
+     */
+    public void recordCount(long micros, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long value = Math.max(0, micros);
+        counts.addAndGet(bucketIndex(value), count);
+        totalCount.add(count);
+        totalSum.add(value * count);
+        minValue.accumulateAndGet(value, Math::min);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * 将另一个直方图合并到当前直方图
+     *
+     * @param other 另一个直方图
+     */
+    public void merge(LatencyHistogram other) {
+        if (other == null || other.getCount() == 0) {
+            return;
+        }
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = other.counts.get(i);
+            if (c > 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalSum.add(other.totalSum.sum());
+        minValue.accumulateAndGet(other.minValue.get(), Math::min);
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMin() {
+        long min = minValue.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * 计算百分位数
+     *
+     * @param percentile 百分位（0-100）
+     * @return 对应的延迟（微秒），取所在桶的上界并以实际最大值封顶
+     */
+    public long getPercentile(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 导出各桶计数，用于检查点持久化与跨进程合并
+     *
+     * @return 桶计数数组（去掉末尾的零）
+     */
+    public long[] toCounts() {
+        int last = -1;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            if (snapshot[i] != 0) {
+                last = i;
+            }
+        }
+        long[] trimmed = new long[last + 1];
+        System.arraycopy(snapshot, 0, trimmed, 0, trimmed.length);
+        return trimmed;
+    }
+
+    /**
+     * 从桶计数数组恢复直方图，恢复后的最小/最大值为桶边界的近似值
+     *
+     * @param bucketCounts 桶计数数组
+     * @return 直方图
+     */
+    public static LatencyHistogram fromCounts(long[] bucketCounts) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (bucketCounts == null) {
+            return histogram;
+        }
+        for (int i = 0; i < Math.min(bucketCounts.length, BUCKET_COUNT); i++) {
+            if (bucketCounts[i] > 0) {
+                histogram.recordCount(bucketLowerBound(i), bucketCounts[i]);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * 清空直方图
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalSum.reset();
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        return (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return bucketLowerBound(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 基于 PayloadBuffer 的请求体
+ * 直接把缓冲区内容写入连接，OkHttp 重试或重定向时会重新获取只读视图；
+ * 开启 gzip 时边写边压缩，长度未知，按分块传输发送
+ */
+public class PayloadRequestBody extends RequestBody {
+
+    private final PayloadBuffer payload;
+    private final MediaType contentType;
+    private final boolean gzip;
+
+    public PayloadRequestBody(PayloadBuffer payload, MediaType contentType) {
+        this(payload, contentType, false);
+    }
+
+    public PayloadRequestBody(PayloadBuffer payload, MediaType contentType, boolean gzip) {
+        this.payload = payload;
+        this.contentType = contentType;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return gzip ? -1 : payload.size();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (!gzip) {
+            write(sink);
+            return;
+        }
+        BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+        write(gzipSink);
+        gzipSink.close();
+    }
+
+    private void write(BufferedSink sink) throws IOException {
+        ByteBuffer view = payload.readView();
+        while (view.hasRemaining()) {
+            sink.write(view);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.LoggedQuery;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.HttpUrl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查询日志解析器
+ * 支持两种格式：
+ * <ul>
+ * <li>vmslowlog：vmselect 开启 -search.logSlowQueryDuration 后输出的慢查询日志，行首为查询完成时间，
+ * 行内包含 duration=、query=、start=、end=、step=（毫秒），到达时间为完成时间减去 duration</li>
+ * <li>jsonl：每行一个JSON对象的访问日志，字段为 time/ts/timestamp、query、start、end、step，
+ * 或者包含完整请求地址的 url/uri/path 字段</li>
+ * </ul>
+ * auto 格式按行判断：以 { 开头的行按 jsonl 解析，其余按 vmslowlog 解析
+ */
+public class QueryLogParser {
+
+    public static final String FORMAT_AUTO = "auto";
+    public static final String FORMAT_VM_SLOW_LOG = "vmslowlog";
+    public static final String FORMAT_JSONL = "jsonl";
+
+    /**
+     * 大于该值的时间戳按毫秒处理
+     */
+    private static final double MILLIS_THRESHOLD = 1e11;
+
+    private static final Pattern LEADING_TIME = Pattern.compile("^(\\d{4}-\\d{2}-\\d{2}T\\S+)");
+    private static final Pattern QUERY_FIELD = Pattern.compile("\\bquery=(\"(?:[^\"\\\\]|\\\\.)*\"|[^,;]*)");
+    private static final Pattern START_FIELD = Pattern.compile("\\bstart=(\\d+(?:\\.\\d+)?)");
+    private static final Pattern END_FIELD = Pattern.compile("\\bend=(\\d+(?:\\.\\d+)?)");
+    private static final Pattern STEP_FIELD = Pattern.compile("\\bstep=(\\d+(?:\\.\\d+)?)");
+    private static final Pattern QUERY_DURATION_FIELD = Pattern.compile("\\bduration=(\\d+(?:\\.\\d+)?)\\s*(ms|seconds|s)?");
+    private static final Pattern TIME_FIELD = Pattern.compile("\\btime=(\\d+(?:\\.\\d+)?)");
+    private static final Pattern DURATION = Pattern.compile("^(\\d+(?:\\.\\d+)?)(ms|s|m|h|d|w|y)?$");
+
+    private static final Pattern FP_STRING = Pattern.compile("\"(?:[^\"\\\\]|\\\\.)*\"|'(?:[^'\\\\]|\\\\.)*'");
+    private static final Pattern FP_RANGE = Pattern.compile("\\[[^\\]]*\\]");
+    private static final Pattern FP_DURATION = Pattern.compile("\\b\\d+(?:\\.\\d+)?(?:ms|s|m|h|d|w|y)\\b");
+    private static final Pattern FP_NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?\\b");
+    private static final Pattern FP_SPACE = Pattern.compile("\\s+");
+
+    private final String format;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String detectedFormat;
+    private long skippedLines;
+    private long lastArrivalMillis;
+
+    /**
+     * @param format 日志格式，为空时按 auto 处理
+     */
+    public QueryLogParser(String format) {
+        this.format = format == null || format.trim().isEmpty() ? FORMAT_AUTO : format.trim().toLowerCase();
+    }
+
+    /**
+     * 逐行解析查询日志
+     *
+     * @param reader     日志内容
+     * @param maxQueries 最多返回的查询数，按到达时间取最早的部分，小于等于0时不限制
+     * @return 按到达时间排序的查询
+     */
+    public List<LoggedQuery> parse(BufferedReader reader, int maxQueries) throws IOException {
+        List<LoggedQuery> queries = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            LoggedQuery query = parseLine(trimmed);
+            if (query == null) {
+                skippedLines++;
+            } else {
+                queries.add(query);
+            }
+        }
+        // 慢查询日志按完成时间输出，回放按到达时间排序
+        queries.sort((a, b) -> Long.compare(a.getArrivalMillis(), b.getArrivalMillis()));
+        // 文件顺序不是到达顺序，排序之后再截断
+        if (maxQueries > 0 && queries.size() > maxQueries) {
+            return new ArrayList<>(queries.subList(0, maxQueries));
+        }
+        return queries;
+    }
+
+    LoggedQuery parseLine(String line) {
+        boolean json = FORMAT_JSONL.equals(format) || (FORMAT_AUTO.equals(format) && line.startsWith("{"));
+        LoggedQuery query;
+        try {
+            query = json ? parseJsonLine(line) : parseSlowLogLine(line);
+        } catch (Exception e) {
+            return null;
+        }
+        if (query == null || query.getQuery() == null || query.getQuery().trim().isEmpty()) {
+            return null;
+        }
+        if (detectedFormat == null) {
+            detectedFormat = json ? FORMAT_JSONL : FORMAT_VM_SLOW_LOG;
+        }
+        if (query.getArrivalMillis() <= 0) {
+            // 没有到达时间时用查询的结束时间近似（面板查询的结束时间通常就是发起时刻），再不行沿用上一条
+            Long reference = query.isRange() ? query.getEndSeconds() : query.getTimeSeconds();
+            query.setArrivalMillis(reference != null ? reference * 1000 : lastArrivalMillis);
+        }
+        lastArrivalMillis = query.getArrivalMillis();
+        return query;
+    }
+
+    private LoggedQuery parseSlowLogLine(String line) {
+        Matcher queryField = QUERY_FIELD.matcher(line);
+        if (!queryField.find()) {
+            return null;
+        }
+        LoggedQuery query = new LoggedQuery();
+        String text = queryField.group(1).trim();
+        if (text.startsWith("\"") && text.endsWith("\"") && text.length() >= 2) {
+            text = unquote(text.substring(1, text.length() - 1));
+        }
+        query.setQuery(text);
+
+        Matcher time = LEADING_TIME.matcher(line);
+        if (time.find()) {
+            Double seconds = parseTimeSeconds(time.group(1));
+            if (seconds != null) {
+                // 行首时间是查询完成的时刻，减去查询耗时得到到达时刻
+                query.setArrivalMillis((long) (seconds * 1000) - queryDurationMillis(line));
+            }
+        }
+        // 慢查询日志中的时间与步长是毫秒，时间戳按数值大小兼容秒
+        String start = field(START_FIELD, line);
+        Double startSeconds = parseTimeSeconds(start);
+        Double endSeconds = parseTimeSeconds(field(END_FIELD, line));
+        if (startSeconds != null && endSeconds != null) {
+            query.setStartSeconds(startSeconds.longValue());
+            query.setEndSeconds(endSeconds.longValue());
+            String step = field(STEP_FIELD, line);
+            if (step != null) {
+                double stepValue = Double.parseDouble(step);
+                boolean millis = Double.parseDouble(start) > MILLIS_THRESHOLD;
+                query.setStepSeconds(Math.max(1, Math.round(millis ? stepValue / 1000 : stepValue)));
+            }
+        } else {
+            Double at = parseTimeSeconds(field(TIME_FIELD, line));
+            query.setTimeSeconds(at != null ? at.longValue() : null);
+        }
+        return query;
+    }
+
+    private LoggedQuery parseJsonLine(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        LoggedQuery query = new LoggedQuery();
+        for (String field : new String[] { "time", "ts", "timestamp", "@timestamp" }) {
+            Double seconds = parseTimeSeconds(text(node, field));
+            if (seconds != null) {
+                query.setArrivalMillis((long) (seconds * 1000));
+                break;
+            }
+        }
+
+        String url = firstText(node, "url", "uri", "request_uri", "path");
+        HttpUrl parsed = url != null && url.contains("?")
+                ? HttpUrl.parse(url.startsWith("http") ? url : "http://localhost" + (url.startsWith("/") ? "" : "/") + url)
+                : null;
+        String queryText = text(node, "query");
+        String start = text(node, "start");
+        String end = text(node, "end");
+        String step = text(node, "step");
+        String at = null;
+        if (parsed != null) {
+            queryText = queryText != null ? queryText : parsed.queryParameter("query");
+            start = start != null ? start : parsed.queryParameter("start");
+            end = end != null ? end : parsed.queryParameter("end");
+            step = step != null ? step : parsed.queryParameter("step");
+            at = parsed.queryParameter("time");
+        }
+        query.setQuery(queryText);
+
+        Double startSeconds = parseTimeSeconds(start);
+        Double endSeconds = parseTimeSeconds(end);
+        if (startSeconds != null && endSeconds != null) {
+            query.setStartSeconds(startSeconds.longValue());
+            query.setEndSeconds(endSeconds.longValue());
+            query.setStepSeconds(parseDurationSeconds(step));
+        } else {
+            Double atSeconds = parseTimeSeconds(at);
+            query.setTimeSeconds(atSeconds != null ? atSeconds.longValue() : null);
+        }
+        return query;
+    }
+
+    /**
+     * 查询指纹：字符串、范围选择器、时长与数字都替换为占位符，空白归一，
+     * 同一面板在不同模板变量、不同时间范围下的查询得到相同的指纹
+     *
+     * @param query 查询语句
+     * @return 归一化后的查询
+     */
+    public static String fingerprint(String query) {
+        String normalized = FP_STRING.matcher(query).replaceAll("\"?\"");
+        normalized = FP_RANGE.matcher(normalized).replaceAll("[?]");
+        normalized = FP_DURATION.matcher(normalized).replaceAll("?");
+        normalized = FP_NUMBER.matcher(normalized).replaceAll("?");
+        return FP_SPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * 解析时间：数字按秒（大于 1e11 按毫秒），否则按 RFC3339 解析
+     *
+     * @return 秒，无法解析时为null
+     */
+    static Double parseTimeSeconds(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            double number = Double.parseDouble(trimmed);
+            return number > MILLIS_THRESHOLD ? number / 1000 : number;
+        } catch (NumberFormatException e) {
+            // 不是数字，按 RFC3339 解析
+        }
+        try {
+            OffsetDateTime time = OffsetDateTime.parse(trimmed);
+            return time.toEpochSecond() + time.getNano() / 1e9;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析步长：纯数字按秒，也支持 15s、1m 这样的时长
+     */
+    static Long parseDurationSeconds(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = DURATION.matcher(value.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        double number = Double.parseDouble(matcher.group(1));
+        String unit = matcher.group(2) == null ? "s" : matcher.group(2);
+        double seconds;
+        switch (unit) {
+            case "ms":
+                seconds = number / 1000;
+                break;
+            case "m":
+                seconds = number * 60;
+                break;
+            case "h":
+                seconds = number * 3600;
+                break;
+            case "d":
+                seconds = number * 86400;
+                break;
+            case "w":
+                seconds = number * 7 * 86400;
+                break;
+            case "y":
+                seconds = number * 365 * 86400;
+                break;
+            default:
+                seconds = number;
+        }
+        return Math.max(1, Math.round(seconds));
+    }
+
+    /**
+     * 解析慢查询日志中的 duration=6.1 seconds，缺省单位为秒
+     *
+     * @return 查询耗时（毫秒），没有该字段时为0
+     */
+    static long queryDurationMillis(String line) {
+        Matcher matcher = QUERY_DURATION_FIELD.matcher(line);
+        if (!matcher.find()) {
+            return 0;
+        }
+        double value = Double.parseDouble(matcher.group(1));
+        return Math.round("ms".equals(matcher.group(2)) ? value : value * 1000);
+    }
+
+    private static String field(Pattern pattern, String line) {
+        Matcher matcher = pattern.matcher(line);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String unquote(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String firstText(JsonNode node, String... fields) {
+        for (String field : fields) {
+            String value = text(node, field);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 实际识别出的格式，没有解析出查询时为null
+     */
+    public String getDetectedFormat() {
+        return detectedFormat;
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+}
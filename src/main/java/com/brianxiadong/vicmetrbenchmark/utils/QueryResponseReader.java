@@ -0,0 +1,186 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.IOException;
+
+/**
+ * 查询响应的流式读取器
+ * 用 JsonParser 逐个读取 Prometheus 查询接口的响应，一次遍历得到状态、序列数、数据点数与可选的校验和，
+ * 不构建树也不把响应体读成字符串，内存占用与结果大小无关
+ * <p>
+ * 校验和按序列计算 FNV-1a 哈希（标签名、标签值、时间戳与值的原始文本）后相加，与序列的返回顺序无关
+ */
+public class QueryResponseReader implements ResponseReader<QueryResponseStats> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final boolean checksum;
+
+    /**
+     * @param checksum 是否计算结果校验和
+     */
+    public QueryResponseReader(boolean checksum) {
+        this.checksum = checksum;
+    }
+
+    @Override
+    public QueryResponseStats read(BufferedSource source) throws IOException {
+        QueryResponseStats stats = new QueryResponseStats();
+        if (checksum) {
+            stats.setChecksum(0L);
+        }
+        CountingSource counting = new CountingSource(source, null);
+        try (JsonParser parser = JSON_FACTORY.createParser(Okio.buffer(counting).inputStream())) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("status".equals(field)) {
+                        stats.setStatus(parser.getText());
+                    } else if ("errorType".equals(field)) {
+                        stats.setErrorType(parser.getText());
+                    } else if ("error".equals(field)) {
+                        stats.setError(parser.getText());
+                    } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                        readData(parser, stats);
+                    } else if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                        readArray(parser, stats);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            // 读完剩余内容，字节数为完整响应体大小
+            while (parser.nextToken() != null) {
+                parser.skipChildren();
+            }
+        }
+        stats.setBytes(counting.getBytes());
+        return stats;
+    }
+
+    private void readData(JsonParser parser, QueryResponseStats stats) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("resultType".equals(field)) {
+                stats.setResultType(parser.getText());
+            } else if ("result".equals(field) && value == JsonToken.START_ARRAY) {
+                readResult(parser, stats);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * vector/matrix 的结果是序列对象数组；scalar/string 的结果是 [时间戳, "值"]
+     */
+    private void readResult(JsonParser parser, QueryResponseStats stats) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.END_ARRAY) {
+            addChecksum(stats, readSampleValues(parser, stats, FNV_OFFSET));
+            return;
+        }
+        for (; token == JsonToken.START_OBJECT; token = parser.nextToken()) {
+            stats.setSeries(stats.getSeries() + 1);
+            long hash = FNV_OFFSET;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("metric".equals(field) && value == JsonToken.START_OBJECT) {
+                    if (checksum) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            hash = hash(hash, parser.getCurrentName());
+                            parser.nextToken();
+                            hash = hash(hash, parser.getText());
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if ("value".equals(field) && value == JsonToken.START_ARRAY) {
+                    parser.nextToken();
+                    hash = readSampleValues(parser, stats, hash);
+                } else if ("values".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_ARRAY) {
+                        parser.nextToken();
+                        hash = readSampleValues(parser, stats, hash);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            addChecksum(stats, hash);
+        }
+    }
+
+    /**
+     * 读取一个 [时间戳, "值"] 数据点，调用时解析器位于时间戳，返回时位于数组结束
+     */
+    private long readSampleValues(JsonParser parser, QueryResponseStats stats, long hash) throws IOException {
+        stats.setSamples(stats.getSamples() + 1);
+        if (checksum) {
+            hash = hash(hash, parser.getText());
+        }
+        parser.nextToken();
+        if (stats.getFirstValue() == null) {
+            stats.setFirstValue(parseValue(parser.getText()));
+        }
+        if (checksum) {
+            hash = hash(hash, parser.getText());
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        return hash;
+    }
+
+    /**
+     * series/count、labels 等接口的 data 是数组，每个元素计为一个序列
+     */
+    private void readArray(JsonParser parser, QueryResponseStats stats) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            stats.setSeries(stats.getSeries() + 1);
+            if (stats.getFirstValue() == null && parser.currentToken().isScalarValue()) {
+                stats.setFirstValue(parseValue(parser.getText()));
+            }
+            if (checksum) {
+                addChecksum(stats, hash(FNV_OFFSET, parser.getText()));
+            }
+            parser.skipChildren();
+        }
+    }
+
+    private void addChecksum(QueryResponseStats stats, long hash) {
+        if (checksum) {
+            stats.setChecksum(stats.getChecksum() + hash);
+        }
+    }
+
+    private static Double parseValue(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long hash(long hash, String text) {
+        if (text == null) {
+            return hash;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        // 分隔符，避免相邻字段拼接后产生相同的哈希
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+}
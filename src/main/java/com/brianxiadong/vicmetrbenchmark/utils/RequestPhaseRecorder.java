@@ -0,0 +1,254 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.PhaseLatency;
+import com.brianxiadong.vicmetrbenchmark.model.RequestPhaseStats;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP 请求分阶段计时
+ * 作为 OkHttp 的 EventListener.Factory 为每次调用创建一个监听器，把各阶段耗时记入每阶段一个的无锁直方图：
+ * acquire（调用开始到拿到连接，含排队、DNS、建连与TLS）、dns、connect（含TLS）、tls、
+ * upload（请求头与请求体发送）、ttfb（请求发送完到响应头开始，即服务端处理时间）、download（响应头与响应体接收）、total
+ * <p>
+ * 统计按运行划分：请求通过 {@link Request#tag(Class)} 携带 {@link RunTag}，监听器把耗时记入该运行的窗口；
+ * 同一客户端上并行的多个运行互不干扰，未标记运行或运行未登记的请求（探测、采样、查询等）不计入任何窗口
+ */
+public class RequestPhaseRecorder implements EventListener.Factory {
+
+    /**
+     * 请求阶段，按请求经过的顺序排列
+     */
+    enum Phase {
+        ACQUIRE("acquire"), DNS("dns"), CONNECT("connect"), TLS("tls"), UPLOAD("upload"), TTFB("ttfb"),
+        DOWNLOAD("download"), TOTAL("total");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * 请求所属运行的标记
+     */
+    public static final class RunTag {
+
+        private final String runId;
+
+        public RunTag(String runId) {
+            this.runId = runId;
+        }
+
+        public String getRunId() {
+            return runId;
+        }
+    }
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public EventListener create(Call call) {
+        RunTag tag = call.request().tag(RunTag.class);
+        Window window = tag != null ? windows.get(tag.getRunId()) : null;
+        return window != null ? new PhaseListener(window) : EventListener.NONE;
+    }
+
+    /**
+     * 开始统计一个运行的请求，同一运行ID重复登记时重新开始统计
+     *
+     * @param runId 运行ID
+     */
+    public void start(String runId) {
+        windows.put(runId, new Window());
+    }
+
+    /**
+     * 结束统计一个运行的请求
+     *
+     * @param runId 运行ID
+     * @return 该运行的统计，未登记时为null
+     */
+    public RequestPhaseStats finish(String runId) {
+        Window window = windows.remove(runId);
+        return window != null ? window.toStats() : null;
+    }
+
+    /**
+     * 一个运行的统计窗口，调用开始时绑定，运行结束后仍在进行的调用不再计入结果
+     */
+    static class Window {
+
+        private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        private final LongAdder connectionsAcquired = new LongAdder();
+        private final LongAdder connectionsReused = new LongAdder();
+
+        Window() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        void record(Phase phase, long startNanos, long endNanos) {
+            if (startNanos > 0 && endNanos >= startNanos) {
+                histograms[phase.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos));
+            }
+        }
+
+        RequestPhaseStats toStats() {
+            RequestPhaseStats stats = new RequestPhaseStats();
+            stats.setCalls(calls.sum());
+            stats.setFailedCalls(failedCalls.sum());
+            stats.setConnectionsAcquired(connectionsAcquired.sum());
+            stats.setConnectionsReused(connectionsReused.sum());
+            if (stats.getConnectionsAcquired() > 0) {
+                stats.setConnectionReuseRate((double) stats.getConnectionsReused() / stats.getConnectionsAcquired());
+            }
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = histograms[phase.ordinal()];
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                PhaseLatency latency = new PhaseLatency();
+                latency.setPhase(phase.label);
+                latency.setCount(histogram.getCount());
+                latency.setMeanMillis(histogram.getMean() / 1000.0);
+                latency.setP50Millis(histogram.getPercentile(50) / 1000.0);
+                latency.setP90Millis(histogram.getPercentile(90) / 1000.0);
+                latency.setP99Millis(histogram.getPercentile(99) / 1000.0);
+                latency.setMaxMillis(histogram.getMax() / 1000.0);
+                stats.getPhases().add(latency);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * 单次调用的监听器，OkHttp 对同一调用的事件按顺序回调，字段无需同步
+     */
+    private static class PhaseListener extends EventListener {
+
+        private final Window window;
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+        private long requestEnd;
+        private long responseStart;
+        private boolean connected;
+
+        PhaseListener(Window window) {
+            this.window = window;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            window.calls.increment();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            window.record(Phase.DNS, dnsStart, System.nanoTime());
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            connected = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            window.record(Phase.TLS, secureConnectStart, System.nanoTime());
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            window.record(Phase.CONNECT, connectStart, System.nanoTime());
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                IOException ioe) {
+            window.record(Phase.CONNECT, connectStart, System.nanoTime());
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            window.record(Phase.ACQUIRE, callStart, System.nanoTime());
+            window.connectionsAcquired.increment();
+            if (!connected) {
+                window.connectionsReused.increment();
+            }
+            // 重试或重定向会再次获取连接，按新的一次获取判断是否复用
+            connected = false;
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            responseStart = System.nanoTime();
+            window.record(Phase.UPLOAD, requestStart, requestEnd);
+            window.record(Phase.TTFB, requestEnd, responseStart);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            window.record(Phase.DOWNLOAD, responseStart, System.nanoTime());
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            window.record(Phase.TOTAL, callStart, System.nanoTime());
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            window.failedCalls.increment();
+            window.record(Phase.TOTAL, callStart, System.nanoTime());
+        }
+    }
+}
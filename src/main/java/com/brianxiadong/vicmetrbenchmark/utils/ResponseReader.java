@@ -0,0 +1,16 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import okio.BufferedSource;
+
+import java.io.IOException;
+
+/**
+ * 流式读取响应体，读取期间响应保持打开，调用返回后由客户端关闭
+ *
+ * @param <T> 读取结果类型
+ */
+@FunctionalInterface
+public interface ResponseReader<T> {
+
+    T read(BufferedSource source) throws IOException;
+}
@@ -0,0 +1,277 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 每秒计数时间线
+ * 按10分钟一块预分配原始类型计数数组，记录路径只有数组自增，不产生每秒对象
+ * <p>
+ * 每秒延迟记入粗粒度的对数分桶（每个2的幂区间4个子桶），用于导出每秒的均值与分位数；
+ * 延迟数组在首次记录延迟时才按块分配，只合并计数的时间线不占用这部分内存
+ */
+public class RunTimeline {
+
+    private static final int CHUNK_SECONDS = 600;
+
+    /**
+     * 最多支持的块数（约14天）
+     */
+    private static final int MAX_CHUNKS = 2016;
+
+    /**
+     * 每秒延迟分桶：每个2的幂区间细分为 2^LATENCY_SUB_BUCKET_BITS 个桶，相对误差约12%；
+     * 最大 2^LATENCY_MAX_EXPONENT 微秒（约67秒），超出部分记入最后一个桶
+     */
+    private static final int LATENCY_SUB_BUCKET_BITS = 2;
+    private static final int LATENCY_SUB_BUCKET_COUNT = 1 << LATENCY_SUB_BUCKET_BITS;
+    private static final int LATENCY_MAX_EXPONENT = 25;
+    static final int LATENCY_BUCKETS = (LATENCY_MAX_EXPONENT - LATENCY_SUB_BUCKET_BITS + 2)
+            * LATENCY_SUB_BUCKET_COUNT;
+
+    private final long startMillis;
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicReferenceArray<LatencyChunk> latencyChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger length = new AtomicInteger();
+
+    public RunTimeline(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * 记录一个完成的批次
+     *
+     * @param nowMillis 完成时间戳
+     * @param samples   批次数据量
+     * @param success   是否成功
+     */
+    public void recordBatch(long nowMillis, int samples, boolean success) {
+        int second = secondOf(nowMillis);
+        if (second < 0) {
+            return;
+        }
+        addAt(second, success ? samples : 0, 1, success ? 0 : 1);
+    }
+
+    /**
+     * 记录一次请求的延迟
+     *
+     * @param nowMillis 完成时间戳
+     * @param micros    延迟（微秒）
+     */
+    public void recordLatency(long nowMillis, long micros) {
+        int second = secondOf(nowMillis);
+        if (second < 0) {
+            return;
+        }
+        int index = second / CHUNK_SECONDS;
+        LatencyChunk chunk = latencyChunks.get(index);
+        if (chunk == null) {
+            latencyChunks.compareAndSet(index, null, new LatencyChunk());
+            chunk = latencyChunks.get(index);
+        }
+        int offset = second % CHUNK_SECONDS;
+        long value = Math.max(0, micros);
+        chunk.buckets.incrementAndGet(offset * LATENCY_BUCKETS + latencyBucket(value));
+        chunk.counts.incrementAndGet(offset);
+        chunk.sums.addAndGet(offset, value);
+        length.accumulateAndGet(second + 1, Math::max);
+    }
+
+    /**
+     * 在指定秒累加计数，用于合并其他进程上报的时间线
+     */
+    public void addAt(int second, long samples, long requests, long errors) {
+        Chunk chunk = chunk(second);
+        if (chunk == null) {
+            return;
+        }
+        int offset = second % CHUNK_SECONDS;
+        if (samples != 0) {
+            chunk.samples.addAndGet(offset, samples);
+        }
+        if (requests != 0) {
+            chunk.requests.addAndGet(offset, requests);
+        }
+        if (errors != 0) {
+            chunk.errors.addAndGet(offset, errors);
+        }
+        length.accumulateAndGet(second + 1, Math::max);
+    }
+
+    /**
+     * 合并另一段时间线，只合并计数，每秒延迟分位数无法跨进程合并
+     */
+    public void merge(TimelineSeries series) {
+        if (series == null || series.getSamples() == null) {
+            return;
+        }
+        for (int i = 0; i < series.getSamples().length; i++) {
+            addAt(series.getFromSecond() + i, series.getSamples()[i],
+                    series.getRequests()[i], series.getErrors()[i]);
+        }
+    }
+
+    /**
+     * @return 已记录的秒数
+     */
+    public int length() {
+        return length.get();
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public int secondOf(long nowMillis) {
+        long second = (nowMillis - startMillis) / 1000;
+        return second >= (long) CHUNK_SECONDS * MAX_CHUNKS ? -1 : (int) second;
+    }
+
+    public long samplesAt(int second) {
+        Chunk chunk = existingChunk(second);
+        return chunk == null ? 0 : chunk.samples.get(second % CHUNK_SECONDS);
+    }
+
+    public long requestsAt(int second) {
+        Chunk chunk = existingChunk(second);
+        return chunk == null ? 0 : chunk.requests.get(second % CHUNK_SECONDS);
+    }
+
+    public long errorsAt(int second) {
+        Chunk chunk = existingChunk(second);
+        return chunk == null ? 0 : chunk.errors.get(second % CHUNK_SECONDS);
+    }
+
+    /**
+     * @return 指定秒的平均延迟（微秒），该秒没有延迟记录时为 -1
+     */
+    public double meanLatencyAt(int second) {
+        LatencyChunk chunk = existingLatencyChunk(second);
+        long count = chunk == null ? 0 : chunk.counts.get(second % CHUNK_SECONDS);
+        return count == 0 ? -1 : (double) chunk.sums.get(second % CHUNK_SECONDS) / count;
+    }
+
+    /**
+     * @return 指定秒的延迟分位数（微秒，取所在桶的上界），该秒没有延迟记录时为 -1
+     */
+    public long latencyPercentileAt(int second, double percentile) {
+        LatencyChunk chunk = existingLatencyChunk(second);
+        int offset = second % CHUNK_SECONDS;
+        long count = chunk == null ? 0 : chunk.counts.get(offset);
+        if (count == 0) {
+            return -1;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        int base = offset * LATENCY_BUCKETS;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += chunk.buckets.get(base + i);
+            if (seen >= target) {
+                return latencyUpperBound(i);
+            }
+        }
+        return latencyUpperBound(LATENCY_BUCKETS - 1);
+    }
+
+    /**
+     * 导出 [fromSecond, toSecond) 区间的时间线
+     */
+    public TimelineSeries toSeries(int fromSecond, int toSecond) {
+        int from = Math.max(0, fromSecond);
+        int size = Math.max(0, toSecond - from);
+        TimelineSeries series = new TimelineSeries();
+        series.setStartTimestamp(startMillis);
+        series.setFromSecond(from);
+        series.setSamples(new long[size]);
+        series.setRequests(new long[size]);
+        series.setErrors(new long[size]);
+        series.setMeanMillis(new double[size]);
+        series.setP50Millis(new double[size]);
+        series.setP90Millis(new double[size]);
+        series.setP99Millis(new double[size]);
+        for (int i = 0; i < size; i++) {
+            int second = from + i;
+            series.getSamples()[i] = samplesAt(second);
+            series.getRequests()[i] = requestsAt(second);
+            series.getErrors()[i] = errorsAt(second);
+            double mean = meanLatencyAt(second);
+            series.getMeanMillis()[i] = mean < 0 ? -1 : mean / 1000.0;
+            series.getP50Millis()[i] = toMillis(latencyPercentileAt(second, 50));
+            series.getP90Millis()[i] = toMillis(latencyPercentileAt(second, 90));
+            series.getP99Millis()[i] = toMillis(latencyPercentileAt(second, 99));
+        }
+        return series;
+    }
+
+    /**
+     * 导出完整时间线
+     */
+    public TimelineSeries toSeries() {
+        return toSeries(0, length());
+    }
+
+    private static double toMillis(long micros) {
+        return micros < 0 ? -1 : micros / 1000.0;
+    }
+
+    static int latencyBucket(long value) {
+        if (value < LATENCY_SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > LATENCY_MAX_EXPONENT) {
+            return LATENCY_BUCKETS - 1;
+        }
+        int shift = exponent - LATENCY_SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & (LATENCY_SUB_BUCKET_COUNT - 1));
+        return (shift + 1) * LATENCY_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long latencyUpperBound(int index) {
+        if (index < LATENCY_SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / LATENCY_SUB_BUCKET_COUNT - 1;
+        long subBucket = index % LATENCY_SUB_BUCKET_COUNT;
+        return ((LATENCY_SUB_BUCKET_COUNT + subBucket) << shift) + (1L << shift) - 1;
+    }
+
+    private LatencyChunk existingLatencyChunk(int second) {
+        int index = second / CHUNK_SECONDS;
+        return second < 0 || index >= MAX_CHUNKS ? null : latencyChunks.get(index);
+    }
+
+    private Chunk existingChunk(int second) {
+        int index = second / CHUNK_SECONDS;
+        return second < 0 || index >= MAX_CHUNKS ? null : chunks.get(index);
+    }
+
+    private Chunk chunk(int second) {
+        int index = second / CHUNK_SECONDS;
+        if (second < 0 || index >= MAX_CHUNKS) {
+            return null;
+        }
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new Chunk());
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static class Chunk {
+        final AtomicLongArray samples = new AtomicLongArray(CHUNK_SECONDS);
+        final AtomicLongArray requests = new AtomicLongArray(CHUNK_SECONDS);
+        final AtomicLongArray errors = new AtomicLongArray(CHUNK_SECONDS);
+    }
+
+    private static class LatencyChunk {
+        final AtomicLongArray buckets = new AtomicLongArray(CHUNK_SECONDS * LATENCY_BUCKETS);
+        final AtomicLongArray counts = new AtomicLongArray(CHUNK_SECONDS);
+        final AtomicLongArray sums = new AtomicLongArray(CHUNK_SECONDS);
+    }
+}
@@ -0,0 +1,40 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按标签切分序列的工具
+ * 按标签值的最后一位数字把0-9分配到各分片，压测生成的 batch_id、thread_id 等数字标签分布均匀
+ */
+public final class SeriesShards {
+
+    private SeriesShards() {
+    }
+
+    /**
+     * 生成分片选择器
+     *
+     * @param metricPrefix 指标名称前缀
+     * @param shardLabel   分片依据的标签，为空时不分片
+     * @param shards       分片数，限制在1到10之间
+     * @return 各分片的序列选择器
+     */
+    public static List<String> matchers(String metricPrefix, String shardLabel, Integer shards) {
+        List<String> matchers = new ArrayList<>();
+        String nameMatcher = "__name__=~\"" + metricPrefix + ".+\"";
+        int count = shards != null ? Math.max(1, Math.min(10, shards)) : 1;
+        if (count == 1 || shardLabel == null || shardLabel.trim().isEmpty()) {
+            matchers.add("{" + nameMatcher + "}");
+            return matchers;
+        }
+        for (int shard = 0; shard < count; shard++) {
+            StringBuilder digits = new StringBuilder();
+            for (int digit = shard; digit < 10; digit += count) {
+                digits.append(digit);
+            }
+            matchers.add("{" + nameMatcher + "," + shardLabel + "=~\".*[" + digits + "]\"}");
+        }
+        return matchers;
+    }
+}
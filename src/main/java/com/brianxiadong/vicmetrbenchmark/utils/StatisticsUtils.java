@@ -0,0 +1,206 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+/**
+ * 重复试验的统计工具
+ * 提供样本均值、标准差、基于t分布的置信区间与 Welch t 检验，t 分布通过正则化不完全Beta函数计算，不依赖第三方库
+ */
+public final class StatisticsUtils {
+
+    private StatisticsUtils() {
+    }
+
+    public static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0 : sum / values.length;
+    }
+
+    /**
+     * 样本方差（n-1 作分母），少于两个样本时为0
+     */
+    public static double variance(double[] values) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / (values.length - 1);
+    }
+
+    /**
+     * 均值的置信区间半宽
+     *
+     * @param values     样本
+     * @param confidence 置信水平，例如0.95
+     * @return 半宽，少于两个样本时返回 NaN
+     */
+    public static double confidenceHalfWidth(double[] values, double confidence) {
+        int n = values.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double t = studentTQuantile((1 + confidence) / 2, n - 1);
+        return t * Math.sqrt(variance(values) / n);
+    }
+
+    /**
+     * Welch t 检验（两组方差不要求相等）的双侧p值
+     *
+     * @return p值，任一组少于两个样本时返回 NaN
+     */
+    public static double welchTTestPValue(double[] a, double[] b) {
+        if (a.length < 2 || b.length < 2) {
+            return Double.NaN;
+        }
+        double va = variance(a) / a.length;
+        double vb = variance(b) / b.length;
+        double diff = mean(a) - mean(b);
+        if (va + vb == 0) {
+            // 两组都没有波动：均值不同即视为确定的差异
+            return diff == 0 ? 1.0 : 0.0;
+        }
+        double t = diff / Math.sqrt(va + vb);
+        double df = (va + vb) * (va + vb)
+                / (va * va / (a.length - 1) + vb * vb / (b.length - 1));
+        return 2 * (1 - studentTCdf(Math.abs(t), df));
+    }
+
+    /**
+     * t 分布的累积分布函数
+     */
+    public static double studentTCdf(double t, double df) {
+        double x = df / (df + t * t);
+        double tail = 0.5 * regularizedIncompleteBeta(x, df / 2, 0.5);
+        return t >= 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * 带滞后的皮尔逊相关系数：x[t] 与 y[t+lag] 配对，任一值为 NaN 的配对跳过
+     *
+     * @param x   自变量序列
+     * @param y   因变量序列
+     * @param lag 滞后（元素个数），y 落后 x 的步数
+     * @return 相关系数，有效配对少于3个或任一方差为0时返回 NaN
+     */
+    public static double laggedCorrelation(double[] x, double[] y, int lag) {
+        int n = 0;
+        double sumX = 0;
+        double sumY = 0;
+        for (int t = 0; t + lag < y.length && t < x.length; t++) {
+            if (!Double.isNaN(x[t]) && !Double.isNaN(y[t + lag])) {
+                sumX += x[t];
+                sumY += y[t + lag];
+                n++;
+            }
+        }
+        if (n < 3) {
+            return Double.NaN;
+        }
+        double meanX = sumX / n;
+        double meanY = sumY / n;
+        double covariance = 0;
+        double varianceX = 0;
+        double varianceY = 0;
+        for (int t = 0; t + lag < y.length && t < x.length; t++) {
+            if (!Double.isNaN(x[t]) && !Double.isNaN(y[t + lag])) {
+                double dx = x[t] - meanX;
+                double dy = y[t + lag] - meanY;
+                covariance += dx * dy;
+                varianceX += dx * dx;
+                varianceY += dy * dy;
+            }
+        }
+        if (varianceX == 0 || varianceY == 0) {
+            return Double.NaN;
+        }
+        return covariance / Math.sqrt(varianceX * varianceY);
+    }
+
+    /**
+     * t 分布的分位数，按累积分布函数二分求解
+     */
+    public static double studentTQuantile(double p, double df) {
+        double low = -1000;
+        double high = 1000;
+        for (int i = 0; i < 200 && high - low > 1e-10; i++) {
+            double mid = (low + high) / 2;
+            if (studentTCdf(mid, df) < p) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * 正则化不完全Beta函数 I_x(a, b)，连分式展开（Lentz 算法）
+     */
+    static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log(1 - x));
+        // 连分式在 x < (a+1)/(a+b+2) 时收敛较快，否则利用对称性
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = Math.abs(d) < tiny ? tiny : d;
+        d = 1 / d;
+        double h = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? tiny : d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            d = 1 / d;
+            h *= d * c;
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + aa * d;
+            d = Math.abs(d) < tiny ? tiny : d;
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-14) {
+                break;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Gamma 函数的自然对数（Lanczos 近似）
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = { 76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5 };
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
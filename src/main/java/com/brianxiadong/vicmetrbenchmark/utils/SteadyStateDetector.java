@@ -0,0 +1,84 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.SteadyStateWindow;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+
+import java.util.Arrays;
+
+/**
+ * 稳态检测
+ * 在每秒吞吐序列上滑动固定长度的窗口，窗口内变异系数不超过阈值即认为吞吐稳定：
+ * 从前往后第一个稳定窗口的起点是稳态开始，从后往前第一个稳定窗口的终点是稳态结束，
+ * 这样开头的爬坡和结尾线程陆续退出的尾部阶段都不会计入。最后一秒通常不完整，不参与检测
+ */
+public final class SteadyStateDetector {
+
+    private SteadyStateDetector() {
+    }
+
+    /**
+     * @param series        每秒时间线
+     * @param fromSecond    检测起点（秒偏移），通常为预热结束的下一整秒
+     * @param windowSeconds 滑动窗口长度（秒）
+     * @param tolerance     变异系数阈值
+     * @return 稳态窗口，没有检测到时 detected 为false
+     */
+    public static SteadyStateWindow detect(TimelineSeries series, int fromSecond, int windowSeconds,
+            double tolerance) {
+        SteadyStateWindow window = new SteadyStateWindow();
+        int size = Math.max(2, windowSeconds);
+        window.setWindowSeconds(size);
+        window.setTolerance(tolerance);
+        if (series == null || series.getSamples() == null) {
+            return window;
+        }
+        double[] rates = new double[series.getSamples().length];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = series.getSamples()[i];
+        }
+        int from = Math.max(0, fromSecond - series.getFromSecond());
+        int to = rates.length - 1;
+
+        int start = -1;
+        for (int s = from; s + size <= to; s++) {
+            if (stable(rates, s, s + size, tolerance)) {
+                start = s;
+                break;
+            }
+        }
+        if (start < 0) {
+            return window;
+        }
+        int end = start + size;
+        for (int e = to; e >= start + size; e--) {
+            if (stable(rates, e - size, e, tolerance)) {
+                end = e;
+                break;
+            }
+        }
+
+        double[] stableRates = Arrays.copyOfRange(rates, start, end);
+        double mean = StatisticsUtils.mean(stableRates);
+        long samples = 0;
+        long errors = 0;
+        for (int i = start; i < end; i++) {
+            samples += series.getSamples()[i];
+            errors += series.getErrors()[i];
+        }
+        window.setDetected(true);
+        window.setStartSecond(series.getFromSecond() + start);
+        window.setEndSecond(series.getFromSecond() + end);
+        window.setStartTimestamp(series.getStartTimestamp() + window.getStartSecond() * 1000L);
+        window.setSamples(samples);
+        window.setErrors(errors);
+        window.setSamplesPerSecond(mean);
+        window.setCoefficientOfVariation(Math.sqrt(StatisticsUtils.variance(stableRates)) / mean);
+        return window;
+    }
+
+    private static boolean stable(double[] rates, int from, int to, double tolerance) {
+        double[] window = Arrays.copyOfRange(rates, from, to);
+        double mean = StatisticsUtils.mean(window);
+        return mean > 0 && Math.sqrt(StatisticsUtils.variance(window)) / mean <= tolerance;
+    }
+}
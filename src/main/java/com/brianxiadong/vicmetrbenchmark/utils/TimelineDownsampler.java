@@ -0,0 +1,151 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.ChartSeries;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineChart;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+
+/**
+ * 每秒时间线降采样
+ * 采用 LTTB（Largest-Triangle-Three-Buckets）：首尾点保留，中间按桶各选一个与相邻桶构成三角形面积最大的点，
+ * 点数降到图表宽度后仍保留突刺与停顿的形状；没有数据的秒（-1）不参与降采样
+ */
+public final class TimelineDownsampler {
+
+    private static final int MIN_WIDTH = 3;
+    private static final int MAX_WIDTH = 10000;
+
+    private TimelineDownsampler() {
+    }
+
+    /**
+     * 把时间线的各条曲线降采样到指定宽度
+     *
+     * @param runId    运行ID
+     * @param timeline 每秒时间线
+     * @param width    图表宽度（像素），即每条曲线最多保留的点数
+     * @return 降采样结果
+     */
+    public static TimelineChart chart(String runId, TimelineSeries timeline, int width) {
+        int points = Math.max(MIN_WIDTH, Math.min(MAX_WIDTH, width));
+        TimelineChart chart = new TimelineChart();
+        chart.setRunId(runId);
+        chart.setWidth(points);
+        if (timeline == null || timeline.getSamples() == null) {
+            return chart;
+        }
+        chart.setStartTimestamp(timeline.getStartTimestamp());
+        chart.setTotalSeconds(timeline.getSamples().length);
+        int from = timeline.getFromSecond();
+        chart.getSeries().add(series("samples", from, toDoubles(timeline.getSamples()), points));
+        chart.getSeries().add(series("requests", from, toDoubles(timeline.getRequests()), points));
+        chart.getSeries().add(series("errors", from, toDoubles(timeline.getErrors()), points));
+        addIfPresent(chart, "meanMillis", from, timeline.getMeanMillis(), points);
+        addIfPresent(chart, "p50Millis", from, timeline.getP50Millis(), points);
+        addIfPresent(chart, "p90Millis", from, timeline.getP90Millis(), points);
+        addIfPresent(chart, "p99Millis", from, timeline.getP99Millis(), points);
+        return chart;
+    }
+
+    private static void addIfPresent(TimelineChart chart, String name, int from, double[] values, int points) {
+        if (values != null) {
+            chart.getSeries().add(series(name, from, values, points));
+        }
+    }
+
+    private static ChartSeries series(String name, int from, double[] values, int points) {
+        int valid = 0;
+        for (double value : values) {
+            if (value >= 0) {
+                valid++;
+            }
+        }
+        int[] x = new int[valid];
+        double[] y = new double[valid];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] >= 0) {
+                x[n] = from + i;
+                y[n] = values[i];
+                n++;
+            }
+        }
+        int[] selected = lttb(x, y, points);
+        ChartSeries series = new ChartSeries();
+        series.setName(name);
+        series.setSeconds(new int[selected.length]);
+        series.setValues(new double[selected.length]);
+        for (int i = 0; i < selected.length; i++) {
+            series.getSeconds()[i] = x[selected[i]];
+            series.getValues()[i] = y[selected[i]];
+        }
+        return series;
+    }
+
+    /**
+     * LTTB 降采样
+     *
+     * @param x         横坐标，递增
+     * @param y         纵坐标
+     * @param threshold 保留的点数
+     * @return 保留点的下标，递增
+     */
+    static int[] lttb(int[] x, double[] y, int threshold) {
+        int length = x.length;
+        if (threshold >= length || threshold < MIN_WIDTH) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] selected = new int[threshold];
+        // 除首尾点外，其余点平均分成 threshold - 2 个桶
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        selected[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // 下一个桶的平均点作为三角形的第三个顶点，最后一个桶用末尾点
+            int nextStart = end;
+            int nextEnd = Math.min(length, (int) ((bucket + 2) * bucketSize) + 1);
+            if (bucket == threshold - 3) {
+                nextStart = length - 1;
+                nextEnd = length;
+            }
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int count = Math.max(1, nextEnd - nextStart);
+            avgX /= count;
+            avgY /= count;
+
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[previous] - avgX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (avgY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[bucket + 1] = chosen;
+            previous = chosen;
+        }
+        selected[threshold - 1] = length - 1;
+        return selected;
+    }
+
+    private static double[] toDoubles(long[] values) {
+        double[] doubles = new double[values == null ? 0 : values.length];
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+}
@@ -0,0 +1,56 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+/**
+ * 令牌桶限速器
+ * 以“下一个空闲时刻”记录桶状态，不需要后台线程补充令牌：
+ * 每次取令牌把空闲时刻向后推 令牌数/速率，空闲时刻落后当前时间最多 burst 时长，即允许的突发量
+ */
+public class TokenBucket {
+
+    private final double nanosPerPermit;
+    private final long burstNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond 每秒令牌数
+     * @param burstSeconds     允许突发的时长（秒），突发量为 速率 × 时长
+     */
+    public TokenBucket(double permitsPerSecond, double burstSeconds) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("令牌速率必须大于0");
+        }
+        this.nanosPerPermit = 1_000_000_000.0 / permitsPerSecond;
+        this.burstNanos = (long) (Math.max(0, burstSeconds) * 1_000_000_000L);
+        this.nextFreeNanos = System.nanoTime() - burstNanos;
+    }
+
+    /**
+     * 预约令牌，总是成功
+     *
+     * @param permits 令牌数
+     * @return 调用方需要等待的纳秒数，0 表示可以立即执行
+     */
+    public synchronized long reserve(long permits) {
+        long now = System.nanoTime();
+        long base = Math.max(nextFreeNanos, now - burstNanos);
+        nextFreeNanos = base + (long) (permits * nanosPerPermit);
+        return Math.max(0, base - now);
+    }
+
+    /**
+     * 尝试立即取令牌，桶内令牌不足时不做任何改变
+     * 一次请求可以透支，只要取之前桶未被透支即可，因此大批次不会永远拿不到令牌
+     *
+     * @param permits 令牌数
+     * @return 是否取到
+     */
+    public synchronized boolean tryAcquire(long permits) {
+        long now = System.nanoTime();
+        long base = Math.max(nextFreeNanos, now - burstNanos);
+        if (base > now) {
+            return false;
+        }
+        nextFreeNanos = base + (long) (permits * nanosPerPermit);
+        return true;
+    }
+}
@@ -1,12 +1,23 @@
 package com.brianxiadong.vicmetrbenchmark.utils;
 
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.jfr.JfrSupport;
+import com.brianxiadong.vicmetrbenchmark.jfr.QueryEvent;
+import com.brianxiadong.vicmetrbenchmark.model.RequestPhaseStats;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
+import okio.Okio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -25,8 +36,12 @@ public class VictoriaMetricsClient {
     // HTTP 客户端配置
     private final OkHttpClient client;
 
+    // 请求分阶段计时
+    private final RequestPhaseRecorder phaseRecorder = new RequestPhaseRecorder();
+
     // 基础 URL
     private final String baseUrl;
+    private final String host;
 
     /**
      * 使用默认配置创建客户端
@@ -37,19 +52,64 @@ public class VictoriaMetricsClient {
 
     /**
      * 使用自定义配置创建客户端
+     * 作为 Spring 组件时地址取自 victoriametrics.host / victoriametrics.port 配置
      *
      * @param host VictoriaMetrics 服务器地址
      * @param port VictoriaMetrics 服务器端口
      */
-    public VictoriaMetricsClient(String host, int port) {
+    @Autowired
+    public VictoriaMetricsClient(@Value("${victoriametrics.host:" + DEFAULT_HOST + "}") String host,
+            @Value("${victoriametrics.port:" + DEFAULT_PORT + "}") int port) {
         this.baseUrl = String.format("http://%s:%d", host, port);
+        this.host = host;
         this.client = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
+                .eventListenerFactory(phaseRecorder)
                 .build();
     }
 
+    /**
+     * @return VictoriaMetrics 服务器地址，原始TCP写入复用同一地址
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return 底层连接池，供自身指标统计连接使用情况
+     */
+    public ConnectionPool getConnectionPool() {
+        return client.connectionPool();
+    }
+
+    /**
+     * @return 底层请求分发器，供自身指标统计异步请求排队情况
+     */
+    public Dispatcher getDispatcher() {
+        return client.dispatcher();
+    }
+
+    /**
+     * 开始统计一个运行的请求分阶段耗时，只有携带该运行ID的写入请求计入
+     *
+     * @param runId 运行ID
+     */
+    public void startRequestPhases(String runId) {
+        phaseRecorder.start(runId);
+    }
+
+    /**
+     * 结束统计一个运行的请求分阶段耗时
+     *
+     * @param runId 运行ID
+     * @return 分阶段耗时与连接复用统计，未开始统计时为null
+     */
+    public RequestPhaseStats finishRequestPhases(String runId) {
+        return phaseRecorder.finish(runId);
+    }
+
     /**
      * 检查服务健康状态
      *
@@ -91,15 +151,94 @@ public class VictoriaMetricsClient {
      * @return 查询结果
      */
     public String query(String query) throws IOException {
+        return query(query, Collections.emptyMap());
+    }
+
+    /**
+     * 执行 PromQL 查询，附带额外的查询参数，例如 nocache、time
+     *
+     * @param query  PromQL 查询语句
+     * @param params 额外的查询参数
+     * @return 查询结果
+     */
+    public String query(String query, Map<String, String> params) throws IOException {
+        return query(query, params, BufferedSource::readUtf8);
+    }
+
+    /**
+     * 执行 PromQL 即时查询，响应体交给 reader 流式读取
+     *
+     * @param query  PromQL 查询语句
+     * @param params 额外的查询参数
+     * @param reader 响应体读取逻辑，例如 {@link QueryResponseReader}
+     * @return reader 的读取结果
+     */
+    public <T> T query(String query, Map<String, String> params, ResponseReader<T> reader) throws IOException {
         HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + "/api/v1/query").newBuilder();
         urlBuilder.addQueryParameter("query", query);
+        params.forEach(urlBuilder::addQueryParameter);
+        return streamQuery(query, urlBuilder.build(), reader);
+    }
+
+    /**
+     * 执行 PromQL 范围查询，响应体交给 reader 流式读取，宽结果也不会整体进入内存
+     *
+     * @param query        PromQL 查询语句
+     * @param startSeconds 起始时间（Unix秒）
+     * @param endSeconds   结束时间（Unix秒）
+     * @param step         步长，例如 15s、1m
+     * @param params       额外的查询参数
+     * @param reader       响应体读取逻辑
+     * @return reader 的读取结果
+     */
+    public <T> T queryRange(String query, long startSeconds, long endSeconds, String step,
+            Map<String, String> params, ResponseReader<T> reader) throws IOException {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + "/api/v1/query_range").newBuilder();
+        urlBuilder.addQueryParameter("query", query);
+        urlBuilder.addQueryParameter("start", String.valueOf(startSeconds));
+        urlBuilder.addQueryParameter("end", String.valueOf(endSeconds));
+        urlBuilder.addQueryParameter("step", step);
+        params.forEach(urlBuilder::addQueryParameter);
+        return streamQuery(query, urlBuilder.build(), reader);
+    }
 
+    private <T> T streamQuery(String query, HttpUrl url, ResponseReader<T> reader) throws IOException {
         Request request = new Request.Builder()
-                .url(urlBuilder.build())
+                .url(url)
                 .get()
                 .build();
 
-        return executeRequest(request);
+        // 不支持JFR的JVM上不创建事件，QueryEvent 不会被加载
+        QueryEvent event = JfrSupport.AVAILABLE ? new QueryEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            T result = stream(request, source -> {
+                CountingSource counting = new CountingSource(source, null);
+                try {
+                    return reader.read(Okio.buffer(counting));
+                } finally {
+                    if (event != null) {
+                        event.responseBytes = counting.getBytes();
+                    }
+                }
+            });
+            if (event != null) {
+                event.success = true;
+            }
+            return result;
+        } catch (HttpStatusException e) {
+            if (event != null) {
+                event.statusCode = e.getStatusCode();
+            }
+            throw e;
+        } finally {
+            if (event != null && event.shouldCommit()) {
+                event.query = query;
+                event.commit();
+            }
+        }
     }
 
     /**
@@ -147,19 +286,133 @@ public class VictoriaMetricsClient {
                 MediaType.parse("text/plain"), data);
 
         // 根据 apiType 选择正确的接口
-        String endpoint = "/api/v1/import/prometheus";
-        if ("influx".equalsIgnoreCase(apiType)) {
-            endpoint = "/api/v1/import/influx";
-        }
-
         Request request = new Request.Builder()
-                .url(baseUrl + endpoint)
+                .url(baseUrl + writeEndpoint(apiType))
                 .post(body)
                 .build();
 
         return executeRequest(request);
     }
 
+    /**
+     * 写入池化缓冲区中的数据
+     * 请求体直接从缓冲区读取，不再复制为 String 或 byte[]；调用返回后缓冲区才可归还
+     *
+     * @param payload 已编码的负载
+     * @param apiType API类型：prometheus 或 influx
+     * @return 写入操作响应
+     */
+    public String writeData(PayloadBuffer payload, String apiType) throws IOException {
+        return writeData(payload, apiType, Collections.emptyMap());
+    }
+
+    /**
+     * 写入池化缓冲区中的数据，并附带写入接口的查询参数（例如 Influx 的 precision、db）
+     *
+     * @param payload 已编码的负载
+     * @param apiType API类型：prometheus、influx 或 influx-write
+     * @param params  查询参数
+     * @return 写入操作响应
+     */
+    public String writeData(PayloadBuffer payload, String apiType, Map<String, String> params) throws IOException {
+        return writeData(payload, apiType, params, false);
+    }
+
+    /**
+     * 写入池化缓冲区中的数据，可选 gzip 压缩请求体
+     *
+     * @param payload 已编码的负载
+     * @param apiType API类型：prometheus、influx、influx-write 或 otlp
+     * @param params  查询参数
+     * @param gzip    是否 gzip 压缩请求体
+     * @return 写入操作响应
+     */
+    public String writeData(PayloadBuffer payload, String apiType, Map<String, String> params, boolean gzip)
+            throws IOException {
+        return writeData(payload, apiType, params, gzip, null);
+    }
+
+    /**
+     * 以集群租户身份写入池化缓冲区中的数据
+     *
+     * @param payload 已编码的负载
+     * @param apiType API类型：prometheus、influx、influx-write 或 otlp
+     * @param params  查询参数
+     * @param gzip    是否 gzip 压缩请求体
+     * @param tenant  租户 accountID[:projectID]，为空时写入单机版接口
+     * @return 写入操作响应
+     */
+    public String writeData(PayloadBuffer payload, String apiType, Map<String, String> params, boolean gzip,
+            String tenant) throws IOException {
+        return writeData(payload, apiType, params, gzip, tenant, null);
+    }
+
+    /**
+     * 写入池化缓冲区中的数据，并把请求标记为属于指定运行，用于按运行统计分阶段耗时
+     *
+     * @param payload 已编码的负载
+     * @param apiType API类型：prometheus、influx、influx-write 或 otlp
+     * @param params  查询参数
+     * @param gzip    是否 gzip 压缩请求体
+     * @param tenant  租户 accountID[:projectID]，为空时写入单机版接口
+     * @param runId   运行ID，可为空
+     * @return 写入操作响应
+     */
+    public String writeData(PayloadBuffer payload, String apiType, Map<String, String> params, boolean gzip,
+            String tenant, String runId) throws IOException {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + writePath(apiType, tenant)).newBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            urlBuilder.addQueryParameter(param.getKey(), param.getValue());
+        }
+        Request.Builder request = new Request.Builder()
+                .url(urlBuilder.build())
+                .post(new PayloadRequestBody(payload, writeContentType(apiType), gzip));
+        if (runId != null) {
+            request.tag(RequestPhaseRecorder.RunTag.class, new RequestPhaseRecorder.RunTag(runId));
+        }
+        if (gzip) {
+            request.header("Content-Encoding", "gzip");
+        }
+        return executeRequest(request.build());
+    }
+
+    private MediaType writeContentType(String apiType) {
+        if ("otlp".equalsIgnoreCase(apiType)) {
+            return MediaType.parse("application/x-protobuf");
+        }
+        return MediaType.parse("text/plain");
+    }
+
+    /**
+     * 写入接口路径；指定租户时使用集群版 vminsert 的 /insert/{accountID}[:{projectID}]/ 前缀，
+     * 其中 /api/v1/ 开头的接口在集群版位于 prometheus/ 之下
+     *
+     * @param apiType API类型
+     * @param tenant  租户，可为空
+     * @return 写入接口路径
+     */
+    static String writePath(String apiType, String tenant) {
+        String endpoint = writeEndpoint(apiType);
+        if (tenant == null || tenant.trim().isEmpty()) {
+            return endpoint;
+        }
+        String prefix = "/insert/" + tenant.trim();
+        return endpoint.startsWith("/api/v1/") ? prefix + "/prometheus" + endpoint : prefix + endpoint;
+    }
+
+    private static String writeEndpoint(String apiType) {
+        if ("influx".equalsIgnoreCase(apiType)) {
+            return "/api/v1/import/influx";
+        }
+        if ("influx-write".equalsIgnoreCase(apiType)) {
+            return "/influx/write";
+        }
+        if ("otlp".equalsIgnoreCase(apiType)) {
+            return "/opentelemetry/v1/metrics";
+        }
+        return "/api/v1/import/prometheus";
+    }
+
     /**
      * 写入 Prometheus 格式的数据（向后兼容）
      *
@@ -177,11 +430,80 @@ public class VictoriaMetricsClient {
      * @return 总数据量响应
      */
     public String queryTotalCount() throws IOException {
+        return queryTotalCount(BufferedSource::readUtf8);
+    }
+
+    /**
+     * 查询总数据量，响应体交给 reader 流式读取
+     *
+     * @param reader 响应体读取逻辑
+     * @return reader 的读取结果
+     */
+    public <T> T queryTotalCount(ResponseReader<T> reader) throws IOException {
         Request request = new Request.Builder()
                 .url(baseUrl + "/api/v1/series/count")
                 .get()
                 .build();
 
+        return stream(request, reader);
+    }
+
+    /**
+     * 查询基数统计
+     * 使用 /api/v1/status/tsdb 接口，读取按天的倒排索引统计，不需要扫描匹配的序列
+     *
+     * @param params 查询参数，例如 topN、date、match[]、focusLabel
+     * @return 基数统计响应
+     */
+    public String tsdbStatus(Map<String, String> params) throws IOException {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + "/api/v1/status/tsdb").newBuilder();
+        params.forEach(urlBuilder::addQueryParameter);
+
+        Request request = new Request.Builder()
+                .url(urlBuilder.build())
+                .get()
+                .build();
+
+        return executeRequest(request);
+    }
+
+    /**
+     * 导出数据，响应体交给 reader 流式读取，不会整体缓存在内存中
+     * 使用 /api/v1/export（JSON行）或 /api/v1/export/native（原生二进制）接口
+     *
+     * @param nativeFormat 是否使用原生格式
+     * @param params       查询参数，例如 match[]、start、end
+     * @param reader       响应体读取逻辑
+     * @return reader 的读取结果
+     */
+    public <T> T export(boolean nativeFormat, Map<String, String> params, ResponseReader<T> reader)
+            throws IOException {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl
+                + (nativeFormat ? "/api/v1/export/native" : "/api/v1/export")).newBuilder();
+        params.forEach(urlBuilder::addQueryParameter);
+
+        Request request = new Request.Builder()
+                .url(urlBuilder.build())
+                .get()
+                .build();
+
+        return stream(request, reader);
+    }
+
+    /**
+     * 导入此前导出的文件，请求体直接从文件读取
+     * 使用 /api/v1/import/native 或 /api/v1/import（JSON行）接口
+     *
+     * @param file         导出文件
+     * @param nativeFormat 文件是否为原生格式
+     * @return 导入操作响应
+     */
+    public String importFile(File file, boolean nativeFormat) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + (nativeFormat ? "/api/v1/import/native" : "/api/v1/import"))
+                .post(RequestBody.create(file, MediaType.parse("application/octet-stream")))
+                .build();
+
         return executeRequest(request);
     }
 
@@ -191,10 +513,19 @@ public class VictoriaMetricsClient {
      * @param request HTTP 请求
      * @return 响应内容
      */
+    private <T> T stream(Request request, ResponseReader<T> reader) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code());
+            }
+            return reader.read(response.body().source());
+        }
+    }
+
     private String executeRequest(Request request) throws IOException {
         try (Response response = client.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("请求失败: " + response.code());
+                throw new HttpStatusException(response.code());
             }
             return response.body().string();
         }
@@ -0,0 +1,105 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerAssignment;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerProgress;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式压测工作节点客户端
+ * 协调节点通过它向工作节点分配任务、拉取进度和最终结果
+ */
+public class WorkerClient {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final OkHttpClient client;
+    private final ObjectMapper objectMapper;
+
+    public WorkerClient() {
+        this.client = new OkHttpClient.Builder()
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .build();
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 检查工作节点是否已就绪
+     *
+     * @param baseUrl 工作节点地址
+     * @return 是否就绪
+     */
+    public boolean isReady(String baseUrl) {
+        Request request = new Request.Builder().url(baseUrl + "/api/worker/ready").get().build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.isSuccessful();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 分配任务
+     *
+     * @param baseUrl    工作节点地址
+     * @param assignment 任务描述
+     */
+    public void assign(String baseUrl, WorkerAssignment assignment) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + "/api/worker/runs")
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(assignment), JSON))
+                .build();
+        execute(request);
+    }
+
+    /**
+     * 拉取进度
+     *
+     * @param baseUrl    工作节点地址
+     * @param runId      运行ID
+     * @param fromSecond 起始秒
+     * @return 进度
+     */
+    public WorkerProgress progress(String baseUrl, String runId, int fromSecond) throws IOException {
+        HttpUrl url = HttpUrl.parse(baseUrl + "/api/worker/runs/" + runId + "/progress").newBuilder()
+                .addQueryParameter("fromSecond", String.valueOf(fromSecond))
+                .build();
+        return objectMapper.readValue(execute(new Request.Builder().url(url).get().build()), WorkerProgress.class);
+    }
+
+    /**
+     * 获取最终结果
+     *
+     * @param baseUrl 工作节点地址
+     * @param runId   运行ID
+     * @return 压测结果
+     */
+    public BenchmarkResult result(String baseUrl, String runId) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + "/api/worker/runs/" + runId + "/result")
+                .get()
+                .build();
+        return objectMapper.readValue(execute(request), BenchmarkResult.class);
+    }
+
+    private byte[] execute(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code());
+            }
+            return response.body().bytes();
+        }
+    }
+}
@@ -28,7 +28,8 @@ $(document).ready(function () {
         TEST_CONNECTION: '/api/benchmark/test-connection',
         EXECUTE_QUERY: '/api/benchmark/query',
         CHECK_HEALTH: '/api/benchmark/health',
-        RUN_QUERY_TEST: '/api/benchmark/query-test'  // 新增查询测试接口
+        RUN_QUERY_TEST: '/api/benchmark/query-test',  // 新增查询测试接口
+        RUN_TIMELINE: '/api/benchmark/runs/{runId}/timeline'
     };
 
     // 全局变量，存储查询测试结果
@@ -144,6 +145,12 @@ $(document).ready(function () {
         config.concurrency = parseInt($('#concurrency').val());
         config.metricPrefix = $('#metricPrefix').val();
         config.apiType = $('#apiType').val();
+        config.durationSeconds = parseInt($('#durationSeconds').val()) || null;
+        config.warmupSeconds = parseInt($('#warmupSeconds').val()) || 0;
+        config.adaptiveConcurrency = $('#adaptiveConcurrency').is(':checked');
+        config.freshnessProbe = $('#freshnessProbe').is(':checked');
+        config.storageTracking = $('#storageTracking').is(':checked');
+        config.maxConcurrency = parseInt($('#maxConcurrency').val()) || null;
     }
 
     // 测试与VictoriaMetrics的连接
@@ -446,7 +453,7 @@ $(document).ready(function () {
             return false;
         }
 
-        if (!config.dataCount || config.dataCount <= 0) {
+        if (!config.durationSeconds && (!config.dataCount || config.dataCount <= 0)) {
             alert('请输入有效的数据总量');
             return false;
         }
@@ -466,13 +473,21 @@ $(document).ready(function () {
 
     // 清空结果显示
     function clearResults() {
+        $('#timelineCard').hide();
         $('#totalRequests').text('-');
         $('#successRequests').text('-');
         $('#failedRequests').text('-');
         $('#totalTime').text('-');
+        $('#latencyPercentiles').text('-');
+        $('#requestPhases').text('-');
+        $('#steadyState').text('-');
+        $('#convergedConcurrency').text('-');
+        $('#tailPhase').text('-');
+        $('#freshness').text('-');
         $('#cpuUsage').text('-');
         $('#memoryUsage').text('-');
         $('#storageUsage').text('-');
+        $('#storageEfficiency').text('-');
     }
 
     // 显示压测结果
@@ -481,9 +496,144 @@ $(document).ready(function () {
         $('#successRequests').text(result.successRequests);
         $('#failedRequests').text(result.failedRequests);
         $('#totalTime').text(formatTime(result.totalTimeMillis));
+        $('#latencyPercentiles').text(formatTime(result.p50ResponseTimeMillis) + ' / ' + formatTime(result.p99ResponseTimeMillis));
+        $('#requestPhases').text(formatRequestPhases(result.requestPhases));
+        $('#steadyState').text(formatSteadyState(result));
+        $('#tailPhase').text(formatTime(result.tailPhaseMillis) + formatWorkerSpread(result.workerStats));
+        $('#convergedConcurrency').text(result.adaptiveConcurrency
+            ? result.convergedConcurrencyLimit.toFixed(1) + '（峰值 ' + result.peakConcurrencyLimit + '）'
+            : '未启用');
+        $('#freshness').text(result.freshness
+            ? formatTime(result.freshness.p50Millis) + ' / ' + formatTime(result.freshness.p99Millis)
+                + '（超时 ' + result.freshness.markersTimedOut + '）'
+            : '未启用');
         $('#cpuUsage').text(result.cpuUsagePercent.toFixed(2) + '%');
         $('#memoryUsage').text(result.memoryUsagePercent.toFixed(2) + '%');
         $('#storageUsage').text(result.storageUsageMB.toFixed(2) + ' MB');
+        $('#storageEfficiency').text(formatStorage(result.storage));
+        if (result.runId) {
+            loadTimeline(result.runId);
+        }
+    }
+
+    // 按画布宽度请求降采样后的时间线并绘制，长时间运行也只传输约一个像素一个点
+    function loadTimeline(runId) {
+        $('#timelineCard').show();
+        const width = Math.max(100, Math.floor($('#throughputChart').width()));
+        $.ajax({
+            url: API.RUN_TIMELINE.replace('{runId}', encodeURIComponent(runId)) + '?width=' + width,
+            type: 'GET',
+            success: function (response) {
+                if (!response.success) {
+                    $('#timelineCard').hide();
+                    return;
+                }
+                const series = {};
+                response.chart.series.forEach(s => series[s.name] = s);
+                const seconds = Math.max(1, response.chart.totalSeconds);
+                drawChart('throughputChart', seconds, [
+                    { data: series.samples, color: '#0d6efd' },
+                    { data: series.errors, color: '#dc3545' }
+                ]);
+                drawChart('latencyChart', seconds, [
+                    { data: series.p50Millis, color: '#198754' },
+                    { data: series.p99Millis, color: '#fd7e14' }
+                ]);
+            },
+            error: function () {
+                $('#timelineCard').hide();
+            }
+        });
+    }
+
+    // 在画布上绘制折线，横轴为秒，纵轴从0到所有曲线的最大值
+    function drawChart(canvasId, totalSeconds, lines) {
+        const canvas = document.getElementById(canvasId);
+        canvas.width = canvas.clientWidth;
+        const ctx = canvas.getContext('2d');
+        const left = 50;
+        const bottom = canvas.height - 20;
+        const plotWidth = canvas.width - left - 10;
+        ctx.clearRect(0, 0, canvas.width, canvas.height);
+
+        let max = 0;
+        lines.forEach(line => {
+            if (line.data) {
+                line.data.values.forEach(v => max = Math.max(max, v));
+            }
+        });
+        max = max > 0 ? max : 1;
+
+        ctx.strokeStyle = '#ccc';
+        ctx.fillStyle = '#666';
+        ctx.font = '11px sans-serif';
+        ctx.beginPath();
+        ctx.moveTo(left, 10);
+        ctx.lineTo(left, bottom);
+        ctx.lineTo(left + plotWidth, bottom);
+        ctx.stroke();
+        ctx.fillText(max.toFixed(max < 10 ? 2 : 0), 2, 14);
+        ctx.fillText('0', 2, bottom);
+        ctx.fillText(totalSeconds + ' 秒', left + plotWidth - 40, canvas.height - 4);
+
+        lines.forEach(line => {
+            if (!line.data || line.data.seconds.length === 0) {
+                return;
+            }
+            ctx.strokeStyle = line.color;
+            ctx.beginPath();
+            line.data.seconds.forEach((second, i) => {
+                const x = left + plotWidth * second / totalSeconds;
+                const y = bottom - (bottom - 10) * line.data.values[i] / max;
+                if (i === 0) {
+                    ctx.moveTo(x, y);
+                } else {
+                    ctx.lineTo(x, y);
+                }
+            });
+            ctx.stroke();
+        });
+    }
+
+    // 格式化每个数据点的存储字节数（不含索引 / 含索引）与相对写入格式的压缩比
+    function formatStorage(storage) {
+        if (!storage) {
+            return '未启用';
+        }
+        return storage.bytesPerSample.toFixed(2) + ' / ' + storage.totalBytesPerSample.toFixed(2) + ' 字节，压缩比 '
+            + storage.compressionRatio.toFixed(1) + (storage.mergesSettled ? '' : '（合并未完成）');
+    }
+
+    // 格式化获取连接与首字节（服务端处理）的P99，以及连接复用率
+    function formatRequestPhases(phases) {
+        if (!phases || !phases.phases) {
+            return '-';
+        }
+        const p99 = name => {
+            const phase = phases.phases.find(p => p.phase === name);
+            return phase ? formatTime(phase.p99Millis) : '-';
+        };
+        return p99('acquire') + ' / ' + p99('ttfb') + '，复用 ' + (phases.connectionReuseRate * 100).toFixed(1) + '%';
+    }
+
+    // 格式化稳态吞吐与区间，未检测到稳态时显示预热之后的平均吞吐
+    function formatSteadyState(result) {
+        const rate = (result.writeRate || 0).toFixed(0) + ' 点/秒';
+        const warmup = result.warmupMillis > 0 ? '，预热 ' + formatTime(result.warmupMillis) : '';
+        const window = result.steadyState;
+        if (!window || !window.detected) {
+            return rate + '（未检测到稳态' + warmup + '）';
+        }
+        return rate + '（第 ' + window.startSecond + ' ~ ' + window.endSecond + ' 秒' + warmup + '）';
+    }
+
+    // 格式化线程吞吐的最小/最大值，便于发现倾斜
+    function formatWorkerSpread(workerStats) {
+        if (!workerStats || workerStats.length === 0) {
+            return '';
+        }
+        const rates = workerStats.map(w => w.samplesPerSecond);
+        return ' / ' + Math.min(...rates).toFixed(0) + ' ~ ' + Math.max(...rates).toFixed(0) + ' 点/秒';
     }
 
     // 格式化时间显示
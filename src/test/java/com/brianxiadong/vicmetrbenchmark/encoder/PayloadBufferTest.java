@@ -0,0 +1,92 @@
+package com.brianxiadong.vicmetrbenchmark.encoder;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PayloadBuffer 与 PayloadBufferPool 的单元测试类
+ */
+public class PayloadBufferTest {
+
+    @Test
+    void testNumbersAreEncodedAsAscii() {
+        PayloadBuffer buffer = new PayloadBuffer(64, false);
+        buffer.putLong(0).put((byte) ' ')
+                .putLong(-42).put((byte) ' ')
+                .putLong(Long.MIN_VALUE).put((byte) ' ')
+                .putDecimal(3.14159, 3).put((byte) ' ')
+                .putDecimal(-0.05, 2).put((byte) ' ')
+                .putDecimal(99.9999, 3);
+
+        assertEquals("0 -42 -9223372036854775808 3.142 -0.05 100.000",
+                new String(buffer.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testLargeDecimalFallsBackToDoubleToString() {
+        PayloadBuffer buffer = new PayloadBuffer(64, false);
+        buffer.putDecimal(1e20, 6).put((byte) ' ').putDecimal(-1e20, 6).put((byte) ' ').putDecimal(12345.5, 1);
+
+        assertEquals("1.0E20 -1.0E20 12345.5", new String(buffer.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testNonAsciiTextIsEncodedAsUtf8() {
+        PayloadBuffer buffer = new PayloadBuffer(64, false);
+        buffer.putAscii("host=").putAscii("北京-µ😀").putAscii("!");
+
+        assertEquals("host=北京-µ😀!", new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBufferGrowsAndKeepsContent() {
+        PayloadBuffer buffer = new PayloadBuffer(64, true);
+        for (int i = 0; i < 100; i++) {
+            buffer.putAscii("abcdefghij");
+        }
+        assertEquals(1000, buffer.size());
+        assertTrue(buffer.getGrowCount() > 0);
+        assertEquals(1000, buffer.readView().remaining());
+        assertEquals(1000, buffer.readView().remaining());
+    }
+
+    @Test
+    void testPoolReusesReleasedBuffers() {
+        PayloadBufferPool pool = new PayloadBufferPool(2, 256, false);
+        PayloadBuffer first = pool.acquire();
+        first.putAscii("payload");
+        pool.release(first);
+
+        PayloadBuffer second = pool.acquire();
+        assertSame(first, second);
+        assertEquals(0, second.size());
+        assertEquals(1, pool.getAllocations());
+        assertEquals(1, pool.getReuses());
+    }
+
+    @Test
+    void testInfluxEncoderSplitsFieldsAcrossLines() {
+        PayloadBuffer buffer = new PayloadBuffer(64, false);
+        new InfluxLineEncoder("m", 3, "s").encode(buffer, 1, 2, 5, 1700000000123L);
+
+        String[] lines = new String(buffer.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("m,thread_id=1,batch_id=2,index=0,test_id=benchmark_test field0="));
+        assertTrue(lines[0].contains(",field1=") && lines[0].contains(",field2="));
+        assertTrue(lines[0].endsWith(" 1700000000"));
+        assertTrue(lines[1].contains(",field1=") && !lines[1].contains("field2"));
+        assertEquals("us", InfluxLineEncoder.normalizePrecision("u"));
+        assertEquals(1700000000123000L, new InfluxLineEncoder("m", 1, "us").scaleTimestamp(1700000000123L));
+    }
+
+    @Test
+    void testInfluxPrecisionMinutesHoursAndUnknown() {
+        assertEquals(28333333L, new InfluxLineEncoder("m", 1, "m").scaleTimestamp(1700000000123L));
+        assertEquals(472222L, new InfluxLineEncoder("m", 1, "h").scaleTimestamp(1700000000123L));
+        assertEquals("ns", InfluxLineEncoder.normalizePrecision(null));
+        assertThrows(IllegalArgumentException.class, () -> InfluxLineEncoder.normalizePrecision("d"));
+    }
+}
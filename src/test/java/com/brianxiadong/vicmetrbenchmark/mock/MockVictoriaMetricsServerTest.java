@@ -0,0 +1,171 @@
+package com.brianxiadong.vicmetrbenchmark.mock;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.OtlpMetricsEncoder;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.service.BenchmarkResultStore;
+import com.brianxiadong.vicmetrbenchmark.service.ExportBenchmarkService;
+import com.brianxiadong.vicmetrbenchmark.service.VictoriaMetricsService;
+import com.brianxiadong.vicmetrbenchmark.utils.HttpStatusException;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockVictoriaMetricsServer 的测试类
+ */
+public class MockVictoriaMetricsServerTest {
+
+    private MockVictoriaMetricsServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private VictoriaMetricsClient start(MockTargetConfig config) throws IOException {
+        server = new MockVictoriaMetricsServer(config);
+        server.start();
+        return new VictoriaMetricsClient("127.0.0.1", server.getPort());
+    }
+
+    @Test
+    void testWriteCountAndDeleteSeries() throws IOException {
+        VictoriaMetricsClient client = start(new MockTargetConfig());
+
+        PayloadBuffer payload = new PayloadBuffer(256, false);
+        for (int i = 0; i < 10; i++) {
+            payload.putAscii("mock_test_metric{id=\"").putLong(i % 5).putAscii("\"} 1 1700000000000\n");
+        }
+        client.writeData(payload, "prometheus");
+        client.writeData("mock_test_influx,host=a value=1,load=2 1700000000000000000\n", "influx");
+
+        assertEquals(12, server.getRowsInserted());
+        assertTrue(client.queryTotalCount().contains("[7]"));
+        assertTrue(client.query("count({__name__=~\"mock_test_.+\"})").contains("\"7\""));
+        assertTrue(client.query("count(mock_test_influx_load)").contains("\"1\""));
+
+        client.deleteSeries("{__name__=~\"mock_test_metric\"}");
+        assertTrue(client.queryTotalCount().contains("[2]"));
+        assertTrue(client.getMetrics().contains("vm_rows_inserted_total{type=\"prometheus\"} 10"));
+    }
+
+    @Test
+    void testTenantWritesAreCountedPerAccount() throws IOException {
+        VictoriaMetricsClient client = start(new MockTargetConfig());
+
+        PayloadBuffer payload = new PayloadBuffer(256, false);
+        payload.putAscii("mock_tenant{id=\"1\"} 1\nmock_tenant{id=\"2\"} 1\n");
+        client.writeData(payload, "prometheus", Collections.emptyMap(), false, "1");
+        client.writeData(payload, "prometheus", Collections.emptyMap(), false, "2:7");
+        payload.clear();
+        payload.putAscii("mock_tenant,host=a value=1\n");
+        client.writeData(payload, "influx-write", Collections.emptyMap(), false, "1");
+
+        assertEquals(3L, server.getRowsByTenant().get("1"));
+        assertEquals(2L, server.getRowsByTenant().get("2:7"));
+        assertEquals(5, server.getRowsInserted());
+    }
+
+    @Test
+    void testOtlpPayloadsAreCountedByDataPoint() throws IOException {
+        VictoriaMetricsClient client = start(new MockTargetConfig());
+
+        PayloadBuffer payload = new PayloadBuffer(256, false);
+        new OtlpMetricsEncoder("mock_otlp", "gauge", 10, null).encode(payload, 3, 200, 150, 1700000000000L);
+        client.writeData(payload, "otlp", Collections.emptyMap(), true);
+        payload.clear();
+        new OtlpMetricsEncoder("mock_otlp", "histogram", 4, null).encode(payload, 1, 7, 20, 1700000000000L);
+        client.writeData(payload, "otlp", Collections.emptyMap(), false);
+
+        assertEquals(170, server.getRowsInserted());
+        assertTrue(client.getMetrics().contains("vm_rows_inserted_total{type=\"opentelemetry\"} 170"));
+    }
+
+    @Test
+    void testErrorInjectionAndThroughputCap() throws IOException {
+        MockTargetConfig failing = new MockTargetConfig();
+        failing.setErrorRate(1.0);
+        failing.setErrorStatus(503);
+        VictoriaMetricsClient client = start(failing);
+        HttpStatusException error = assertThrows(HttpStatusException.class,
+                () -> client.writeData("m 1\n", "prometheus"));
+        assertEquals(503, error.getStatusCode());
+        server.stop();
+
+        MockTargetConfig capped = new MockTargetConfig();
+        capped.setMaxSamplesPerSecond(10L);
+        VictoriaMetricsClient cappedClient = start(capped);
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            batch.append("m{i=\"").append(i).append("\"} 1\n");
+        }
+        // 第一批透支令牌桶，紧接着的第二批被拒绝
+        cappedClient.writeData(batch.toString(), "prometheus");
+        HttpStatusException throttled = assertThrows(HttpStatusException.class,
+                () -> cappedClient.writeData("m 1\n", "prometheus"));
+        assertTrue(throttled.isOverload());
+        assertEquals(30, server.getRowsInserted());
+    }
+
+    @Test
+    void testLatencyDistributionDelaysResponses() throws IOException {
+        MockTargetConfig config = new MockTargetConfig();
+        config.setLatencyDistribution("fixed");
+        config.setLatencyMillis(50.0);
+        VictoriaMetricsClient client = start(config);
+
+        long start = System.nanoTime();
+        client.writeData("m 1\n", "prometheus");
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+        assertThrows(IllegalArgumentException.class, () -> {
+            MockTargetConfig invalid = new MockTargetConfig();
+            invalid.setLatencyDistribution("pareto");
+            new MockVictoriaMetricsServer(invalid);
+        });
+    }
+
+    @Test
+    void testExportStreamsAndReimports() throws IOException {
+        VictoriaMetricsClient client = start(new MockTargetConfig());
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            batch.append("export_m").append(i % 2).append("{id=\"").append(i).append("\"} 1\n");
+        }
+        client.writeData(batch.toString(), "prometheus");
+
+        ExportBenchmarkRequest request = new ExportBenchmarkRequest();
+        request.setRunId("export-test");
+        request.setMatchers(Arrays.asList("{__name__=\"export_m0\"}", "{__name__=\"export_m1\"}"));
+        request.setTimeShards(1);
+        request.setCapture(true);
+        request.setReimport(true);
+        ExportBenchmarkService exportService = new ExportBenchmarkService(client, new VictoriaMetricsService(),
+                new BenchmarkResultStore("target/benchmark-results"));
+        ExportBenchmarkResult result = exportService.run(request);
+
+        assertNull(result.getErrorMessage());
+        assertEquals(0, result.getFailedShards());
+        assertEquals(2, result.getShards().size());
+        assertEquals(6, result.getTotalSeries());
+        assertEquals(6, result.getTotalSamples());
+        assertEquals(3, result.getShards().get(0).getSamples());
+        File captured = new File(result.getShards().get(0).getCaptureFile());
+        assertEquals(result.getShards().get(0).getBytes(), captured.length());
+        assertNull(result.getReimportErrorMessage());
+        assertEquals(result.getTotalBytes(), result.getReimportBytes());
+        // 写入6行，重新导入6行JSON
+        assertEquals(12, server.getRowsInserted());
+    }
+}
@@ -0,0 +1,76 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityRequest;
+import com.brianxiadong.vicmetrbenchmark.model.CardinalityStats;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * CardinalityService 的测试类
+ */
+public class CardinalityServiceTest {
+
+    @Test
+    void testCardinalityFromTsdbStatus() throws IOException {
+        MockVictoriaMetricsServer server = new MockVictoriaMetricsServer(new MockTargetConfig());
+        server.start();
+        try {
+            VictoriaMetricsClient client = new VictoriaMetricsClient("127.0.0.1", server.getPort());
+            StringBuilder batch = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                batch.append("card_a").append(i % 2).append("{id=\"").append(i).append("\"} 1\n");
+            }
+            batch.append("card_b{id=\"0\"} 1\n");
+            client.writeData(batch.toString(), "prometheus");
+
+            CardinalityRequest request = new CardinalityRequest();
+            request.setTopN(1);
+            request.setPrefixes(Arrays.asList("card_a", "card_c"));
+            CardinalityStats stats = new CardinalityService(client).inspect(request);
+
+            assertNull(stats.getErrorMessage());
+            assertEquals(7, stats.getTotalSeries());
+            assertEquals(1, stats.getTopMetricNames().size());
+            assertEquals(3, stats.getTopMetricNames().get(0).getValue());
+            assertEquals(6, stats.getSeriesByPrefix().get("card_a"));
+            assertEquals(0, stats.getSeriesByPrefix().get("card_c"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testTruncatedRankingFallsBackToRegexCount() throws IOException {
+        VictoriaMetricsClient client = mock(VictoriaMetricsClient.class);
+        CardinalityService service = new CardinalityService(client);
+
+        // 旧版本没有 totalSeries，排行不满 topN 时求和就是准确值
+        when(client.tsdbStatus(anyMap())).thenReturn(tsdbStatus(3));
+        assertEquals(3, service.countPrefix("old_", null));
+
+        // 排行达到 topN=1000 时可能被截断，返回-1 让调用方改用 count({__name__=~"prefix.+"})
+        when(client.tsdbStatus(anyMap())).thenReturn(tsdbStatus(1000));
+        assertEquals(-1, service.countPrefix("old_", null));
+
+        when(client.tsdbStatus(anyMap())).thenThrow(new IOException("connection refused"));
+        assertEquals(-1, service.countPrefix("old_", null));
+    }
+
+    private static String tsdbStatus(int metricNames) {
+        StringBuilder entries = new StringBuilder();
+        for (int i = 0; i < metricNames; i++) {
+            entries.append(i == 0 ? "" : ",").append("{\"name\":\"old_m").append(i).append("\",\"value\":1}");
+        }
+        return "{\"status\":\"success\",\"data\":{\"seriesCountByMetricName\":[" + entries + "]}}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.VicMetrBenchmarkApplication;
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.DistributedBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CoordinatorService 的集成测试类
+ * 在本机启动两个工作节点应用与内置模拟目标，验证拆分、同步起跑与结果合并
+ */
+public class CoordinatorServiceTest {
+
+    private MockVictoriaMetricsServer target;
+    private final List<ConfigurableApplicationContext> workers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        target = new MockVictoriaMetricsServer(new MockTargetConfig());
+        target.start();
+
+        for (int i = 0; i < 2; i++) {
+            workers.add(new SpringApplicationBuilder(VicMetrBenchmarkApplication.class)
+                    .run("--server.port=0",
+                            "--victoriametrics.host=127.0.0.1",
+                            "--victoriametrics.port=" + target.getPort(),
+                            "--benchmark.result-store.dir=target/benchmark-results",
+                            "--spring.devtools.restart.enabled=false"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.forEach(ConfigurableApplicationContext::close);
+        target.stop();
+    }
+
+    @Test
+    void testDistributedRunMergesWorkerResults() {
+        BenchmarkRequest request = new BenchmarkRequest();
+        request.setDataCount(10_001L);
+        request.setBatchSize(100);
+        request.setConcurrency(4);
+        request.setMetricPrefix("coordinator_test");
+
+        DistributedBenchmarkRequest distributedRequest = new DistributedBenchmarkRequest();
+        distributedRequest.setRequest(request);
+        distributedRequest.setWorkers(Arrays.asList(workerUrl(0), workerUrl(1)));
+        distributedRequest.setStartDelayMillis(500L);
+
+        CoordinatorService coordinator = workers.get(0).getBean(CoordinatorService.class);
+        BenchmarkResult result = coordinator.runDistributed(distributedRequest);
+
+        assertNull(result.getErrorMessage());
+        assertEquals(2, result.getDistributedWorkers());
+        assertEquals(10_001, result.getSuccessRequests());
+        assertEquals(10_001, target.getRowsInserted());
+        assertEquals(4, result.getWorkerStats().size());
+        long timelineSamples = Arrays.stream(result.getTimeline().getSamples()).sum();
+        assertEquals(10_001, timelineSamples);
+        assertTrue(result.getP99ResponseTimeMillis() >= result.getP50ResponseTimeMillis());
+    }
+
+    @Test
+    void testSplitRequestDividesRateLimit() {
+        BenchmarkRequest request = new BenchmarkRequest();
+        request.setDataCount(1001L);
+        request.setConcurrency(3);
+        request.setSamplesPerSecond(9000.0);
+        request.setRunId("split");
+
+        CoordinatorService coordinator = workers.get(0).getBean(CoordinatorService.class);
+        BenchmarkRequest first = coordinator.splitRequest(request, 0, 3);
+        BenchmarkRequest last = coordinator.splitRequest(request, 2, 3);
+
+        // 各节点速率之和等于配置的速率上限
+        assertEquals(3000.0, first.getSamplesPerSecond(), 1e-9);
+        assertEquals(3000.0, last.getSamplesPerSecond(), 1e-9);
+        assertEquals(334L, first.getDataCount());
+        assertEquals(333L, last.getDataCount());
+        assertEquals(9000.0, request.getSamplesPerSecond(), 1e-9);
+
+        request.setSamplesPerSecond(null);
+        assertNull(coordinator.splitRequest(request, 0, 3).getSamplesPerSecond());
+    }
+
+    private String workerUrl(int index) {
+        return "http://127.0.0.1:" + workers.get(index).getEnvironment().getProperty("local.server.port");
+    }
+}
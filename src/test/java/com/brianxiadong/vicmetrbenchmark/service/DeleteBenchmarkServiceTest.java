@@ -0,0 +1,130 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.VicMetrBenchmarkApplication;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.DeleteBenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.utils.ResponseReader;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import okio.Buffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DeleteBenchmarkService 的测试类
+ */
+@SpringBootTest(classes = VicMetrBenchmarkApplication.class)
+@TestPropertySource(properties = {
+        "spring.main.allow-bean-definition-overriding=true",
+        "benchmark.result-store.dir=target/benchmark-results"
+})
+public class DeleteBenchmarkServiceTest {
+
+    @Autowired
+    private DeleteBenchmarkService deleteBenchmarkService;
+
+    @MockBean
+    private VictoriaMetricsClient victoriaMetricsClient;
+
+    private BenchmarkRequest benchmarkRequest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        benchmarkRequest = new BenchmarkRequest();
+        benchmarkRequest.setDataCount(1000L);
+        benchmarkRequest.setBatchSize(100);
+        benchmarkRequest.setConcurrency(10);
+        benchmarkRequest.setMetricPrefix("test_metric");
+
+        when(victoriaMetricsClient.getMetrics()).thenReturn("vm_rows{type=\"indexdb\"} 1000\n");
+        when(victoriaMetricsClient.deleteSeries(any())).thenReturn("{}");
+    }
+
+    /**
+     * 用真实响应体驱动传入的流式读取器
+     */
+    private static Object read(InvocationOnMock invocation, String body) throws IOException {
+        ResponseReader<?> reader = invocation.getArgument(2);
+        return reader.read(new Buffer().writeUtf8(body));
+    }
+
+    private static String vector(Object value) {
+        return "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                + (value != null ? "{\"metric\":{},\"value\":[0,\"" + value + "\"]}" : "") + "]}}";
+    }
+
+    @Test
+    void testDeleteBenchmarkPollsUntilInvisible() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        // 删除前两个分片各有5条序列，第一轮轮询只有第二个分片变为不可见
+        AtomicInteger queries = new AtomicInteger();
+        when(victoriaMetricsClient.query(anyString(), anyMap(), any(ResponseReader.class))).thenAnswer(
+                invocation -> read(invocation, vector(queries.incrementAndGet() <= 3 ? 5 : null)));
+        DeleteBenchmarkRequest request = new DeleteBenchmarkRequest();
+        request.setMetricPrefix("delete_metric");
+        request.setShards(2);
+        request.setPollInitialMillis(10L);
+        request.setIngestion(benchmarkRequest);
+        request.setIngestionWarmupSeconds(1);
+        request.setIngestionCooldownSeconds(0);
+        benchmarkRequest.setDataCount(null);
+
+        DeleteBenchmarkResult result = deleteBenchmarkService.run(request);
+
+        assertNull(result.getErrorMessage());
+        assertTrue(result.isCompleted());
+        assertEquals(10, result.getSeriesBefore());
+        assertEquals("{__name__=~\"delete_metric.+\",batch_id=~\".*[02468]\"}", result.getShards().get(0).getMatcher());
+        assertEquals(2, result.getShards().get(0).getPolls());
+        assertEquals(1, result.getShards().get(1).getPolls());
+        assertTrue(result.getSeriesPerSecond() > 0);
+        assertTrue(result.getIngestionBefore().getBatches() > 0);
+        assertTrue(result.getIngestionResult().getTotalTimeMillis() < 60_000);
+        // 按时间范围计数，删除前很久写入的数据集也能统计到
+        verify(victoriaMetricsClient, atLeastOnce()).query(
+                eq("count(last_over_time({__name__=~\"delete_metric.+\",batch_id=~\".*[02468]\"}[86400s]))"),
+                anyMap(), any(ResponseReader.class));
+    }
+
+    @Test
+    void testDeleteBenchmarkDoesNotCountFailedPollsAsDeleted() throws IOException {
+        // 删除前每个分片3条序列，之后的计数查询都返回错误
+        AtomicInteger queries = new AtomicInteger();
+        when(victoriaMetricsClient.query(anyString(), anyMap(), any(ResponseReader.class))).thenAnswer(
+                invocation -> read(invocation, queries.incrementAndGet() <= 2 ? vector(3)
+                        : "{\"status\":\"error\",\"errorType\":\"timeout\",\"error\":\"deadline exceeded\"}"));
+        DeleteBenchmarkRequest request = new DeleteBenchmarkRequest();
+        request.setMetricPrefix("delete_metric");
+        request.setShards(2);
+        request.setPollInitialMillis(10L);
+        request.setPollMaxMillis(100L);
+        request.setTimeoutSeconds(1);
+
+        DeleteBenchmarkResult result = deleteBenchmarkService.run(request);
+
+        assertFalse(result.isCompleted());
+        assertEquals(6L, result.getSeriesBefore());
+        assertNull(result.getSeriesRemaining());
+        assertNull(result.getShards().get(0).getSeriesRemaining());
+        assertTrue(result.getErrorMessage().contains("未知"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.ExportBenchmarkRequest;
+import com.brianxiadong.vicmetrbenchmark.model.ExportShardResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExportBenchmarkService 时间窗口切分的测试类
+ */
+public class ExportBenchmarkServiceTest {
+
+    @Test
+    void testTimeWindowsCoverRangeWithoutGapsOrOverlap() {
+        ExportBenchmarkRequest request = new ExportBenchmarkRequest();
+        request.setMatchers(Collections.singletonList("{__name__=\"m\"}"));
+        request.setStartSeconds(1700000000L);
+        request.setEndSeconds(1700000010L);
+        request.setTimeShards(3);
+
+        List<ExportShardResult> shards = ExportBenchmarkService.buildShards(request);
+
+        assertEquals(3, shards.size());
+        assertEquals(1700000000000L, shards.get(0).getStartMillis());
+        assertEquals(1700000010000L, shards.get(shards.size() - 1).getEndMillis());
+        for (int i = 1; i < shards.size(); i++) {
+            // 闭区间首尾相接：下一个窗口从上一个窗口结束后的那一毫秒开始
+            assertEquals(shards.get(i - 1).getEndMillis() + 1, shards.get(i).getStartMillis());
+            assertTrue(shards.get(i).getStartMillis() <= shards.get(i).getEndMillis());
+        }
+        assertEquals("1700000003.332", ExportBenchmarkService.toSeconds(shards.get(0).getEndMillis()));
+    }
+}
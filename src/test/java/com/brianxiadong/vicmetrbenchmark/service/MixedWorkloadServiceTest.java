@@ -0,0 +1,121 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.ActorResult;
+import com.brianxiadong.vicmetrbenchmark.model.CorrelationResult;
+import com.brianxiadong.vicmetrbenchmark.model.MixedActorConfig;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MixedWorkloadResult;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.utils.StatisticsUtils;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MixedWorkloadService 的测试类
+ */
+public class MixedWorkloadServiceTest {
+
+    @Test
+    void testLaggedCorrelation() {
+        double[] x = { 1, 5, 2, 8, 3, 9, 4, 7 };
+        double[] shifted = { 0, 0, 1, 5, 2, 8, 3, 9 };
+        // y 滞后 x 两秒，lag=2 时完全相关
+        assertEquals(1.0, StatisticsUtils.laggedCorrelation(x, shifted, 2), 1e-9);
+        assertTrue(StatisticsUtils.laggedCorrelation(x, shifted, 0) < 0.9);
+        // NaN 的秒不参与计算，点数不足或方差为0时无结果
+        double[] gaps = { 2, Double.NaN, 4, 16, 6, 18, 8, 14 };
+        assertEquals(1.0, StatisticsUtils.laggedCorrelation(x, gaps, 0), 1e-9);
+        assertTrue(Double.isNaN(StatisticsUtils.laggedCorrelation(x, new double[8], 0)));
+        assertTrue(Double.isNaN(StatisticsUtils.laggedCorrelation(x, x, 6)));
+    }
+
+    @Test
+    void testCorrelatePeakLag() {
+        ActorResult write = actor("write", new long[] { 1, 5, 2, 8, 3, 9, 4, 7 },
+                new double[] { 1, 1, 1, 1, 1, 1, 1, 1 });
+        ActorResult query = actor("query", new long[] { 10, 10, 10, 10, 10, 10, 10, 10 },
+                new double[] { -1, -1, 1, 5, 2, 8, 3, 9 });
+
+        List<CorrelationResult> correlations = MixedWorkloadService.correlate(Arrays.asList(write, query), 3);
+
+        assertEquals(4, correlations.size());
+        CorrelationResult writeToQueryP99 = correlations.get(1);
+        assertEquals("write", writeToQueryP99.getSource());
+        assertEquals("p99", writeToQueryP99.getTargetMetric());
+        assertEquals(2, writeToQueryP99.getPeakLagSeconds());
+        assertEquals(1.0, writeToQueryP99.getPeakCoefficient(), 1e-9);
+        assertEquals(4, writeToQueryP99.getCoefficientsByLag().length);
+        // 查询吞吐恒定，无法计算相关
+        assertNull(correlations.get(0).getCoefficient());
+        assertNull(correlations.get(0).getPeakCoefficient());
+    }
+
+    @Test
+    void testQueryAndExportActorsAgainstMockTarget() throws IOException {
+        MockVictoriaMetricsServer server = new MockVictoriaMetricsServer(new MockTargetConfig());
+        server.start();
+        try {
+            VictoriaMetricsClient client = new VictoriaMetricsClient("127.0.0.1", server.getPort());
+            client.writeData("mixed_a{id=\"1\"} 1\nmixed_a{id=\"2\"} 2\n", "prometheus");
+
+            MixedActorConfig query = new MixedActorConfig();
+            query.setType("query");
+            query.setConcurrency(2);
+            query.setQueries(Collections.singletonList("count({__name__=\"mixed_a\"})"));
+            MixedActorConfig export = new MixedActorConfig();
+            export.setName("exporter");
+            export.setType("export");
+            export.setRatePerSecond(20.0);
+            export.setMatchers(Collections.singletonList("{__name__=\"mixed_a\"}"));
+            MixedWorkloadRequest request = new MixedWorkloadRequest();
+            request.setDurationSeconds(2);
+            request.setActors(Arrays.asList(query, export));
+
+            MixedWorkloadResult result = new MixedWorkloadService(client, null).run(request);
+
+            assertNull(result.getErrorMessage());
+            assertEquals(2, result.getActors().size());
+            ActorResult queryResult = result.getActors().get(0);
+            assertEquals("query-1", queryResult.getName());
+            assertTrue(queryResult.getOperations() > 0);
+            assertEquals(0, queryResult.getErrors());
+            assertEquals(2, queryResult.getOperationsPerSecondSeries().length);
+            ActorResult exportResult = result.getActors().get(1);
+            assertEquals("exporter", exportResult.getName());
+            // 限速 20 次/秒，2秒内不会明显超出
+            assertTrue(exportResult.getOperations() > 0 && exportResult.getOperations() <= 45);
+            assertEquals(4, result.getCorrelations().size());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testRejectsInvalidActor() {
+        MixedActorConfig delete = new MixedActorConfig();
+        delete.setType("delete");
+        MixedWorkloadRequest request = new MixedWorkloadRequest();
+        request.setActors(Collections.singletonList(delete));
+
+        MixedWorkloadResult result = new MixedWorkloadService(null, null).run(request);
+
+        assertNotNull(result.getErrorMessage());
+        assertTrue(result.getActors().isEmpty());
+    }
+
+    private static ActorResult actor(String name, long[] operations, double[] p99) {
+        ActorResult actor = new ActorResult();
+        actor.setName(name);
+        actor.setOperationsPerSecondSeries(operations);
+        actor.setP99MillisSeries(p99);
+        return actor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.TenantResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MultiTenantService 公平性指数的测试类
+ */
+public class MultiTenantServiceTest {
+
+    @Test
+    void testFairnessUsesUtilizationWhenAllTenantsAreLimited() {
+        // 配额不同但都用满，视为完全公平
+        assertEquals(1.0, MultiTenantService.fairnessIndex(Arrays.asList(
+                tenant(1000, 1000.0), tenant(4000, 4000.0))), 1e-9);
+    }
+
+    @Test
+    void testFairnessUsesWriteRateWhenSomeTenantsAreUnlimited() {
+        // 一个限速租户用满配额、一个未限速租户：统一按速率计算，(1000 + 3000)² / (2 × (1000² + 3000²)) = 0.8
+        assertEquals(0.8, MultiTenantService.fairnessIndex(Arrays.asList(
+                tenant(1000, 1000.0), tenant(3000, null))), 1e-9);
+        assertNull(MultiTenantService.fairnessIndex(Collections.singletonList(tenant(0, null))));
+    }
+
+    private static TenantResult tenant(double writeRate, Double limit) {
+        TenantResult tenant = new TenantResult();
+        tenant.setWriteRate(writeRate);
+        tenant.setSamplesPerSecondLimit(limit);
+        if (limit != null) {
+            tenant.setLimitUtilization(writeRate / limit);
+        }
+        return tenant;
+    }
+}
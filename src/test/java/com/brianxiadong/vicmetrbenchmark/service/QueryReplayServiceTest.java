@@ -0,0 +1,123 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.FingerprintStats;
+import com.brianxiadong.vicmetrbenchmark.model.LoggedQuery;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayRequest;
+import com.brianxiadong.vicmetrbenchmark.model.QueryReplayResult;
+import com.brianxiadong.vicmetrbenchmark.utils.QueryLogParser;
+import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryReplayService 与 QueryLogParser 的测试类
+ */
+public class QueryReplayServiceTest {
+
+    private static final String SLOW_LOG = String.join("\n",
+            "2024-05-10T12:00:01.500Z\twarn\tVictoriaMetrics/app/vmselect/main.go:123\tslow query according to "
+                    + "-search.logSlowQueryDuration=5s: remoteAddr=\"10.0.0.1:5000\", duration=6.1 seconds; "
+                    + "query=\"sum(rate(http_requests_total{job=\\\"api\\\"}[5m]))\", start=1715338800000, "
+                    + "end=1715342400000, step=15000",
+            "2024-05-10T12:00:00.000Z\twarn\tVictoriaMetrics/app/vmselect/main.go:123\tslow query according to "
+                    + "-search.logSlowQueryDuration=5s: duration=5.2 seconds; "
+                    + "query=\"sum(rate(http_requests_total{job=\\\"web\\\"}[1m]))\", start=1715338200000, "
+                    + "end=1715341800000, step=30000",
+            "2024-05-10T12:00:02.000Z\tinfo\tsome unrelated line");
+
+    private static final String ACCESS_LOG = String.join("\n",
+            "{\"time\":\"2024-05-10T12:00:00Z\",\"url\":\"/api/v1/query_range?query=count(%7B__name__%3D~%22replay_.%2B%22%7D)"
+                    + "&start=1715338800&end=1715342400&step=60\"}",
+            "{\"time\":\"2024-05-10T12:00:00.020Z\",\"query\":\"count({__name__=~\\\"replay_.+\\\"})\","
+                    + "\"start\":1715338860,\"end\":1715342460,\"step\":\"1m\"}",
+            "{\"time\":\"2024-05-10T12:00:00.040Z\",\"query\":\"up\"}",
+            "not json");
+
+    @Test
+    void testParseSlowLogAndFingerprint() throws IOException {
+        QueryLogParser parser = new QueryLogParser("auto");
+        List<LoggedQuery> queries = parser.parse(new BufferedReader(new StringReader(SLOW_LOG)), 0);
+
+        assertEquals(QueryLogParser.FORMAT_VM_SLOW_LOG, parser.getDetectedFormat());
+        assertEquals(2, queries.size());
+        assertEquals(1, parser.getSkippedLines());
+        // 到达时间 = 完成时间 - duration，按到达时间排序，毫秒时间与步长换算为秒
+        LoggedQuery first = queries.get(0);
+        assertEquals(OffsetDateTime.parse("2024-05-10T11:59:54.800Z").toInstant().toEpochMilli(), first.getArrivalMillis());
+        assertEquals(OffsetDateTime.parse("2024-05-10T11:59:55.400Z").toInstant().toEpochMilli(),
+                queries.get(1).getArrivalMillis());
+        assertEquals("sum(rate(http_requests_total{job=\"web\"}[1m]))", first.getQuery());
+        assertEquals(1715338200L, first.getStartSeconds());
+        assertEquals(30L, first.getStepSeconds());
+        assertEquals(1715342400L, queries.get(1).getEndSeconds());
+        assertEquals(QueryLogParser.fingerprint(first.getQuery()), QueryLogParser.fingerprint(queries.get(1).getQuery()));
+        assertEquals("sum(rate(http_requests_total{job=\"?\"}[?]))", QueryLogParser.fingerprint(first.getQuery()));
+    }
+
+    @Test
+    void testMaxQueriesKeepsEarliestArrivals() throws IOException {
+        // 文件中第二行才是最早到达的查询
+        List<LoggedQuery> queries = new QueryLogParser("vmslowlog")
+                .parse(new BufferedReader(new StringReader(SLOW_LOG)), 1);
+
+        assertEquals(1, queries.size());
+        assertEquals("sum(rate(http_requests_total{job=\"web\"}[1m]))", queries.get(0).getQuery());
+    }
+
+    @Test
+    void testLogPathIsConfinedToLogDirectory(@TempDir Path tempDir) throws IOException {
+        Files.write(tempDir.resolve("slow.log"), SLOW_LOG.getBytes(StandardCharsets.UTF_8));
+        QueryReplayService service = new QueryReplayService(null, tempDir.toString());
+
+        assertEquals(tempDir.toRealPath().resolve("slow.log"), service.resolveLogPath("slow.log"));
+        assertThrows(IOException.class, () -> service.resolveLogPath("../slow.log"));
+        assertThrows(IOException.class, () -> service.resolveLogPath("/etc/passwd"));
+        assertThrows(IOException.class, () -> new QueryReplayService(null).resolveLogPath("slow.log"));
+    }
+
+    @Test
+    void testReplayAccessLogAgainstMockTarget() throws IOException {
+        MockVictoriaMetricsServer server = new MockVictoriaMetricsServer(new MockTargetConfig());
+        server.start();
+        try {
+            VictoriaMetricsClient client = new VictoriaMetricsClient("127.0.0.1", server.getPort());
+            client.writeData("replay_a{id=\"1\"} 1\nreplay_b{id=\"2\"} 1\n", "prometheus");
+
+            QueryReplayRequest request = new QueryReplayRequest();
+            request.setLogContent(ACCESS_LOG);
+            request.setSpeedUp(10.0);
+            request.setConcurrency(2);
+            request.setChecksum(true);
+            QueryReplayResult result = new QueryReplayService(client).replay(request);
+
+            assertNull(result.getErrorMessage());
+            assertEquals(QueryLogParser.FORMAT_JSONL, result.getFormat());
+            assertEquals(3, result.getQueriesParsed());
+            assertEquals(1, result.getLinesSkipped());
+            assertEquals(40, result.getOriginalSpanMillis());
+            assertEquals(3, result.getQueriesSent());
+            assertEquals(0, result.getErrors());
+            assertEquals(2, result.getDistinctFingerprints());
+            FingerprintStats count = result.getFingerprints().stream()
+                    .filter(f -> f.getFingerprint().startsWith("count")).findFirst().get();
+            assertEquals(2, count.getCount());
+            assertEquals(1.0, count.getMeanSeries());
+            assertNotNull(count.getLastChecksum());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.MetricComparison;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonRequest;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonResult;
+import com.brianxiadong.vicmetrbenchmark.model.RunSummary;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+import com.brianxiadong.vicmetrbenchmark.utils.LatencyHistogram;
+import com.brianxiadong.vicmetrbenchmark.utils.StatisticsUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RunComparisonService 的测试类
+ */
+public class RunComparisonServiceTest {
+
+    private BenchmarkResultStore store;
+    private RunComparisonService comparisonService;
+
+    @BeforeEach
+    void setUp() {
+        store = new BenchmarkResultStore("target/benchmark-results/comparison");
+        comparisonService = new RunComparisonService(store);
+    }
+
+    private void saveRun(String runId, long samples, long latencyMicros) {
+        saveRun(runId, samples, latencyMicros, 50_000_000.0);
+    }
+
+    private void saveRun(String runId, long samples, long latencyMicros, Double memoryGrowthBytes) {
+        BenchmarkResult result = new BenchmarkResult();
+        result.setRunId(runId);
+        result.setStatus("completed");
+        result.setSuccessRequests(samples);
+        result.setTotalTimeMillis(10_000);
+        result.setServerCpuSeconds(samples / 100_000.0);
+        result.setServerMemoryGrowthBytes(memoryGrowthBytes);
+        LatencyHistogram latency = new LatencyHistogram();
+        latency.recordCount(latencyMicros, 100);
+        result.setLatencyHistogram(latency.toCounts());
+        // 大时间线只用于验证摘要读取会跳过它
+        TimelineSeries timeline = new TimelineSeries();
+        timeline.setSamples(new long[100_000]);
+        result.setTimeline(timeline);
+        store.save(result);
+    }
+
+    @Test
+    void testSummarySkipsLargeFields() {
+        saveRun("summary-run", 1_000_000, 5_000);
+
+        RunSummary summary = store.loadSummary("summary-run");
+
+        assertEquals(1_000_000, summary.getSuccessRequests());
+        assertEquals(10, summary.getServerCpuSeconds(), 1e-9);
+        assertNotNull(summary.getLatencyHistogram());
+    }
+
+    @Test
+    void testDetectsThroughputRegression() {
+        saveRun("base-1", 1_000_000, 5_000);
+        saveRun("base-2", 1_010_000, 5_100);
+        saveRun("base-3", 990_000, 4_900);
+        saveRun("cand-1", 800_000, 9_000);
+        saveRun("cand-2", 810_000, 9_100);
+        saveRun("cand-3", 790_000, 8_900);
+
+        RunComparisonRequest request = new RunComparisonRequest();
+        request.setBaselineRunIds(Arrays.asList("base-1", "base-2", "base-3"));
+        request.setCandidateRunIds(Arrays.asList("cand-1", "cand-2", "cand-3"));
+        RunComparisonResult result = comparisonService.compare(request);
+
+        assertNull(result.getErrorMessage());
+        assertTrue(result.isRegression());
+        MetricComparison throughput = result.getMetrics().get(0);
+        assertEquals("samplesPerSecond", throughput.getMetric());
+        assertEquals(-20, throughput.getChangePercent(), 0.01);
+        assertTrue(throughput.isSignificant());
+        assertTrue(throughput.isRegression());
+        assertNotNull(throughput.getBaselineCiHalfWidth());
+        assertTrue(result.getCandidatePooledLatency().get("p99") > result.getBaselinePooledLatency().get("p99"));
+    }
+
+    @Test
+    void testSingleTrialsAreNotSignificant() {
+        saveRun("single-base", 1_000_000, 5_000);
+        saveRun("single-cand", 500_000, 5_000);
+
+        RunComparisonRequest request = new RunComparisonRequest();
+        request.setBaselineRunIds(Arrays.asList("single-base"));
+        request.setCandidateRunIds(Arrays.asList("single-cand"));
+        RunComparisonResult result = comparisonService.compare(request);
+
+        assertFalse(result.isRegression());
+        assertNull(result.getMetrics().get(0).getPValue());
+        assertFalse(result.getNotes().isEmpty());
+    }
+
+    @Test
+    void testMemoryComparedOnlyWhenGrowthIsKnown() {
+        saveRun("mem-base-1", 1_000_000, 5_000, 50_000_000.0);
+        saveRun("mem-base-2", 1_000_000, 5_000, null);
+        saveRun("mem-cand-1", 1_000_000, 5_000, 50_000_000.0);
+        saveRun("mem-cand-2", 1_000_000, 5_000, 52_000_000.0);
+
+        RunComparisonRequest request = new RunComparisonRequest();
+        request.setBaselineRunIds(Arrays.asList("mem-base-1", "mem-base-2"));
+        request.setCandidateRunIds(Arrays.asList("mem-cand-1", "mem-cand-2"));
+        RunComparisonResult result = comparisonService.compare(request);
+
+        // 基线中有一次采集失败，内存指标不参与对比，也不会被当成回归
+        assertFalse(result.isRegression());
+        assertTrue(result.getMetrics().stream().noneMatch(m -> "serverMemoryBytesPerSample".equals(m.getMetric())));
+        assertTrue(result.getNotes().stream().anyMatch(note -> note.contains("内存")));
+
+        RunSummary summary = store.loadSummary("mem-cand-2");
+        comparisonService.derive(summary);
+        assertEquals(52.0, summary.getServerMemoryBytesPerSample(), 1e-9);
+        assertNull(store.loadSummary("mem-base-2").getServerMemoryGrowthBytes());
+    }
+
+    @Test
+    void testStudentTQuantile() {
+        assertEquals(2.776, StatisticsUtils.studentTQuantile(0.975, 4), 1e-3);
+        assertEquals(1.960, StatisticsUtils.studentTQuantile(0.975, 100_000), 1e-3);
+    }
+}
@@ -0,0 +1,137 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.BenchmarkScenario;
+import com.brianxiadong.vicmetrbenchmark.model.MetricComparison;
+import com.brianxiadong.vicmetrbenchmark.model.RunComparisonResult;
+import com.brianxiadong.vicmetrbenchmark.model.ScenarioReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScenarioService 的测试类：场景文件解析与阈值判定
+ */
+public class ScenarioServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadYamlScenario() throws IOException {
+        Path file = tempDir.resolve("nightly.yml");
+        Files.write(file, Arrays.asList(
+                "name: nightly",
+                "host: 10.0.0.5",
+                "port: 8428",
+                "properties:",
+                "  benchmark.mock-target.enabled: \"true\"",
+                "trials: 3",
+                "workload:",
+                "  metricPrefix: nightly_metric",
+                "  batchSize: 2000",
+                "  concurrency: 16",
+                "  durationSeconds: 300",
+                "  warmupSeconds: 30",
+                "minWriteRate: 50000",
+                "maxP99Millis: 250",
+                "baselineRunIds: [run-a, run-b]",
+                "unknownField: ignored"), StandardCharsets.UTF_8);
+
+        BenchmarkScenario scenario = ScenarioService.load(file);
+
+        assertEquals("nightly", scenario.getName());
+        assertEquals("10.0.0.5", scenario.getHost());
+        assertEquals(8428, scenario.getPort());
+        assertEquals("true", scenario.getProperties().get("benchmark.mock-target.enabled"));
+        assertEquals(3, scenario.getTrials());
+        assertEquals("nightly_metric", scenario.getWorkload().getMetricPrefix());
+        assertEquals(2000, scenario.getWorkload().getBatchSize());
+        assertEquals(300, scenario.getWorkload().getDurationSeconds());
+        assertEquals(30, scenario.getWorkload().getWarmupSeconds());
+        assertEquals(50000.0, scenario.getMinWriteRate());
+        assertEquals(Arrays.asList("run-a", "run-b"), scenario.getBaselineRunIds());
+    }
+
+    @Test
+    void testLoadJsonScenario() throws IOException {
+        Path file = tempDir.resolve("smoke.json");
+        Files.write(file, ("{\"name\":\"smoke\",\"workload\":{\"dataCount\":10000,\"apiType\":\"influx\"},"
+                + "\"maxErrorRate\":0.01}").getBytes(StandardCharsets.UTF_8));
+
+        BenchmarkScenario scenario = ScenarioService.load(file);
+
+        assertEquals("smoke", scenario.getName());
+        assertEquals(10000L, scenario.getWorkload().getDataCount());
+        assertEquals("influx", scenario.getWorkload().getApiType());
+        assertEquals(0.01, scenario.getMaxErrorRate());
+        assertEquals(1, scenario.getTrials());
+    }
+
+    @Test
+    void testScenarioNameDefaultsToFileName() throws IOException {
+        Path file = tempDir.resolve("nightly-ingest.yaml");
+        Files.write(file, "workload:\n  dataCount: 1000\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("nightly-ingest", ScenarioService.load(file).getName());
+    }
+
+    @Test
+    void testThresholdsDecideExitCode() {
+        BenchmarkScenario scenario = new BenchmarkScenario();
+        scenario.setMinWriteRate(1000.0);
+        scenario.setMaxErrorRate(0.01);
+        scenario.setMaxP99Millis(100.0);
+
+        ScenarioReport passed = report(result(5000, 0, 1000, 50));
+        ScenarioService.evaluate(scenario, passed);
+        assertEquals(ScenarioService.EXIT_PASSED, passed.getExitCode());
+        assertTrue(passed.getViolations().isEmpty());
+
+        ScenarioReport failed = report(result(500, 20, 1000, 150));
+        ScenarioService.evaluate(scenario, failed);
+        assertEquals(ScenarioService.EXIT_REGRESSION, failed.getExitCode());
+        assertEquals(3, failed.getViolations().size());
+    }
+
+    @Test
+    void testBaselineRegressionFailsScenario() {
+        MetricComparison throughput = new MetricComparison();
+        throughput.setMetric("samplesPerSecond");
+        throughput.setChangePercent(-12.5);
+        throughput.setRegression(true);
+        RunComparisonResult comparison = new RunComparisonResult();
+        comparison.setMetrics(Collections.singletonList(throughput));
+
+        ScenarioReport report = report(result(5000, 0, 1000, 50));
+        report.setComparison(comparison);
+        ScenarioService.evaluate(new BenchmarkScenario(), report);
+
+        assertEquals(ScenarioService.EXIT_REGRESSION, report.getExitCode());
+        assertTrue(report.getViolations().get(0).startsWith("samplesPerSecond"));
+    }
+
+    private static ScenarioReport report(BenchmarkResult result) {
+        ScenarioReport report = new ScenarioReport();
+        report.getResults().add(result);
+        return report;
+    }
+
+    private static BenchmarkResult result(double writeRate, long failed, long total, double p99) {
+        BenchmarkResult result = new BenchmarkResult();
+        result.setRunId("run");
+        result.setWriteRate(writeRate);
+        result.setFailedRequests(failed);
+        result.setTotalRequests(total);
+        result.setP99ResponseTimeMillis(p99);
+        return result;
+    }
+}
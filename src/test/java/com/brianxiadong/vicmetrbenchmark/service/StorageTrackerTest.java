@@ -0,0 +1,72 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.model.PartitionStorage;
+import com.brianxiadong.vicmetrbenchmark.model.StorageEfficiency;
+import com.brianxiadong.vicmetrbenchmark.model.StorageSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StorageTracker 的单元测试类
+ */
+public class StorageTrackerTest {
+
+    @Test
+    void testParseGroupsPartitionTypes() {
+        StorageSnapshot snapshot = StorageTracker.parse(metrics(1000, 4000, 500, 100, 300, 20, 2, 35));
+
+        assertEquals(1000 + 10, snapshot.getSmallBytes());
+        assertEquals(4000, snapshot.getBigBytes());
+        assertEquals(500 + 5, snapshot.getIndexdbBytes());
+        assertEquals(100, snapshot.getSmallRows());
+        assertEquals(300, snapshot.getBigRows());
+        assertEquals(20, snapshot.getIndexdbRows());
+        assertEquals(2, snapshot.getActiveMerges());
+        assertEquals(35, snapshot.getPendingRows());
+    }
+
+    @Test
+    void testBytesPerSampleAfterMergeMovesSmallToBig() {
+        StorageSnapshot before = StorageTracker.parse(metrics(1000, 4000, 500, 100, 400, 20, 0, 0));
+        // 压测写入1000个数据点，合并后 small 分区的数据全部进入 big 分区
+        StorageSnapshot after = StorageTracker.parse(metrics(0, 6010, 905, 0, 1500, 60, 0, 0));
+
+        StorageEfficiency efficiency = StorageTracker.compute(before, after, Collections.emptyList(), 60_000, 1000);
+
+        assertEquals(1000, efficiency.getSamplesStored());
+        assertEquals(1.0, efficiency.getBytesPerSample(), 1e-9);
+        assertEquals(1.4, efficiency.getTotalBytesPerSample(), 1e-9);
+        assertEquals(60.0, efficiency.getWireBytesPerSample(), 1e-9);
+        assertEquals(60.0, efficiency.getCompressionRatio(), 1e-9);
+
+        PartitionStorage small = efficiency.getPartitions().get(0);
+        PartitionStorage indexdb = efficiency.getPartitions().get(2);
+        assertEquals("small", small.getPartition());
+        assertEquals(-1010, small.getBytesDelta());
+        assertEquals(400, indexdb.getBytesDelta());
+        assertEquals(10.0, indexdb.getBytesPerRow(), 1e-9);
+        assertEquals(0.4, indexdb.getBytesPerSample(), 1e-9);
+    }
+
+    private static String metrics(long small, long big, long indexdb, long smallRows, long bigRows,
+            long indexdbRows, long merges, long pending) {
+        boolean inmemory = small > 0;
+        return "# HELP vm_data_size_bytes\n"
+                + "vm_data_size_bytes{type=\"storage/inmemory\"} " + (inmemory ? 10 : 0) + "\n"
+                + "vm_data_size_bytes{type=\"storage/small\"} " + small + "\n"
+                + "vm_data_size_bytes{type=\"storage/big\"} " + big + "\n"
+                + "vm_data_size_bytes{type=\"indexdb/inmemory\"} " + (inmemory ? 5 : 0) + "\n"
+                + "vm_data_size_bytes{type=\"indexdb/file\"} " + indexdb + "\n"
+                + "vm_rows{type=\"storage/small\"} " + smallRows + "\n"
+                + "vm_rows{type=\"storage/big\"} " + bigRows + "\n"
+                + "vm_rows{type=\"indexdb/file\"} " + indexdbRows + "\n"
+                + "vm_rows_merged_total{type=\"storage/small\"} 123456\n"
+                + "vm_active_merges{type=\"storage/small\"} " + merges + "\n"
+                + "vm_active_merges{type=\"indexdb/file\"} 0\n"
+                + "vm_pending_rows{type=\"storage\"} " + pending + "\n"
+                + "process_cpu_seconds_total 12.5\n";
+    }
+}
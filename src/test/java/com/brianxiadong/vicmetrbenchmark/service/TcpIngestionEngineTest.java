@@ -0,0 +1,100 @@
+package com.brianxiadong.vicmetrbenchmark.service;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.GraphiteLineEncoder;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBufferPool;
+import com.brianxiadong.vicmetrbenchmark.model.WorkerStats;
+import com.brianxiadong.vicmetrbenchmark.utils.BatchCursor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TcpIngestionEngine 的测试类，用本地 ServerSocket 按行计数代替 Graphite 监听端口
+ */
+public class TcpIngestionEngineTest {
+
+    @Test
+    void testAllSamplesAreWrittenAcrossConnections() throws Exception {
+        AtomicLong lines = new AtomicLong();
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService readers = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(0)) {
+            readers.submit(() -> {
+                while (!server.isClosed()) {
+                    Socket socket = server.accept();
+                    accepted.incrementAndGet();
+                    readers.submit(() -> countLines(socket, lines));
+                }
+                return null;
+            });
+
+            WriteRunState state = new WriteRunState();
+            TcpIngestionEngine engine = new TcpIngestionEngine(
+                    new InetSocketAddress("127.0.0.1", server.getLocalPort()), 40, 2, 3,
+                    new GraphiteLineEncoder("tcp_test"), new PayloadBufferPool(8, 4096, false),
+                    new BatchCursor(20_000, 250), Long.MAX_VALUE, state);
+            engine.run();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lines.get() < 20_000 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(20_000, lines.get());
+            assertEquals(20_000, state.getSuccessSamples().get());
+            assertEquals(40, engine.getConnectionsOpened());
+            assertEquals(40, accepted.get());
+            assertEquals(0, engine.getConnectionsFailed());
+            long perConnection = 0;
+            for (WorkerStats stats : engine.getConnectionStats()) {
+                perConnection += stats.getSuccessSamples();
+            }
+            assertEquals(20_000, perConnection);
+        } finally {
+            readers.shutdownNow();
+            readers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testRefusedConnectionsAreCountedAsFailed() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        WriteRunState state = new WriteRunState();
+        TcpIngestionEngine engine = new TcpIngestionEngine(new InetSocketAddress("127.0.0.1", port), 5, 2, 1,
+                new GraphiteLineEncoder("tcp_test"), new PayloadBufferPool(2, 4096, false),
+                new BatchCursor(1000, 100), Long.MAX_VALUE, state);
+        engine.run();
+
+        assertEquals(0, engine.getConnectionsOpened());
+        assertEquals(5, engine.getConnectionsFailed());
+        assertEquals(0, state.getSuccessSamples().get());
+    }
+
+    private static Void countLines(Socket socket, AtomicLong lines) throws IOException {
+        try (InputStream in = socket.getInputStream()) {
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\n') {
+                        lines.incrementAndGet();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
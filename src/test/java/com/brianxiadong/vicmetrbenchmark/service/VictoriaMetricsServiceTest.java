@@ -1,21 +1,40 @@
 package com.brianxiadong.vicmetrbenchmark.service;
 
 import com.brianxiadong.vicmetrbenchmark.VicMetrBenchmarkApplication;
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkRequest;
 import com.brianxiadong.vicmetrbenchmark.model.BenchmarkResult;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantRequest;
+import com.brianxiadong.vicmetrbenchmark.model.MultiTenantResult;
 import com.brianxiadong.vicmetrbenchmark.model.ServerMetrics;
+import com.brianxiadong.vicmetrbenchmark.model.TenantResult;
+import com.brianxiadong.vicmetrbenchmark.utils.ResponseReader;
 import com.brianxiadong.vicmetrbenchmark.utils.VictoriaMetricsClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import okio.Buffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.TestPropertySource;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -25,13 +44,23 @@ import static org.mockito.Mockito.when;
  */
 @SpringBootTest(classes = VicMetrBenchmarkApplication.class)
 @TestPropertySource(properties = {
-        "spring.main.allow-bean-definition-overriding=true"
+        "spring.main.allow-bean-definition-overriding=true",
+        "benchmark.result-store.dir=target/benchmark-results"
 })
 public class VictoriaMetricsServiceTest {
 
     @Autowired
     private VictoriaMetricsService victoriaMetricsService;
 
+    @Autowired
+    private BenchmarkResultStore resultStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
     @MockBean
     private VictoriaMetricsClient victoriaMetricsClient;
 
@@ -42,7 +71,7 @@ public class VictoriaMetricsServiceTest {
         benchmarkRequest = new BenchmarkRequest();
         benchmarkRequest.setHost("localhost");
         benchmarkRequest.setPort(8428);
-        benchmarkRequest.setDataCount(1000);
+        benchmarkRequest.setDataCount(1000L);
         benchmarkRequest.setBatchSize(100);
         benchmarkRequest.setConcurrency(10);
         benchmarkRequest.setMetricPrefix("test_metric");
@@ -55,9 +84,24 @@ public class VictoriaMetricsServiceTest {
                         "vm_rows_inserted_total{type=\"prometheus\"} 2000");
 
         when(victoriaMetricsClient.query(any())).thenReturn("[]");
+        when(victoriaMetricsClient.query(anyString(), anyMap(), any(ResponseReader.class))).thenAnswer(
+                invocation -> read(invocation, vector(null)));
         when(victoriaMetricsClient.deleteSeries(any())).thenReturn("{}");
     }
 
+    /**
+     * 用真实响应体驱动传入的流式读取器
+     */
+    private static Object read(InvocationOnMock invocation, String body) throws IOException {
+        ResponseReader<?> reader = invocation.getArgument(2);
+        return reader.read(new Buffer().writeUtf8(body));
+    }
+
+    private static String vector(Object value) {
+        return "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                + (value != null ? "{\"metric\":{},\"value\":[0,\"" + value + "\"]}" : "") + "]}}";
+    }
+
     @Test
     void testCollectServerMetrics() {
         BenchmarkResult result = new BenchmarkResult();
@@ -87,9 +131,156 @@ public class VictoriaMetricsServiceTest {
         assertTrue(count >= 0);
     }
 
+    @Test
+    void testQueryDataCountUsesTsdbStatus() throws IOException {
+        when(victoriaMetricsClient.tsdbStatus(anyMap())).thenReturn(
+                "{\"status\":\"success\",\"data\":{\"totalSeries\":42,\"seriesCountByMetricName\":[]}}");
+        assertEquals(42, victoriaMetricsService.queryDataCount(benchmarkRequest));
+    }
+
     @Test
     void testDeleteTestData() {
         boolean success = victoriaMetricsService.deleteTestData(benchmarkRequest);
         assertTrue(success);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRunBenchmarkWritesExactDataCount() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        benchmarkRequest.setDataCount(1050L);
+
+        BenchmarkResult result = victoriaMetricsService.runBenchmark(benchmarkRequest);
+
+        assertEquals(1050, result.getSuccessRequests());
+        assertEquals(0, result.getFailedRequests());
+        assertEquals(10, result.getWorkerStats().size());
+        assertEquals(1050, result.getWorkerStats().stream().mapToLong(w -> w.getSuccessSamples()).sum());
+    }
+
+    @Test
+    void testMultiTenantRunsAreRateLimitedPerTenant() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        MultiTenantRequest request = new MultiTenantRequest();
+        request.setDurationSeconds(2L);
+        request.getTenants().add(tenant("1", 2000.0));
+        request.getTenants().add(tenant("2:5", 8000.0));
+
+        MultiTenantResult result = multiTenantService.run(request);
+
+        assertNull(result.getErrorMessage());
+        assertEquals(2, result.getTenants().size());
+        // 每个线程的令牌桶允许1秒突发，2秒内最多写入 速率 × 3
+        TenantResult limited = result.getTenants().get(0);
+        assertEquals("1", limited.getTenant());
+        assertTrue(limited.getSuccessSamples() >= 2000 && limited.getSuccessSamples() <= 6000);
+        assertTrue(result.getTenants().get(1).getSuccessSamples() > limited.getSuccessSamples());
+        assertNotNull(result.getFairnessIndex());
+        verify(victoriaMetricsClient, atLeastOnce()).writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(),
+                eq("2:5"), any());
+
+        request.getTenants().add(tenant("1", 100.0));
+        assertNotNull(multiTenantService.run(request).getErrorMessage());
+    }
+
+    private static BenchmarkRequest tenant(String accountId, double samplesPerSecond) {
+        BenchmarkRequest tenant = new BenchmarkRequest();
+        tenant.setTenant(accountId);
+        tenant.setSamplesPerSecond(samplesPerSecond);
+        tenant.setBatchSize(100);
+        tenant.setConcurrency(2);
+        tenant.setMetricPrefix("tenant_" + accountId.replace(':', '_'));
+        return tenant;
+    }
+
+    @Test
+    void testDurationModeRunsUntilDeadline() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        benchmarkRequest.setDataCount(null);
+        benchmarkRequest.setDurationSeconds(1L);
+
+        BenchmarkResult result = victoriaMetricsService.runBenchmark(benchmarkRequest);
+
+        assertEquals("completed", result.getStatus());
+        assertTrue(result.getSuccessRequests() > 0);
+        assertTrue(result.getTotalTimeMillis() >= 1000);
+    }
+
+    @Test
+    void testResumeContinuesFromCheckpoint() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        benchmarkRequest.setRunId("resume-test");
+        WriteRunState state = new WriteRunState();
+        state.getSuccessSamples().set(600);
+        state.getLatency().record(1000);
+        resultStore.saveCheckpoint(state.toCheckpoint(benchmarkRequest, System.currentTimeMillis() - 5000, 5000));
+
+        BenchmarkResult result = victoriaMetricsService.resumeBenchmark("resume-test");
+
+        assertEquals(1000, result.getSuccessRequests());
+        assertEquals(1, result.getResumeCount());
+        assertTrue(result.getTotalTimeMillis() >= 5000);
+        assertNull(resultStore.loadCheckpoint("resume-test"));
+        assertNotNull(resultStore.load("resume-test"));
+    }
+
+    @Test
+    void testHarnessMetricsTrackRun() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        double samplesBefore = meterRegistry.get("harness.samples").tag("result", "success").functionCounter().count();
+        double bytesBefore = meterRegistry.get("harness.payload.bytes").functionCounter().count();
+
+        BenchmarkResult result = victoriaMetricsService.runBenchmark(benchmarkRequest);
+
+        double samples = meterRegistry.get("harness.samples").tag("result", "success").functionCounter().count();
+        double bytes = meterRegistry.get("harness.payload.bytes").functionCounter().count();
+        assertEquals(1000, samples - samplesBefore);
+        assertEquals(result.getPayloadBytes(), bytes - bytesBefore);
+        assertEquals(0, meterRegistry.get("harness.requests.inflight").gauge().value());
+        assertEquals(0, meterRegistry.get("harness.runs.active").gauge().value());
+    }
+
+    @Test
+    void testJfrRecordingAttachedToResult() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        benchmarkRequest.setRunId("jfr-test");
+        benchmarkRequest.setJfrRecording(true);
+
+        BenchmarkResult result = victoriaMetricsService.runBenchmark(benchmarkRequest);
+
+        assertNotNull(result.getJfrRecordingFile());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(Paths.get(result.getJfrRecordingFile()));
+        long batchEvents = events.stream()
+                .filter(e -> "vicmetr.BatchSend".equals(e.getEventType().getName()))
+                .count();
+        assertEquals(10, batchEvents);
+        assertTrue(events.stream().anyMatch(e -> "vicmetr.Scrape".equals(e.getEventType().getName())));
+    }
+
+    @Test
+    void testFreshnessProbeMeasuresVisibility() throws IOException {
+        when(victoriaMetricsClient.writeData(any(PayloadBuffer.class), any(), anyMap(), anyBoolean(), any(), any())).thenReturn("");
+        // 模拟目标：标记写入后立即可见，查询返回最新写入的序号
+        AtomicLong lastMarker = new AtomicLong(-1);
+        when(victoriaMetricsClient.writeData(anyString(), eq("prometheus"))).thenAnswer(invocation -> {
+            String line = invocation.getArgument(0);
+            lastMarker.set(Long.parseLong(line.split(" ")[1]));
+            return "";
+        });
+        when(victoriaMetricsClient.query(anyString(), anyMap(), any(ResponseReader.class))).thenAnswer(
+                invocation -> read(invocation, vector(lastMarker.get())));
+        benchmarkRequest.setDataCount(null);
+        benchmarkRequest.setDurationSeconds(1L);
+        benchmarkRequest.setFreshnessProbe(true);
+        benchmarkRequest.setFreshnessIntervalMillis(100);
+        benchmarkRequest.setFreshnessPollMillis(10);
+
+        BenchmarkResult result = victoriaMetricsService.runBenchmark(benchmarkRequest);
+
+        assertNotNull(result.getFreshness());
+        assertTrue(result.getFreshness().getMarkersVisible() > 0);
+        assertEquals(0, result.getFreshness().getMarkersTimedOut());
+        assertFalse(result.getFreshness().getLevels().isEmpty());
+        assertEquals(0, FreshnessProbe.levelOf(0));
+        assertEquals(5_000, FreshnessProbe.levelLowerBound(FreshnessProbe.levelOf(7_500)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdaptiveConcurrencyLimiter 的单元测试类
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long STABLE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 64, 2.0);
+        for (int i = 0; i < 2000; i++) {
+            saturate(limiter);
+            drain(limiter, STABLE_RTT);
+        }
+        assertTrue(limiter.getLimit() > 4);
+        assertEquals(0, limiter.getDecreaseCount());
+    }
+
+    @Test
+    void testOverloadCutsLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(32, 1, 64, 2.0);
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter);
+            int inFlight = limiter.getInFlight();
+            for (int j = 0; j < inFlight; j++) {
+                limiter.onOverload();
+            }
+        }
+        assertTrue(limiter.getLimit() < 32);
+        assertTrue(limiter.getDecreaseCount() > 0);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testLatencyInflationCutsLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 1, 64, 2.0);
+        saturate(limiter);
+        drain(limiter, STABLE_RTT);
+        int before = limiter.getLimit();
+        for (int i = 0; i < 50; i++) {
+            saturate(limiter);
+            drain(limiter, STABLE_RTT * 10);
+        }
+        assertTrue(limiter.getLimit() < before);
+        assertTrue(limiter.getLimit() >= 1);
+    }
+
+    private void saturate(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        while (limiter.getInFlight() < limiter.getLimit()) {
+            limiter.acquire();
+        }
+    }
+
+    private void drain(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int inFlight = limiter.getInFlight();
+        for (int j = 0; j < inFlight; j++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.QueryResponseStats;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryResponseReader 的测试类
+ */
+public class QueryResponseReaderTest {
+
+    private static final String SERIES_A = "{\"metric\":{\"__name__\":\"m\",\"id\":\"a\"},"
+            + "\"values\":[[1700000000,\"1\"],[1700000015,\"2\"],[1700000030,\"3\"]]}";
+    private static final String SERIES_B = "{\"metric\":{\"__name__\":\"m\",\"id\":\"b\"},"
+            + "\"values\":[[1700000000,\"4\"],[1700000015,\"5\"]]}";
+
+    private QueryResponseStats read(String body, boolean checksum) throws IOException {
+        return new QueryResponseReader(checksum).read(new Buffer().writeUtf8(body));
+    }
+
+    private String matrix(String... series) {
+        return "{\"status\":\"success\",\"isPartial\":false,\"data\":{\"resultType\":\"matrix\",\"result\":["
+                + String.join(",", series) + "]},\"stats\":{\"seriesFetched\":\"2\"}}";
+    }
+
+    @Test
+    void testMatrixCountsAndOrderIndependentChecksum() throws IOException {
+        String body = matrix(SERIES_A, SERIES_B);
+        QueryResponseStats stats = read(body, true);
+
+        assertTrue(stats.isSuccess());
+        assertEquals("matrix", stats.getResultType());
+        assertEquals(2, stats.getSeries());
+        assertEquals(5, stats.getSamples());
+        assertEquals(1.0, stats.getFirstValue());
+        assertEquals(body.length(), stats.getBytes());
+        assertEquals(stats.getChecksum(), read(matrix(SERIES_B, SERIES_A), true).getChecksum());
+        assertNotEquals(stats.getChecksum(), read(matrix(SERIES_A, SERIES_B.replace("\"5\"", "\"6\"")), true)
+                .getChecksum());
+        assertNull(read(body, false).getChecksum());
+    }
+
+    @Test
+    void testScalarErrorAndArrayResponses() throws IOException {
+        QueryResponseStats scalar = read("{\"status\":\"success\",\"data\":{\"resultType\":\"scalar\","
+                + "\"result\":[1700000000,\"42\"]}}", false);
+        assertEquals(0, scalar.getSeries());
+        assertEquals(1, scalar.getSamples());
+        assertEquals(42.0, scalar.getFirstValue());
+
+        QueryResponseStats error = read("{\"status\":\"error\",\"errorType\":\"bad_data\","
+                + "\"error\":\"cannot parse query\"}", false);
+        assertFalse(error.isSuccess());
+        assertEquals("bad_data", error.getErrorType());
+        assertEquals("cannot parse query", error.getError());
+
+        QueryResponseStats count = read("{\"status\":\"success\",\"data\":[12345]}", false);
+        assertEquals(12345.0, count.getFirstValue());
+        assertEquals(1, count.getSeries());
+    }
+}
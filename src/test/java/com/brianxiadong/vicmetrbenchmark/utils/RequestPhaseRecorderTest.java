@@ -0,0 +1,102 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.encoder.PayloadBuffer;
+import com.brianxiadong.vicmetrbenchmark.mock.MockVictoriaMetricsServer;
+import com.brianxiadong.vicmetrbenchmark.model.MockTargetConfig;
+import com.brianxiadong.vicmetrbenchmark.model.PhaseLatency;
+import com.brianxiadong.vicmetrbenchmark.model.RequestPhaseStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestPhaseRecorder 的测试类
+ */
+public class RequestPhaseRecorderTest {
+
+    private MockVictoriaMetricsServer server;
+    private VictoriaMetricsClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockTargetConfig config = new MockTargetConfig();
+        config.setLatencyDistribution("fixed");
+        config.setLatencyMillis(20.0);
+        server = new MockVictoriaMetricsServer(config);
+        server.start();
+        client = new VictoriaMetricsClient("127.0.0.1", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testRequestPhasesAndConnectionReuse() throws IOException {
+        client.startRequestPhases("run-a");
+
+        write("run-a", 5);
+        RequestPhaseStats stats = client.finishRequestPhases("run-a");
+
+        assertEquals(5, stats.getCalls());
+        assertEquals(0, stats.getFailedCalls());
+        // 第一次请求新建连接，之后复用连接池中的连接
+        assertEquals(5, stats.getConnectionsAcquired());
+        assertEquals(4, stats.getConnectionsReused());
+        assertEquals(0.8, stats.getConnectionReuseRate(), 1e-9);
+        Map<String, PhaseLatency> phases = new HashMap<>();
+        for (PhaseLatency phase : stats.getPhases()) {
+            phases.put(phase.getPhase(), phase);
+        }
+        assertEquals(1, phases.get("connect").getCount());
+        assertEquals(5, phases.get("ttfb").getCount());
+        // 模拟的服务端延迟体现在首字节阶段
+        assertTrue(phases.get("ttfb").getP50Millis() >= 15);
+        assertTrue(phases.get("total").getP50Millis() >= phases.get("ttfb").getP50Millis());
+        assertNull(client.finishRequestPhases("run-a"));
+    }
+
+    @Test
+    void testConcurrentRunsAreCountedSeparately() throws IOException {
+        client.startRequestPhases("run-a");
+        client.startRequestPhases("run-b");
+
+        CompletableFuture<Void> runA = CompletableFuture.runAsync(() -> write("run-a", 20));
+        CompletableFuture<Void> runB = CompletableFuture.runAsync(() -> write("run-b", 10));
+        // 未标记运行的请求（探测、采样等）不计入任何运行
+        client.writeData("probe 1\n", "prometheus");
+        write(null, 3);
+        runA.join();
+        // run-a 结束后 run-b 的统计不受影响
+        RequestPhaseStats a = client.finishRequestPhases("run-a");
+        runB.join();
+        write("run-a", 2);
+        RequestPhaseStats b = client.finishRequestPhases("run-b");
+
+        assertEquals(20, a.getCalls());
+        assertEquals(20, a.getConnectionsAcquired());
+        assertEquals(10, b.getCalls());
+        assertEquals(10, b.getConnectionsAcquired());
+    }
+
+    private void write(String runId, int calls) {
+        PayloadBuffer payload = new PayloadBuffer(64, false);
+        payload.putAscii("phase_test 1\n");
+        try {
+            for (int i = 0; i < calls; i++) {
+                client.writeData(payload, "prometheus", Collections.emptyMap(), false, null, runId);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
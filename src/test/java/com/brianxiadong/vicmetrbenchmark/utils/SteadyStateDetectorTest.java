@@ -0,0 +1,57 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.SteadyStateWindow;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SteadyStateDetector 的单元测试类
+ */
+public class SteadyStateDetectorTest {
+
+    @Test
+    void testRampAndTailAreExcluded() {
+        // 前3秒爬坡，中间12秒稳定在1000左右，随后2秒线程陆续退出，最后一秒不完整
+        long[] samples = {100, 400, 700, 1000, 1010, 990, 1000, 1005, 995, 1000, 1010, 990, 1000, 1000, 1000,
+                500, 200, 50};
+        SteadyStateWindow window = SteadyStateDetector.detect(series(samples), 0, 5, 0.05);
+
+        assertTrue(window.isDetected());
+        assertEquals(3, window.getStartSecond());
+        assertEquals(15, window.getEndSecond());
+        assertEquals(12000, window.getSamples());
+        assertEquals(1000.0, window.getSamplesPerSecond(), 0.001);
+        assertEquals(1_000_000L + 3000, window.getStartTimestamp());
+        assertTrue(window.getCoefficientOfVariation() < 0.05);
+    }
+
+    @Test
+    void testUnstableSeriesIsNotDetected() {
+        long[] samples = {100, 900, 200, 800, 300, 700, 100, 900, 200, 800, 0};
+        SteadyStateWindow window = SteadyStateDetector.detect(series(samples), 0, 4, 0.1);
+
+        assertFalse(window.isDetected());
+        assertEquals(-1, window.getStartSecond());
+    }
+
+    @Test
+    void testDetectionStartsAfterWarmup() {
+        long[] samples = {1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 10};
+        SteadyStateWindow window = SteadyStateDetector.detect(series(samples), 4, 3, 0.1);
+
+        assertTrue(window.isDetected());
+        assertEquals(4, window.getStartSecond());
+        assertEquals(10, window.getEndSecond());
+    }
+
+    private static TimelineSeries series(long[] samples) {
+        TimelineSeries series = new TimelineSeries();
+        series.setStartTimestamp(1_000_000L);
+        series.setSamples(samples);
+        series.setRequests(new long[samples.length]);
+        series.setErrors(new long[samples.length]);
+        return series;
+    }
+}
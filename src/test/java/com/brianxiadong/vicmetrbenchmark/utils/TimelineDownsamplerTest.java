@@ -0,0 +1,69 @@
+package com.brianxiadong.vicmetrbenchmark.utils;
+
+import com.brianxiadong.vicmetrbenchmark.model.ChartSeries;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineChart;
+import com.brianxiadong.vicmetrbenchmark.model.TimelineSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimelineDownsampler 与 RunTimeline 每秒延迟的测试类
+ */
+public class TimelineDownsamplerTest {
+
+    @Test
+    void testLttbKeepsEndpointsAndStall() {
+        int[] x = new int[3600];
+        double[] y = new double[3600];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            y[i] = 10000 + (i % 7);
+        }
+        // 一小时运行中间停顿30秒
+        for (int i = 1800; i < 1830; i++) {
+            y[i] = 0;
+        }
+
+        int[] selected = TimelineDownsampler.lttb(x, y, 200);
+
+        assertEquals(200, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(3599, selected[199]);
+        boolean stallKept = false;
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1]);
+            stallKept |= y[selected[i]] == 0;
+        }
+        assertTrue(stallKept);
+        assertEquals(5, TimelineDownsampler.lttb(new int[5], new double[5], 200).length);
+    }
+
+    @Test
+    void testPerSecondLatencyAndChart() {
+        RunTimeline timeline = new RunTimeline(0);
+        for (int i = 0; i < 99; i++) {
+            timeline.recordLatency(500, 1000);
+        }
+        timeline.recordLatency(900, 100000);
+        timeline.recordBatch(900, 100, true);
+        timeline.recordBatch(2500, 100, false);
+
+        // 分桶上界的相对误差不超过25%
+        assertEquals(1000, timeline.latencyPercentileAt(0, 50), 250);
+        assertEquals(100000, timeline.latencyPercentileAt(0, 100), 25000);
+        assertEquals(1990.0, timeline.meanLatencyAt(0), 1e-9);
+        assertEquals(-1, timeline.latencyPercentileAt(1, 50));
+
+        TimelineSeries series = timeline.toSeries();
+        assertEquals(3, series.getSamples().length);
+        assertEquals(-1, series.getP99Millis()[2]);
+        TimelineChart chart = TimelineDownsampler.chart("run", series, 800);
+        assertEquals(3, chart.getTotalSeconds());
+        ChartSeries p99 = chart.getSeries().stream().filter(s -> "p99Millis".equals(s.getName())).findFirst().get();
+        // 没有延迟记录的秒不出现在曲线中
+        assertArrayEquals(new int[] { 0 }, p99.getSeconds());
+        ChartSeries errors = chart.getSeries().stream().filter(s -> "errors".equals(s.getName())).findFirst().get();
+        assertArrayEquals(new double[] { 0, 0, 1 }, errors.getValues());
+    }
+}